@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.io.InputStream;
+
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * Fixed benchmark corpus. Named entries are read from the test and benchmark
+ * resources; synthetic entries are generated with a fixed seed, so every run
+ * reasons over exactly the same axioms.
+ */
+public enum Corpus {
+    /** wine ontology */
+    WINE("/wine.fss"),
+    /** miniTambis */
+    MINI_TAMBIS("/AF_miniTambis.owl.xml"),
+    /** OWL-S */
+    OWLS("/AF_OWLS.owl.xml"),
+    /** university example, also used in VerifyComplianceUniversityTestCase */
+    UNIVERSITY("/benchmarks/university.fss"),
+    /** people example, also used in VerifyCompliancePeopleTestCase */
+    PEOPLE("/benchmarks/people.fss"),
+    /** generated TBox: definitions, existential chains and disjunctions */
+    SYNTHETIC_TBOX(null) {
+
+        @Override
+        public OWLOntology load(OWLOntologyManager m) throws OWLOntologyCreationException {
+            return new SyntheticOntologies(m, SEED).tbox(500);
+        }
+    },
+    /** generated ABox over a small generated TBox */
+    SYNTHETIC_ABOX(null) {
+
+        @Override
+        public OWLOntology load(OWLOntologyManager m) throws OWLOntologyCreationException {
+            return new SyntheticOntologies(m, SEED).abox(100, 2000);
+        }
+    };
+
+    static final long SEED = 20110131L;
+    private final String resource;
+
+    private Corpus(String resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * @param m
+     *        manager to load the ontology into
+     * @return the ontology for this corpus entry
+     * @throws OWLOntologyCreationException
+     *         if the resource cannot be parsed
+     */
+    public OWLOntology load(OWLOntologyManager m) throws OWLOntologyCreationException {
+        InputStream in = Corpus.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new OWLOntologyCreationException("Missing benchmark resource " + resource);
+        }
+        return m.loadOntologyFromOntologyDocument(in);
+    }
+}
@@ -0,0 +1,121 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.JFactFactory;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * End to end reasoner benchmarks over the fixed {@link Corpus}. Every
+ * invocation gets a fresh reasoner built outside of the measured region;
+ * {@link #load} measures building it, i.e., translating the axioms into the
+ * kernel. Preprocessing happens lazily and is part of {@link #consistency}, as
+ * well as of classification and realisation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2G" })
+public class ReasonerBenchmark {
+
+    @Param
+    Corpus corpus;
+    OWLOntology ontology;
+    final JFactFactory factory = new JFactFactory();
+
+    /**
+     * @throws OWLOntologyCreationException
+     *         if the corpus entry cannot be loaded
+     */
+    @Setup(Level.Trial)
+    public void loadOntology() throws OWLOntologyCreationException {
+        ontology = corpus.load(OWLManager.createOWLOntologyManager());
+    }
+
+    OWLReasoner createReasoner() {
+        return factory.createReasoner(ontology, new JFactReasonerConfiguration());
+    }
+
+    /** Reasoner built outside of the measured region. */
+    @State(Scope.Thread)
+    public static class FreshReasoner {
+
+        OWLReasoner reasoner;
+
+        /**
+         * @param b
+         *        benchmark state holding the ontology
+         */
+        @Setup(Level.Invocation)
+        public void create(ReasonerBenchmark b) {
+            reasoner = b.createReasoner();
+        }
+
+        /** release the reasoner, so that it stops listening to the manager */
+        @TearDown(Level.Invocation)
+        public void dispose() {
+            reasoner.dispose();
+        }
+    }
+
+    /** @return reasoner with the axioms translated into the kernel */
+    @Benchmark
+    public OWLReasoner load() {
+        OWLReasoner r = createReasoner();
+        r.dispose();
+        return r;
+    }
+
+    /**
+     * @param r
+     *        fresh reasoner
+     * @return consistency
+     */
+    @Benchmark
+    public boolean consistency(FreshReasoner r) {
+        return r.reasoner.isConsistent();
+    }
+
+    /**
+     * @param r
+     *        fresh reasoner
+     * @return reasoner after classification
+     */
+    @Benchmark
+    public OWLReasoner classification(FreshReasoner r) {
+        r.reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        return r.reasoner;
+    }
+
+    /**
+     * @param r
+     *        fresh reasoner
+     * @return reasoner after realisation
+     */
+    @Benchmark
+    public OWLReasoner realisation(FreshReasoner r) {
+        r.reasoner.precomputeInferences(InferenceType.CLASS_ASSERTIONS);
+        return r.reasoner;
+    }
+}
@@ -0,0 +1,140 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * Seeded generator for TBoxes and ABoxes of a given size. The shape is meant
+ * to exercise the tableau rather than to be realistic: a told hierarchy with
+ * defined concepts on top (so that classification has to run real subsumption
+ * tests), existential chains over a role hierarchy with a transitive role, and
+ * disjunctions that force branching.
+ */
+public class SyntheticOntologies {
+
+    private static final String NS = "urn:synthetic#";
+    private static final int ROLES = 8;
+    private final OWLOntologyManager m;
+    private final OWLDataFactory df;
+    private final Random random;
+
+    /**
+     * @param m
+     *        manager to create the ontologies in
+     * @param seed
+     *        random seed
+     */
+    public SyntheticOntologies(OWLOntologyManager m, long seed) {
+        this.m = m;
+        df = m.getOWLDataFactory();
+        random = new Random(seed);
+    }
+
+    /**
+     * @param classes
+     *        number of named classes
+     * @return generated TBox
+     * @throws OWLOntologyCreationException
+     *         if the ontology cannot be created
+     */
+    public OWLOntology tbox(int classes) throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology(IRI.create("urn:synthetic:tbox" + classes));
+        List<OWLAxiom> axioms = new ArrayList<>();
+        addTBox(axioms, classes, roles(axioms));
+        o.add(axioms);
+        return o;
+    }
+
+    /**
+     * @param classes
+     *        number of named classes in the TBox part
+     * @param individuals
+     *        number of individuals
+     * @return generated ABox with its TBox
+     * @throws OWLOntologyCreationException
+     *         if the ontology cannot be created
+     */
+    public OWLOntology abox(int classes, int individuals) throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology(IRI.create("urn:synthetic:abox" + classes + '_' + individuals));
+        List<OWLAxiom> axioms = new ArrayList<>();
+        List<OWLObjectProperty> roles = roles(axioms);
+        List<OWLClass> named = addTBox(axioms, classes, roles);
+        List<OWLNamedIndividual> inds = new ArrayList<>(individuals);
+        for (int i = 0; i < individuals; i++) {
+            OWLNamedIndividual a = df.getOWLNamedIndividual(IRI.create(NS + "a" + i));
+            inds.add(a);
+            axioms.add(df.getOWLClassAssertionAxiom(pick(named), a));
+            if (i > 0) {
+                // mostly local edges, so that the ABox splits into many
+                // medium-sized connected components
+                int target = Math.max(0, i - 1 - random.nextInt(Math.min(i, 20)));
+                axioms.add(df.getOWLObjectPropertyAssertionAxiom(pick(roles), a, inds.get(target)));
+            }
+        }
+        o.add(axioms);
+        return o;
+    }
+
+    private List<OWLObjectProperty> roles(List<OWLAxiom> axioms) {
+        List<OWLObjectProperty> roles = new ArrayList<>(ROLES);
+        for (int i = 0; i < ROLES; i++) {
+            OWLObjectProperty r = df.getOWLObjectProperty(IRI.create(NS + "r" + i));
+            roles.add(r);
+            if (i > 0) {
+                axioms.add(df.getOWLSubObjectPropertyOfAxiom(r, roles.get(random.nextInt(i))));
+            }
+        }
+        axioms.add(df.getOWLTransitiveObjectPropertyAxiom(roles.get(0)));
+        return roles;
+    }
+
+    private List<OWLClass> addTBox(List<OWLAxiom> axioms, int size, List<OWLObjectProperty> roles) {
+        List<OWLClass> classes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            OWLClass c = df.getOWLClass(IRI.create(NS + "C" + i));
+            classes.add(c);
+            if (i == 0) {
+                continue;
+            }
+            OWLClass parent = classes.get(random.nextInt(i));
+            switch (i % 5) {
+                case 0:
+                    // defined concept: parent and some r.D
+                    axioms.add(df.getOWLEquivalentClassesAxiom(c, df.getOWLObjectIntersectionOf(parent, df
+                        .getOWLObjectSomeValuesFrom(pick(roles), classes.get(random.nextInt(i))))));
+                    break;
+                case 1:
+                    // branching
+                    axioms.add(df.getOWLSubClassOfAxiom(c, df.getOWLObjectUnionOf(parent, classes.get(random
+                        .nextInt(i)))));
+                    break;
+                case 2:
+                    axioms.add(df.getOWLSubClassOfAxiom(c, parent));
+                    axioms.add(df.getOWLSubClassOfAxiom(c, df.getOWLObjectAllValuesFrom(pick(roles), classes.get(
+                        random.nextInt(i)))));
+                    break;
+                default:
+                    axioms.add(df.getOWLSubClassOfAxiom(c, parent));
+                    axioms.add(df.getOWLSubClassOfAxiom(c, df.getOWLObjectSomeValuesFrom(pick(roles), classes.get(
+                        random.nextInt(i)))));
+                    break;
+            }
+        }
+        return classes;
+    }
+
+    private <T> T pick(List<T> l) {
+        return l.get(random.nextInt(l.size()));
+    }
+}
@@ -0,0 +1,339 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.JFactFactory;
+import uk.ac.manchester.cs.jfact.dep.DepSet;
+import uk.ac.manchester.cs.jfact.kernel.DagTag;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Sequence of tableau operations recorded from a real DlSatTester run. The
+ * trace is extracted from the reasoner's own log (the FaCT++ style trace
+ * printed when logging is active), so recording needs no hooks in the
+ * reasoner: every {@code +(node,concept{deps})} is a label addition and a
+ * to-do entry, every {@code [(node,concept{deps})} is an entry taken from the
+ * to-do list, {@code ss}/{@code sr} are branching saves and restores, and
+ * {@code SaveNode}/{@code RestNode} are per node label saves and restores.
+ */
+public class TableauTrace {
+
+    /** start of a new satisfiability or subsumption test */
+    public static final byte BEGIN = 0;
+    /** concept added to a node label and to the to-do list */
+    public static final byte ADD = 1;
+    /** to-do entry processed */
+    public static final byte ENTRY = 2;
+    /** clash found */
+    public static final byte CLASH = 3;
+    /** branching point saved; level in {@link #level(int)} */
+    public static final byte SAVE = 4;
+    /** branching point restored; level in {@link #level(int)} */
+    public static final byte RESTORE = 5;
+    /** node label saved; level in {@link #level(int)} */
+    public static final byte SAVE_NODE = 6;
+    /** node label restored; level in {@link #level(int)} */
+    public static final byte RESTORE_NODE = 7;
+    private static final Pattern TOKENS = Pattern.compile("(Checking s)"
+        + "|( \\+| x|\\[)\\((\\d+)[a-z\\d]*,(-?\\d+)(?:\\{\\{([\\d,]*)\\}\\})?\\)(?:\\{~?([^(}]+))?"
+        + "| (ss|sr)\\((\\d+)\\)" + "|(SaveNode|RestNode)\\((\\d+)\\[\\d+\\],(\\d+)\\)");
+    private static final int[] NO_DEPS = new int[0];
+    private int size;
+    private byte[] ops = new byte[1024];
+    private int[] nodes = new int[1024];
+    private int[] values = new int[1024];
+    private int[] deps = new int[1024];
+    private final List<int[]> depSets = new ArrayList<>();
+    private final Map<IntArrayKey, Integer> depIndex = new HashMap<>();
+    private final Map<Integer, DagTag> tags = new HashMap<>();
+    private int lastMatchEnd;
+
+    protected TableauTrace() {
+        intern(NO_DEPS);
+    }
+
+    /**
+     * Classify the corpus entry with logging on, and record up to maxEvents
+     * operations.
+     *
+     * @param corpus
+     *        ontology to classify
+     * @param maxEvents
+     *        maximum number of events to record
+     * @return the trace
+     * @throws OWLOntologyCreationException
+     *         if the corpus entry cannot be loaded
+     */
+    public static TableauTrace record(Corpus corpus, int maxEvents) throws OWLOntologyCreationException {
+        TableauTrace trace = new TableauTrace();
+        LogParser parser = new LogParser(trace, maxEvents);
+        JFactReasonerConfiguration config = new JFactReasonerConfiguration().setLoggingActive(true)
+            .setRegularLogOutputStream(parser);
+        OWLReasoner reasoner = new JFactFactory().createReasoner(corpus.load(OWLManager.createOWLOntologyManager()),
+            config);
+        try {
+            reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            parser.flush();
+        } catch (TraceFull e) {
+            // enough events
+        } finally {
+            reasoner.dispose();
+        }
+        return trace;
+    }
+
+    /** @return number of events */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i
+     *        event index
+     * @return event type
+     */
+    public byte op(int i) {
+        return ops[i];
+    }
+
+    /**
+     * @param i
+     *        event index
+     * @return completion graph node id; -1 for events without a node
+     */
+    public int node(int i) {
+        return nodes[i];
+    }
+
+    /**
+     * @param i
+     *        event index
+     * @return concept (DAG index, negative for negated concepts)
+     */
+    public int concept(int i) {
+        return values[i];
+    }
+
+    /**
+     * @param i
+     *        event index
+     * @return branching level for save and restore events
+     */
+    public int level(int i) {
+        return values[i];
+    }
+
+    /**
+     * @param i
+     *        event index
+     * @return index of the dependency set, see {@link #depSet(int)}; 0 is the
+     *         empty set
+     */
+    public int deps(int i) {
+        return deps[i];
+    }
+
+    /** @return number of distinct dependency sets in the trace */
+    public int depSetCount() {
+        return depSets.size();
+    }
+
+    /**
+     * @param index
+     *        dependency set index
+     * @return a fresh DepSet with the recorded branching levels
+     */
+    public DepSet depSet(int index) {
+        int[] values = depSets.get(index);
+        if (values.length == 0) {
+            return DepSet.create();
+        }
+        return DepSet.create(RoaringBitmap.bitmapOf(values));
+    }
+
+    /**
+     * @param concept
+     *        concept
+     * @return DAG tag of the concept, as seen in the processed entries;
+     *         PCONCEPT if the concept was never processed
+     */
+    public DagTag tag(int concept) {
+        return tags.getOrDefault(Integer.valueOf(Math.abs(concept)), DagTag.PCONCEPT);
+    }
+
+    /** @return highest node id in the trace */
+    public int maxNode() {
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, nodes[i]);
+        }
+        return max;
+    }
+
+    protected void add(byte op, int node, int value, int dep) {
+        if (size == ops.length) {
+            int newSize = size * 2;
+            ops = Arrays.copyOf(ops, newSize);
+            nodes = Arrays.copyOf(nodes, newSize);
+            values = Arrays.copyOf(values, newSize);
+            deps = Arrays.copyOf(deps, newSize);
+        }
+        ops[size] = op;
+        nodes[size] = node;
+        values[size] = value;
+        deps[size] = dep;
+        size++;
+    }
+
+    protected int intern(int[] levels) {
+        IntArrayKey key = new IntArrayKey(levels);
+        Integer index = depIndex.get(key);
+        if (index == null) {
+            index = Integer.valueOf(depSets.size());
+            depSets.add(levels);
+            depIndex.put(key, index);
+        }
+        return index.intValue();
+    }
+
+    protected void parse(CharSequence text) {
+        Matcher m = TOKENS.matcher(text);
+        int end = 0;
+        while (m.find()) {
+            end = m.end();
+            if (m.group(1) != null) {
+                add(BEGIN, -1, 0, 0);
+            } else if (m.group(2) != null) {
+                String kind = m.group(2);
+                int node = Integer.parseInt(m.group(3));
+                int concept = Integer.parseInt(m.group(4));
+                int dep = m.group(5) == null ? 0 : intern(parseLevels(m.group(5)));
+                if ("[".equals(kind)) {
+                    add(ENTRY, node, concept, dep);
+                    if (m.group(6) != null) {
+                        DagTag tag = tagByName(m.group(6));
+                        if (tag != null) {
+                            tags.put(Integer.valueOf(Math.abs(concept)), tag);
+                        }
+                    }
+                } else {
+                    add(" +".equals(kind) ? ADD : CLASH, node, concept, dep);
+                }
+            } else if (m.group(7) != null) {
+                add("ss".equals(m.group(7)) ? SAVE : RESTORE, -1, Integer.parseInt(m.group(8)), 0);
+            } else {
+                add("SaveNode".equals(m.group(9)) ? SAVE_NODE : RESTORE_NODE, Integer.parseInt(m.group(10)), Integer
+                    .parseInt(m.group(11)), 0);
+            }
+        }
+        lastMatchEnd = end;
+    }
+
+    private static int[] parseLevels(String s) {
+        if (s.isEmpty()) {
+            return NO_DEPS;
+        }
+        String[] split = s.split(",");
+        int[] toReturn = new int[split.length];
+        for (int i = 0; i < split.length; i++) {
+            toReturn[i] = Integer.parseInt(split[i]);
+        }
+        return toReturn;
+    }
+
+    private static DagTag tagByName(String name) {
+        for (DagTag t : DagTag.values()) {
+            if (t.getName().equals(name)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    private static class IntArrayKey {
+
+        private final int[] values;
+        private final int hash;
+
+        IntArrayKey(int[] values) {
+            this.values = values;
+            hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof IntArrayKey && Arrays.equals(values, ((IntArrayKey) obj).values);
+        }
+    }
+
+    /** Thrown to stop the reasoner once enough events have been recorded. */
+    private static class TraceFull extends RuntimeException {
+
+        TraceFull() {
+            super(null, null, false, false);
+        }
+    }
+
+    /** Incremental parser over the log stream. */
+    private static class LogParser extends OutputStream {
+
+        // tokens are short; keep this much unparsed text between chunks
+        private static final int TAIL = 512;
+        private static final int CHUNK = 1 << 16;
+        private final StringBuilder buffer = new StringBuilder(CHUNK + TAIL);
+        private final TableauTrace trace;
+        private final int maxEvents;
+
+        LogParser(TableauTrace trace, int maxEvents) {
+            this.trace = trace;
+            this.maxEvents = maxEvents;
+        }
+
+        @Override
+        public void write(int b) {
+            // the tokens of interest are ASCII, anything else can be garbled
+            buffer.append((char) (b & 0xff));
+            if (buffer.length() >= CHUNK) {
+                flush();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                buffer.append((char) (b[i] & 0xff));
+            }
+            if (buffer.length() >= CHUNK) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() {
+            trace.parse(buffer);
+            int keep = Math.max(trace.lastMatchEnd, buffer.length() - TAIL);
+            buffer.delete(0, keep);
+            if (trace.size() >= maxEvents) {
+                throw new TraceFull();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+/**
+ * Shared state for the data structure micro-benchmarks: a {@link TableauTrace}
+ * recorded once per trial by classifying a corpus entry.
+ */
+@State(Scope.Benchmark)
+public class TraceState {
+
+    @Param({ "MINI_TAMBIS", "OWLS", "PEOPLE" })
+    Corpus traceCorpus;
+    @Param("1000000")
+    int maxEvents;
+    /** recorded trace */
+    public TableauTrace trace;
+
+    /**
+     * @throws OWLOntologyCreationException
+     *         if the corpus entry cannot be loaded
+     */
+    @Setup(Level.Trial)
+    public void record() throws OWLOntologyCreationException {
+        trace = TableauTrace.record(traceCorpus, maxEvents);
+    }
+}
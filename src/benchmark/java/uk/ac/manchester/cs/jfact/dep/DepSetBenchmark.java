@@ -0,0 +1,104 @@
+package uk.ac.manchester.cs.jfact.dep;
+
+import static benchmarks.TableauTrace.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.TableauTrace;
+import benchmarks.TraceState;
+
+/**
+ * DepSet operations replayed over the dependency sets of a recorded tableau
+ * run: unions of the processed entry with the sets it produces, level() on
+ * every set, and restrict() of the last clash set on every backjump.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2G" })
+public class DepSetBenchmark {
+
+    private TableauTrace trace;
+    /** dependency set of each event, null for events without one */
+    private DepSet[] deps;
+
+    /**
+     * @param s
+     *        recorded trace
+     */
+    @Setup(Level.Trial)
+    public void setup(TraceState s) {
+        trace = s.trace;
+        deps = new DepSet[trace.size()];
+        for (int i = 0; i < trace.size(); i++) {
+            byte op = trace.op(i);
+            if (op == ADD || op == ENTRY || op == CLASH) {
+                deps[i] = trace.depSet(trace.deps(i));
+            }
+        }
+    }
+
+    /**
+     * @param bh
+     *        blackhole
+     */
+    @Benchmark
+    public void plus(Blackhole bh) {
+        DepSet entry = null;
+        for (int i = 0; i < deps.length; i++) {
+            byte op = trace.op(i);
+            if (op == ENTRY) {
+                entry = deps[i];
+            } else if (op == ADD || op == CLASH) {
+                bh.consume(DepSet.plus(entry, deps[i]));
+            }
+        }
+    }
+
+    /** @return sum of levels */
+    @Benchmark
+    public int level() {
+        int sum = 0;
+        for (DepSet d : deps) {
+            if (d != null) {
+                sum += d.level();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @param bh
+     *        blackhole
+     */
+    @Benchmark
+    public void restrict(Blackhole bh) {
+        DepSet clash = null;
+        for (int i = 0; i < deps.length; i++) {
+            byte op = trace.op(i);
+            if (op == CLASH) {
+                clash = deps[i];
+            } else if (op == RESTORE && clash != null) {
+                // restrict() works in place; the copy shares the bitmap
+                DepSet copy = DepSet.create(clash);
+                copy.restrict(trace.level(i));
+                bh.consume(copy);
+            }
+        }
+    }
+}
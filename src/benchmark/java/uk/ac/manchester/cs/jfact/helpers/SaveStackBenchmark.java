@@ -0,0 +1,84 @@
+package uk.ac.manchester.cs.jfact.helpers;
+
+import static benchmarks.TableauTrace.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.TableauTrace;
+import benchmarks.TraceState;
+
+/**
+ * SaveStack push/top/pop in the order of the branching saves and restores of a
+ * recorded tableau run, as done by DlSatTester for its branching contexts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2G" })
+public class SaveStackBenchmark {
+
+    private TableauTrace trace;
+    private final SaveStack<Object> stack = new SaveStack<>();
+    private final Object[] states = new Object[64];
+
+    /**
+     * @param s
+     *        recorded trace
+     */
+    @Setup(Level.Trial)
+    public void setup(TraceState s) {
+        trace = s.trace;
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new Object();
+        }
+    }
+
+    /**
+     * @param bh
+     *        blackhole
+     */
+    @Benchmark
+    public void replay(Blackhole bh) {
+        stack.clear();
+        int depth = 0;
+        for (int i = 0; i < trace.size(); i++) {
+            switch (trace.op(i)) {
+                case BEGIN:
+                    stack.clear();
+                    depth = 0;
+                    break;
+                case SAVE:
+                    stack.push(states[depth & 63]);
+                    depth++;
+                    break;
+                case RESTORE:
+                    int level = trace.level(i);
+                    if (level <= depth) {
+                        // DlSatTester peeks at the context, the save states
+                        // of graph and to-do list are popped
+                        bh.consume(stack.top(level));
+                        bh.consume(stack.pop(level));
+                        depth = level - 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
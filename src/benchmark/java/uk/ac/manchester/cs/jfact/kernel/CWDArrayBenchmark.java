@@ -0,0 +1,156 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+import static benchmarks.TableauTrace.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.TableauTrace;
+import benchmarks.TraceState;
+import uk.ac.manchester.cs.jfact.dep.DepSet;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Node labels rebuilt from a recorded tableau run: every label addition is a
+ * contains(C)/contains(~C) check followed by an add, every processed entry
+ * reads the concept back from the label, and node saves/restores follow the
+ * recorded SaveNode/RestNode events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2G" })
+public class CWDArrayBenchmark {
+
+    private TableauTrace trace;
+    private DepSet[] deps;
+    private boolean[] complex;
+    private CWDArray[] simpleLabels;
+    private CWDArray[] complexLabels;
+    /** per node stack of {level, simple size, complex size} triples */
+    private int[][] saved;
+    private int[] savedTop;
+
+    /**
+     * @param s
+     *        recorded trace
+     */
+    @Setup(Level.Trial)
+    public void setup(TraceState s) {
+        trace = s.trace;
+        JFactReasonerConfiguration config = new JFactReasonerConfiguration();
+        int nodes = trace.maxNode() + 1;
+        simpleLabels = new CWDArray[nodes];
+        complexLabels = new CWDArray[nodes];
+        saved = new int[nodes][];
+        savedTop = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            simpleLabels[i] = new CWDArray(config, 8);
+            complexLabels[i] = new CWDArray(config, 8);
+            saved[i] = new int[24];
+        }
+        // dep-sets are created by the tableau anyway; keep them out of the
+        // measurement
+        deps = new DepSet[trace.size()];
+        complex = new boolean[trace.size()];
+        for (int i = 0; i < trace.size(); i++) {
+            if (trace.op(i) == ADD) {
+                deps[i] = trace.depSet(trace.deps(i));
+            }
+            if (trace.node(i) >= 0) {
+                complex[i] = trace.tag(trace.concept(i)).isComplexConcept();
+            }
+        }
+    }
+
+    private void clear() {
+        for (int i = 0; i < simpleLabels.length; i++) {
+            simpleLabels[i].init();
+            complexLabels[i].init();
+            savedTop[i] = 0;
+        }
+    }
+
+    /**
+     * @param bh
+     *        blackhole
+     */
+    @Benchmark
+    public void replay(Blackhole bh) {
+        clear();
+        for (int i = 0; i < deps.length; i++) {
+            int node = trace.node(i);
+            switch (trace.op(i)) {
+                case BEGIN:
+                    clear();
+                    break;
+                case ADD:
+                    add(complex[i] ? complexLabels[node] : simpleLabels[node], trace.concept(i), deps[i], bh);
+                    break;
+                case ENTRY:
+                    bh.consume((complex[i] ? complexLabels[node] : simpleLabels[node]).get(trace.concept(i)));
+                    break;
+                case SAVE_NODE:
+                    save(node, trace.level(i));
+                    break;
+                case RESTORE_NODE:
+                    restore(node, trace.level(i));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void add(CWDArray label, int bp, DepSet dep, Blackhole bh) {
+        if (label.contains(bp)) {
+            // existing entry re-added to the to-do list
+            bh.consume(label.getConceptWithBP(bp));
+        } else if (label.contains(-bp)) {
+            bh.consume(label.get(-bp));
+        } else {
+            label.privateAdd(bp, dep);
+        }
+    }
+
+    private void save(int node, int level) {
+        int top = savedTop[node];
+        if (top + 3 > saved[node].length) {
+            saved[node] = Arrays.copyOf(saved[node], saved[node].length * 2);
+        }
+        int[] s = saved[node];
+        s[top] = level;
+        s[top + 1] = simpleLabels[node].save();
+        s[top + 2] = complexLabels[node].save();
+        savedTop[node] = top + 3;
+    }
+
+    private void restore(int node, int level) {
+        int[] s = saved[node];
+        int top = savedTop[node];
+        while (top > 0 && s[top - 3] > level) {
+            top -= 3;
+        }
+        if (top > 0 && s[top - 3] == level) {
+            top -= 3;
+            simpleLabels[node].restore(s[top + 1], level);
+            complexLabels[node].restore(s[top + 2], level);
+        }
+        savedTop[node] = top;
+    }
+}
@@ -0,0 +1,108 @@
+package uk.ac.manchester.cs.jfact.kernel.todolist;
+
+import static benchmarks.TableauTrace.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.TableauTrace;
+import benchmarks.TraceState;
+import uk.ac.manchester.cs.jfact.dep.DepSet;
+import uk.ac.manchester.cs.jfact.kernel.DagTag;
+import uk.ac.manchester.cs.jfact.kernel.DlCompletionTree;
+import uk.ac.manchester.cs.jfact.kernel.SaveStackRare;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * ToDoList fed with the additions, extractions, saves and restores of a
+ * recorded tableau run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2G" })
+public class ToDoListBenchmark {
+
+    private TableauTrace trace;
+    private DlCompletionTree[] nodes;
+    private DepSet[] deps;
+    private DagTag[] tags;
+    private ToDoList todo;
+
+    /**
+     * @param s
+     *        recorded trace
+     */
+    @Setup(Level.Trial)
+    public void setup(TraceState s) {
+        trace = s.trace;
+        JFactReasonerConfiguration config = new JFactReasonerConfiguration();
+        nodes = new DlCompletionTree[trace.maxNode() + 1];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new DlCompletionTree(i, config);
+        }
+        deps = new DepSet[trace.size()];
+        tags = new DagTag[trace.size()];
+        for (int i = 0; i < trace.size(); i++) {
+            if (trace.op(i) == ADD) {
+                deps[i] = trace.depSet(trace.deps(i));
+                tags[i] = trace.tag(trace.concept(i));
+            }
+        }
+        todo = new ToDoList(new SaveStackRare());
+        todo.initPriorities(config.getIAOEFLG());
+    }
+
+    /**
+     * @param bh
+     *        blackhole
+     */
+    @Benchmark
+    public void replay(Blackhole bh) {
+        todo.clear();
+        int depth = 0;
+        for (int i = 0; i < deps.length; i++) {
+            switch (trace.op(i)) {
+                case BEGIN:
+                    todo.clear();
+                    depth = 0;
+                    break;
+                case ADD:
+                    todo.addEntry(nodes[trace.node(i)], tags[i], trace.concept(i), deps[i]);
+                    break;
+                case ENTRY:
+                    if (!todo.isEmpty()) {
+                        bh.consume(todo.getNextEntry());
+                    }
+                    break;
+                case SAVE:
+                    todo.save();
+                    depth++;
+                    break;
+                case RESTORE:
+                    int level = trace.level(i);
+                    if (level <= depth) {
+                        todo.restore(level);
+                        depth = level - 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -5,7 +5,9 @@ package uk.ac.manchester.cs.jfact;
  This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Path;
 
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
@@ -15,6 +17,8 @@ import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
 import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
 
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
 /** JFact factory. */
 public class JFactFactory implements OWLReasonerFactory, Serializable {
 
@@ -52,4 +56,23 @@ public class JFactFactory implements OWLReasonerFactory, Serializable {
         JFactReasoner toReturn = new JFactReasoner(ontology, config, BufferingMode.NON_BUFFERING);
         return verify(toReturn);
     }
+
+    /**
+     * @param ontology
+     *        ontology
+     * @param config
+     *        configuration
+     * @param snapshot
+     *        snapshot saved by JFactReasoner.saveSnapshot() for the same
+     *        ontology
+     * @return buffering reasoner in the state of the snapshot
+     * @throws IOException
+     *         if the snapshot cannot be read, is corrupted, was saved for a
+     *         different ontology, or does not match the preprocessed ontology
+     */
+    public OWLReasoner createReasoner(OWLOntology ontology, JFactReasonerConfiguration config, Path snapshot)
+        throws IOException {
+        JFactReasoner toReturn = new JFactReasoner(ontology, config, BufferingMode.BUFFERING, snapshot);
+        return verify(toReturn);
+    }
 }
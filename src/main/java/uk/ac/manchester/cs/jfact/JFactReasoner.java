@@ -47,6 +47,7 @@ import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asSet;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -57,10 +58,13 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.IRI;
@@ -75,11 +79,14 @@ import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
 import org.semanticweb.owlapi.model.parameters.AxiomAnnotations;
 import org.semanticweb.owlapi.model.parameters.Imports;
 import org.semanticweb.owlapi.reasoner.BufferingMode;
@@ -114,6 +121,7 @@ import uk.ac.manchester.cs.jfact.kernel.Individual;
 import uk.ac.manchester.cs.jfact.kernel.Ontology;
 import uk.ac.manchester.cs.jfact.kernel.ReasonerFreshEntityException;
 import uk.ac.manchester.cs.jfact.kernel.ReasoningKernel;
+import uk.ac.manchester.cs.jfact.kernel.TaxonomyVertex;
 import uk.ac.manchester.cs.jfact.kernel.actors.ClassPolicy;
 import uk.ac.manchester.cs.jfact.kernel.actors.DataPropertyPolicy;
 import uk.ac.manchester.cs.jfact.kernel.actors.IndividualPolicy;
@@ -130,9 +138,14 @@ import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
 
 /**
- * Synchronization policy: all methods for OWLReasoner are synchronized, except the methods which do
- * not touch the kernel or only affect threadsafe data structures. inner private classes are not
- * synchronized since methods from those classes cannot be invoked from outsize synchronized
+ * Synchronization policy: all methods for OWLReasoner that touch the kernel run under the write
+ * lock, except taxonomy lookups for named entities (sub, super and equivalent classes, types and
+ * instances), which run under the read lock once the KB is classified (realised for types and
+ * instances) and fall back to the write lock when the answer needs reasoning. Satisfiability and
+ * subclass entailment of complex expressions over known entities also run under the read lock, on
+ * pooled kernel testers; those needing nominals or fresh names take the write lock. Methods which
+ * do not touch the kernel or only affect threadsafe data structures are not locked. inner private
+ * classes are not locked since methods from those classes cannot be invoked from outside locked
  * methods.
  */
 public class JFactReasoner
@@ -178,6 +191,9 @@ public class JFactReasoner
     private Boolean consistencyVerified = null;
     private final Set<OWLEntity> knownEntities = new HashSet<>();
     private final DatatypeFactory datatypeFactory;
+    /** write lock for kernel changes and reasoning, read lock for lookups in a finished taxonomy */
+    @Original
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     /**
      * @param o o
@@ -227,6 +243,58 @@ public class JFactReasoner
         this(rootOntology, importsIncluded(rootOntology), config, bufferingMode);
     }
 
+    /**
+     * create a reasoner in the state saved by saveSnapshot(), e.g., classified; the axioms are
+     * loaded and preprocessed, and their consistency is checked again, while the classification,
+     * realisation and related individuals are read from the snapshot. The preprocessed DAG and
+     * role hierarchies must match those of the snapshot.
+     * 
+     * @param rootOntology rootOntology
+     * @param axioms axioms to actually use; must be the axioms of the reasoner that saved the
+     *        snapshot
+     * @param config config
+     * @param bufferingMode bufferingMode
+     * @param snapshot snapshot file
+     * @throws IOException if the snapshot cannot be read, is corrupted, was saved for different
+     *         axioms, or does not match the preprocessed axioms
+     */
+    public JFactReasoner(OWLOntology rootOntology, Collection<OWLAxiom> axioms,
+        JFactReasonerConfiguration config, BufferingMode bufferingMode, Path snapshot)
+        throws IOException {
+        this(rootOntology, axioms, config, bufferingMode);
+        consistencyVerified = KBSnapshot.load(snapshot, this.axioms, kernel);
+    }
+
+    /**
+     * @param rootOntology rootOntology
+     * @param config config
+     * @param bufferingMode bufferingMode
+     * @param snapshot snapshot file
+     * @throws IOException if the snapshot cannot be read, is corrupted, was saved for different
+     *         axioms, or does not match the preprocessed axioms
+     */
+    public JFactReasoner(OWLOntology rootOntology, JFactReasonerConfiguration config,
+        BufferingMode bufferingMode, Path snapshot) throws IOException {
+        this(rootOntology, importsIncluded(rootOntology), config, bufferingMode, snapshot);
+    }
+
+    /**
+     * save the reasoning state, so that a reasoner for the same axioms can be created from it
+     * without classifying or realising again; call precomputeInferences() first to include the
+     * classification or realisation results. Configuration and pending changes are not saved.
+     * 
+     * @param snapshot snapshot file; replaced if it exists
+     * @throws IOException if writing fails
+     */
+    public void saveSnapshot(Path snapshot) throws IOException {
+        lock.writeLock().lock();
+        try {
+            KBSnapshot.save(snapshot, axioms, kernel, consistencyVerified);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     /**
      * @param ont ontology
      * @return all axioms in the ontology and its import closure
@@ -253,15 +321,81 @@ public class JFactReasoner
         return kernel.getOntology();
     }
 
+    /**
+     * @param s query or change that may modify the kernel
+     * @param <T> result type
+     * @return result of s, computed under the write lock
+     */
+    private <T> T exclusive(Supplier<T> s) {
+        lock.writeLock().lock();
+        try {
+            return s.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param r change that may modify the kernel; run under the write lock
+     */
+    private void exclusive(Runnable r) {
+        lock.writeLock().lock();
+        try {
+            r.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param s lookup that does not modify the kernel; it returns null if the answer needs the
+     *        write lock
+     * @param <T> result type
+     * @return result of s, computed under the read lock, or null
+     */
+    @Nullable
+    private <T> T shared(Supplier<T> s) {
+        lock.readLock().lock();
+        try {
+            return s.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param ce class expression
+     * @return taxonomy vertex for a named class if the classified taxonomy can answer without
+     *         reasoning, null otherwise
+     */
+    @Nullable
+    private TaxonomyVertex classifiedVertex(OWLClassExpression ce) {
+        if (ce.isAnonymous() || !Boolean.TRUE.equals(consistencyVerified) || interrupted.get()
+            || isFreshName(ce)) {
+            return null;
+        }
+        ConceptExpression c = tr.getClassExpressionTranslator().getKnownPointer(ce.asOWLClass());
+        return c == null ? null : kernel.getClassifiedVertex(c);
+    }
+
     @Override
-    public synchronized Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
-        if (isFreshName(ce)) {
-            return tr.getClassExpressionTranslator().node(Stream.empty());
+    public Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+        Node<OWLClass> node = shared(() -> {
+            TaxonomyVertex v = classifiedVertex(ce);
+            return v == null ? null : tr.getClassExpressionTranslator().node(synonyms(v).stream());
+        });
+        if (node != null) {
+            return node;
         }
-        checkConsistency();
-        Stream<ConceptExpression> stream =
-            kernel.getEquivalentConcepts(tr.pointer(ce), classActor()).getSynonyms().stream();
-        return tr.getClassExpressionTranslator().node(stream);
+        return exclusive(() -> {
+            if (isFreshName(ce)) {
+                return tr.getClassExpressionTranslator().node(Stream.empty());
+            }
+            checkConsistency();
+            Stream<ConceptExpression> stream =
+                kernel.getEquivalentConcepts(tr.pointer(ce), classActor()).getSynonyms().stream();
+            return tr.getClassExpressionTranslator().node(stream);
+        });
     }
 
     private boolean isFreshName(OWLClassExpression ce) {
@@ -271,13 +405,53 @@ public class JFactReasoner
         return !knownEntities.contains(ce.asOWLClass());
     }
 
+    /**
+     * @param ces class expressions
+     * @return true if the expressions can be answered by a shared kernel query: at least one is
+     *         anonymous, none contains nominals, and all their entities are already translated
+     */
+    private boolean isSharedQuery(OWLClassExpression... ces) {
+        if (!Boolean.TRUE.equals(consistencyVerified) || interrupted.get()
+            || Stream.of(ces).noneMatch(OWLClassExpression::isAnonymous)) {
+            return false;
+        }
+        return Stream.of(ces).flatMap(OWLClassExpression::nestedClassExpressions)
+            .noneMatch(c -> c instanceof OWLObjectOneOf || c instanceof OWLObjectHasValue)
+            && Stream.of(ces).flatMap(OWLClassExpression::signature).allMatch(this::isTranslated);
+    }
+
+    private boolean isTranslated(OWLEntity e) {
+        if (e.isOWLClass()) {
+            return tr.getClassExpressionTranslator().getKnownPointer(e.asOWLClass()) != null;
+        }
+        if (e.isOWLObjectProperty()) {
+            return tr.getObjectPropertyTranslator().getKnownPointer(e.asOWLObjectProperty()) != null;
+        }
+        if (e.isOWLDataProperty()) {
+            return tr.getDataPropertyTranslator().getKnownPointer(e.asOWLDataProperty()) != null;
+        }
+        return e.isOWLDatatype();
+    }
+
+    /**
+     * @param ce class expression whose entities are all translated, see isSharedQuery()
+     * @return kernel expression for ce; translation is serialised as it fills expression caches
+     */
+    private ConceptExpression sharedPointer(OWLClassExpression ce) {
+        synchronized (tr) {
+            return tr.pointer(ce);
+        }
+    }
+
     @Override
     public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
-        rawChanges.addAll(changes);
-        // We auto-flush the changes if the reasoner is non-buffering
-        if (bufferingMode.equals(BufferingMode.NON_BUFFERING)) {
-            flush();
-        }
+        exclusive(() -> {
+            rawChanges.addAll(changes);
+            // We auto-flush the changes if the reasoner is non-buffering
+            if (bufferingMode.equals(BufferingMode.NON_BUFFERING)) {
+                flush();
+            }
+        });
     }
 
     @Override
@@ -296,63 +470,69 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized List<OWLOntologyChange> getPendingChanges() {
-        return new ArrayList<>(rawChanges);
+    public List<OWLOntologyChange> getPendingChanges() {
+        return exclusive(() -> new ArrayList<>(rawChanges));
     }
 
     @Override
-    public synchronized Set<OWLAxiom> getPendingAxiomAdditions() {
-        if (!rawChanges.isEmpty()) {
-            return asSet(
-                rawChanges.stream().filter(OWLOntologyChange::isAddAxiom).map(c -> c.getAxiom()));
-        }
-        return Collections.emptySet();
+    public Set<OWLAxiom> getPendingAxiomAdditions() {
+        return exclusive(() -> {
+            if (!rawChanges.isEmpty()) {
+                return asSet(
+                    rawChanges.stream().filter(OWLOntologyChange::isAddAxiom).map(c -> c.getAxiom()));
+            }
+            return Collections.emptySet();
+        });
     }
 
     @Override
-    public synchronized Set<OWLAxiom> getPendingAxiomRemovals() {
-        if (!rawChanges.isEmpty()) {
-            return asSet(rawChanges.stream().filter(OWLOntologyChange::isRemoveAxiom)
-                .map(c -> c.getAxiom()));
-        }
-        return Collections.emptySet();
-    }
-
-    @Override
-    public synchronized void flush() {
-        // Process the changes
-        if (!rawChanges.isEmpty()) {
-            Set<OWLAxiom> added = new HashSet<>();
-            Set<OWLAxiom> removed = new HashSet<>();
-            Set<OWLAxiom> reasonerAxioms = new HashSet<>(axioms);
-            for (OWLOntologyChange change : rawChanges) {
-                OWLAxiom ax = change.getAxiom();
-                if (change.isAddAxiom()) {
-                    if (!reasonerAxioms.contains(ax)
-                        && !reasonerAxioms.contains(ax.getAxiomWithoutAnnotations())) {
-                        added.add(ax);
-                    }
-                } else if (change.isRemoveAxiom()) {
-                    if (reasonerAxioms.contains(ax)
-                        || reasonerAxioms.contains(ax.getAxiomWithoutAnnotations())) {
-                        removed.add(change.getAxiom());
+    public Set<OWLAxiom> getPendingAxiomRemovals() {
+        return exclusive(() -> {
+            if (!rawChanges.isEmpty()) {
+                return asSet(rawChanges.stream().filter(OWLOntologyChange::isRemoveAxiom)
+                    .map(c -> c.getAxiom()));
+            }
+            return Collections.emptySet();
+        });
+    }
+
+    @Override
+    public void flush() {
+        exclusive(() -> {
+            // Process the changes
+            if (!rawChanges.isEmpty()) {
+                Set<OWLAxiom> added = new HashSet<>();
+                Set<OWLAxiom> removed = new HashSet<>();
+                Set<OWLAxiom> reasonerAxioms = new HashSet<>(axioms);
+                for (OWLOntologyChange change : rawChanges) {
+                    OWLAxiom ax = change.getAxiom();
+                    if (change.isAddAxiom()) {
+                        if (!reasonerAxioms.contains(ax)
+                            && !reasonerAxioms.contains(ax.getAxiomWithoutAnnotations())) {
+                            added.add(ax);
+                        }
+                    } else if (change.isRemoveAxiom()) {
+                        if (reasonerAxioms.contains(ax)
+                            || reasonerAxioms.contains(ax.getAxiomWithoutAnnotations())) {
+                            removed.add(change.getAxiom());
+                        }
                     }
                 }
+                added.removeAll(removed);
+                rawChanges.clear();
+                if (!added.isEmpty() || !removed.isEmpty()) {
+                    reasonerAxioms.removeAll(removed);
+                    reasonerAxioms.addAll(added);
+                    axioms.clear();
+                    axioms.addAll(reasonerAxioms);
+                    knownEntities.clear();
+                    axioms.forEach(ax -> add(knownEntities, ax.signature()));
+                    // set the consistency status to not verified
+                    consistencyVerified = null;
+                    handleChanges(added.stream(), removed.stream());
+                }
             }
-            added.removeAll(removed);
-            rawChanges.clear();
-            if (!added.isEmpty() || !removed.isEmpty()) {
-                reasonerAxioms.removeAll(removed);
-                reasonerAxioms.addAll(added);
-                axioms.clear();
-                axioms.addAll(reasonerAxioms);
-                knownEntities.clear();
-                axioms.forEach(ax -> add(knownEntities, ax.signature()));
-                // set the consistency status to not verified
-                consistencyVerified = null;
-                handleChanges(added.stream(), removed.stream());
-            }
-        }
+        });
     }
 
     @Override
@@ -373,7 +553,7 @@ public class JFactReasoner
      * @param addAxioms The axioms to be added to the reasoner.
      * @param removeAxioms The axioms to be removed from the reasoner
      */
-    private synchronized void handleChanges(Stream<OWLAxiom> addAxioms,
+    private void handleChanges(Stream<OWLAxiom> addAxioms,
         Stream<OWLAxiom> removeAxioms) {
         tr.loadAxioms(addAxioms);
         removeAxioms.forEach(tr::retractAxiom);
@@ -396,11 +576,13 @@ public class JFactReasoner
 
     // precompute inferences
     @Override
-    public synchronized void precomputeInferences(InferenceType... inferenceTypes) {
-        if (!kernel.isKBRealised()
-            && Stream.of(inferenceTypes).anyMatch(supportedInferenceTypes::contains)) {
-            kernel.realiseKB();
-        }
+    public void precomputeInferences(InferenceType... inferenceTypes) {
+        exclusive(() -> {
+            if (!kernel.isKBRealised()
+                && Stream.of(inferenceTypes).anyMatch(supportedInferenceTypes::contains)) {
+                kernel.realiseKB();
+            }
+        });
     }
 
     @Override
@@ -418,15 +600,17 @@ public class JFactReasoner
 
     // consistency
     @Override
-    public synchronized boolean isConsistent() {
-        if (consistencyVerified == null) {
-            try {
-                consistencyVerified = Boolean.valueOf(kernel.isKBConsistent());
-            } catch (InconsistentOntologyException e) {
-                consistencyVerified = Boolean.FALSE;
+    public boolean isConsistent() {
+        return exclusive(() -> {
+            if (consistencyVerified == null) {
+                try {
+                    consistencyVerified = Boolean.valueOf(kernel.isKBConsistent());
+                } catch (InconsistentOntologyException e) {
+                    consistencyVerified = Boolean.FALSE;
+                }
             }
-        }
-        return consistencyVerified.booleanValue();
+            return consistencyVerified.booleanValue();
+        });
     }
 
     private void checkConsistency() {
@@ -439,9 +623,16 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized boolean isSatisfiable(OWLClassExpression classExpression) {
-        checkConsistency();
-        return kernel.isSatisfiable(tr.pointer(classExpression));
+    public boolean isSatisfiable(OWLClassExpression classExpression) {
+        Boolean sat = shared(() -> isSharedQuery(classExpression)
+            ? kernel.isSatisfiableShared(sharedPointer(classExpression)) : null);
+        if (sat != null) {
+            return sat.booleanValue();
+        }
+        return exclusive(() -> {
+            checkConsistency();
+            return kernel.isSatisfiable(tr.pointer(classExpression));
+        });
     }
 
     @Override
@@ -451,34 +642,45 @@ public class JFactReasoner
 
     // entailments
     @Override
-    public synchronized boolean isEntailed(OWLAxiom axiom) {
-        checkConsistency();
-        if (root.containsAxiom(axiom, Imports.INCLUDED,
-            AxiomAnnotations.IGNORE_AXIOM_ANNOTATIONS)) {
-            return true;
+    public boolean isEntailed(OWLAxiom axiom) {
+        if (axiom instanceof OWLSubClassOfAxiom) {
+            OWLClassExpression sub = ((OWLSubClassOfAxiom) axiom).getSubClass();
+            OWLClassExpression sup = ((OWLSubClassOfAxiom) axiom).getSuperClass();
+            Boolean entailed = shared(() -> isSharedQuery(sub, sup)
+                ? kernel.isSubsumedByShared(sharedPointer(sub), sharedPointer(sup)) : null);
+            if (entailed != null) {
+                return entailed.booleanValue();
+            }
         }
-        try {
-            return axiom.accept(tr.getEntailmentChecker()).booleanValue();
-        } catch (ReasonerFreshEntityException e) {
-            IRI iri = e.getIri();
-            if (getFreshEntityPolicy() == FreshEntityPolicy.DISALLOW) {
-                Optional<OWLEntity> fresh =
-                    axiom.signature().filter(ent -> ent.getIRI().equals(iri)).findAny();
-                if (fresh.isPresent()) {
-                    throw new FreshEntitiesException(fresh.get(), e);
+        return exclusive(() -> {
+            checkConsistency();
+            if (root.containsAxiom(axiom, Imports.INCLUDED,
+                AxiomAnnotations.IGNORE_AXIOM_ANNOTATIONS)) {
+                return true;
+            }
+            try {
+                return axiom.accept(tr.getEntailmentChecker()).booleanValue();
+            } catch (ReasonerFreshEntityException e) {
+                IRI iri = e.getIri();
+                if (getFreshEntityPolicy() == FreshEntityPolicy.DISALLOW) {
+                    Optional<OWLEntity> fresh =
+                        axiom.signature().filter(ent -> ent.getIRI().equals(iri)).findAny();
+                    if (fresh.isPresent()) {
+                        throw new FreshEntitiesException(fresh.get(), e);
+                    }
+                    throw new FreshEntitiesException(asList(axiom.signature()), e);
                 }
-                throw new FreshEntitiesException(asList(axiom.signature()), e);
+                LOGGER.warn(
+                    "Fresh entity exception in the reasoner for entity: '{}'; defaulting to axiom not entailed",
+                    iri);
+                return false;
             }
-            LOGGER.warn(
-                "Fresh entity exception in the reasoner for entity: '{}'; defaulting to axiom not entailed",
-                iri);
-            return false;
-        }
+        });
     }
 
     @Override
-    public synchronized boolean isEntailed(Set<? extends OWLAxiom> axioms) {
-        return axioms.stream().allMatch(ax -> isEntailed(checkNotNull(ax)));
+    public boolean isEntailed(Set<? extends OWLAxiom> axioms) {
+        return exclusive(() -> axioms.stream().allMatch(ax -> isEntailed(checkNotNull(ax))));
     }
 
     @Override
@@ -495,12 +697,14 @@ public class JFactReasoner
      * @return tracing set (set of axioms that were participate in achieving result) for a given
      *         entailment. Return empty set if the axiom is not entailed.
      */
-    public synchronized Set<OWLAxiom> getTrace(OWLAxiom axiom) {
-        kernel.needTracing();
-        if (this.isEntailed(axiom)) {
-            return asSet(kernel.getTrace().map(AxiomWrapper::getAxiom).filter(ax -> ax != null));
-        }
-        return Collections.emptySet();
+    public Set<OWLAxiom> getTrace(OWLAxiom axiom) {
+        return exclusive(() -> {
+            kernel.needTracing();
+            if (this.isEntailed(axiom)) {
+                return asSet(kernel.getTrace().map(AxiomWrapper::getAxiom).filter(ax -> ax != null));
+            }
+            return Collections.emptySet();
+        });
     }
 
     // classes
@@ -515,29 +719,50 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
-        if (isFreshName(ce)) {
-            if (configuration.getFreshEntityPolicy() == FreshEntityPolicy.DISALLOW) {
-                throw new FreshEntitiesException(asList(ce.signature()));
+    public NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+        NodeSet<OWLClass> nodes = shared(() -> {
+            TaxonomyVertex v = classifiedVertex(ce);
+            TaxonomyVertex bottom = classifiedVertex(df.getOWLNothing());
+            if (v == null || bottom == null) {
+                return null;
             }
-            return new OWLClassNodeSet(getBottomClassNode());
+            List<Collection<ConceptExpression>> pointers =
+                kernel.getRelatives(v, classActor(), false, direct, false).getElements();
+            addBottom(pointers, () -> synonyms(bottom));
+            return tr.getClassExpressionTranslator().nodeSet(pointers.stream());
+        });
+        if (nodes != null) {
+            return nodes;
         }
-        checkConsistency();
-        List<Collection<ConceptExpression>> pointers =
-            kernel.getConcepts(tr.pointer(ce), direct, classActor(), false).getElements();
+        return exclusive(() -> {
+            if (isFreshName(ce)) {
+                if (configuration.getFreshEntityPolicy() == FreshEntityPolicy.DISALLOW) {
+                    throw new FreshEntitiesException(asList(ce.signature()));
+                }
+                return new OWLClassNodeSet(getBottomClassNode());
+            }
+            checkConsistency();
+            List<Collection<ConceptExpression>> pointers =
+                kernel.getConcepts(tr.pointer(ce), direct, classActor(), false).getElements();
+            addBottom(pointers, this::bottomNode);
+            return tr.getClassExpressionTranslator().nodeSet(pointers.stream());
+        });
+    }
+
+    private static void addBottom(List<Collection<ConceptExpression>> pointers,
+        Supplier<Collection<ConceptExpression>> bottom) {
         // XXX trick: empty sets imply the ony subclasses are the equivalent
         // to bottom.
         // should happen in the reasoner proper, but something stops that
         Optional<Collection<ConceptExpression>> empty =
             pointers.stream().filter(c -> c.isEmpty()).findAny();
         if (empty.isPresent()) {
-            empty.get().addAll(bottomNode());
+            empty.get().addAll(bottom.get());
         } else {
             if (pointers.isEmpty()) {
-                pointers.add(bottomNode());
+                pointers.add(bottom.get());
             }
         }
-        return tr.getClassExpressionTranslator().nodeSet(pointers.stream());
     }
 
     private Collection<ConceptExpression> bottomNode() {
@@ -545,23 +770,41 @@ public class JFactReasoner
             .getSynonyms();
     }
 
+    private Collection<ConceptExpression> synonyms(TaxonomyVertex v) {
+        TaxonomyActor<ConceptExpression> actor = classActor();
+        actor.apply(v);
+        return actor.getSynonyms();
+    }
+
     @Override
-    public synchronized NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
-        if (isFreshName(ce)) {
-            return new OWLClassNodeSet(getTopClassNode());
+    public NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+        NodeSet<OWLClass> nodes = shared(() -> {
+            TaxonomyVertex v = classifiedVertex(ce);
+            return v == null ? null : tr.getClassExpressionTranslator().nodeSet(
+                kernel.getRelatives(v, classActor(), false, direct, true).getElements().stream());
+        });
+        if (nodes != null) {
+            return nodes;
         }
-        checkConsistency();
-        Stream<Collection<ConceptExpression>> stream =
-            askSuperClasses(tr.pointer(ce), direct).stream();
-        return tr.getClassExpressionTranslator().nodeSet(stream);
+        return exclusive(() -> {
+            if (isFreshName(ce)) {
+                return new OWLClassNodeSet(getTopClassNode());
+            }
+            checkConsistency();
+            Stream<Collection<ConceptExpression>> stream =
+                askSuperClasses(tr.pointer(ce), direct).stream();
+            return tr.getClassExpressionTranslator().nodeSet(stream);
+        });
     }
 
     @Override
-    public synchronized NodeSet<OWLClass> getDisjointClasses(OWLClassExpression ce) {
-        ConceptExpression p = tr.pointer(ce);
-        Stream<Collection<ConceptExpression>> stream =
-            kernel.getDisjointConcepts(p, classActor()).getElements().stream();
-        return tr.getClassExpressionTranslator().nodeSet(stream);
+    public NodeSet<OWLClass> getDisjointClasses(OWLClassExpression ce) {
+        return exclusive(() -> {
+            ConceptExpression p = tr.pointer(ce);
+            Stream<Collection<ConceptExpression>> stream =
+                kernel.getDisjointConcepts(p, classActor()).getElements().stream();
+            return tr.getClassExpressionTranslator().nodeSet(stream);
+        });
     }
 
     // object properties
@@ -576,44 +819,52 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized NodeSet<OWLObjectPropertyExpression> getSubObjectProperties(
+    public NodeSet<OWLObjectPropertyExpression> getSubObjectProperties(
         OWLObjectPropertyExpression pe, boolean direct) {
-        checkConsistency();
-        Stream<Collection<ObjectRoleExpression>> stream =
-            kernel.getRoles(tr.pointer(pe), direct, objectActor(), false).getElements().stream();
-        return tr.getObjectPropertyTranslator().nodeSet(stream);
+        return exclusive(() -> {
+            checkConsistency();
+            Stream<Collection<ObjectRoleExpression>> stream =
+                kernel.getRoles(tr.pointer(pe), direct, objectActor(), false).getElements().stream();
+            return tr.getObjectPropertyTranslator().nodeSet(stream);
+        });
     }
 
     @Override
-    public synchronized NodeSet<OWLObjectPropertyExpression> getSuperObjectProperties(
+    public NodeSet<OWLObjectPropertyExpression> getSuperObjectProperties(
         OWLObjectPropertyExpression pe, boolean direct) {
-        checkConsistency();
-        List<Collection<ObjectRoleExpression>> elements =
-            kernel.getRoles(tr.pointer(pe), direct, objectActor(), true).getElements();
-        // XXX trick
-        if (elements.isEmpty() || elements.get(0).isEmpty()) {
-            elements.add(
-                kernel.getEquivalentRoles(tr.pointer(df.getOWLTopObjectProperty()), objectActor())
-                    .getSynonyms());
-        }
-        return tr.getObjectPropertyTranslator().nodeSet(elements.stream());
+        return exclusive(() -> {
+            checkConsistency();
+            List<Collection<ObjectRoleExpression>> elements =
+                kernel.getRoles(tr.pointer(pe), direct, objectActor(), true).getElements();
+            // XXX trick
+            if (elements.isEmpty() || elements.get(0).isEmpty()) {
+                elements.add(
+                    kernel.getEquivalentRoles(tr.pointer(df.getOWLTopObjectProperty()), objectActor())
+                        .getSynonyms());
+            }
+            return tr.getObjectPropertyTranslator().nodeSet(elements.stream());
+        });
     }
 
     @Override
-    public synchronized Node<OWLObjectPropertyExpression> getEquivalentObjectProperties(
+    public Node<OWLObjectPropertyExpression> getEquivalentObjectProperties(
         OWLObjectPropertyExpression pe) {
-        checkConsistency();
-        Stream<ObjectRoleExpression> stream =
-            kernel.getEquivalentRoles(tr.pointer(pe), objectActor()).getSynonyms().stream();
-        return tr.getObjectPropertyTranslator().node(stream);
+        return exclusive(() -> {
+            checkConsistency();
+            Stream<ObjectRoleExpression> stream =
+                kernel.getEquivalentRoles(tr.pointer(pe), objectActor()).getSynonyms().stream();
+            return tr.getObjectPropertyTranslator().node(stream);
+        });
     }
 
     @Override
-    public synchronized NodeSet<OWLObjectPropertyExpression> getDisjointObjectProperties(
+    public NodeSet<OWLObjectPropertyExpression> getDisjointObjectProperties(
         OWLObjectPropertyExpression pe) {
-        checkConsistency();
-        // TODO: incomplete
-        return new OWLObjectPropertyNodeSet(getBottomObjectPropertyNode());
+        return exclusive(() -> {
+            checkConsistency();
+            // TODO: incomplete
+            return new OWLObjectPropertyNodeSet(getBottomObjectPropertyNode());
+        });
     }
 
     @Override
@@ -623,12 +874,14 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized NodeSet<OWLClass> getObjectPropertyDomains(OWLObjectPropertyExpression pe,
+    public NodeSet<OWLClass> getObjectPropertyDomains(OWLObjectPropertyExpression pe,
         boolean direct) {
-        checkConsistency();
-        Stream<Collection<ConceptExpression>> stream =
-            kernel.getORoleDomain(tr.pointer(pe), direct, classActor()).getElements().stream();
-        return tr.getClassExpressionTranslator().nodeSet(stream);
+        return exclusive(() -> {
+            checkConsistency();
+            Stream<Collection<ConceptExpression>> stream =
+                kernel.getORoleDomain(tr.pointer(pe), direct, classActor()).getElements().stream();
+            return tr.getClassExpressionTranslator().nodeSet(stream);
+        });
     }
 
     @Override
@@ -653,44 +906,52 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized NodeSet<OWLDataProperty> getSubDataProperties(OWLDataProperty pe,
+    public NodeSet<OWLDataProperty> getSubDataProperties(OWLDataProperty pe,
         boolean direct) {
-        checkConsistency();
-        Stream<Collection<DataRoleExpression>> stream =
-            kernel.getRoles(tr.pointer(pe), direct, dataActor(), false).getElements().stream();
-        return tr.getDataPropertyTranslator().nodeSet(stream);
+        return exclusive(() -> {
+            checkConsistency();
+            Stream<Collection<DataRoleExpression>> stream =
+                kernel.getRoles(tr.pointer(pe), direct, dataActor(), false).getElements().stream();
+            return tr.getDataPropertyTranslator().nodeSet(stream);
+        });
     }
 
     @Override
-    public synchronized NodeSet<OWLDataProperty> getSuperDataProperties(OWLDataProperty pe,
+    public NodeSet<OWLDataProperty> getSuperDataProperties(OWLDataProperty pe,
         boolean direct) {
-        checkConsistency();
-        List<Collection<DataRoleExpression>> elements =
-            kernel.getRoles(tr.pointer(pe), direct, dataActor(), true).getElements();
-        // XXX trick
-        if (elements.isEmpty() || elements.get(0).isEmpty()) {
-            elements
-                .add(kernel.getEquivalentRoles(tr.pointer(df.getOWLTopDataProperty()), dataActor())
-                    .getSynonyms());
-        }
-        return tr.getDataPropertyTranslator().nodeSet(elements.stream());
+        return exclusive(() -> {
+            checkConsistency();
+            List<Collection<DataRoleExpression>> elements =
+                kernel.getRoles(tr.pointer(pe), direct, dataActor(), true).getElements();
+            // XXX trick
+            if (elements.isEmpty() || elements.get(0).isEmpty()) {
+                elements
+                    .add(kernel.getEquivalentRoles(tr.pointer(df.getOWLTopDataProperty()), dataActor())
+                        .getSynonyms());
+            }
+            return tr.getDataPropertyTranslator().nodeSet(elements.stream());
+        });
     }
 
     @Override
-    public synchronized Node<OWLDataProperty> getEquivalentDataProperties(OWLDataProperty pe) {
-        checkConsistency();
-        DataRoleExpression p = tr.pointer(pe);
-        Stream<DataRoleExpression> dataPropertySynonyms =
-            kernel.getEquivalentRoles(p, dataActor()).getSynonyms().stream();
-        return tr.getDataPropertyTranslator().node(dataPropertySynonyms);
+    public Node<OWLDataProperty> getEquivalentDataProperties(OWLDataProperty pe) {
+        return exclusive(() -> {
+            checkConsistency();
+            DataRoleExpression p = tr.pointer(pe);
+            Stream<DataRoleExpression> dataPropertySynonyms =
+                kernel.getEquivalentRoles(p, dataActor()).getSynonyms().stream();
+            return tr.getDataPropertyTranslator().node(dataPropertySynonyms);
+        });
     }
 
     @Override
-    public synchronized NodeSet<OWLDataProperty> getDisjointDataProperties(
+    public NodeSet<OWLDataProperty> getDisjointDataProperties(
         OWLDataPropertyExpression pe) {
-        checkConsistency();
-        // TODO: incomplete
-        return new OWLDataPropertyNodeSet(getBottomDataPropertyNode());
+        return exclusive(() -> {
+            checkConsistency();
+            // TODO: incomplete
+            return new OWLDataPropertyNodeSet(getBottomDataPropertyNode());
+        });
     }
 
     @Override
@@ -702,11 +963,25 @@ public class JFactReasoner
 
     // individuals
     @Override
-    public synchronized NodeSet<OWLClass> getTypes(OWLNamedIndividual ind, boolean direct) {
-        checkConsistency();
-        Stream<Collection<ConceptExpression>> classElements =
-            kernel.getTypes(tr.pointer(ind), direct, classActor()).getElements().stream();
-        return tr.getClassExpressionTranslator().nodeSet(classElements);
+    public NodeSet<OWLClass> getTypes(OWLNamedIndividual ind, boolean direct) {
+        NodeSet<OWLClass> nodes = shared(() -> {
+            if (!Boolean.TRUE.equals(consistencyVerified) || interrupted.get()) {
+                return null;
+            }
+            IndividualName i = tr.getIndividualTranslator().getKnownPointer(ind);
+            TaxonomyVertex v = i == null ? null : kernel.getRealisedVertex(i);
+            return v == null ? null : tr.getClassExpressionTranslator().nodeSet(
+                kernel.getRelatives(v, classActor(), true, direct, true).getElements().stream());
+        });
+        if (nodes != null) {
+            return nodes;
+        }
+        return exclusive(() -> {
+            checkConsistency();
+            Stream<Collection<ConceptExpression>> classElements =
+                kernel.getTypes(tr.pointer(ind), direct, classActor()).getElements().stream();
+            return tr.getClassExpressionTranslator().nodeSet(classElements);
+        });
     }
 
     /**
@@ -741,47 +1016,71 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized NodeSet<OWLNamedIndividual> getInstances(OWLClassExpression ce,
+    public NodeSet<OWLNamedIndividual> getInstances(OWLClassExpression ce,
         boolean direct) {
-        checkConsistency();
-        TaxonomyActor<IndividualExpression> actor = kernel.getInstances(tr.pointer(ce),
-            individualActor(IndividualExpression.class), direct);
-        return tr.translateNodeSet(actor.getElements().iterator().next().stream());
+        NodeSet<OWLNamedIndividual> nodes = shared(() -> {
+            TaxonomyVertex v = kernel.isKBRealised() ? classifiedVertex(ce) : null;
+            if (v == null) {
+                return null;
+            }
+            TaxonomyActor<IndividualExpression> actor = individualActor(IndividualExpression.class);
+            if (direct) {
+                kernel.getDirectInstances(v, actor);
+            } else {
+                kernel.getRelatives(v, actor, true, false, false);
+            }
+            return tr.translateNodeSet(actor.getElements().iterator().next().stream());
+        });
+        if (nodes != null) {
+            return nodes;
+        }
+        return exclusive(() -> {
+            checkConsistency();
+            TaxonomyActor<IndividualExpression> actor = kernel.getInstances(tr.pointer(ce),
+                individualActor(IndividualExpression.class), direct);
+            return tr.translateNodeSet(actor.getElements().iterator().next().stream());
+        });
     }
 
     @Override
-    public synchronized NodeSet<OWLNamedIndividual> getObjectPropertyValues(OWLNamedIndividual ind,
+    public NodeSet<OWLNamedIndividual> getObjectPropertyValues(OWLNamedIndividual ind,
         OWLObjectPropertyExpression pe) {
-        checkConsistency();
-        List<Individual> fillers = kernel.getRoleFillers(tr.pointer(ind), tr.pointer(pe));
-        return tr
-            .translateNodeSet(fillers.stream().map(p -> em.individual(p.getEntity().getEntity())));
+        return exclusive(() -> {
+            checkConsistency();
+            List<Individual> fillers = kernel.getRoleFillers(tr.pointer(ind), tr.pointer(pe));
+            return tr
+                .translateNodeSet(fillers.stream().map(p -> em.individual(p.getEntity().getEntity())));
+        });
     }
 
     @Override
-    public synchronized Set<OWLLiteral> getDataPropertyValues(OWLNamedIndividual ind,
+    public Set<OWLLiteral> getDataPropertyValues(OWLNamedIndividual ind,
         OWLDataProperty pe) {
-        checkConsistency();
-        // for(DataRoleExpression e:
-        // askDataProperties(translationMachinery.toIndividualPointer(ind))) {
-        //
-        // }
-        // return kernel.getDRM().
-        // return translationMachinery
-        // .translateIndividualPointersToNodeSet(askRelatedIndividuals(
-        // translationMachinery.toIndividualPointer(ind),
-        // translationMachinery.pointer(pe)));
-        // TODO:
-        return Collections.emptySet();
-    }
-
-    @Override
-    public synchronized Node<OWLNamedIndividual> getSameIndividuals(OWLNamedIndividual ind) {
-        checkConsistency();
-        Stream<IndividualName> stream =
-            kernel.getSameAs(tr.pointer(ind), individualActor(IndividualName.class)).getSynonyms()
-                .stream();
-        return tr.getIndividualTranslator().node(stream);
+        return exclusive(() -> {
+            checkConsistency();
+            // for(DataRoleExpression e:
+            // askDataProperties(translationMachinery.toIndividualPointer(ind))) {
+            //
+            // }
+            // return kernel.getDRM().
+            // return translationMachinery
+            // .translateIndividualPointersToNodeSet(askRelatedIndividuals(
+            // translationMachinery.toIndividualPointer(ind),
+            // translationMachinery.pointer(pe)));
+            // TODO:
+            return Collections.emptySet();
+        });
+    }
+
+    @Override
+    public Node<OWLNamedIndividual> getSameIndividuals(OWLNamedIndividual ind) {
+        return exclusive(() -> {
+            checkConsistency();
+            Stream<IndividualName> stream =
+                kernel.getSameAs(tr.pointer(ind), individualActor(IndividualName.class)).getSynonyms()
+                    .stream();
+            return tr.getIndividualTranslator().node(stream);
+        });
     }
 
     @Override
@@ -791,10 +1090,12 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized void dispose() {
-        root.getOWLOntologyManager().removeOntologyChangeListener(this);
-        tr = null;
-        kernel = null;
+    public void dispose() {
+        exclusive(() -> {
+            root.getOWLOntologyManager().removeOntologyChangeListener(this);
+            tr = null;
+            kernel = null;
+        });
     }
 
     /**
@@ -823,8 +1124,8 @@ public class JFactReasoner
     /**
      * @param time time
      */
-    public synchronized void writeReasoningResult(long time) {
-        kernel.writeReasoningResult(time);
+    public void writeReasoningResult(long time) {
+        exclusive(() -> kernel.writeReasoningResult(time));
     }
 
     // owl knowledge exploration
@@ -982,14 +1283,16 @@ public class JFactReasoner
      *        means "lesser than or equal", 4 means "greater than", 5 means "greater than or equal"
      * @return data related individuals
      */
-    public synchronized Node<OWLNamedIndividual> getDataRelatedIndividuals(
+    public Node<OWLNamedIndividual> getDataRelatedIndividuals(
         Stream<OWLIndividual> individuals, OWLDataProperty r, OWLDataProperty s, int op) {
-        checkConsistency();
-        // load all the individuals as parameters
-        Stream<IndividualName> stream = kernel
-            .getDataRelatedIndividuals(tr.pointer(r), tr.pointer(s), op, tr.translate(individuals))
-            .stream();
-        return tr.getIndividualTranslator().node(stream);
+        return exclusive(() -> {
+            checkConsistency();
+            // load all the individuals as parameters
+            Stream<IndividualName> stream = kernel
+                .getDataRelatedIndividuals(tr.pointer(r), tr.pointer(s), op, tr.translate(individuals))
+                .stream();
+            return tr.getIndividualTranslator().node(stream);
+        });
     }
 
     private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
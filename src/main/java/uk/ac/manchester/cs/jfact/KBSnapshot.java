@@ -0,0 +1,176 @@
+package uk.ac.manchester.cs.jfact;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningKernel;
+import uk.ac.manchester.cs.jfact.kernel.TBoxSnapshot;
+
+/**
+ * Snapshot file of the reasoning state of a JFactReasoner. The file starts
+ * with a header: magic number, format version, a digest of the axioms the
+ * state was computed for and the consistency verified by the reasoner. The
+ * state of the kernel follows, as written by TBoxSnapshot, and a CRC32 of
+ * everything before it ends the file.
+ * <p>
+ * The file is read into a buffer through a channel; header and checksum are
+ * checked before the axioms are preprocessed.
+ */
+@Original
+final class KBSnapshot {
+
+    private static final int MAGIC = 0x4A464B42;
+    /** to be increased whenever the layout changes */
+    private static final int VERSION = 4;
+    /** magic number, version, digest length and checksum */
+    private static final int MIN_SIZE = 16;
+
+    private KBSnapshot() {}
+
+    /**
+     * @param axioms
+     *        axioms loaded in a reasoner
+     * @return digest of the axioms, independent of their order
+     */
+    static byte[] digest(Collection<OWLAxiom> axioms) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            axioms.stream().map(Object::toString).distinct().sorted().forEach(s -> {
+                md.update(s.getBytes(UTF_8));
+                md.update((byte) '\n');
+            });
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * write the snapshot to a temporary file next to the target, then move
+     * it in place, so that a reader never sees a partial snapshot
+     * 
+     * @param file
+     *        target file
+     * @param axioms
+     *        axioms the state was computed for
+     * @param kernel
+     *        kernel of the reasoner
+     * @param consistencyVerified
+     *        consistency verified by the reasoner, or null
+     * @throws IOException
+     *         if writing fails
+     */
+    static void save(Path file, Collection<OWLAxiom> axioms, ReasoningKernel kernel,
+        @Nullable Boolean consistencyVerified) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files
+            .newOutputStream(tmp), 1 << 16), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            byte[] digest = digest(axioms);
+            out.writeInt(digest.length);
+            out.write(digest);
+            out.writeByte(consistencyVerified == null ? 0 : consistencyVerified.booleanValue() ? 2 : 1);
+            TBoxSnapshot.save(kernel, out);
+            out.writeInt((int) crc.getValue());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * bring the kernel of a reasoner to the state of a snapshot
+     * 
+     * @param file
+     *        snapshot file
+     * @param axioms
+     *        axioms loaded in the kernel
+     * @param kernel
+     *        kernel of the loading reasoner
+     * @return consistency verified by the saving reasoner, or null
+     * @throws IOException
+     *         if the file is not a snapshot of this version, is corrupted,
+     *         was taken for different axioms, or does not match the
+     *         preprocessed axioms
+     */
+    @Nullable
+    static Boolean load(Path file, Collection<OWLAxiom> axioms, ReasoningKernel kernel) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large for a JFact snapshot");
+            }
+            in = ByteBuffer.allocate((int) size);
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // keep reading
+            }
+            in.flip();
+        }
+        if (in.remaining() < MIN_SIZE || in.getInt() != MAGIC) {
+            throw new IOException(file + " is not a JFact snapshot");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException(file + " has snapshot version " + version + ", expected " + VERSION);
+        }
+        // the checksum covers everything before it
+        int end = in.limit() - 4;
+        ByteBuffer checked = in.duplicate();
+        checked.position(0);
+        checked.limit(end);
+        CRC32 crc = new CRC32();
+        crc.update(checked);
+        if ((int) crc.getValue() != in.getInt(end)) {
+            throw new IOException(file + " is corrupted or truncated");
+        }
+        in.limit(end);
+        int length = in.getInt();
+        if (length < 0 || length > 64 || length >= in.remaining()) {
+            throw new IOException(file + " has a corrupted header");
+        }
+        byte[] digest = new byte[length];
+        in.get(digest);
+        if (!Arrays.equals(digest, digest(axioms))) {
+            throw new IOException(file + " was taken for a different set of axioms");
+        }
+        byte consistency = in.get();
+        try {
+            TBoxSnapshot.restore(kernel, in);
+        } catch (IOException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+        if (in.hasRemaining()) {
+            throw new IOException(file + " has " + in.remaining() + " bytes after the saved state");
+        }
+        return consistency == 0 ? null : Boolean.valueOf(consistency == 2);
+    }
+}
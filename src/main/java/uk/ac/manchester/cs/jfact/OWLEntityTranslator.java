@@ -69,6 +69,16 @@ abstract class OWLEntityTranslator<E extends OWLObject, T extends Entity> implem
         return pointer;
     }
 
+    /**
+     * @param entity entity
+     * @return pointer for an entity that was already translated, null otherwise; never registers
+     *         a new entity
+     */
+    @Nullable
+    public T getKnownPointer(E entity) {
+        return this.entity2dlentity.get(entity);
+    }
+
     public Node<E> node(Stream<T> pointers) {
         return createDefaultNode(pointers.map(this::getEntityFromPointer));
     }
@@ -16,39 +16,64 @@ import conformance.Original;
 import conformance.PortedFrom;
 
 /**
- * Dependency set
+ * Dependency set. Sets of levels below 64, the common case, are stored in a
+ * single word; larger ones in an immutable, interned set of levels, so that
+ * copies share the set.
  * 
  * @author ignazio
  */
 @PortedFrom(file = "tDepSet.h", name = "TDepSet")
 public class DepSet implements Serializable {
 
-    @Original private RoaringBitmap delegate = null;
+    /** number of levels stored in the bit word */
+    private static final int WORD = 64;
+    /** levels of a set with all levels below 64; 0 otherwise */
+    @Original private long bits = 0;
+    /** levels of a set with a level of at least 64; null otherwise */
+    @PortedFrom(file = "tDepSet.h", name = "pDep") @Nullable private DepSetElement delegate = null;
 
     protected DepSet() {}
 
     /**
+     * @param bits
+     *        bits
      * @param d
      *        d
      */
-    private DepSet(RoaringBitmap d) {
+    private DepSet(long bits, @Nullable DepSetElement d) {
+        this.bits = bits;
         delegate = d;
     }
 
     protected DepSet(int i) {
-        delegate = RoaringBitmap.bitmapOf(i);
+        if (i < WORD) {
+            bits = 1L << i;
+        } else {
+            delegate = DepSetManager.current().get(i, null);
+        }
     }
 
     /**
-     * to be used to get the FastSet and store it in CWDArray save/restore
+     * to be used to store the set in todo entries, together with the bits
      * 
-     * @return delegate
+     * @return delegate, null if all levels are below 64
      */
     @Original
-    public RoaringBitmap getDelegate() {
+    @Nullable
+    public DepSetElement getDelegate() {
         return delegate;
     }
 
+    /**
+     * to be used to store the set in todo entries, together with the delegate
+     * 
+     * @return levels of a set with all levels below 64, as bits
+     */
+    @Original
+    public long getBits() {
+        return bits;
+    }
+
     /**
      * @return empty depset
      */
@@ -77,7 +102,7 @@ public class DepSet implements Serializable {
         if (dep == null) {
             return create();
         }
-        return new DepSet(dep.delegate);
+        return new DepSet(dep.bits, dep.delegate);
     }
 
     /**
@@ -89,32 +114,45 @@ public class DepSet implements Serializable {
      */
     @PortedFrom(file = "tDepSet.h", name = "+")
     public static DepSet plus(@Nullable DepSet ds1, @Nullable DepSet ds2) {
-        if (ds1 == null && ds2 == null) {
-            return new DepSet();
-        }
-        if (ds1 == null || ds1.isEmpty()) {
-            if (ds2 == null || ds2.isEmpty()) {
-                return new DepSet();
-            }
-            return new DepSet(ds2.delegate);
-        }
-        if (ds2 == null || ds2.isEmpty()) {
-            return new DepSet(ds1.delegate);
-        }
-        DepSet toReturn = new DepSet();
-        toReturn.add(ds1);
+        DepSet toReturn = create(ds1);
         toReturn.add(ds2);
         return toReturn;
     }
 
     /**
+     * @param bits
+     *        bits, as returned by getBits()
      * @param delegate
-     *        delegate
-     * @return depset wrapper over delegate
+     *        delegate, as returned by getDelegate()
+     * @return depset with the given content
+     */
+    @Original
+    public static DepSet create(long bits, @Nullable DepSetElement delegate) {
+        return new DepSet(bits, delegate);
+    }
+
+    /**
+     * @param levels
+     *        levels
+     * @return depset containing levels
      */
     @PortedFrom(file = "tDepSet.h", name = "create")
-    public static DepSet create(RoaringBitmap delegate) {
-        return new DepSet(delegate);
+    public static DepSet create(RoaringBitmap levels) {
+        if (levels.isEmpty() || levels.getReverseIntIterator().next() < WORD) {
+            long bits = 0;
+            IntIterator it = levels.getIntIterator();
+            while (it.hasNext()) {
+                bits |= 1L << it.next();
+            }
+            return new DepSet(bits, null);
+        }
+        DepSetManager manager = DepSetManager.current();
+        DepSetElement e = null;
+        IntIterator it = levels.getIntIterator();
+        while (it.hasNext()) {
+            e = manager.get(it.next(), e);
+        }
+        return new DepSet(0, e);
     }
 
     /**
@@ -122,14 +160,10 @@ public class DepSet implements Serializable {
      */
     @PortedFrom(file = "tDepSet.h", name = "level")
     public int level() {
-        return max(delegate);
-    }
-
-    private static int max(@Nullable RoaringBitmap set) {
-        if (set == null || set.isEmpty()) {
-            return 0;
+        if (delegate != null) {
+            return delegate.level;
         }
-        return set.getReverseIntIterator().next();
+        return bits == 0 ? 0 : WORD - 1 - Long.numberOfLeadingZeros(bits);
     }
 
     /**
@@ -137,7 +171,7 @@ public class DepSet implements Serializable {
      */
     @PortedFrom(file = "tDepSet.h", name = "empty")
     public boolean isEmpty() {
-        return delegate == null || delegate.isEmpty();
+        return bits == 0 && delegate == null;
     }
 
     @Override
@@ -145,36 +179,31 @@ public class DepSet implements Serializable {
         if (isEmpty()) {
             return "";
         }
-        return "{" + delegate.toString() + "}";
+        if (delegate != null) {
+            return "{" + delegate.toString() + "}";
+        }
+        StringBuilder b = new StringBuilder("{{");
+        for (long l = bits; l != 0; l &= l - 1) {
+            b.append(Long.numberOfTrailingZeros(l)).append(l == Long.lowestOneBit(l) ? "" : ",");
+        }
+        return b.append("}}").toString();
     }
 
     @Override
     public boolean equals(@Nullable Object obj) {
-        if (obj == null) {
-            return false;
-        }
         if (this == obj) {
             return true;
         }
         if (obj instanceof DepSet) {
-            DepSet obj2 = (DepSet) obj;
-            if (delegate == null) {
-                return obj2.delegate == null;
-            }
-            if (isEmpty() != obj2.isEmpty()) {
-                return false;
-            }
-            if (isEmpty()) {
-                return true;
-            }
-            return delegate.equals(obj2.delegate);
+            DepSet d = (DepSet) obj;
+            return bits == d.bits && (delegate == null ? d.delegate == null : delegate.equals(d.delegate));
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return delegate == null ? 0 : delegate.hashCode();
+        return delegate == null ? Long.hashCode(bits) : delegate.hashCode();
     }
 
     /**
@@ -183,27 +212,26 @@ public class DepSet implements Serializable {
      */
     @PortedFrom(file = "tDepSet.h", name = "restrict")
     public void restrict(int level) {
-        if (delegate != null) {
-            RoaringBitmap f = new RoaringBitmap();
-            IntIterator it = delegate.getIntIterator();
-            while (it.hasNext()) {
-                int i = it.next();
-                if (i < level) {
-                    f.add(i);
-                }
+        if (delegate == null) {
+            if (level < WORD) {
+                bits &= level <= 0 ? 0 : (1L << level) - 1;
             }
-            if (f.isEmpty()) {
-                delegate = null;
-            } else {
-                delegate = f;
+            return;
+        }
+        delegate = delegate.restrict(level);
+        if (delegate != null && delegate.level < WORD) {
+            // back to the word representation
+            for (DepSetElement e = delegate; e != null; e = e.tail) {
+                bits |= 1L << e.level;
             }
+            delegate = null;
         }
-        // if the depset is empty, no operation
     }
 
     /** empty the delegate */
     @PortedFrom(file = "tDepSet.h", name = "clear")
     public void clear() {
+        bits = 0;
         delegate = null;
     }
 
@@ -216,13 +244,33 @@ public class DepSet implements Serializable {
         if (toAdd == null || toAdd.isEmpty()) {
             return;
         }
-        if (delegate == null) {
-            delegate = toAdd.delegate;
+        if (delegate == null && toAdd.delegate == null) {
+            bits |= toAdd.bits;
             return;
         }
-        if (delegate.equals(toAdd.delegate)) {
+        if (toAdd.delegate == delegate && toAdd.bits == bits) {
             return;
         }
-        delegate = RoaringBitmap.or(delegate, toAdd.delegate);
+        DepSetManager manager = DepSetManager.current();
+        delegate = manager.merge(element(manager, bits, delegate), element(manager, toAdd.bits, toAdd.delegate));
+        bits = 0;
+    }
+
+    /**
+     * @param manager
+     *        manager to intern new elements with
+     * @param bits
+     *        bits of a set
+     * @param delegate
+     *        delegate of a set
+     * @return element for the set
+     */
+    @Nullable
+    private static DepSetElement element(DepSetManager manager, long bits, @Nullable DepSetElement delegate) {
+        DepSetElement e = delegate;
+        for (long l = bits; l != 0; l &= l - 1) {
+            e = manager.get(Long.numberOfTrailingZeros(l), e);
+        }
+        return e;
     }
 }
@@ -0,0 +1,100 @@
+package uk.ac.manchester.cs.jfact.dep;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+
+import javax.annotation.Nullable;
+
+import conformance.Original;
+import conformance.PortedFrom;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+/**
+ * Immutable, hash-consed set of branching levels: a node of a trie in which
+ * the set of an element is its level together with the (lower) levels of its
+ * tail. Elements created by the same manager are unique, so they can be
+ * compared by identity.
+ */
+@PortedFrom(file = "tDepSet.h", name = "TDepSetElement")
+public final class DepSetElement implements Serializable {
+
+    /** the highest level in the set */
+    @PortedFrom(file = "tDepSet.h", name = "Level") final int level;
+    /** the rest of the set; null if the set has one level only */
+    @PortedFrom(file = "tDepSet.h", name = "Tail") @Nullable final DepSetElement tail;
+    /** manager that interned the element; null after deserialisation */
+    @Original @Nullable final transient DepSetManager manager;
+    @Original private final int hash;
+    /** elements having this one as a tail, by level */
+    @PortedFrom(file = "tDepSet.h", name = "Children") @Nullable private transient TIntObjectHashMap<DepSetElement> children;
+
+    DepSetElement(int level, @Nullable DepSetElement tail, DepSetManager manager) {
+        assert tail == null || tail.level < level;
+        this.level = level;
+        this.tail = tail;
+        this.manager = manager;
+        hash = 31 * (tail == null ? 0 : tail.hash) + level;
+    }
+
+    /** @return elements having this one as a tail, by level */
+    TIntObjectHashMap<DepSetElement> children() {
+        if (children == null) {
+            children = new TIntObjectHashMap<>();
+        }
+        return children;
+    }
+
+    /**
+     * @param level
+     *        level
+     * @return the largest subset with all levels below level; null if empty
+     */
+    @PortedFrom(file = "tDepSet.h", name = "restrict")
+    @Nullable
+    DepSetElement restrict(int level) {
+        DepSetElement e = this;
+        while (e != null && e.level >= level) {
+            e = e.tail;
+        }
+        return e;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DepSetElement) || hash != obj.hashCode()) {
+            return false;
+        }
+        DepSetElement a = this;
+        DepSetElement b = (DepSetElement) obj;
+        // elements of the same manager are unique
+        while (a != null && b != null && a != b && (a.manager == null || a.manager != b.manager)) {
+            if (a.level != b.level) {
+                return false;
+            }
+            a = a.tail;
+            b = b.tail;
+        }
+        return a == b;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        for (DepSetElement e = this; e != null; e = e.tail) {
+            b.insert(0, e.level).insert(0, e.tail == null ? "{" : ",");
+        }
+        return b.append('}').toString();
+    }
+}
@@ -0,0 +1,134 @@
+package uk.ac.manchester.cs.jfact.dep;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import javax.annotation.Nullable;
+
+import conformance.Original;
+import conformance.PortedFrom;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+/**
+ * Creates and keeps unique dep-set elements, and remembers recent unions in a
+ * bounded memo. One manager is used per thread; it is replaced by an empty one
+ * once it grows past a limit, and elements of a previous manager are interned
+ * again when they are used.
+ */
+@PortedFrom(file = "tDepSet.h", name = "TDepSetManager")
+final class DepSetManager {
+
+    /** number of elements after which the manager is replaced */
+    private static final int LIMIT = 1 << 18;
+    /** log2 of the number of slots of the union memo */
+    private static final int MEMO_BITS = 12;
+    private static final ThreadLocal<DepSetManager> CURRENT = ThreadLocal.withInitial(DepSetManager::new);
+    /** single level elements, by level */
+    @PortedFrom(file = "tDepSet.h", name = "HeadList") private final TIntObjectHashMap<DepSetElement> heads = new TIntObjectHashMap<>();
+    @Original private int size = 0;
+    /**
+     * recent unions: slot i holds the union of memoLeft[i] and memoRight[i];
+     * a new union replaces the one in its slot
+     */
+    @Original private final DepSetElement[] memoLeft = new DepSetElement[1 << MEMO_BITS];
+    @Original private final DepSetElement[] memoRight = new DepSetElement[1 << MEMO_BITS];
+    @Original private final DepSetElement[] memoUnion = new DepSetElement[1 << MEMO_BITS];
+
+    /** @return manager for the current thread */
+    static DepSetManager current() {
+        DepSetManager m = CURRENT.get();
+        if (m.size > LIMIT) {
+            m = new DepSetManager();
+            CURRENT.set(m);
+        }
+        return m;
+    }
+
+    /**
+     * @param level
+     *        highest level
+     * @param tail
+     *        lower levels, interned by this manager
+     * @return unique element for level and tail
+     */
+    @PortedFrom(file = "tDepSet.h", name = "get")
+    DepSetElement get(int level, @Nullable DepSetElement tail) {
+        TIntObjectHashMap<DepSetElement> map = tail == null ? heads : tail.children();
+        DepSetElement e = map.get(level);
+        if (e == null) {
+            e = new DepSetElement(level, tail, this);
+            size++;
+            map.put(level, e);
+        }
+        return e;
+    }
+
+    /**
+     * @param e
+     *        element, possibly created by another manager
+     * @return equal element created by this manager
+     */
+    @Nullable
+    DepSetElement intern(@Nullable DepSetElement e) {
+        if (e == null || e.manager == this) {
+            return e;
+        }
+        return get(e.level, intern(e.tail));
+    }
+
+    /**
+     * @param a
+     *        first set
+     * @param b
+     *        second set
+     * @return union of a and b
+     */
+    @PortedFrom(file = "tDepSet.h", name = "merge")
+    @Nullable
+    DepSetElement merge(@Nullable DepSetElement a, @Nullable DepSetElement b) {
+        if (a == null || a == b) {
+            return intern(b);
+        }
+        if (b == null) {
+            return intern(a);
+        }
+        a = intern(a);
+        b = intern(b);
+        if (a == b) {
+            return a;
+        }
+        // elements are unique within the manager, so the memo compares them
+        // by identity; the slot does not depend on the order of a and b
+        int slot = (a.hashCode() ^ b.hashCode()) * 0x9E3779B9 >>> 32 - MEMO_BITS;
+        DepSetElement l = memoLeft[slot];
+        DepSetElement r = memoRight[slot];
+        if (l == a && r == b || l == b && r == a) {
+            return memoUnion[slot];
+        }
+        DepSetElement union = mergeFresh(a, b);
+        memoLeft[slot] = a;
+        memoRight[slot] = b;
+        memoUnion[slot] = union;
+        return union;
+    }
+
+    /**
+     * @param a
+     *        first set, interned
+     * @param b
+     *        second set, interned
+     * @return union of a and b, not looked up in the memo
+     */
+    @Original
+    private DepSetElement mergeFresh(DepSetElement a, DepSetElement b) {
+        if (a.level == b.level) {
+            return get(a.level, merge(a.tail, b.tail));
+        }
+        if (a.level > b.level) {
+            return get(a.level, merge(a.tail, b));
+        }
+        return get(b.level, merge(a, b.tail));
+    }
+}
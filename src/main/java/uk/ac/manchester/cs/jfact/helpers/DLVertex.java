@@ -8,6 +8,9 @@ package uk.ac.manchester.cs.jfact.helpers;
 import static uk.ac.manchester.cs.jfact.helpers.Helper.*;
 import static uk.ac.manchester.cs.jfact.kernel.DagTag.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -41,7 +44,7 @@ public class DLVertex extends DLVertexTagDFS {
 
         protected final FastSet children = FastSetFactory.create();
         private final SortedIntList original = new SortedIntList();
-        private int[] sorted = null;
+        private volatile int[] sorted = null;
         protected DLDag sorter = null;
 
         @Override
@@ -76,13 +79,16 @@ public class DLVertex extends DLVertexTagDFS {
         }
 
         public int[] sorted() {
-            if (sorted == null) {
-                sorted = new int[children.size()];
+            int[] toReturn = sorted;
+            if (toReturn == null) {
+                // fill before publishing: vertices are shared by reasoners
+                // running in parallel
+                toReturn = new int[children.size()];
                 if (sorter == null) {
                     for (int i = 0; i < children.size(); i++) {
                         // if there is no sorting, use the original insertion
                         // order
-                        sorted[i] = original.get(i);
+                        toReturn[i] = original.get(i);
                     }
                 } else {
                     List<Integer> l = new ArrayList<>();
@@ -90,12 +96,13 @@ public class DLVertex extends DLVertexTagDFS {
                         l.add(Integer.valueOf(children.get(i)));
                     }
                     Collections.sort(l, this);
-                    for (int i = 0; i < sorted.length; ++i) {
-                        sorted[i] = l.get(i).intValue();
+                    for (int i = 0; i < toReturn.length; ++i) {
+                        toReturn[i] = l.get(i).intValue();
                     }
                 }
+                sorted = toReturn;
             }
-            return sorted;
+            return toReturn;
         }
 
         public boolean contains(int inverse) {
@@ -118,8 +125,8 @@ public class DLVertex extends DLVertexTagDFS {
     }
 
     @PortedFrom(file = "dlVertex.h", name = "Child")
-    /** set of arguments (CEs, numbers for NR) */
-    private final ChildSet child = new ChildSet();
+    /** set of arguments (CEs, numbers for NR); written as a plain list */
+    private transient ChildSet child = new ChildSet();
     /** pointer to concept-like entry (for PConcept, etc) */
     @PortedFrom(file = "dlVertex.h", name = "Concept") private NamedEntry concept = null;
     /** pointer to role (for E\A, NR) */
@@ -133,9 +140,6 @@ public class DLVertex extends DLVertexTagDFS {
     /** maximal depth, size and frequency of reference of the expression */
     @PortedFrom(file = "dlVertex.h", name = "Sort") private final MergableLabel sort = new MergableLabel();
     private final DLDag heap;
-    /** maximal depth, size and frequency of reference of the expression */
-    @PortedFrom(file = "dlVertex.h", name = "stat") protected final int[] stat = new int[] { 0, 0, 0, 0, 0, 0, 0, 0, 0,
-        0 };
     /** usage statistic for pos- and neg occurences of a vertex */
     @PortedFrom(file = "dlVertex.h", name = "posUsage") protected final long posUsage = 0;
     @PortedFrom(file = "dlVertex.h", name = "negUsage") protected final long negUsage = 0;
@@ -272,6 +276,14 @@ public class DLVertex extends DLVertexTagDFS {
         return n;
     }
 
+    /**
+     * @return number of arguments
+     */
+    @Original
+    public int getNumberOfChildren() {
+        return child.children.size();
+    }
+
     /**
      * @return pointer to the first concept name of the entry
      */
@@ -394,14 +406,17 @@ public class DLVertex extends DLVertexTagDFS {
      * @param extendedStats
      *        true if extended stats should be printed
      * @return toString value
+     * @deprecated the statistic is kept by the DAG; use
+     *             {@link DLDag#getStat(DLVertex, int)}
      */
+    @Deprecated
     public String toString(boolean extendedStats) {
         StringBuilder o = new StringBuilder();
         if (extendedStats) {
-            o.append(String.format("[d(%s/%s),s(%s/%s),b(%s/%s),g(%s/%s),f(%s/%s)] ", Integer.toString(stat[0]),
-                Integer.toString(stat[1]), Integer.toString(stat[2]), Integer.toString(stat[3]),
-                Integer.toString(stat[4]), Integer.toString(stat[5]), Integer.toString(stat[6]),
-                Integer.toString(stat[7]), Integer.toString(stat[8]), Integer.toString(stat[9])));
+            o.append(String.format("[d(%s/%s),s(%s/%s),b(%s/%s),g(%s/%s),f(%s/%s)] ", Integer.toString(getStat(0)),
+                Integer.toString(getStat(1)), Integer.toString(getStat(2)), Integer.toString(getStat(3)),
+                Integer.toString(getStat(4)), Integer.toString(getStat(5)), Integer.toString(getStat(6)),
+                Integer.toString(getStat(7)), Integer.toString(getStat(8)), Integer.toString(getStat(9))));
         }
         o.append(toString());
         return o.toString();
@@ -467,10 +482,13 @@ public class DLVertex extends DLVertexTagDFS {
      *        g
      * @param pos
      *        pos
+     * @deprecated the statistic is kept by the DAG; use
+     *             {@link DLDag#updateStatValues(DLVertex, int, int, int, int, boolean)}
      */
+    @Deprecated
     @PortedFrom(file = "dlVertex.h", name = "updateStatValues")
     public void updateStatValues(int d, int s, int b, int g, boolean pos) {
-        StatIndex.updateStatValues(d, s, b, g, pos, stat, false);
+        heap.updateStatValues(this, d, s, b, g, pos);
     }
 
     /**
@@ -482,10 +500,13 @@ public class DLVertex extends DLVertexTagDFS {
      *        posV
      * @param pos
      *        pos
+     * @deprecated the statistic is kept by the DAG; use
+     *             {@link DLDag#updateStatValues(DLVertex, DLVertex, boolean, boolean)}
      */
+    @Deprecated
     @PortedFrom(file = "dlVertex.h", name = "updateStatValues")
     public void updateStatValues(DLVertex v, boolean posV, boolean pos) {
-        StatIndex.updateStatValues(v, posV, pos, stat, false);
+        heap.updateStatValues(this, v, posV, pos);
     }
 
     /**
@@ -493,23 +514,28 @@ public class DLVertex extends DLVertexTagDFS {
      * 
      * @param pos
      *        pos
+     * @deprecated the statistic is kept by the DAG; use
+     *             {@link DLDag#incFreqValue(DLVertex, boolean)}
      */
+    @Deprecated
     @PortedFrom(file = "dlVertex.h", name = "incFreqValue")
     public void incFreqValue(boolean pos) {
-        StatIndex.incFreqValue(pos, stat);
+        heap.incFreqValue(this, pos);
     }
 
-    // get methods
     /**
      * general access to a stat value by index
      * 
      * @param i
      *        i
      * @return stat at position i
+     * @deprecated the statistic is kept by the DAG; use
+     *             {@link DLDag#getStat(DLVertex, int)}
      */
+    @Deprecated
     @PortedFrom(file = "dlVertex.h", name = "getStat")
     public int getStat(int i) {
-        return stat[i];
+        return heap.getStat(this, i);
     }
 
     /**
@@ -518,10 +544,13 @@ public class DLVertex extends DLVertexTagDFS {
      * @param pos
      *        pos
      * @return depth of queue pos
+     * @deprecated the statistic is kept by the DAG; use
+     *             {@link DLDag#getStat(DLVertex, int)}
      */
+    @Deprecated
     @PortedFrom(file = "dlVertex.h", name = "getDepth")
     public int getDepth(boolean pos) {
-        return StatIndex.getDepth(pos, stat);
+        return getStat(StatIndex.DEPTH.getIndex(pos));
     }
 
     /**
@@ -535,4 +564,25 @@ public class DLVertex extends DLVertexTagDFS {
     public long getUsage(boolean pos) {
         return pos ? posUsage : negUsage;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(child.sorter);
+        out.writeInt(child.children.size());
+        for (int i = 0; i < child.children.size(); i++) {
+            out.writeInt(child.original.get(i));
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        child = new ChildSet();
+        DLDag sorter = (DLDag) in.readObject();
+        for (int i = in.readInt(); i > 0; i--) {
+            child.add(in.readInt());
+        }
+        if (sorter != null) {
+            child.setSorter(sorter);
+        }
+    }
 }
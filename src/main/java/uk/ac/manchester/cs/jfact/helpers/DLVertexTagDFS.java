@@ -17,22 +17,10 @@ import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
 class DLVertexTagDFS implements Serializable {
 
     @PortedFrom(file = "dlVertex.h", name = "Op") protected DagTag dagtag;
-    /** aux field for DFS in presence of cycles */
-    @PortedFrom(file = "dlVertex.h", name = "VisitedPos") protected boolean visitedPos = false;
-    /** aux field for DFS in presence of cycles */
-    @PortedFrom(file = "dlVertex.h", name = "ProcessedPos") protected boolean processedPos = false;
-    /** true iff node is involved in cycle */
-    @PortedFrom(file = "dlVertex.h", name = "inCyclePos") protected boolean inCyclePos = false;
-    /** aux field for DFS in presence of cycles */
-    @PortedFrom(file = "dlVertex.h", name = "VisitedNeg") protected boolean visitedNeg = false;
-    /** aux field for DFS in presence of cycles */
-    @PortedFrom(file = "dlVertex.h", name = "ProcessedNeg") protected boolean processedNeg = false;
-    /** true iff node is involved in cycle */
-    @PortedFrom(file = "dlVertex.h", name = "inCycleNeg") protected boolean inCycleNeg = false;
-    /** cache for the positive entry */
-    @PortedFrom(file = "dlVertex.h", name = "pCache") protected ModelCacheInterface pCache = null;
-    /** cache for the negative entry */
-    @PortedFrom(file = "dlVertex.h", name = "nCache") protected ModelCacheInterface nCache = null;
+    /** cache for the positive entry; volatile as it is set by classification workers */
+    @PortedFrom(file = "dlVertex.h", name = "pCache") protected volatile ModelCacheInterface pCache = null;
+    /** cache for the negative entry; volatile as it is set by classification workers */
+    @PortedFrom(file = "dlVertex.h", name = "nCache") protected volatile ModelCacheInterface nCache = null;
 
     @PortedFrom(file = "dlVertex.h", name = "Op")
     protected DLVertexTagDFS(DagTag op) {
@@ -46,99 +34,6 @@ class DLVertexTagDFS implements Serializable {
         return dagtag;
     }
 
-    // DFS-related method
-    /**
-     * check whether current Vertex is being visited
-     * 
-     * @param pos
-     *        pos
-     * @return true if being visited
-     */
-    @PortedFrom(file = "dlVertex.h", name = "isVisited")
-    public boolean isVisited(boolean pos) {
-        return pos ? visitedPos : visitedNeg;
-    }
-
-    /**
-     * check whether current Vertex is processed
-     * 
-     * @param pos
-     *        pos
-     * @return true if processed
-     */
-    @PortedFrom(file = "dlVertex.h", name = "isProcessed")
-    public boolean isProcessed(boolean pos) {
-        return pos ? processedPos : processedNeg;
-    }
-
-    /**
-     * set that the node is being visited
-     * 
-     * @param pos
-     *        pos
-     */
-    @PortedFrom(file = "dlVertex.h", name = "setVisited")
-    public void setVisited(boolean pos) {
-        if (pos) {
-            visitedPos = true;
-        } else {
-            visitedNeg = true;
-        }
-    }
-
-    /**
-     * set that the node' DFS processing is completed
-     * 
-     * @param pos
-     *        pos
-     */
-    @PortedFrom(file = "dlVertex.h", name = "setProcessed")
-    public void setProcessed(boolean pos) {
-        if (pos) {
-            processedPos = true;
-            visitedPos = false;
-        } else {
-            processedNeg = true;
-            visitedNeg = false;
-        }
-    }
-
-    /** clear DFS flags */
-    @PortedFrom(file = "dlVertex.h", name = "clearDFS")
-    public void clearDFS() {
-        processedPos = false;
-        visitedPos = false;
-        processedNeg = false;
-        visitedNeg = false;
-    }
-
-    /**
-     * check whether concept is in cycle
-     * 
-     * @param pos
-     *        pos
-     * @return true if concept is in cycle
-     */
-    @PortedFrom(file = "dlVertex.h", name = "isInCycle")
-    public boolean isInCycle(boolean pos) {
-        return pos ? inCyclePos : inCycleNeg;
-    }
-
-    /**
-     * set concept is in cycle
-     * 
-     * @param pos
-     *        pos
-     */
-    @PortedFrom(file = "dlVertex.h", name = "setInCycle")
-    public void setInCycle(boolean pos) {
-        if (pos) {
-            inCyclePos = true;
-        } else {
-            inCycleNeg = true;
-        }
-    }
-
     /**
      * @return cache wrt positive flag
      * @param pos
@@ -6,13 +6,17 @@ package uk.ac.manchester.cs.jfact.helpers;
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 import conformance.Original;
 import conformance.PortedFrom;
 
 /**
- * save stack
+ * save stack; popped objects stay in place until they are overwritten, so
+ * that they can be recycled by the next push
  * 
  * @param <T>
  *        type
@@ -20,9 +24,9 @@ import conformance.PortedFrom;
 @PortedFrom(file = "tSaveStack.h", name = "TSaveStack")
 public class SaveStack<T> implements Serializable {
 
-
-    @Original
-    protected final LinkedList<T> list = new LinkedList<>();
+    @Original protected final List<T> list = new ArrayList<>();
+    /** number of objects on the stack */
+    @PortedFrom(file = "tSaveStack.h", name = "last") private int size = 0;
 
     /**
      * @param depth
@@ -40,20 +44,19 @@ public class SaveStack<T> implements Serializable {
      *        depth
      * @return an object from a fixed depth
      */
+    @Nullable
     @PortedFrom(file = "tSaveStack.h", name = "top")
     public T top(int depth) {
-        assert list.size() >= depth;
-        while (list.size() > depth) {
-            pop();
-        }
-        return list.peek();
+        assert size >= depth;
+        size = Math.min(size, depth);
+        return size == 0 ? null : list.get(size - 1);
     }
 
     /** @return pop stack */
     @PortedFrom(file = "tSaveStack.h", name = "pop")
     public T pop() {
-        assert !list.isEmpty();
-        return list.pop();
+        assert size > 0;
+        return list.get(--size);
     }
 
     /**
@@ -62,18 +65,33 @@ public class SaveStack<T> implements Serializable {
      */
     @PortedFrom(file = "tSaveStack.h", name = "push")
     public void push(T e) {
-        list.push(e);
+        if (size < list.size()) {
+            list.set(size, e);
+        } else {
+            list.add(e);
+        }
+        size++;
+    }
+
+    /**
+     * @return the object last popped from the position the next push will
+     *         use, to be reinitialised and pushed again; null if there is none
+     */
+    @Original
+    @Nullable
+    public T recycle() {
+        return size < list.size() ? list.get(size) : null;
     }
 
-    /** clear the stack */
+    /** clear the stack; the objects are kept for recycling */
     @Original
     public void clear() {
-        list.clear();
+        size = 0;
     }
 
     /** @return true if is empty */
     @PortedFrom(file = "tSaveStack.h", name = "empty")
     public boolean isEmpty() {
-        return list.isEmpty();
+        return size == 0;
     }
 }
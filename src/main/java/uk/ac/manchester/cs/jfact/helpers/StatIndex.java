@@ -44,6 +44,9 @@ public enum StatIndex {
         }
     }
 
+    /** number of stat values kept for a vertex */
+    public static final int NSTAT = 10;
+
     /**
      * add-up all stat values at once by explicit values
      * 
@@ -59,35 +62,35 @@ public enum StatIndex {
      *        pos
      * @param stat
      *        stat
-     * @param debug
-     *        true if debug values
+     * @param base
+     *        offset of the vertex values in stat
      */
-    public static void updateStatValues(int d, int s, int b, int g, boolean pos, int[] stat, boolean debug) {
-        stat[SIZE.getIndex(pos)] += s;
-        stat[BRANCH.getIndex(pos)] += b;
-        stat[GENER.getIndex(pos)] += g;
-        if (d > stat[DEPTH.getIndex(pos)]) {
-            stat[DEPTH.getIndex(pos)] = d;
+    public static void updateStatValues(int d, int s, int b, int g, boolean pos, int[] stat, int base) {
+        stat[base + SIZE.getIndex(pos)] += s;
+        stat[base + BRANCH.getIndex(pos)] += b;
+        stat[base + GENER.getIndex(pos)] += g;
+        if (d > stat[base + DEPTH.getIndex(pos)]) {
+            stat[base + DEPTH.getIndex(pos)] = d;
         }
     }
 
     /**
      * add-up all values at once by a given vertex
      * 
-     * @param v
-     *        v
+     * @param stat
+     *        stat
+     * @param from
+     *        offset of the values of the given vertex in stat
      * @param posV
      *        posV
+     * @param base
+     *        offset of the vertex values in stat
      * @param pos
      *        pos
-     * @param stat
-     *        stat
-     * @param debug
-     *        true if debug values
      */
-    public static void updateStatValues(DLVertex v, boolean posV, boolean pos, int[] stat, boolean debug) {
-        updateStatValues(getDepth(posV, v.stat), getSize(posV, v.stat), getBranch(posV, v.stat), getGener(posV, v.stat),
-            pos, stat, debug);
+    public static void updateStatValues(int[] stat, int from, boolean posV, int base, boolean pos) {
+        updateStatValues(stat[from + DEPTH.getIndex(posV)], stat[from + SIZE.getIndex(posV)], stat[from + BRANCH
+            .getIndex(posV)], stat[from + GENER.getIndex(posV)], pos, stat, base);
     }
 
     /**
@@ -97,9 +100,11 @@ public enum StatIndex {
      *        pos
      * @param stat
      *        stat
+     * @param base
+     *        offset of the vertex values in stat
      */
-    public static void incFreqValue(boolean pos, int[] stat) {
-        stat[FREQ.getIndex(pos)] += 1;
+    public static void incFreqValue(boolean pos, int[] stat, int base) {
+        stat[base + FREQ.getIndex(pos)] += 1;
     }
 
     /**
@@ -109,61 +114,11 @@ public enum StatIndex {
      *        pos
      * @param stat
      *        stat
+     * @param base
+     *        offset of the vertex values in stat
      * @return depth
      */
-    public static int getDepth(boolean pos, int[] stat) {
-        return stat[DEPTH.getIndex(pos)];
-    }
-
-    /**
-     * general access to a stat value by index
-     * 
-     * @param pos
-     *        pos
-     * @param stat
-     *        stat
-     * @return size
-     */
-    protected static int getSize(boolean pos, int[] stat) {
-        return stat[SIZE.getIndex(pos)];
-    }
-
-    /**
-     * general access to a stat value by index
-     * 
-     * @param pos
-     *        pos
-     * @param stat
-     *        stat
-     * @return branch
-     */
-    protected static int getBranch(boolean pos, int[] stat) {
-        return stat[BRANCH.getIndex(pos)];
-    }
-
-    /**
-     * general access to a stat value by index
-     * 
-     * @param pos
-     *        pos
-     * @param stat
-     *        stat
-     * @return gener
-     */
-    protected static int getGener(boolean pos, int[] stat) {
-        return stat[GENER.getIndex(pos)];
-    }
-
-    /**
-     * general access to a stat value by index
-     * 
-     * @param pos
-     *        pos
-     * @param stat
-     *        stat
-     * @return freq
-     */
-    protected static int getFreq(boolean pos, int[] stat) {
-        return stat[FREQ.getIndex(pos)];
+    public static int getDepth(boolean pos, int[] stat, int base) {
+        return stat[base + DEPTH.getIndex(pos)];
     }
 }
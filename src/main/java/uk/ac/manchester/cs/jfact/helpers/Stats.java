@@ -37,6 +37,11 @@ public class Stats implements Serializable {
             ++local;
         }
 
+        /** @return accumulated plus current session value */
+        public int get() {
+            return total + local;
+        }
+
         /** add local value to a global one. */
         public void accumulate() {
             total += local;
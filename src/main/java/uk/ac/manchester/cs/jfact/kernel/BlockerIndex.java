@@ -0,0 +1,149 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import conformance.Original;
+
+/**
+ * Candidate blockers for anywhere blocking. A blocker needs a label including
+ * the label of the blocked node, so its label signature covers the signature
+ * of the node; the index keeps, for each of the 64 signature bits, the nodes
+ * whose signature has that bit, and a lookup only walks the smallest of the
+ * sets selected by the signature of the node. The completion graph only marks
+ * the nodes whose labels change; marked nodes are refiled when a lookup needs
+ * the index, so that label additions and restores cost no bitmap work.
+ */
+@Original
+class BlockerIndex implements Serializable {
+
+    /** nodes in the index */
+    private final RoaringBitmap indexed = new RoaringBitmap();
+    /** for each signature bit, the nodes whose label signature has the bit */
+    private final RoaringBitmap[] slices = new RoaringBitmap[Long.SIZE];
+    /** signature each indexed node is filed under, by node id */
+    private long[] signatures = new long[64];
+    /** marked nodes, one bit per node id */
+    private long[] marked = new long[1];
+    /** marked nodes, in marking order */
+    private int[] pending = new int[64];
+    /** number of marked nodes */
+    private int nPending = 0;
+
+    BlockerIndex() {
+        for (int i = 0; i < slices.length; i++) {
+            slices[i] = new RoaringBitmap();
+        }
+    }
+
+    /**
+     * mark the node as changed; it is refiled at the next lookup
+     *
+     * @param id
+     *        node id
+     */
+    void mark(int id) {
+        int word = id >>> 6;
+        if (word >= marked.length) {
+            marked = Arrays.copyOf(marked, Math.max(word + 1, 2 * marked.length));
+        }
+        long bit = 1L << id;
+        if ((marked[word] & bit) != 0) {
+            return;
+        }
+        marked[word] |= bit;
+        if (nPending == pending.length) {
+            pending = Arrays.copyOf(pending, 2 * nPending);
+        }
+        pending[nPending++] = id;
+    }
+
+    /**
+     * refile the marked nodes
+     *
+     * @param signatureOf
+     *        current label signature by node id
+     */
+    private void flush(IntToLongFunction signatureOf) {
+        for (int i = 0; i < nPending; i++) {
+            int id = pending[i];
+            marked[id >>> 6] &= ~(1L << id);
+            if (id >= signatures.length) {
+                signatures = Arrays.copyOf(signatures, Math.max(id + 1, 2 * signatures.length));
+            }
+            indexed.add(id);
+            refile(id, signatureOf.applyAsLong(id));
+        }
+        nPending = 0;
+    }
+
+    private void refile(int id, long signature) {
+        long changed = signatures[id] ^ signature;
+        while (changed != 0) {
+            int bit = Long.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+            if ((signature & 1L << bit) != 0) {
+                slices[bit].add(id);
+            } else {
+                slices[bit].remove(id);
+            }
+        }
+        signatures[id] = signature;
+    }
+
+    /** remove all the nodes */
+    void clear() {
+        indexed.clear();
+        for (RoaringBitmap slice : slices) {
+            slice.clear();
+        }
+        Arrays.fill(signatures, 0);
+        Arrays.fill(marked, 0);
+        nPending = 0;
+    }
+
+    /**
+     * @param signature
+     *        signature of the label of the blocked node
+     * @param bound
+     *        only nodes with smaller ids are candidates; nodes from the bound
+     *        on might be stale
+     * @param signatureOf
+     *        current label signature by node id, to refile marked nodes
+     * @param test
+     *        blocking test
+     * @return the smallest id below bound whose label signature covers the
+     *         given one and that passes the test, or -1
+     */
+    int findFirst(long signature, int bound, IntToLongFunction signatureOf, IntPredicate test) {
+        flush(signatureOf);
+        RoaringBitmap candidates = indexed;
+        for (long bits = signature; bits != 0; bits &= bits - 1) {
+            RoaringBitmap slice = slices[Long.numberOfTrailingZeros(bits)];
+            if (slice.getCardinality() < candidates.getCardinality()) {
+                candidates = slice;
+            }
+        }
+        IntIterator it = candidates.getIntIterator();
+        while (it.hasNext()) {
+            int id = it.next();
+            if (id >= bound) {
+                return -1;
+            }
+            if ((signature & ~signatures[id]) == 0 && test.test(id)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+}
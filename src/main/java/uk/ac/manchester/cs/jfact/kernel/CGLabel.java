@@ -10,6 +10,7 @@ import static uk.ac.manchester.cs.jfact.helpers.Helper.*;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
@@ -17,19 +18,20 @@ import conformance.Original;
 import conformance.PortedFrom;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
+import uk.ac.manchester.cs.jfact.dep.DepSet;
 import uk.ac.manchester.cs.jfact.helpers.ArrayIntMap;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
-import uk.ac.manchester.cs.jfact.kernel.state.SaveState;
 
 /** Completion graph label */
 @PortedFrom(file = "CGLabel.h", name = "CGLabel")
 public class CGLabel implements Serializable {
 
-    @Original private static int idcounter = 0;
+    @Original private static final AtomicInteger idcounter = new AtomicInteger();
     /** all simple concepts, labelled a node */
     @PortedFrom(file = "CGLabel.h", name = "scLabel") private final CWDArray scLabel;
     /** all complex concepts (ie, FORALL, GE), labelled a node */
     @PortedFrom(file = "CGLabel.h", name = "ccLabel") private final CWDArray ccLabel;
+    @Original private final CWDArray[] labels;
     @Original private final int id;
     @Original private TIntSet lesserIndex = new TIntHashSet();
     @Original private final List<CGLabel> lesserEqualsList = new ArrayList<>();
@@ -45,12 +47,13 @@ public class CGLabel implements Serializable {
         // XXX size might need tuning
         scLabel = new CWDArray(config, 8);
         ccLabel = new CWDArray(config, 4);
+        labels = new CWDArray[] { scLabel, ccLabel };
         id = getnewId();
     }
 
     @Original
     private static int getnewId() {
-        return idcounter++;
+        return idcounter.getAndIncrement();
     }
 
     /** @return simple concepts list */
@@ -87,6 +90,12 @@ public class CGLabel implements Serializable {
         return complex ? ccLabel : scLabel;
     }
 
+    /** @return simple and complex concepts labels, in this order */
+    @Original
+    public CWDArray[] getLabels() {
+        return labels;
+    }
+
     /**
      * index p by tag, clear caches
      * 
@@ -94,10 +103,12 @@ public class CGLabel implements Serializable {
      *        true if complex concepts sought
      * @param p
      *        p
+     * @param dep
+     *        dep-set of p; owned by the label from now on
      */
     @Original
-    public void add(boolean complex, ConceptWDep p) {
-        getLabel(complex).privateAdd(p);
+    public void add(boolean complex, int p, DepSet dep) {
+        getLabel(complex).privateAdd(p, dep);
         clearMyCache();
     }
 
@@ -128,6 +139,16 @@ public class CGLabel implements Serializable {
         return id;
     }
 
+    /**
+     * @return summary of simple and complex concepts; a label can only be
+     *         less or equal than another one if its bits are included in the
+     *         other's
+     */
+    @Original
+    public long getSignature() {
+        return scLabel.getSignature() | ccLabel.getSignature();
+    }
+
     /**
      * @param label
      *        label
@@ -165,27 +186,19 @@ public class CGLabel implements Serializable {
     }
 
     /**
-     * @param ss
-     *        save label using given SS
-     */
-    @PortedFrom(file = "CGLabel.h", name = "save")
-    public void save(SaveState ss) {
-        ss.setSc(scLabel.save());
-        ss.setCc(ccLabel.save());
-    }
-
-    /**
-     * restore label to given LEVEL using given SS
+     * restore label to given LEVEL using saved sizes
      * 
-     * @param ss
-     *        ss
+     * @param sc
+     *        saved size of the simple label
+     * @param cc
+     *        saved size of the complex label
      * @param level
      *        level
      */
     @PortedFrom(file = "CGLabel.h", name = "restore")
-    public void restore(SaveState ss, int level) {
-        scLabel.restore(ss.getSc(), level);
-        ccLabel.restore(ss.getCc(), level);
+    public void restore(int sc, int cc, int level) {
+        scLabel.restore(sc, level);
+        ccLabel.restore(cc, level);
         clearOthersCache();
     }
 
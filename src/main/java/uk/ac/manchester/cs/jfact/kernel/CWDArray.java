@@ -3,7 +3,8 @@ package uk.ac.manchester.cs.jfact.kernel;
 import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
 
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -16,18 +17,39 @@ import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.dep.DepSet;
 import uk.ac.manchester.cs.jfact.helpers.ArrayIntMap;
-import uk.ac.manchester.cs.jfact.helpers.Helper;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 
-/** List of concepts with dependencies */
+/**
+ * List of concepts with dependencies. Concepts and dep-sets are kept in
+ * parallel arrays, so that adding a concept to a label does not create a
+ * ConceptWDep
+ */
 @PortedFrom(file = "CWDArray.h", name = "CWDArray")
 public class CWDArray implements Serializable {
 
-    /** array of concepts together with dep-sets */
-    @PortedFrom(file = "CWDArray.h", name = "Base") private final List<ConceptWDep> base;
+    /** the membership filter has at least this many bits per concept */
+    private static final int FILTER_BITS_PER_CONCEPT = 8;
+
+    /** concepts of the label, in order of addition */
+    @PortedFrom(file = "CWDArray.h", name = "Base") private int[] concepts;
+    /** dep-sets of the concepts; never modified in place */
+    @Original private DepSet[] deps;
     @Original @Nonnull private RoaringBitmap cache = new RoaringBitmap();
     @Original private final ArrayIntMap indexes = new ArrayIntMap();
     @Original private int size = 0;
+    /** bloom-style summary of the concepts in the label, for inclusion */
+    @Original private long signature = 0;
+    /** summaries of the label prefixes: signatures[i] covers concepts 0..i */
+    @Original private long[] signatures;
+    /**
+     * bloom filter for membership, two bits per concept; it grows with the
+     * label, so that it does not saturate like the signature
+     */
+    @Original private long[] filter = new long[1];
+    /** shift taking a hash to a bit position in the filter */
+    @Original private int filterShift = Long.SIZE - 6;
+    /** concepts removed since the filter was built; their bits are still set */
+    @Original private int stale = 0;
     @Original private JFactReasonerConfiguration options;
 
     /**
@@ -38,24 +60,67 @@ public class CWDArray implements Serializable {
      */
     public CWDArray(JFactReasonerConfiguration config, int size) {
         options = config;
-        base = new ArrayList<>(size);
+        concepts = new int[size];
+        deps = new DepSet[size];
+        signatures = new long[size];
     }
 
     /** init/clear label */
     @PortedFrom(file = "CWDArray.h", name = "init")
     public void init() {
-        base.clear();
+        Arrays.fill(deps, 0, size, null);
         cache.clear();
         indexes.clear();
         size = 0;
+        signature = 0;
+        Arrays.fill(filter, 0);
+        stale = 0;
     }
 
     /**
-     * @return list of concepts
+     * @return read only view of the label; every access creates a ConceptWDep,
+     *         so hot loops should use getConcept(int) and getDep(int)
      */
     @PortedFrom(file = "CWDArray.h", name = "begin")
     public List<ConceptWDep> getBase() {
-        return base;
+        return new AbstractList<ConceptWDep>() {
+
+            @Override
+            public ConceptWDep get(int index) {
+                return new ConceptWDep(getConcept(index), getDep(index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /** @return concepts of the label, without dep-sets */
+    @Original
+    public IntStream concepts() {
+        return Arrays.stream(concepts, 0, size);
+    }
+
+    /**
+     * @param i
+     *        position in the label
+     * @return concept at position i
+     */
+    @Original
+    public int getConcept(int i) {
+        return concepts[i];
+    }
+
+    /**
+     * @param i
+     *        position in the label
+     * @return dep-set of the concept at position i
+     */
+    @Original
+    public DepSet getDep(int i) {
+        return deps[i];
     }
 
     /**
@@ -70,14 +135,67 @@ public class CWDArray implements Serializable {
      * adds concept P to a label - to be called only from CGLabel
      * 
      * @param p
-     *        p
+     *        concept
+     * @param dep
+     *        dep-set of the concept; owned by the label from now on
      */
     @Original
-    protected void privateAdd(ConceptWDep p) {
-        base.add(p);
+    protected void privateAdd(int p, DepSet dep) {
+        if (size == concepts.length) {
+            int capacity = Math.max(4, size * 2);
+            concepts = Arrays.copyOf(concepts, capacity);
+            deps = Arrays.copyOf(deps, capacity);
+            signatures = Arrays.copyOf(signatures, capacity);
+        }
+        concepts[size] = p;
+        deps[size] = dep;
+        cache.add(asPositive(p));
+        indexes.put(p, size);
+        signature |= signatureBit(asPositive(p));
+        signatures[size] = signature;
         size++;
-        cache.add(asPositive(p.getConcept()));
-        indexes.put(p.getConcept(), size - 1);
+        if (size * FILTER_BITS_PER_CONCEPT > filter.length * Long.SIZE) {
+            filter = new long[2 * filter.length];
+            filterShift--;
+            rebuildFilter();
+        } else {
+            addToFilter(asPositive(p));
+        }
+    }
+
+    @Original
+    private void addToFilter(int positive) {
+        long h = positive * 0x9E3779B97F4A7C15L;
+        int i = (int) (h >>> filterShift);
+        filter[i >>> 6] |= 1L << i;
+        i = (int) ((h ^ h >>> 32) * 0xBF58476D1CE4E5B9L >>> filterShift);
+        filter[i >>> 6] |= 1L << i;
+    }
+
+    @Original
+    private void rebuildFilter() {
+        Arrays.fill(filter, 0);
+        for (int i = 0; i < size; i++) {
+            addToFilter(asPositive(concepts[i]));
+        }
+        stale = 0;
+    }
+
+    /**
+     * @param bp
+     *        bp
+     * @return false if the label does not contain BP; true if it might. Only
+     *         the filter is checked, not the concepts
+     */
+    @Original
+    public boolean mayContain(int bp) {
+        long h = asPositive(bp) * 0x9E3779B97F4A7C15L;
+        int i = (int) (h >>> filterShift);
+        if ((filter[i >>> 6] & 1L << i) == 0) {
+            return false;
+        }
+        i = (int) ((h ^ h >>> 32) * 0xBF58476D1CE4E5B9L >>> filterShift);
+        return (filter[i >>> 6] & 1L << i) != 0;
     }
 
     /**
@@ -87,7 +205,8 @@ public class CWDArray implements Serializable {
      */
     @PortedFrom(file = "CWDArray.h", name = "contains")
     public boolean contains(int bp) {
-        return cache.contains(asPositive(bp));
+        // most lookups are negative: answer them from the filter
+        return mayContain(bp) && cache.contains(asPositive(bp));
     }
 
     @Original
@@ -95,6 +214,20 @@ public class CWDArray implements Serializable {
         return p >= 0 ? 2 * p : 1 - 2 * p;
     }
 
+    @Original
+    private static long signatureBit(int positive) {
+        return 1L << (positive * 0x9E3779B9 >>> 26);
+    }
+
+    /**
+     * @return summary of the label: every concept sets one of 64 bits, so a
+     *         label can only be included in another one if its bits are
+     */
+    @Original
+    public long getSignature() {
+        return signature;
+    }
+
     /**
      * @param bp
      *        bp
@@ -103,7 +236,7 @@ public class CWDArray implements Serializable {
     @PortedFrom(file = "CWDArray.h", name = "index")
     public int index(int bp) {
         // check that the index actually exist: quicker
-        if (!cache.contains(asPositive(bp))) {
+        if (!contains(bp)) {
             return -1;
         }
         return indexes.get(bp);
@@ -117,11 +250,11 @@ public class CWDArray implements Serializable {
     @Nullable
     @PortedFrom(file = "CWDArray.h", name = "get")
     public DepSet get(int bp) {
-        ConceptWDep cwd = getConceptWithBP(bp);
-        if (cwd == null) {
+        int i = index(bp);
+        if (i < 0) {
             return null;
         }
-        return cwd.getDep();
+        return deps[i];
     }
 
     /**
@@ -132,15 +265,11 @@ public class CWDArray implements Serializable {
     @Nullable
     @Original
     public ConceptWDep getConceptWithBP(int bp) {
-        // check that the index actually exist: quicker
-        if (!cache.contains(asPositive(bp))) {
-            return null;
-        }
-        int i = indexes.get(bp);
+        int i = index(bp);
         if (i < 0) {
             return null;
         }
-        return base.get(i);
+        return new ConceptWDep(bp, deps[i]);
     }
 
     /**
@@ -158,6 +287,9 @@ public class CWDArray implements Serializable {
      */
     @PortedFrom(file = "CWDArray.h", name = "<=")
     public boolean lesserequal(CWDArray label) {
+        if ((signature & ~label.signature) != 0) {
+            return false;
+        }
         // use the cache on the label if there is one
         for (int i : cache) {
             if (!label.cache.contains(i)) {
@@ -209,8 +341,8 @@ public class CWDArray implements Serializable {
         if (dep.isEmpty()) {
             throw new IllegalArgumentException();
         }
-        Restorer ret = new UnMerge(this, base.get(index), index);
-        base.get(index).addDep(dep);
+        Restorer ret = new UnMerge(this, deps[index], index);
+        deps[index] = DepSet.plus(deps[index], dep);
         return ret;
     }
 
@@ -227,6 +359,19 @@ public class CWDArray implements Serializable {
         return asList(IntStream.range(0, size).mapToObj(i -> updateDepSet(i, dep)));
     }
 
+    /**
+     * restore the dep-set of a concept; to be called only from UnMerge
+     * 
+     * @param i
+     *        position in the label
+     * @param dep
+     *        dep-set to restore
+     */
+    @Original
+    void setDep(int i, DepSet dep) {
+        deps[i] = dep;
+    }
+
     /**
      * @param ss
      *        ss
@@ -235,26 +380,45 @@ public class CWDArray implements Serializable {
      */
     @PortedFrom(file = "CWDArray.h", name = "restore")
     public void restore(int ss, int level) {
-        // count the number of entries /not/ deleted
-        int count = 0;
+        // number of entries /not/ deleted; they are moved down
+        int count = ss;
         for (int i = ss; i < size; i++) {
+            int concept = concepts[i];
             // if backjumping is enabled, an entity is deleted only if the
             // depset level is the same or above level, otherwise the entry is
             // kept
-            if (!options.isUseDynamicBackjumping() || base.get(i).getDep().level() >= level) {
-                int concept = base.get(i).getConcept();
+            if (!options.isUseDynamicBackjumping() || deps[i].level() >= level) {
                 indexes.remove(concept);
                 cache.remove(asPositive(concept));
             } else {
+                if (count != i) {
+                    concepts[count] = concept;
+                    deps[count] = deps[i];
+                    indexes.remove(concept);
+                    indexes.put(concept, count);
+                }
                 count++;
             }
         }
-        Helper.resize(base, ss + count, null);
-        size = ss + count;
+        Arrays.fill(deps, count, size, null);
+        stale += size - count;
+        size = count;
+        // bits can not be removed: go back to the summary of the prefix, and
+        // add the entries kept by backjumping
+        signature = ss == 0 ? 0 : signatures[ss - 1];
+        for (int i = ss; i < count; i++) {
+            signature |= signatureBit(asPositive(concepts[i]));
+            signatures[i] = signature;
+        }
+        // removed concepts leave their bits in the filter: rebuild it once
+        // they outnumber both the concepts left and the words to clear
+        if (stale > Math.max(size, filter.length)) {
+            rebuildFilter();
+        }
     }
 
     @Override
     public String toString() {
-        return base.subList(0, size).toString();
+        return getBase().toString();
     }
 }
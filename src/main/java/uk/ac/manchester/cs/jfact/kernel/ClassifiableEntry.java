@@ -55,7 +55,7 @@ public class ClassifiableEntry extends NamedEntry {
      *        vertex
      */
     @PortedFrom(file = "taxNamEntry.h", name = "setTaxVertex")
-    public void setTaxVertex(TaxonomyVertex vertex) {
+    public void setTaxVertex(@Nullable TaxonomyVertex vertex) {
         taxVertex = vertex;
     }
 
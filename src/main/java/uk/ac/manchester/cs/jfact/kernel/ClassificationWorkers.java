@@ -0,0 +1,454 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsListener;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
+
+/**
+ * Worker threads for parallel classification. Every task runs on a
+ * DlSatTester of its own, taken from a pool of testers that share the TBox and
+ * its DAG; the tableau does not modify either, apart from publishing the model
+ * caches it builds.
+ * <p>
+ * Concepts are classified in waves of concepts whose told subsumers are all
+ * classified. The workers search the taxonomy for the position of each
+ * concept of a wave while holding the read lock of the taxonomy; the
+ * classifying thread inserts the results, in the order of the wave, while
+ * holding the write lock. A result is inserted only if the concept cannot be
+ * related to the concepts inserted after its search started; otherwise the
+ * concept goes to a later wave, whose search sees them.
+ */
+@Original
+public class ClassificationWorkers implements AutoCloseable {
+
+    private final TBox tBox;
+    private final int nThreads;
+    /** concepts per worker thread in a wave */
+    private static final int WAVE_PER_THREAD = 16;
+    private final ExecutorService executor;
+    /** idle testers */
+    private final Queue<DlSatTester> testers = new ConcurrentLinkedQueue<>();
+    /** searches read the taxonomy under the read lock, insertions write it under the write lock */
+    private final ReadWriteLock taxonomyLock = new ReentrantReadWriteLock(true);
+
+    /**
+     * @param tbox
+     *        TBox to reason about
+     * @param nThreads
+     *        number of worker threads
+     */
+    public ClassificationWorkers(TBox tbox, int nThreads) {
+        tBox = tbox;
+        this.nThreads = nThreads;
+        AtomicInteger n = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r, "JFact classification worker " + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** @return number of worker threads */
+    public int getThreads() {
+        return nThreads;
+    }
+
+    /**
+     * run a task on an idle tester, creating one if none is available
+     * 
+     * @param task
+     *        task
+     * @param <T>
+     *        result type
+     * @return task result
+     */
+    public <T> T withTester(Function<DlSatTester, T> task) {
+        DlSatTester tester = testers.poll();
+        if (tester == null) {
+            tester = tBox.createWorkerReasoner();
+        }
+        try {
+            return task.apply(tester);
+        } finally {
+            testers.add(tester);
+        }
+    }
+
+    /**
+     * build, in parallel, the satisfiability cache and the negated concept
+     * cache of the given concepts, i.e., the caches that classification uses
+     * for cached non-subsumption tests. Concepts whose tests need the nominal
+     * reasoner are left to the classifying thread.
+     * 
+     * @param concepts
+     *        concepts to prepare
+     */
+    public void buildCaches(List<Concept> concepts) {
+        int size = concepts.size() * 2;
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>(nThreads);
+        for (int i = 0; i < nThreads; i++) {
+            tasks.add(() -> withTester(tester -> {
+                for (int k = next.getAndIncrement(); k < size && !tBox.isCancelled().get(); k = next
+                    .getAndIncrement()) {
+                    tBox.initCache(concepts.get(k / 2), k % 2 == 1, tester);
+                }
+                return null;
+            }));
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * classify the given concepts on the worker threads. The concepts are
+     * taken in the order the classifying thread would classify them in, told
+     * subsumers first; classification stops at the first concept the workers
+     * cannot search for, i.e., a singleton or a concept in a cycle of told
+     * subsumers, and the rest is left to the classifying thread.
+     * 
+     * @param concepts
+     *        concepts to classify
+     * @param creator
+     *        taxonomy creator of the classifying thread
+     */
+    public void classify(List<Concept> concepts, DLConceptTaxonomy creator) {
+        LinkedList<Concept> pending = new LinkedList<>();
+        Set<Concept> queued = new HashSet<>();
+        concepts.forEach(c -> addInOrder(c, pending, queued));
+        int waveSize = nThreads * WAVE_PER_THREAD;
+        while (!pending.isEmpty() && !tBox.isCancelled().get()) {
+            if (pending.peek().isClassified()) {
+                pending.poll();
+                continue;
+            }
+            if (!isSearchable(pending.peek())) {
+                return;
+            }
+            List<Concept> wave = new ArrayList<>(waveSize);
+            while (!pending.isEmpty() && wave.size() < waveSize) {
+                Concept c = pending.poll();
+                if (!c.isClassified()) {
+                    wave.add(c);
+                }
+            }
+            List<Concept> deferred = classifyWave(wave, creator);
+            for (int i = deferred.size() - 1; i >= 0; i--) {
+                pending.addFirst(deferred.get(i));
+            }
+        }
+    }
+
+    /**
+     * add C to ORDER after its unclassified told subsumers, as
+     * TaxonomyCreator.prepareTS() would classify them
+     * 
+     * @param c
+     *        c
+     * @param order
+     *        concepts in classification order
+     * @param queued
+     *        concepts added or being added
+     */
+    private static void addInOrder(Concept c, List<Concept> order, Set<Concept> queued) {
+        if (c.isClassified() || c.isNonClassifiable() || !queued.add(c)) {
+            return;
+        }
+        Collection<ClassifiableEntry> told = c.getToldSubsumers();
+        if (told != null) {
+            told.forEach(p -> addInOrder((Concept) p, order, queued));
+        }
+        order.add(c);
+    }
+
+    /**
+     * @param c
+     *        c
+     * @return true if c is not a singleton and all its told subsumers are
+     *         classified, so that a search for c does not have to classify
+     *         them first
+     */
+    private static boolean isSearchable(Concept c) {
+        Collection<ClassifiableEntry> told = c.getToldSubsumers();
+        return !c.isSingleton() && (told == null || told.stream().allMatch(p -> p.isClassified() || p
+            .isNonClassifiable()));
+    }
+
+    /**
+     * search for the concepts of a wave on the workers and insert the results
+     * in the order of the wave. A concept that might be related to a concept
+     * inserted after its search started, or to a concept deferred before it,
+     * is deferred, so that related concepts are inserted in order and each
+     * search sees the related concepts that precede it.
+     * 
+     * @param wave
+     *        concepts in classification order
+     * @param creator
+     *        taxonomy creator of the classifying thread
+     * @return deferred concepts of the wave, in order
+     */
+    private List<Concept> classifyWave(List<Concept> wave, DLConceptTaxonomy creator) {
+        // number of wave results inserted; changed under the write lock only
+        AtomicInteger inserted = new AtomicInteger();
+        int[] seen = new int[wave.size()];
+        List<Future<WorkerConceptTaxonomy>> searches = new ArrayList<>(wave.size());
+        for (int i = 0; i < wave.size(); i++) {
+            Concept c = wave.get(i);
+            if (!isSearchable(c)) {
+                searches.add(null);
+                continue;
+            }
+            int index = i;
+            searches.add(executor.submit(() -> withTester(tester -> {
+                WorkerConceptTaxonomy search = new WorkerConceptTaxonomy(creator, tester);
+                taxonomyLock.readLock().lock();
+                try {
+                    seen[index] = inserted.get();
+                    search.search(c);
+                } finally {
+                    taxonomyLock.readLock().unlock();
+                }
+                return search;
+            })));
+        }
+        // vertices inserted by this wave, in order; null for synonyms
+        List<TaxonomyVertex> added = new ArrayList<>();
+        List<Concept> deferred = new ArrayList<>();
+        // searches of the deferred concepts, null if not searched
+        List<WorkerConceptTaxonomy> deferredSearches = new ArrayList<>();
+        List<Integer> deferredSeen = new ArrayList<>();
+        try {
+            for (int i = 0; i < wave.size(); i++) {
+                Concept c = wave.get(i);
+                Future<WorkerConceptTaxonomy> f = searches.get(i);
+                WorkerConceptTaxonomy search = f == null ? null : get(f);
+                taxonomyLock.writeLock().lock();
+                try {
+                    if (search == null || search.getSynonym() == null && (isRelated(c, search.getFound(), added
+                        .subList(seen[i], added.size())) || isRelated(c, search.getFound(), added, seen[i], deferred,
+                            deferredSearches, deferredSeen))) {
+                        deferred.add(c);
+                        deferredSearches.add(search);
+                        deferredSeen.add(Integer.valueOf(seen[i]));
+                        reportSearch(false);
+                        continue;
+                    }
+                    creator.insertClassified(c, search.getFound(), search.getSynonym());
+                    reportSearch(true);
+                    TaxonomyVertex v = c.getTaxVertex();
+                    added.add(v.getPrimer() == c ? v : null);
+                    inserted.incrementAndGet();
+                } finally {
+                    taxonomyLock.writeLock().unlock();
+                }
+            }
+        } finally {
+            searches.stream().filter(f -> f != null).forEach(f -> f.cancel(true));
+        }
+        return deferred;
+    }
+
+    /**
+     * @param inserted
+     *        whether a search result was inserted, for the metrics listener
+     */
+    private void reportSearch(boolean inserted) {
+        MetricsListener metrics = tBox.getOptions().getMetricsListener();
+        if (metrics != null) {
+            metrics.workerSearch(inserted);
+        }
+    }
+
+    /**
+     * @param c
+     *        searched concept
+     * @param found
+     *        vertex built by the search, with the parents and children found
+     * @param unseen
+     *        vertices inserted after the search started; null for synonyms
+     * @return true if c might be a subsumer or a subsumee of the concept of a
+     *         vertex in UNSEEN
+     */
+    private boolean isRelated(Concept c, TaxonomyVertex found, List<TaxonomyVertex> unseen) {
+        if (unseen.stream().allMatch(v -> v == null)) {
+            return false;
+        }
+        Set<TaxonomyVertex> up = ancestors(found, unseen);
+        for (TaxonomyVertex v : unseen) {
+            if (v == null) {
+                continue;
+            }
+            Concept n = (Concept) v.getPrimer();
+            // c [= n needs the parents of n to subsume c; n [= c needs the
+            // parents of c to subsume n
+            if (v.neigh(true).allMatch(up::contains) && !isNonSubsumption(c, n)) {
+                return true;
+            }
+            if (found.neigh(true).allMatch(ancestors(v, Collections.emptyList())::contains) && !isNonSubsumption(n,
+                c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param c
+     *        searched concept
+     * @param found
+     *        vertex built by the search, with the parents and children found
+     * @param added
+     *        vertices inserted by the wave so far
+     * @param seen
+     *        number of vertices in ADDED when the search started
+     * @param deferred
+     *        concepts deferred so far
+     * @param searches
+     *        searches of the deferred concepts, null if not searched
+     * @param searchesSeen
+     *        number of vertices in ADDED when these searches started
+     * @return true if c might be a subsumer or a subsumee of a deferred
+     *         concept
+     */
+    private boolean isRelated(Concept c, TaxonomyVertex found, List<TaxonomyVertex> added, int seen,
+        List<Concept> deferred, List<WorkerConceptTaxonomy> searches, List<Integer> searchesSeen) {
+        if (deferred.isEmpty()) {
+            return false;
+        }
+        Set<TaxonomyVertex> up = ancestors(found, added.subList(seen, added.size()));
+        for (int i = 0; i < deferred.size(); i++) {
+            Concept d = deferred.get(i);
+            WorkerConceptTaxonomy search = searches.get(i);
+            if (search == null) {
+                if (!isNonSubsumption(c, d) || !isNonSubsumption(d, c)) {
+                    return true;
+                }
+                continue;
+            }
+            TaxonomyVertex dFound = search.getFound();
+            if (dFound.neigh(true).allMatch(up::contains) && !isNonSubsumption(c, d)) {
+                return true;
+            }
+            Set<TaxonomyVertex> upD = ancestors(dFound, added.subList(searchesSeen.get(i).intValue(), added
+                .size()));
+            if (found.neigh(true).allMatch(upD::contains) && !isNonSubsumption(d, c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param p
+     *        p
+     * @param q
+     *        q
+     * @return true if p [= q is refuted without a tableau test
+     */
+    private boolean isNonSubsumption(Concept p, Concept q) {
+        return tBox.testSortedNonSubsumption(p, q) || tBox.testCachedNonSubsumption(p, q) == ModelCacheState.VALID;
+    }
+
+    /**
+     * @param v
+     *        vertex
+     * @param unseen
+     *        vertices that might be above v without being linked to it;
+     *        nulls are skipped
+     * @return the vertices above v, plus UNSEEN and the vertices above them
+     */
+    private static Set<TaxonomyVertex> ancestors(TaxonomyVertex v, List<TaxonomyVertex> unseen) {
+        Set<TaxonomyVertex> toReturn = new HashSet<>();
+        Deque<TaxonomyVertex> queue = new ArrayDeque<>();
+        v.neigh(true).forEach(queue::add);
+        unseen.stream().filter(u -> u != null).forEach(queue::add);
+        while (!queue.isEmpty()) {
+            TaxonomyVertex p = queue.poll();
+            if (toReturn.add(p)) {
+                p.neigh(true).forEach(queue::add);
+            }
+        }
+        return toReturn;
+    }
+
+    /**
+     * run the tasks on the worker threads and wait for all of them
+     * 
+     * @param tasks
+     *        tasks
+     * @param <T>
+     *        result type
+     * @return task results, in the order of the tasks
+     */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> tasks) {
+        List<T> toReturn = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> f : executor.invokeAll(tasks)) {
+                toReturn.add(get(f));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInterruptedException(e);
+        }
+        return toReturn;
+    }
+
+    /**
+     * @param f
+     *        future of a task
+     * @param <T>
+     *        result type
+     * @return result of the task, once it is done
+     */
+    private static <T> T get(Future<T> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInterruptedException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ReasonerInternalException(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        testers.clear();
+    }
+}
@@ -6,6 +6,7 @@ package uk.ac.manchester.cs.jfact.kernel;
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nullable;
@@ -13,10 +14,15 @@ import javax.annotation.Nullable;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapitools.decomposition.Signature;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.helpers.Templates;
 import uk.ac.manchester.cs.jfact.kernel.Concept.CTTag;
 import uk.ac.manchester.cs.jfact.kernel.dl.interfaces.NamedEntity;
+import uk.ac.manchester.cs.jfact.kernel.el.ELSaturation;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsListener;
+import uk.ac.manchester.cs.jfact.kernel.metrics.SubsumptionOutcome;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheIan;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
 
@@ -25,7 +31,7 @@ import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
 public class DLConceptTaxonomy extends TaxonomyCreator {
 
     /** host tBox */
-    @PortedFrom(file = "DLConceptTaxonomy.h", name = "tBox") private final TBox tBox;
+    @PortedFrom(file = "DLConceptTaxonomy.h", name = "tBox") protected final TBox tBox;
     /** common descendants of all parents of currently classified concept */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "Common") private final List<TaxonomyVertex> common = new ArrayList<>();
     // statistic counters
@@ -44,6 +50,8 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "nSortedNegative") private long nSortedNegative = 0;
     /** number of non-subsumptions because of module reasons */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "nModuleNegative") private long nModuleNegative = 0;
+    /** number of non-subsumptions read off the model of the current concept */
+    @Original private long nModelNegative = 0;
     // flags
     /** flag to use Bottom-Up search */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "flagNeedBottomUp") private boolean flagNeedBottomUp;
@@ -55,6 +63,11 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
     protected boolean useCandidates = false;
     protected Set<OWLEntity> mPlus;
     protected Set<OWLEntity> mMinus;
+    /**
+     * results of the tableau subsumption tests run speculatively in the
+     * current search phase, by the concept of the tested vertex
+     */
+    @Original private final Map<Concept, Boolean> speculated = new HashMap<>();
 
     /**
      * the only c'tor
@@ -69,6 +82,44 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
         tBox = tbox;
     }
 
+    /**
+     * @param creator
+     *        creator whose taxonomy and search settings to share
+     */
+    @Original
+    protected DLConceptTaxonomy(DLConceptTaxonomy creator) {
+        this(creator.pTax, creator.tBox);
+        flagNeedBottomUp = creator.flagNeedBottomUp;
+        useCompletelyDefined = creator.useCompletelyDefined;
+    }
+
+    /**
+     * insert P at the position found by a search on a classification worker
+     * 
+     * @param p
+     *        p
+     * @param found
+     *        vertex built by the search, with the parents and children of P
+     * @param syn
+     *        vertex P turned out to be a synonym of, or null
+     */
+    @Original
+    void insertClassified(Concept p, TaxonomyVertex found, @Nullable TaxonomyVertex syn) {
+        preClassificationActions();
+        ++nEntries;
+        curEntry = p;
+        TaxonomyVertex current = pTax.getCurrent();
+        current.clear();
+        current.setSample(p, true);
+        if (syn != null) {
+            addCurrentToSynonym(syn);
+            return;
+        }
+        found.neigh(true).forEach(v -> current.add(true, v));
+        found.neigh(false).forEach(v -> current.add(false, v));
+        finishCurrentNode();
+    }
+
     // -- General support for DL concept classification
     /**
      * get access to curEntry as a TConcept
@@ -142,10 +193,10 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "isUnsatisfiable")
     private boolean isUnsatisfiable() {
         Concept p = curConcept();
-        if (tBox.isSatisfiable(p)) {
+        if (isSatisfiable(p)) {
             return false;
         }
-        pTax.addCurrentToSynonym(pTax.getBottomVertex());
+        addCurrentToSynonym(pTax.getBottomVertex());
         return true;
     }
 
@@ -166,9 +217,57 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
             return false;
             // true CD concepts can not be unsat
         }
+        ELSaturation el = tBox.getELSaturation();
+        if (el != null && el.isKnown(curConcept())) {
+            if (el.isUnsatisfiable(curConcept())) {
+                addCurrentToSynonym(pTax.getBottomVertex());
+                return true;
+            }
+            if (tBox.isELComplete()) {
+                return false;
+            }
+        }
         // after SAT testing plan would be implemented
-        tBox.initCache(curConcept(), false);
-        return isUnsatisfiable();
+        initCache(curConcept(), false);
+        if (isUnsatisfiable()) {
+            return true;
+        }
+        if (tBox.getOptions().isUseModelSubsumers()) {
+            setModelSubsumers();
+        }
+        return false;
+    }
+
+    /**
+     * replace the told subsumers of the current concept with the ones read off
+     * the model built by its satisfiability test
+     */
+    @Original
+    private void setModelSubsumers() {
+        if (!needTopDown() || curConcept().isSingleton()) {
+            return;
+        }
+        ModelCacheInterface cache = initCache(curConcept(), false);
+        if (!(cache instanceof ModelCacheIan) || cache.getState() != ModelCacheState.VALID) {
+            return;
+        }
+        ModelCacheIan model = (ModelCacheIan) cache;
+        KnownSubsumers told = ksStack.pop();
+        List<ClassifiableEntry> sure = new ArrayList<>(told.sure());
+        List<ClassifiableEntry> possible = new ArrayList<>();
+        for (int i : model.getDConcepts(true).toArray()) {
+            Concept c = tBox.getConceptByIndex(i);
+            if (c != curEntry && c.isClassified() && !sure.contains(c)) {
+                sure.add(c);
+            }
+        }
+        for (int i : model.getNConcepts(true).toArray()) {
+            Concept c = tBox.getConceptByIndex(i);
+            if (c != curEntry) {
+                possible.add(c);
+            }
+        }
+        ksStack.push(new ModelSubsumers(sure, possible));
     }
 
     @Override
@@ -198,26 +297,43 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
         }
         // nominals should be classified as usual concepts
         tBox.getOptions().getLog().printTemplate(Templates.TAX_TRYING, p.getIRI(), q.getIRI());
+        ELSaturation el = tBox.getELSaturation();
+        if (el != null && el.isKnown(p) && el.isKnown(q)) {
+            if (el.isSubsumedBy(p, q)) {
+                tBox.getOptions().getLog().print("holds (EL saturation)");
+                reportSub(SubsumptionOutcome.SATURATION_POSITIVE);
+                return true;
+            }
+            if (tBox.isELComplete()) {
+                tBox.getOptions().getLog().print("NOT holds (EL saturation)");
+                reportSub(SubsumptionOutcome.SATURATION_NEGATIVE);
+                return false;
+            }
+        }
         if (tBox.testSortedNonSubsumption(p, q)) {
             tBox.getOptions().getLog().print("NOT holds (sorted result)");
             ++nSortedNegative;
+            reportSub(SubsumptionOutcome.SORTED_NEGATIVE);
             return false;
         }
         if (isNotInModule(q.getEntity())) {
             tBox.getOptions().getLog().print("NOT holds (module result)");
             ++nModuleNegative;
+            reportSub(SubsumptionOutcome.MODULE_NEGATIVE);
             return false;
         }
-        switch (tBox.testCachedNonSubsumption(p, q)) {
+        switch (testCachedNonSubsumption(p, q)) {
             case VALID:
                 // cached result: satisfiable => non-subsumption
                 tBox.getOptions().getLog().print("NOT holds (cached result)");
                 ++nCachedNegative;
+                reportSub(SubsumptionOutcome.CACHED_NEGATIVE);
                 return false;
             case INVALID:
                 // cached result: unsatisfiable => subsumption holds
                 tBox.getOptions().getLog().print("holds (cached result)");
                 ++nCachedPositive;
+                reportSub(SubsumptionOutcome.CACHED_POSITIVE);
                 return true;
             default:
                 // need extra tests
@@ -256,7 +372,15 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
      */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "testSubTBox")
     private boolean testSubTBox(Concept p, Concept q) {
-        boolean res = tBox.isSubHolds(p, q);
+        Boolean known = speculated.remove(upDirection ? p : q);
+        if (known == null) {
+            known = getCachedSubHolds(p, q);
+            if (known != null) {
+                reportSub(SubsumptionOutcome.QUERY_CACHED);
+                return known.booleanValue();
+            }
+        }
+        boolean res = known == null ? isSubHolds(p, q) : known.booleanValue();
         // update statistic
         ++nTries;
         if (res) {
@@ -264,19 +388,37 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
         } else {
             ++nNegatives;
         }
+        if (known == null) {
+            reportSub(res ? SubsumptionOutcome.TESTED_POSITIVE : SubsumptionOutcome.TESTED_NEGATIVE);
+        } else {
+            reportSub(res ? SubsumptionOutcome.SPECULATED_POSITIVE : SubsumptionOutcome.SPECULATED_NEGATIVE);
+        }
         return res;
     }
 
+    /**
+     * @param outcome
+     *        subsumption test outcome to pass to the metrics listener, if any
+     */
+    @Original
+    private void reportSub(SubsumptionOutcome outcome) {
+        MetricsListener metrics = tBox.getOptions().getMetricsListener();
+        if (metrics != null) {
+            metrics.subsumptionTest(outcome);
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder o = new StringBuilder();
+        String extra = (nSortedNegative > 0 ? String.format("Sorted reasoning deals with %s non-subsumptions%n", Long
+            .toString(nSortedNegative)) : "") + (nModuleNegative > 0 ? "Modular reasoning deals with "
+                + nModuleNegative + " non-subsumptions\n" : "") + (nModelNegative > 0 ? "Model reasoning deals with "
+                    + nModelNegative + " non-subsumptions\n" : "");
         o.append(String.format(Templates.DLCONCEPTTAXONOMY.getTemplate(), Long.toString(nTries), Long.toString(
             nPositives), Long.toString(nPositives * 100 / Math.max(1, nTries)), Long.toString(nCachedPositive), Long
-                .toString(nCachedNegative), nSortedNegative > 0 ? String.format(
-                    "Sorted reasoning deals with %s non-subsumptions%n", Long.toString(nSortedNegative)) : "",
-            nModuleNegative > 0 ? "Modular reasoning deals with " + nModuleNegative + " non-subsumptions\n" : "", Long
-                .toString(nSearchCalls), Long.toString(nSubCalls), Long.toString(nNonTrivialSubCalls), Long.toString(
-                    nEntries * (nEntries - 1) / Math.max(1, nTries))));
+                .toString(nCachedNegative), extra, Long.toString(nSearchCalls), Long.toString(nSubCalls), Long
+                    .toString(nNonTrivialSubCalls), Long.toString(nEntries * (nEntries - 1) / Math.max(1, nTries))));
         o.append(super.toString());
         return o.toString();
     }
@@ -284,12 +426,13 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "searchBaader")
     private void searchBaader(TaxonomyVertex cur) {
         // label 'visited'
-        pTax.setVisited(cur);
+        setVisited(cur);
         ++nSearchCalls;
+        speculate(cur);
         AtomicBoolean noPosSucc = new AtomicBoolean(true);
         // check if there are positive successors; use DFS on them.
         cur.neigh(upDirection).filter(this::enhancedSubs).forEach(p -> {
-            if (!pTax.isVisited(p)) {
+            if (!isVisited(p)) {
                 searchBaader(p);
             }
             noPosSucc.set(false);
@@ -300,9 +443,78 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
             setValue(cur, testSubsumption(cur));
         }
         // mark labelled leaf node as a parent (self check for incremental)
-        if (noPosSucc.get() && cur.getValue()) {
-            pTax.getCurrent().addNeighbour(!upDirection, cur);
+        if (noPosSucc.get() && getValue(cur)) {
+            current().addNeighbour(!upDirection, cur);
+        }
+    }
+
+    /**
+     * run in parallel, on the classification workers, the tableau tests the
+     * search might need for the unvalued neighbours of CUR; the search then
+     * uses the results instead of running the tests itself
+     * 
+     * @param cur
+     *        vertex whose neighbours are about to be checked
+     */
+    @Original
+    private void speculate(TaxonomyVertex cur) {
+        ClassificationWorkers workers = tBox.getClassificationWorkers();
+        if (workers == null || !canSpeculate()) {
+            return;
+        }
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        List<Concept> tested = new ArrayList<>();
+        // enhancedSubs() tests a vertex only if all its parents are subsumers:
+        // skip vertices whose parents are not known to be so yet
+        cur.neigh(upDirection).filter(v -> !isValued(v) && (upDirection ? isCommon(v) : possibleSub(v))
+            && !(useCandidates && candidates.contains(v)) && v.neigh(!upDirection).allMatch(n -> isValued(n) && getValue(n)))
+            .forEach(v -> {
+                Concept testC = (Concept) v.getPrimer();
+                Concept p = upDirection ? testC : curConcept();
+                Concept q = upDirection ? curConcept() : testC;
+                if (speculated.containsKey(testC) || !needTableauTest(p, q)) {
+                    return;
+                }
+                LogicFeatures features = tBox.buildFeatures(p, q);
+                if (features.hasSingletons()) {
+                    // left to the nominal reasoner
+                    return;
+                }
+                tested.add(testC);
+                tasks.add(() -> workers.withTester(t -> Boolean.valueOf(tBox.isSubHolds(p, q, features, t))));
+            });
+        // a single test is cheaper here than on a worker
+        if (tasks.size() < 2) {
+            return;
+        }
+        List<Boolean> results = workers.invokeAll(tasks);
+        for (int i = 0; i < tested.size(); i++) {
+            speculated.put(tested.get(i), results.get(i));
+        }
+    }
+
+    /**
+     * @param p
+     *        p
+     * @param q
+     *        q
+     * @return true if testSub() would need a tableau test to check whether p
+     *         is subsumed by q
+     */
+    @Original
+    private boolean needTableauTest(Concept p, Concept q) {
+        if (q.isSingleton() && q.isPrimitive() && !q.isNominal()) {
+            return false;
+        }
+        ELSaturation el = tBox.getELSaturation();
+        if (el != null && el.isKnown(p) && el.isKnown(q) && (tBox.isELComplete() || el.isSubsumedBy(p, q))) {
+            return false;
         }
+        if (tBox.testSortedNonSubsumption(p, q) || isNotInModule(q.getEntity())) {
+            return false;
+        }
+        ModelCacheState state = testCachedNonSubsumption(p, q);
+        return state != ModelCacheState.VALID && state != ModelCacheState.INVALID;
     }
 
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "enhancedSubs1")
@@ -329,12 +541,19 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
     private boolean enhancedSubs2(TaxonomyVertex cur) {
         // if bottom-up search and CUR is not a successor of checking entity --
         // return false
-        if (upDirection && !cur.isCommon()) {
+        if (upDirection && !isCommon(cur)) {
             return false;
         }
         if (useCandidates && candidates.contains(cur)) {
             return false;
         }
+        // if top-down search and CUR is not in the model of checking entity
+        // -- return false
+        if (!upDirection && !possibleSub(cur)) {
+            ++nModelNegative;
+            reportSub(SubsumptionOutcome.MODEL_NEGATIVE);
+            return false;
+        }
         return enhancedSubs1(cur);
     }
 
@@ -352,8 +571,10 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
         if (!c.isPrimitive()) {
             return true;
         }
-        // all others should be in the possible sups list
-        return ksStack.peek().isPossibleSub(c);
+        // all others should be in the possible sups list; there is none when
+        // reclassifying
+        KnownSubsumers ks = ksStack.peek();
+        return ks == null || ks.isPossibleSub(c);
     }
 
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "testSubsumption")
@@ -369,13 +590,13 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "propagateOneCommon")
     private void propagateOneCommon(TaxonomyVertex node) {
         // checked if node already was visited this session
-        if (pTax.isVisited(node)) {
+        if (isVisited(node)) {
             return;
         }
         // mark node visited
-        pTax.setVisited(node);
-        node.setCommon();
-        if (node.correctCommon(nCommon)) {
+        setVisited(node);
+        setCommon(node);
+        if (correctCommon(node, nCommon)) {
             common.add(node);
         }
         // mark all children
@@ -385,13 +606,13 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "propagateUp")
     private boolean propagateUp() {
         nCommon = 1;
-        Iterator<TaxonomyVertex> list = pTax.getCurrent().neigh(upDirection).iterator();
+        Iterator<TaxonomyVertex> list = current().neigh(upDirection).iterator();
         assert list.hasNext();
         // including node always have some parents (TOP at least)
         TaxonomyVertex p = list.next();
         // define possible successors of the node
         propagateOneCommon(p);
-        pTax.clearVisited();
+        clearVisited();
         while (list.hasNext()) {
             p = list.next();
             if (p.noNeighbours(!upDirection)) {
@@ -406,16 +627,16 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
             common.clear();
             // now Aux contain data from previous run
             propagateOneCommon(p);
-            pTax.clearVisited();
+            clearVisited();
             // clear all non-common nodes (visited on a previous run)
-            aux.forEach(q -> q.correctCommon(nCommon));
+            aux.forEach(q -> correctCommon(q, nCommon));
         }
         return false;
     }
 
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "clearCommon")
     private void clearCommon() {
-        common.forEach(p -> p.clearCommon());
+        common.forEach(this::clearCommon);
         common.clear();
     }
 
@@ -426,16 +647,167 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
      */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "isEqualToTop")
     private boolean isEqualToTop() {
+        ELSaturation el = tBox.getELSaturation();
+        if (el != null && el.isKnown(curConcept())) {
+            if (el.isEquivalentToTop(curConcept())) {
+                current().addNeighbour(false, pTax.getTopVertex());
+                return true;
+            }
+            if (tBox.isELComplete()) {
+                return false;
+            }
+        }
         // check this up-front to avoid Sorted check's flaw wrt equals-to-top
-        ModelCacheInterface cache = tBox.initCache(curConcept(), true);
+        ModelCacheInterface cache = initCache(curConcept(), true);
         if (cache.getState() != ModelCacheState.INVALID) {
             return false;
         }
         // here concept = TOP
-        pTax.current.addNeighbour(false, pTax.getTopVertex());
+        current().addNeighbour(false, pTax.getTopVertex());
         return true;
     }
 
+    @Override
+    @Original
+    protected void clearLabels() {
+        speculated.clear();
+        super.clearLabels();
+    }
+
+    // -- hooks for searches run on a classification worker
+    /**
+     * @return true if the search may run speculative tests on the
+     *         classification workers
+     */
+    @Original
+    protected boolean canSpeculate() {
+        return tBox.getOptions().isUseSpeculativeSubsumption();
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return true if p is satisfiable
+     */
+    @Original
+    protected boolean isSatisfiable(Concept p) {
+        return tBox.isSatisfiable(p);
+    }
+
+    /**
+     * @param p
+     *        p
+     * @param sub
+     *        sub
+     * @return satisfiability cache of p, or of its negation if sub is true
+     */
+    @Original
+    protected ModelCacheInterface initCache(Concept p, boolean sub) {
+        return tBox.initCache(p, sub);
+    }
+
+    /**
+     * @param p
+     *        p
+     * @param q
+     *        q
+     * @return cache state of the cached non-subsumption test for p [= q
+     */
+    @Original
+    protected ModelCacheState testCachedNonSubsumption(Concept p, Concept q) {
+        return tBox.testCachedNonSubsumption(p, q);
+    }
+
+    /**
+     * @param p
+     *        p
+     * @param q
+     *        q
+     * @return result of an earlier query for p [= q; null if unknown
+     */
+    @Original
+    @Nullable
+    protected Boolean getCachedSubHolds(Concept p, Concept q) {
+        return tBox.getCachedSubHolds(p, q);
+    }
+
+    /**
+     * @param p
+     *        p
+     * @param q
+     *        q
+     * @return true if the tableau proves p [= q
+     */
+    @Original
+    protected boolean isSubHolds(Concept p, Concept q) {
+        return tBox.isSubHolds(p, q);
+    }
+
+    /**
+     * @param v
+     *        v
+     */
+    @Original
+    protected void setVisited(TaxonomyVertex v) {
+        pTax.setVisited(v);
+    }
+
+    /**
+     * @param v
+     *        v
+     * @return true if v was visited by the current search
+     */
+    @Original
+    protected boolean isVisited(TaxonomyVertex v) {
+        return pTax.isVisited(v);
+    }
+
+    /** clear the visited marks of the current search */
+    @Original
+    protected void clearVisited() {
+        pTax.clearVisited();
+    }
+
+    /**
+     * @param v
+     *        v
+     * @return true if v is a common descendant of the parents seen so far
+     */
+    @Original
+    protected boolean isCommon(TaxonomyVertex v) {
+        return v.isCommon();
+    }
+
+    /**
+     * @param v
+     *        v
+     */
+    @Original
+    protected void setCommon(TaxonomyVertex v) {
+        v.setCommon();
+    }
+
+    /**
+     * @param v
+     *        v
+     */
+    @Original
+    protected void clearCommon(TaxonomyVertex v) {
+        v.clearCommon();
+    }
+
+    /**
+     * @param v
+     *        v
+     * @param n
+     *        n
+     * @return true if v is a common descendant of all N parents seen so far
+     */
+    @Original
+    protected boolean correctCommon(TaxonomyVertex v, int n) {
+        return v.correctCommon(n);
+    }
+
     /** @return true iff curEntry is classified as a synonym */
     @Override
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "classifySynonym")
@@ -453,14 +825,14 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
                 assert taxVertex != null;
                 if (tBox.isBlockingDet(curI)) {
                     // deterministic merge => curI = syn
-                    pTax.addCurrentToSynonym(taxVertex);
+                    addCurrentToSynonym(taxVertex);
                     return true;
                 } else {
                     // non-det merge: check whether it is the same
                     tBox.getOptions().getLog().print("\nTAX: trying '", curI.getIRI(), "' = '", syn.getIRI(), "'... ");
                     if (testSubTBox(curI, syn)) {
                         // they are actually the same
-                        pTax.addCurrentToSynonym(taxVertex);
+                        addCurrentToSynonym(taxVertex);
                         return true;
                     }
                 }
@@ -475,12 +847,12 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
      */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "checkExtraParents")
     private void checkExtraParents() {
-        pTax.current.neigh(true).forEach(this::propagateTrueUp);
-        pTax.current.clearLinks(true);
+        current().neigh(true).forEach(this::propagateTrueUp);
+        current().clearLinks(true);
         runTopDown();
-        pTax.current.neigh(true).filter(p -> !isDirectParent(p)).forEach(p -> {
-            p.removeLink(false, pTax.current);
-            pTax.current.removeLink(true, p);
+        current().neigh(true).filter(p -> !isDirectParent(p)).forEach(p -> {
+            p.removeLink(false, current());
+            current().removeLink(true, p);
         });
         clearLabels();
     }
@@ -526,8 +898,11 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
      *        plus
      * @param minus
      *        minus
+     * @return false if a changed entry became unsatisfiable or equivalent to
+     *         another vertex; the taxonomy is then unusable and has to be
+     *         rebuilt
      */
-    public void reclassify(Set<OWLEntity> plus, Set<OWLEntity> minus) {
+    public boolean reclassify(Set<OWLEntity> plus, Set<OWLEntity> minus) {
         mPlus = plus;
         mMinus = minus;
         pTax.deFinalise();
@@ -542,14 +917,35 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
             }
             pTax.setVisited(cur);
             ClassifiableEntry entry = cur.getPrimer();
-            if (mPlus.contains(entry.getEntity().getEntity()) || mMinus.contains(entry.getEntity().getEntity())) {
+            if (isChanged(entry) || cur.synonyms().anyMatch(this::isChanged)) {
+                // vertices with several names can not be split here
+                if (cur.synonyms().count() > 0 || entry.isTop() || entry.isBottom()) {
+                    pTax.clearVisited();
+                    return false;
+                }
                 toProcess.add(entry);
             }
             cur.neigh(false).forEach(queue::add);
         }
         pTax.clearVisited();
-        toProcess.forEach(p -> reclassify(p.getTaxVertex(), tBox.getSignature(p)));
+        for (ClassifiableEntry p : toProcess) {
+            if (!reclassify(p.getTaxVertex(), tBox.getSignature(p))) {
+                return false;
+            }
+        }
         pTax.finalise();
+        return true;
+    }
+
+    /**
+     * @param entry
+     *        entry
+     * @return true iff the entry is in MPlus or MMinus
+     */
+    @Original
+    private boolean isChanged(ClassifiableEntry entry) {
+        OWLEntity e = entry.getEntity().getEntity();
+        return mPlus.contains(e) || mMinus.contains(e);
     }
 
     /**
@@ -557,17 +953,24 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
      *        node
      * @param s
      *        s
+     * @return false if the node became unsatisfiable or equivalent to another
+     *         vertex
      */
-    public void reclassify(TaxonomyVertex node, @Nullable Signature s) {
+    public boolean reclassify(TaxonomyVertex node, @Nullable Signature s) {
         upDirection = false;
         sigStack.add(s);
         curEntry = node.getPrimer();
         TaxonomyVertex oldCur = pTax.getCurrent();
         pTax.setCurrent(node);
-        // FIXME!! check the unsatisfiability later
         boolean added = mPlus.contains(curEntry.getEntity().getEntity());
         boolean removed = mMinus.contains(curEntry.getEntity().getEntity());
         assert added || removed;
+        tBox.initCache(curConcept(), false);
+        if (!tBox.isSatisfiable(curConcept())) {
+            sigStack.pop();
+            pTax.setCurrent(oldCur);
+            return false;
+        }
         clearLabels();
         setValue(pTax.getTopVertex(), true);
         if (node.noNeighbours(true)) {
@@ -599,13 +1002,17 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
             node.neigh(true).forEach(this::propagateTrueUp);
             node.removeLinks(true);
         }
-        // FIXME!! for now. later check the equivalence etc
         setValue(node, true);
         // the landscape is prepared
         searchBaader(pTax.getTopVertex());
-        node.incorporate(pTax.getOptions());
+        // a new parent that is subsumed by the entry is equivalent to it
+        boolean equivalent = node.neigh(true).anyMatch(p -> testSub((Concept) p.getPrimer(), curConcept()));
+        if (!equivalent) {
+            node.incorporate(pTax.getOptions());
+        }
         clearLabels();
         sigStack.pop();
         pTax.setCurrent(oldCur);
+        return !equivalent;
     }
 }
@@ -7,8 +7,11 @@ package uk.ac.manchester.cs.jfact.kernel;
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
 import static uk.ac.manchester.cs.jfact.helpers.Helper.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
@@ -31,6 +34,8 @@ import uk.ac.manchester.cs.jfact.helpers.StatIndex;
 import uk.ac.manchester.cs.jfact.helpers.Templates;
 import uk.ac.manchester.cs.jfact.helpers.UnreachableSituationException;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheManager;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheType;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 
 /** directed acyclic graph */
@@ -38,8 +43,9 @@ import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 public class DLDag implements Serializable {
 
     /** body of DAG */
-    @PortedFrom(file = "dlDag.h", name = "Heap") private final List<DLVertex> heap = new ArrayList<>();
-    private Set<NamedEntry> cache = new HashSet<>();
+    @PortedFrom(file = "dlDag.h", name = "Heap") private final ArrayList<DLVertex> heap = new ArrayList<>();
+    /** entries in the heap; rebuilt from the heap when empty, so not serialised */
+    private transient Set<NamedEntry> cache = new HashSet<>();
     /** all the AND nodes (needs to recompute) */
     @PortedFrom(file = "dlDag.h", name = "listAnds") private final FastSet listAnds = FastSetFactory.create();
     @Original private final EnumMap<DagTag, DLVTable> indexes = new EnumMap<>(DagTag.class);
@@ -56,7 +62,40 @@ public class DLDag implements Serializable {
     /** flag whether cache should be used */
     @PortedFrom(file = "dlDag.h", name = "useDLVCache") private boolean useDLVCache;
     @PortedFrom(file = "dlDag.h", name = "finalDagSize") private int finalDagSize;
+    /** heap size that concurrent queries can reach without reallocating the heap */
+    @Original private int querySpace;
+    /** tactic codes of the entries of the final DAG; positive pointer p at 2p, negative at 2p+1 */
+    @Original private transient byte[] opcodes = new byte[0];
+    // columns of the final DAG, indexed by vertex; filled by setFinalSize()
+    // and rebuilt from the heap on reading
+    /** types of the vertices */
+    @Original private transient DagTag[] types = new DagTag[0];
+    /** C of the vertices */
+    @Original private transient int[] conceptIndexes = new int[0];
+    /** roles of the vertices */
+    @Original private transient Role[] roles = new Role[0];
+    /** numbers of the vertices: n of the number restrictions, state of the universal ones */
+    @Original private transient int[] numbers = new int[0];
+    /** children of vertex i are at childPool[childStart[i]] .. childPool[childStart[i + 1] - 1] */
+    @Original private transient int[] childStart = new int[0];
+    /**
+     * children of all the vertices, in the order the tableau expands them;
+     * replaced, never updated in place, when the order changes
+     */
+    @Original private transient volatile int[] childPool = new int[0];
+    /** statistic of the vertices, StatIndex.NSTAT values per vertex */
+    @PortedFrom(file = "dlVertex.h", name = "stat") private int[] stats = new int[0];
+    /** DFS flags of the vertices */
+    @Original private byte[] dfs = new byte[0];
+    /** DFS flag: vertex is being visited */
+    private static final int VISITED = 1;
+    /** DFS flag: vertex DFS processing is completed */
+    private static final int PROCESSED = 2;
+    /** DFS flag: vertex is involved in a cycle */
+    private static final int IN_CYCLE = 4;
     @Original private final JFactReasonerConfiguration options;
+    /** keeps the model caches of complex entries within a memory budget */
+    @Original private final ModelCacheManager cacheManager;
 
     /**
      * @param options
@@ -64,6 +103,7 @@ public class DLDag implements Serializable {
      */
     public DLDag(JFactReasonerConfiguration options) {
         this.options = options;
+        cacheManager = new ModelCacheManager(options);
         /** hash-table for verteces (and, all, LE) fast search */
         DLVTable indexAnd = new DLVTable(this);
         DLVTable indexAll = new DLVTable(this);
@@ -148,7 +188,7 @@ public class DLDag implements Serializable {
     /** clear all DFS info from elements of DAG */
     @PortedFrom(file = "dlDag.h", name = "clearDFS")
     private void clearDFS() {
-        heap.forEach(d -> d.clearDFS());
+        Arrays.fill(dfs, (byte) 0);
     }
 
     /**
@@ -291,7 +331,12 @@ public class DLDag implements Serializable {
     @Nullable
     @PortedFrom(file = "dlDag.h", name = "getCache")
     public ModelCacheInterface getCache(int p) {
-        return get(p).getCache(p > 0);
+        ModelCacheInterface cache = get(p).getCache(p > 0);
+        // only the evictable caches are tracked, so the others skip the lock
+        if (cache != null && cacheManager.isBounded() && isEvictableCache(p, cache)) {
+            cacheManager.touch(p);
+        }
+        return cache;
     }
 
     /**
@@ -305,6 +350,32 @@ public class DLDag implements Serializable {
     @PortedFrom(file = "dlDag.h", name = "setCache")
     public void setCache(int p, ModelCacheInterface cache) {
         get(p).setCache(p > 0, cache);
+        if (cacheManager.isBounded()) {
+            if (isEvictableCache(p, cache)) {
+                cacheManager.add(p, cache, q -> get(q).setCache(q > 0, null));
+            } else {
+                cacheManager.remove(p);
+            }
+        }
+    }
+
+    /**
+     * @param p
+     *        bipointer
+     * @param cache
+     *        cache of p
+     * @return true iff the cache can be dropped to save memory: it is a
+     *         tableau model of a complex entry of the final DAG
+     */
+    @Original
+    private boolean isEvictableCache(int p, ModelCacheInterface cache) {
+        return !isQueryEntry(p) && cache.getCacheType() == ModelCacheType.IAN && !types[Math.abs(p)].isCNameTag();
+    }
+
+    /** @return manager of the model caches, for statistics */
+    @Original
+    public ModelCacheManager getCacheManager() {
+        return cacheManager;
     }
 
     // sort interface
@@ -397,6 +468,157 @@ public class DLDag implements Serializable {
     public void setFinalSize() {
         finalDagSize = size();
         setExpressionCache(false);
+        initColumns();
+        stats = new int[finalDagSize * StatIndex.NSTAT];
+        dfs = new byte[finalDagSize];
+        reserveQuerySpace();
+    }
+
+    /** @return number of entries of the final DAG */
+    @Original
+    int finalSize() {
+        return finalDagSize;
+    }
+
+    /**
+     * reserve room so that shared queries never reallocate the heap while
+     * other queries are reading it
+     */
+    @Original
+    private void reserveQuerySpace() {
+        querySpace = finalDagSize + Math.max(1024, finalDagSize / 8);
+        heap.ensureCapacity(querySpace);
+    }
+
+    /** fill the columns of the final DAG from the heap */
+    @Original
+    private void initColumns() {
+        int n = finalDagSize;
+        byte[] codes = new byte[2 * n];
+        types = new DagTag[n];
+        conceptIndexes = new int[n];
+        roles = new Role[n];
+        numbers = new int[n];
+        childStart = new int[n + 1];
+        int children = 0;
+        for (int i = 0; i < n; i++) {
+            DLVertex v = heap.get(i);
+            if (i > 0) {
+                codes[2 * i] = Opcode.of(v, true);
+                codes[2 * i + 1] = Opcode.of(v, false);
+            }
+            types[i] = v.getType();
+            conceptIndexes[i] = v.getConceptIndex();
+            roles[i] = v.getRole();
+            numbers[i] = v.getNumberLE();
+            childStart[i] = children;
+            children += v.getNumberOfChildren();
+        }
+        childStart[n] = children;
+        childPool = new int[children];
+        for (int i = 0; i < n; i++) {
+            DLVertex v = heap.get(i);
+            if (v.getNumberOfChildren() > 0) {
+                System.arraycopy(v.begin(), 0, childPool, childStart[i], v.getNumberOfChildren());
+            }
+        }
+        opcodes = codes;
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return tactic code of the given bipolar pointer
+     */
+    @Original
+    byte getOpcode(int p) {
+        int i = p > 0 ? 2 * p : 1 - 2 * p;
+        if (i < opcodes.length) {
+            return opcodes[i];
+        }
+        // query entries are not in the table
+        return Opcode.of(get(p), p > 0);
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return type of the vertex of the given pointer
+     */
+    @Original
+    DagTag getType(int p) {
+        int i = p < 0 ? -p : p;
+        return i < types.length ? types[i] : heap.get(i).getType();
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return C of the vertex of the given pointer
+     */
+    @Original
+    int getConceptIndex(int p) {
+        int i = p < 0 ? -p : p;
+        return i < conceptIndexes.length ? conceptIndexes[i] : heap.get(i).getConceptIndex();
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return role of the vertex of the given pointer
+     */
+    @Original
+    Role getRole(int p) {
+        int i = p < 0 ? -p : p;
+        return i < roles.length ? roles[i] : heap.get(i).getRole();
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return n of a number restriction (getNumberLE()) or state of a
+     *         universal restriction of the given pointer
+     */
+    @Original
+    int getNumber(int p) {
+        int i = p < 0 ? -p : p;
+        return i < numbers.length ? numbers[i] : heap.get(i).getNumberLE();
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return array holding the children of the given pointer from
+     *         getChildBegin(p) to getChildEnd(p)
+     */
+    @Original
+    int[] getChildren(int p) {
+        int i = p < 0 ? -p : p;
+        return i < types.length ? childPool : heap.get(i).begin();
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return position of the first child of the given pointer in
+     *         getChildren(p)
+     */
+    @Original
+    int getChildBegin(int p) {
+        int i = p < 0 ? -p : p;
+        return i < types.length ? childStart[i] : 0;
+    }
+
+    /**
+     * @param p
+     *        p
+     * @return position after the last child of the given pointer in
+     *         getChildren(p)
+     */
+    @Original
+    int getChildEnd(int p) {
+        int i = p < 0 ? -p : p;
+        return i < types.length ? childStart[i + 1] : heap.get(i).getNumberOfChildren();
     }
 
     /** clean query */
@@ -423,6 +645,29 @@ public class DLDag implements Serializable {
         }
         resize(heap, finalDagSize, null);
         cache.clear();
+        reserveQuerySpace();
+    }
+
+    /**
+     * @param n
+     *        number of entries to add
+     * @return true if n entries can be added to the query part of the DAG
+     *         without reallocating the heap
+     */
+    @Original
+    public boolean hasQuerySpace(int n) {
+        return size() + n <= querySpace;
+    }
+
+    /**
+     * @param p
+     *        bipointer
+     * @return true if p points to a query entry, i.e., one removed by
+     *         removeQuery()
+     */
+    @Original
+    public boolean isQueryEntry(int p) {
+        return Math.abs(p) >= finalDagSize;
     }
 
     /**
@@ -459,20 +704,62 @@ public class DLDag implements Serializable {
         preferNonGen = opt.charAt(2) == 'p';
         iSort = StatIndex.choose(opt.charAt(0));
         recompute();
+        refreshChildOrder();
+    }
+
+    /** publish the children of the AND vertices in their new order */
+    @Original
+    private void refreshChildOrder() {
+        int[] pool = childPool.clone();
+        for (int p = 0; p < listAnds.size(); p++) {
+            int i = listAnds.get(p);
+            if (i < types.length) {
+                DLVertex v = heap.get(i);
+                System.arraycopy(v.begin(), 0, pool, childStart[i], v.getNumberOfChildren());
+            }
+        }
+        childPool = pool;
+    }
+
+    /**
+     * @param i
+     *        vertex index
+     * @param flag
+     *        DFS flag
+     * @param pos
+     *        pos
+     * @return true if the flag is set for the given occurrence of the vertex
+     */
+    @Original
+    private boolean isDFS(int i, int flag, boolean pos) {
+        return (dfs[i] & (pos ? flag : flag << 3)) != 0;
+    }
+
+    /**
+     * @param i
+     *        vertex index
+     * @param flag
+     *        DFS flag
+     * @param pos
+     *        pos
+     */
+    @Original
+    private void setDFS(int i, int flag, boolean pos) {
+        dfs[i] |= pos ? flag : flag << 3;
     }
 
     @PortedFrom(file = "dlDag.h", name = "computeVertexStat")
     @SuppressWarnings("incomplete-switch")
-    private void computeVertexStat(DLVertex v, boolean pos, int depth) {
+    private void computeVertexStat(int i, boolean pos, int depth) {
         // in case of cycle: mark concept as such
-        if (v.isVisited(pos)) {
-            v.setInCycle(pos);
+        if (isDFS(i, VISITED, pos)) {
+            setDFS(i, IN_CYCLE, pos);
             return;
         }
-        v.setVisited(pos);
+        setDFS(i, VISITED, pos);
         // ensure that the statistic is gather for all sub-concepts of the
         // expression
-        switch (v.getType()) {
+        switch (types[i]) {
             case COLLECTION:// if pos then behaves like and
                 if (!pos) {
                     break;
@@ -480,13 +767,8 @@ public class DLDag implements Serializable {
                 // fallthrough
                 //$FALL-THROUGH$
             case AND:// check all the conjuncts
-                for (int q : v.begin()) {
-                    int index = createBiPointer(q, pos);
-                    DLVertex vertex = get(index);
-                    boolean pos2 = index > 0;
-                    if (!vertex.isProcessed(pos2)) {
-                        computeVertexStat(vertex, pos2, depth + 1);
-                    }
+                for (int k = childStart[i]; k < childStart[i + 1]; k++) {
+                    computeChildStat(createBiPointer(childPool[k], pos), depth);
                 }
                 break;
             case PROJ:
@@ -502,37 +784,50 @@ public class DLDag implements Serializable {
             case FORALL:
             case CHOOSE:
             case LE:// check a single referenced concept
-                int index = createBiPointer(v.getConceptIndex(), pos);
-                DLVertex vertex = get(index);
-                boolean pos2 = index > 0;
-                if (!vertex.isProcessed(pos2)) {
-                    computeVertexStat(vertex, pos2, depth + 1);
-                }
+                computeChildStat(createBiPointer(conceptIndexes[i], pos), depth);
                 break;
             default:// nothing to do
                 break;
         }
-        v.setProcessed(pos);
+        // DFS processing is completed: processed and no longer visited
+        dfs[i] = (byte) (dfs[i] & ~(pos ? VISITED : VISITED << 3) | (pos ? PROCESSED : PROCESSED << 3));
         // here all the necessary statistics is gathered -- use it in the init
-        updateVertexStat(v, pos);
+        updateVertexStat(i, pos);
+    }
+
+    /**
+     * helper for the recursion
+     * 
+     * @param p
+     *        p
+     * @param depth
+     *        depth of the parent
+     */
+    @Original
+    private void computeChildStat(int p, int depth) {
+        int i = p > 0 ? p : -p;
+        boolean pos = p > 0;
+        if (!isDFS(i, PROCESSED, pos)) {
+            computeVertexStat(i, pos, depth + 1);
+        }
     }
 
     @PortedFrom(file = "dlDag.h", name = "updateVertexStat")
     @SuppressWarnings("incomplete-switch")
-    private void updateVertexStat(DLVertex v, boolean pos) {
+    private void updateVertexStat(int i, boolean pos) {
         int s = 1, b = 0, g = 0;
-        if (!v.getType().omitStat(pos)) {
-            if (isValid(v.getConceptIndex())) {
-                updateVertexStat(v, v.getConceptIndex(), pos);
+        if (!types[i].omitStat(pos)) {
+            if (isValid(conceptIndexes[i])) {
+                updateVertexStat(i, conceptIndexes[i], pos);
             } else {
-                for (int q : v.begin()) {
-                    updateVertexStat(v, q, pos);
+                for (int k = childStart[i]; k < childStart[i + 1]; k++) {
+                    updateVertexStat(i, childPool[k], pos);
                 }
             }
         }
         // correct values wrt POS
-        int d = v.getDepth(pos);
-        switch (v.getType()) {
+        int d = StatIndex.getDepth(pos, stats, i * StatIndex.NSTAT);
+        switch (types[i]) {
             case AND:
                 if (!pos) {
                     ++b;
@@ -553,7 +848,7 @@ public class DLDag implements Serializable {
                 if (!pos) {
                     ++g;
                     // >= is generating
-                } else if (v.getNumberLE() != 1) {
+                } else if (heap.get(i).getNumberLE() != 1) {
                     ++b;
                     // <= is branching
                 }
@@ -567,7 +862,7 @@ public class DLDag implements Serializable {
             default:
                 break;
         }
-        v.updateStatValues(d, s, b, g, pos);
+        StatIndex.updateStatValues(d, s, b, g, pos, stats, i * StatIndex.NSTAT);
     }
 
     /**
@@ -578,25 +873,25 @@ public class DLDag implements Serializable {
      */
     @PortedFrom(file = "dlDag.h", name = "computeVertexFreq")
     private void computeVertexFreq(int p) {
-        DLVertex v = get(p);
+        int i = p > 0 ? p : -p;
         boolean pos = p > 0;
-        if (v.isVisited(pos)) {
+        if (isDFS(i, VISITED, pos)) {
             // avoid cycles
             return;
         }
         // increment frequence of current vertex
-        v.incFreqValue(pos);
-        v.setVisited(pos);
-        if (v.getType().omitStat(pos)) {
+        StatIndex.incFreqValue(pos, stats, i * StatIndex.NSTAT);
+        setDFS(i, VISITED, pos);
+        if (types[i].omitStat(pos)) {
             // negation of primitive concept-like
             return;
         }
         // increment frequence of all subvertex
-        if (isValid(v.getConceptIndex())) {
-            computeVertexFreq(v.getConceptIndex(), pos);
+        if (isValid(conceptIndexes[i])) {
+            computeVertexFreq(createBiPointer(conceptIndexes[i], pos));
         } else {
-            for (int q : v.begin()) {
-                computeVertexFreq(q, pos);
+            for (int k = childStart[i]; k < childStart[i + 1]; k++) {
+                computeVertexFreq(createBiPointer(childPool[k], pos));
             }
         }
     }
@@ -604,35 +899,22 @@ public class DLDag implements Serializable {
     /**
      * helper for the recursion
      * 
-     * @param v
-     *        v
+     * @param i
+     *        vertex index
      * @param p
      *        p
      * @param pos
      *        pos
      */
     @PortedFrom(file = "dlDag.h", name = "updateVertexStat")
-    private void updateVertexStat(DLVertex v, int p, boolean pos) {
-        DLVertex w = get(p);
+    private void updateVertexStat(int i, int p, boolean pos) {
+        int j = p > 0 ? p : -p;
         boolean same = pos == p > 0;
         // update in-cycle information
-        if (w.isInCycle(same)) {
-            v.setInCycle(pos);
+        if (isDFS(j, IN_CYCLE, same)) {
+            setDFS(i, IN_CYCLE, pos);
         }
-        v.updateStatValues(w, same, pos);
-    }
-
-    /**
-     * helper for the recursion
-     * 
-     * @param p
-     *        p
-     * @param pos
-     *        pos
-     */
-    @PortedFrom(file = "dlDag.h", name = "computeVertexFreq")
-    private void computeVertexFreq(int p, boolean pos) {
-        computeVertexFreq(createBiPointer(p, pos));
+        StatIndex.updateStatValues(stats, j * StatIndex.NSTAT, same, i * StatIndex.NSTAT, pos);
     }
 
     /** stats collection */
@@ -640,11 +922,9 @@ public class DLDag implements Serializable {
     public void gatherStatistic() {
         // gather main statistics for disjunctions
         for (int i = 0; i < listAnds.size(); i++) {
-            int index = -listAnds.get(i);
-            DLVertex v = get(index);
-            boolean pos = index > 0;
-            if (!v.isProcessed(pos)) {
-                computeVertexStat(v, pos, 0);
+            int v = listAnds.get(i);
+            if (!isDFS(v, PROCESSED, false)) {
+                computeVertexStat(v, false, 0);
             }
         }
         // if necessary -- gather frequency
@@ -652,13 +932,116 @@ public class DLDag implements Serializable {
             return;
         }
         clearDFS();
-        for (int i = size() - 1; i > 1; --i) {
-            if (get(i).getType().isCNameTag()) {
+        for (int i = finalDagSize - 1; i > 1; --i) {
+            if (types[i].isCNameTag()) {
                 computeVertexFreq(i);
             }
         }
     }
 
+    /**
+     * @param p
+     *        p
+     * @return statistic of the given entry used for sorting; 0 for entries not
+     *         in the final DAG
+     */
+    @Original
+    private int getSortStat(int p) {
+        int i = p > 0 ? p : -p;
+        return i < finalDagSize ? stats[i * StatIndex.NSTAT + iSort] : 0;
+    }
+
+    /**
+     * @param v
+     *        vertex
+     * @return offset of the statistic of v in the stat pool, or -1 if v is not
+     *         in the final DAG; linear in the size of the DAG
+     */
+    @Original
+    private int statBase(DLVertex v) {
+        for (int i = 0; i < finalDagSize; i++) {
+            if (heap.get(i) == v) {
+                return i * StatIndex.NSTAT;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param v
+     *        vertex
+     * @param i
+     *        stat index
+     * @return stat i of v; 0 for vertices not in the final DAG
+     */
+    @Original
+    public int getStat(DLVertex v, int i) {
+        int base = statBase(v);
+        return base < 0 ? 0 : stats[base + i];
+    }
+
+    /**
+     * add-up all stat values of v at once by explicit values; vertices not in
+     * the final DAG have no statistic
+     * 
+     * @param v
+     *        vertex
+     * @param d
+     *        d
+     * @param s
+     *        s
+     * @param b
+     *        b
+     * @param g
+     *        g
+     * @param pos
+     *        pos
+     */
+    @Original
+    public void updateStatValues(DLVertex v, int d, int s, int b, int g, boolean pos) {
+        int base = statBase(v);
+        if (base >= 0) {
+            StatIndex.updateStatValues(d, s, b, g, pos, stats, base);
+        }
+    }
+
+    /**
+     * add-up all stat values of v at once by the values of a given vertex
+     * 
+     * @param v
+     *        vertex
+     * @param from
+     *        vertex to read the values from
+     * @param posV
+     *        posV
+     * @param pos
+     *        pos
+     */
+    @Original
+    public void updateStatValues(DLVertex v, DLVertex from, boolean posV, boolean pos) {
+        int base = statBase(v);
+        int fromBase = statBase(from);
+        if (base >= 0 && fromBase >= 0) {
+            StatIndex.updateStatValues(stats, fromBase, posV, base, pos);
+        }
+    }
+
+    /**
+     * increment frequency value of v
+     * 
+     * @param v
+     *        vertex
+     * @param pos
+     *        pos
+     */
+    @Original
+    public void incFreqValue(DLVertex v, boolean pos) {
+        int base = statBase(v);
+        if (base >= 0) {
+            StatIndex.incFreqValue(pos, stats, base);
+        }
+    }
+
     /**
      * @param p1
      *        p1
@@ -679,10 +1062,8 @@ public class DLDag implements Serializable {
                 return 1;
             }
         }
-        DLVertex v1 = get(p1);
-        DLVertex v2 = get(p2);
-        int key1 = v1.getStat(iSort);
-        int key2 = v2.getStat(iSort);
+        int key1 = getSortStat(p1);
+        int key2 = getSortStat(p2);
         if (key1 == key2) {
             return 0;
         }
@@ -840,4 +1221,12 @@ public class DLDag implements Serializable {
         merge(d.getDomainLabel(), a);
         merge(d.getRangeLabel(), b);
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        cache = new HashSet<>();
+        initColumns();
+        // capacity is not serialised
+        reserveQuerySpace();
+    }
 }
@@ -15,6 +15,7 @@ import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.chainsaw.FastSet;
 import uk.ac.manchester.cs.chainsaw.FastSetFactory;
@@ -32,25 +33,26 @@ public class DlCompletionGraph implements Serializable {
 
     /** initial value of IR level */
     @PortedFrom(file = "dlCompletionGraph.h", name = "initIRLevel") private static final int INIT_IR_LEVEL = 0;
-    // XXX is this actually used?
-    /** allocator for edges */
+    /** allocator for edges; arcs past endEdges are unused */
     @PortedFrom(file = "dlCompletionGraph.h", name = "CTEdgeHeap") private final List<DlCompletionTreeArc> ctEdgeHeap = new ArrayList<>();
     /** heap itself */
     @PortedFrom(file = "dlCompletionGraph.h", name = "NodeBase") private final List<DlCompletionTree> nodeBase;
-    /** nodes, saved on current branching level */
-    @PortedFrom(file = "dlCompletionGraph.h", name = "SavedNodes") private final List<DlCompletionTree> savedNodes = new ArrayList<>();
     /** host reasoner */
     @PortedFrom(file = "dlCompletionGraph.h", name = "pReasoner") private final DlSatTester pReasoner;
     /** remember the last generated ID for the node */
     @PortedFrom(file = "dlCompletionGraph.h", name = "nodeId") private int nodeId = 0;
     /** index of the next unallocated entry */
     @PortedFrom(file = "dlCompletionGraph.h", name = "endUsed") private int endUsed;
+    /** number of arcs in use; the following ones in the edge heap are recycled */
+    @Original private int endEdges = 0;
     /** current branching level (synchronised with resoner's one) */
     @PortedFrom(file = "dlCompletionGraph.h", name = "branchingLevel") private int branchingLevel;
     /** current IR level (should be valid BP) */
     @PortedFrom(file = "dlCompletionGraph.h", name = "IRLevel") private int irLevel;
-    /** stack for rarely changed information */
+    /** undo trail for node states and rarely changed information */
     @PortedFrom(file = "dlCompletionGraph.h", name = "RareStack") private final SaveStackRare rareStack = new SaveStackRare();
+    /** candidate blockers for anywhere blocking */
+    @Original private final BlockerIndex blockers = new BlockerIndex();
     /** stack for usual saving/restoring */
     @PortedFrom(file = "dlCompletionGraph.h", name = "Stack") private final SaveStack<DLCompletionGraphSaveState> stack = new SaveStack<>();
     // helpers for the output
@@ -66,6 +68,8 @@ public class DlCompletionGraph implements Serializable {
     @PortedFrom(file = "dlCompletionGraph.h", name = "nNodeRestores") private int nNodeRestores;
     /** maximal size of the graph */
     @PortedFrom(file = "dlCompletionGraph.h", name = "maxGraphSize") private int maxGraphSize = 0;
+    /** maximal number of nodes used since the last clear() */
+    @Original private int peakSize = 0;
     // flags
     /** how many nodes skip before block; work only with FAIRNESS */
     @PortedFrom(file = "dlCompletionGraph.h", name = "nSkipBeforeBlock") private int nSkipBeforeBlock = 0;
@@ -275,6 +279,12 @@ public class DlCompletionGraph implements Serializable {
         nSkipBeforeBlock = nSkip;
         useLazyBlocking = useLB;
         useAnywhereBlocking = useAB;
+        blockers.clear();
+        if (useAnywhereBlocking) {
+            for (int i = 0; i < endUsed; i++) {
+                blockers.mark(i);
+            }
+        }
     }
 
     /**
@@ -298,12 +308,17 @@ public class DlCompletionGraph implements Serializable {
      *        node
      * @param c
      *        c
+     * @param dep
+     *        dep-set of c; owned by the label from now on
      * @param complex
      *        true if complex concepts sought
      */
     @PortedFrom(file = "dlCompletionGraph.h", name = "addConceptToNode")
-    public void addConceptToNode(DlCompletionTree node, ConceptWDep c, boolean complex) {
-        node.addConcept(c, complex);
+    public void addConceptToNode(DlCompletionTree node, int c, DepSet dep, boolean complex) {
+        node.addConcept(c, dep, complex);
+        if (useAnywhereBlocking) {
+            blockers.mark(node.getId());
+        }
         if (useLazyBlocking) {
             node.setAffected();
         } else {
@@ -347,7 +362,13 @@ public class DlCompletionGraph implements Serializable {
             grow();
         }
         DlCompletionTree ret = nodeBase.get(endUsed++);
+        if (endUsed > peakSize) {
+            peakSize = endUsed;
+        }
         ret.init(branchingLevel);
+        if (useAnywhereBlocking) {
+            blockers.mark(ret.getId());
+        }
         return ret;
     }
 
@@ -413,16 +434,23 @@ public class DlCompletionGraph implements Serializable {
         return maxGraphSize;
     }
 
+    /** @return maximal number of nodes used since the graph was cleared */
+    @Original
+    public int getPeakSize() {
+        return peakSize;
+    }
+
     /** mark all heap elements as unused */
     @PortedFrom(file = "dlCompletionGraph.h", name = "clear")
     public void clear() {
-        ctEdgeHeap.clear();
+        endEdges = 0;
         endUsed = 0;
+        peakSize = 0;
         branchingLevel = INITBRANCHINGLEVELVALUE;
         irLevel = INIT_IR_LEVEL;
         rareStack.clear();
         stack.clear();
-        savedNodes.clear();
+        blockers.clear();
         initRoot();
     }
 
@@ -538,28 +566,11 @@ public class DlCompletionGraph implements Serializable {
     @PortedFrom(file = "dlCompletionGraph.h", name = "saveNode")
     public void saveNode(DlCompletionTree node, int level) {
         if (node.needSave(level)) {
-            node.save(level);
-            savedNodes.add(node);
+            node.save(rareStack, level);
             ++nNodeSaves;
         }
     }
 
-    /**
-     * restore given node wrt level
-     * 
-     * @param node
-     *        node
-     * @param level
-     *        level
-     */
-    @PortedFrom(file = "dlCompletionGraph.h", name = "restoreNode")
-    private void restoreNode(DlCompletionTree node, int level) {
-        if (node.needRestore(level)) {
-            node.restore(level);
-            ++nNodeRestores;
-        }
-    }
-
     @PortedFrom(file = "dlCompletionGraph.h", name = "isBlockedBy")
     private boolean isBlockedBy(DlCompletionTree node, DlCompletionTree blocker) {
         assert !node.isNominalNode();
@@ -653,12 +664,16 @@ public class DlCompletionGraph implements Serializable {
 
     @PortedFrom(file = "dlCompletionGraph.h", name = "findDAnywhereBlocker")
     private void findDAnywhereBlocker(DlCompletionTree node) {
-        for (int i = 0; i < endUsed && i != node.getId(); i++) {
-            DlCompletionTree p = nodeBase.get(i);
-            if (!p.isBlockedPBlockedNominalNodeCached() && isBlockedBy(node, p)) {
-                setNodeDBlocked(node, p);
-                return;
-            }
+        // every blocking condition needs the label of the node to be included
+        // in the label of the blocker: only the buckets with covering
+        // signatures are visited
+        int i = blockers.findFirst(node.label().getSignature(), Math.min(endUsed, node.getId()), j -> nodeBase.get(j)
+            .label().getSignature(), j -> {
+            DlCompletionTree p = nodeBase.get(j);
+            return !p.isBlockedPBlockedNominalNodeCached() && isBlockedBy(node, p);
+        });
+        if (i >= 0) {
+            setNodeDBlocked(node, nodeBase.get(i));
         }
     }
 
@@ -711,14 +726,34 @@ public class DlCompletionGraph implements Serializable {
         // nothing to do
     }
 
+    /**
+     * @param role
+     *        role
+     * @param dep
+     *        dep
+     * @param to
+     *        to
+     * @return an arc from the edge heap, recycled if one is unused
+     */
+    @Original
+    private DlCompletionTreeArc newArc(Role role, DepSet dep, DlCompletionTree to) {
+        if (endEdges < ctEdgeHeap.size()) {
+            DlCompletionTreeArc arc = ctEdgeHeap.get(endEdges++);
+            arc.init(role, dep, to);
+            return arc;
+        }
+        DlCompletionTreeArc arc = new DlCompletionTreeArc(role, dep, to);
+        ctEdgeHeap.add(arc);
+        endEdges++;
+        return arc;
+    }
+
     @PortedFrom(file = "dlCompletionGraph.h", name = "createEdge")
     private DlCompletionTreeArc createEdge(DlCompletionTree from, DlCompletionTree to, boolean isPredEdge,
         Role roleName, DepSet dep) {
-        DlCompletionTreeArc forward = new DlCompletionTreeArc(roleName, dep, to);
-        ctEdgeHeap.add(forward);
+        DlCompletionTreeArc forward = newArc(roleName, dep, to);
         forward.setSuccEdge(!isPredEdge);
-        DlCompletionTreeArc backward = new DlCompletionTreeArc(roleName.inverse(), dep, from);
-        ctEdgeHeap.add(backward);
+        DlCompletionTreeArc backward = newArc(roleName.inverse(), dep, from);
         backward.setSuccEdge(isPredEdge);
         forward.setReverse(backward);
         saveNode(from, branchingLevel);
@@ -828,11 +863,14 @@ public class DlCompletionGraph implements Serializable {
     /** save dl completion graph */
     @PortedFrom(file = "dlCompletionGraph.h", name = "save")
     public void save() {
-        DLCompletionGraphSaveState s = new DLCompletionGraphSaveState();
+        DLCompletionGraphSaveState s = stack.recycle();
+        if (s == null) {
+            s = new DLCompletionGraphSaveState();
+        }
         stack.push(s);
         s.setnNodes(endUsed);
-        s.setsNodes(savedNodes.size());
-        s.setnEdges(ctEdgeHeap.size());
+        s.setsNodes(rareStack.size());
+        s.setnEdges(endEdges);
         rareStack.incLevel();
         ++branchingLevel;
     }
@@ -845,23 +883,15 @@ public class DlCompletionGraph implements Serializable {
     public void restore(int level) {
         assert level > 0;
         branchingLevel = level;
-        rareStack.restore(level);
         DLCompletionGraphSaveState s = stack.pop(level);
         endUsed = s.getnNodes();
-        int nSaved = s.getsNodes();
-        if (endUsed < Math.abs(savedNodes.size() - nSaved)) {
-            // it's cheaper to restore all nodes
-            nodeBase.stream().limit(endUsed).forEach(p -> restoreNode(p, level));
-        } else {
-            for (int i = nSaved; i < savedNodes.size(); i++) {
-                if (savedNodes.get(i).getId() < endUsed) {
-                    // don't restore nodes that are dead anyway
-                    restoreNode(savedNodes.get(i), level);
-                }
-            }
+        // don't restore nodes that are dead anyway
+        nNodeRestores += rareStack.restore(level, s.getsNodes(), endUsed, useAnywhereBlocking ? blockers : null);
+        endEdges = s.getnEdges();
+        if (pReasoner.getOptions().isUseDynamicBackjumping()) {
+            // restored nodes might keep newer arcs, so these can not be recycled
+            Helper.resize(ctEdgeHeap, endEdges, null);
         }
-        Helper.resize(savedNodes, nSaved, null);
-        Helper.resize(ctEdgeHeap, s.getnEdges(), null);
     }
 
     /**
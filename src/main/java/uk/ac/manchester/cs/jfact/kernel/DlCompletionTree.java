@@ -13,7 +13,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
@@ -28,8 +27,6 @@ import uk.ac.manchester.cs.jfact.helpers.LogAdapter;
 import uk.ac.manchester.cs.jfact.helpers.Reference;
 import uk.ac.manchester.cs.jfact.helpers.Templates;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
-import uk.ac.manchester.cs.jfact.kernel.state.DLCompletionTreeSaveState;
-import uk.ac.manchester.cs.jfact.kernel.state.SaveList;
 
 /** completion tree */
 @PortedFrom(file = "dlCompletionTree.h", name = "DlCompletionTree")
@@ -106,8 +103,6 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
     // TODO check whether access should be improved
     /** Neighbours information */
     private final List<DlCompletionTreeArc> neighbour = new ArrayList<>();
-    /** pointer to last saved node */
-    private final SaveList saves = new SaveList();
     /** ID of node (used in print) */
     private final int id;
     /** concept that init the newly created node */
@@ -304,11 +299,13 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
      * 
      * @param p
      *        p
+     * @param dep
+     *        dep-set of p; owned by the label from now on
      * @param complex
      *        true if complex concepts sought
      */
-    public void addConcept(ConceptWDep p, boolean complex) {
-        label.add(complex, p);
+    public void addConcept(int p, DepSet dep, boolean complex) {
+        label.add(complex, p, dep);
     }
 
     /**
@@ -698,35 +695,20 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
     }
 
     /**
-     * save node using internal stack
+     * save node state on the undo trail
      * 
+     * @param trail
+     *        trail
      * @param level
      *        level
      */
-    public void save(int level) {
-        DLCompletionTreeSaveState node = new DLCompletionTreeSaveState();
-        saves.push(node);
-        save(node);
+    public void save(SaveStackRare trail, int level) {
+        trail.push(this, level, curLevel, neighbour.size(), label.getLabel(false).save(), label.getLabel(true)
+            .save());
+        logSRNode("SaveNode");
         curLevel = level;
     }
 
-    /**
-     * @param restLevel
-     *        restLevel
-     * @return check if node needs to be restored
-     */
-    public boolean needRestore(int restLevel) {
-        return curLevel > restLevel;
-    }
-
-    /**
-     * @param level
-     *        level number restore node to given level
-     */
-    public void restore(int level) {
-        restore(saves.pop(level));
-    }
-
     // output
     /** @return log node information (number, i/d blockers, cached) */
     public String logNode() {
@@ -785,10 +767,9 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
     }
 
     private boolean isCBlockedBy(DLDag dag, DlCompletionTree t) {
-        Stream<ConceptWDep> list = t.complexConcepts().stream();
-        if (list.anyMatch(p -> {
-            if (p.getConcept() > 0) {
-                DLVertex v = dag.get(p.getConcept());
+        if (t.label().getLabel(true).concepts().anyMatch(p -> {
+            if (p > 0) {
+                DLVertex v = dag.get(p);
                 // (<= n T E) \in L(w')
                 return v.getType() == LE && !b5(v.getRole(), v.getConceptIndex());
             }
@@ -796,10 +777,9 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
         })) {
             return false;
         }
-        list = getParentNode().complexConcepts().stream();
-        if (list.anyMatch(p -> {
-            if (p.getConcept() < 0) {
-                DLVertex v = dag.get(p.getConcept());
+        if (getParentNode().label().getLabel(true).concepts().anyMatch(p -> {
+            if (p < 0) {
+                DLVertex v = dag.get(p);
                 // (<= n T E) \in L(w')
                 return v.getType() == LE && !b6(v.getRole(), v.getConceptIndex());
             }
@@ -960,7 +940,6 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
         label.init();
         init = BP_TOP;
         // node was used -- clear all previous content
-        saves.clear();
         inequalityRelation.clear();
         inequalityRelationHelper.clear();
         neighbour.clear();
@@ -1044,29 +1023,25 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
     }
 
     /**
-     * saving/restoring
+     * restore node state saved on the undo trail
      * 
-     * @param nss
-     *        save state
+     * @param level
+     *        saved level
+     * @param neighbours
+     *        saved number of neighbours
+     * @param sc
+     *        saved size of the simple label
+     * @param cc
+     *        saved size of the complex label
      */
-    private void save(DLCompletionTreeSaveState nss) {
-        nss.setCurLevel(curLevel);
-        nss.setnNeighbours(neighbour.size());
-        label.save(nss.getLab());
-        logSRNode("SaveNode");
-    }
-
-    private void restore(@Nullable DLCompletionTreeSaveState nss) {
-        if (nss == null) {
-            return;
-        }
+    void restore(int level, int neighbours, int sc, int cc) {
         // level restore
-        curLevel = nss.getCurLevel();
+        curLevel = level;
         // label restore
-        label.restore(nss.getLab(), curLevel);
+        label.restore(sc, cc, curLevel);
         // remove new neighbours
         if (!options.isUseDynamicBackjumping()) {
-            resize(neighbour, nss.getnNeighbours(), null);
+            resize(neighbour, neighbours, null);
         } else {
             for (int j = neighbour.size() - 1; j >= 0; --j) {
                 if (neighbour.get(j).getArcEnd().curLevel <= curLevel) {
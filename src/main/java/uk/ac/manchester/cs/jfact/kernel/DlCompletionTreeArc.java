@@ -19,7 +19,7 @@ import uk.ac.manchester.cs.jfact.helpers.Templates;
 public class DlCompletionTreeArc implements Serializable {
 
     /** pointer to "to" node */
-    private final DlCompletionTree node;
+    private DlCompletionTree node;
     /** role, labelling given arc */
     protected Role role;
     /** dep-set of the arc */
@@ -77,10 +77,25 @@ public class DlCompletionTreeArc implements Serializable {
      *        n
      */
     public DlCompletionTreeArc(Role r, DepSet dep, DlCompletionTree n) {
+        init(r, dep, n);
+    }
+
+    /**
+     * (re)initialise the arc, so that unused arcs can be recycled
+     * 
+     * @param r
+     *        r
+     * @param dep
+     *        dep
+     * @param n
+     *        n
+     */
+    protected void init(Role r, DepSet dep, DlCompletionTree n) {
         role = r;
         depSet = DepSet.create(dep);
         node = n;
         reverse = null;
+        succEdge = true;
     }
 
     /**
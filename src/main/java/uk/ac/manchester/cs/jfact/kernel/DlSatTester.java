@@ -19,7 +19,6 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -28,6 +27,7 @@ import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.reasoner.TimeOutException;
 
 import conformance.Original;
@@ -50,6 +50,8 @@ import uk.ac.manchester.cs.jfact.helpers.Templates;
 import uk.ac.manchester.cs.jfact.helpers.Timer;
 import uk.ac.manchester.cs.jfact.helpers.UnreachableSituationException;
 import uk.ac.manchester.cs.jfact.kernel.dl.interfaces.NamedEntity;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsListener;
+import uk.ac.manchester.cs.jfact.kernel.metrics.SatTestMetrics;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheConst;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheIan;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
@@ -122,7 +124,8 @@ public class DlSatTester implements Serializable {
          * @return or
          */
         protected BranchingContext pushOr() {
-            BCOr o = new BCOr();
+            BranchingContext r = recycle();
+            BCOr o = r instanceof BCOr ? (BCOr) r : new BCOr();
             push(o);
             return o;
         }
@@ -133,7 +136,8 @@ public class DlSatTester implements Serializable {
          * @return nn
          */
         protected BranchingContext pushNN() {
-            BCNN n = new BCNN();
+            BranchingContext r = recycle();
+            BCNN n = r instanceof BCNN ? (BCNN) r : new BCNN();
             push(n);
             return n;
         }
@@ -144,7 +148,7 @@ public class DlSatTester implements Serializable {
          * @return le
          */
         protected BCLE<DlCompletionTreeArc> pushLE() {
-            BCLE<DlCompletionTreeArc> e = new BCLE<>();
+            BCLE<DlCompletionTreeArc> e = recycleLE();
             push(e);
             return e;
         }
@@ -156,18 +160,30 @@ public class DlSatTester implements Serializable {
          */
         protected BCLE<DlCompletionTree> pushTopLE() {
             // XXX verify if this is correct
-            BCLE<DlCompletionTree> e = new BCLE<>();
+            BCLE<DlCompletionTree> e = recycleLE();
             push(e);
             return e;
         }
 
+        /**
+         * the edges of a recycled context are swapped out before use
+         * 
+         * @return recycled or new BC for LE-rules
+         */
+        @SuppressWarnings("unchecked")
+        private <I> BCLE<I> recycleLE() {
+            BranchingContext r = recycle();
+            return r instanceof BCLE ? (BCLE<I>) r : new BCLE<>();
+        }
+
         /**
          * get BC for Choose-rule
          * 
          * @return choose
          */
         protected BCChoose pushCh() {
-            BCChoose c = new BCChoose();
+            BranchingContext r = recycle();
+            BCChoose c = r instanceof BCChoose ? (BCChoose) r : new BCChoose();
             push(c);
             return c;
         }
@@ -416,6 +432,8 @@ public class DlSatTester implements Serializable {
     @PortedFrom(file = "Reasoner.h", name = "bContext") protected BranchingContext bContext;
     /** index of last non-det situation */
     @PortedFrom(file = "Reasoner.h", name = "tryLevel") private int tryLevel;
+    /** deepest branching level reached in the current test */
+    @Original private int maxTryLevel;
     /** shift in order to determine the 1st non-det application */
     @PortedFrom(file = "Reasoner.h", name = "nonDetShift") protected int nonDetShift;
     // current values
@@ -443,6 +461,11 @@ public class DlSatTester implements Serializable {
     /** auxilliary cache that is built from the edges of newly created node */
     @PortedFrom(file = "Reasoner.h", name = "newNodeEdges") private final ModelCacheIan newNodeEdges;
     @Original private final Stats stats = new Stats();
+    /**
+     * logical features of the current test for testers that do not follow the
+     * TBox features (classification workers); null to use the TBox ones
+     */
+    @Original @Nullable private LogicFeatures features = null;
     @Original private static final EnumSet<DagTag> handlecollection = EnumSet.of(AND, COLLECTION);
     @Original private static final EnumSet<DagTag> handleforallle = EnumSet.of(FORALL, LE);
     @Original private static final EnumSet<DagTag> handlesingleton = EnumSet.of(PSINGLETON, NSINGLETON, NCONCEPT,
@@ -542,9 +565,13 @@ public class DlSatTester implements Serializable {
      */
     @PortedFrom(file = "Reasoner.h", name = "addExistingToDoEntry")
     private void addExistingToDoEntry(DlCompletionTree node, ConceptWDep c, String reason) {
-        int bp = c.getConcept();
-        todo.addEntry(node, dlHeap.get(bp).getType(), c);
-        logNCEntry(node, c.getConcept(), c.getDep(), "+", reason);
+        addExistingToDoEntry(node, c.getConcept(), c.getDep(), reason);
+    }
+
+    @PortedFrom(file = "Reasoner.h", name = "addExistingToDoEntry")
+    private void addExistingToDoEntry(DlCompletionTree node, int bp, DepSet dep, String reason) {
+        todo.addEntry(node, dlHeap.getType(bp), bp, dep);
+        logNCEntry(node, bp, dep, "+", reason);
     }
 
     /**
@@ -557,9 +584,11 @@ public class DlSatTester implements Serializable {
      */
     @PortedFrom(file = "Reasoner.h", name = "redoNodeLabel")
     private void redoNodeLabel(DlCompletionTree node, String reason) {
-        CGLabel lab = node.label();
-        lab.getSimpleConcepts().forEach(c -> addExistingToDoEntry(node, c, reason));
-        lab.getComplexConcepts().forEach(c -> addExistingToDoEntry(node, c, reason));
+        for (CWDArray lab : node.label().getLabels()) {
+            for (int i = 0; i < lab.size(); i++) {
+                addExistingToDoEntry(node, lab.getConcept(i), lab.getDep(i), reason);
+            }
+        }
     }
 
     /** make sure that the DAG does not grow larger than that was recorded */
@@ -578,6 +607,10 @@ public class DlSatTester implements Serializable {
      */
     @PortedFrom(file = "Reasoner.h", name = "createModelCache")
     protected ModelCacheInterface createModelCache(DlCompletionTree p) {
+        if (options.getFullModelCacheSize() > 0) {
+            return new ModelCacheIan(dlHeap, p, encounterNominal, tBox.nC, tBox.nR.get(), options, new AtomicInteger(
+                options.getFullModelCacheSize()));
+        }
         return new ModelCacheIan(dlHeap, p, encounterNominal, tBox.nC, tBox.nR.get(), options);
     }
 
@@ -704,13 +737,13 @@ public class DlSatTester implements Serializable {
     /**
      * check whether a node represents a functional one
      * 
-     * @param v
-     *        v
+     * @param p
+     *        pointer to the vertex
      * @return true if functional
      */
     @PortedFrom(file = "Reasoner.h", name = "isFunctionalVertex")
-    private static boolean isFunctionalVertex(DLVertex v) {
-        return v.getType() == DagTag.LE && v.getNumberLE() == 1 && v.getConceptIndex() == BP_TOP;
+    private boolean isFunctionalVertex(int p) {
+        return dlHeap.getType(p) == DagTag.LE && dlHeap.getNumber(p) == 1 && dlHeap.getConceptIndex(p) == BP_TOP;
     }
 
     /**
@@ -718,49 +751,61 @@ public class DlSatTester implements Serializable {
      * dtLE type.
      * 
      * @param atleast
-     *        atleast
+     *        pointer to the atleast vertex
      * @param atmost
-     *        atmost
+     *        pointer to the atmost vertex
      * @return true if clashing
      */
     @PortedFrom(file = "Reasoner.h", name = "checkNRclash")
-    private static boolean checkNRclash(DLVertex atleast, DLVertex atmost) {
+    private boolean checkNRclash(int atleast, int atmost) {
         // >= n R.C clash with <= m S.D iff...
-        return (atmost.getConceptIndex() == BP_TOP ||
+        return (dlHeap.getConceptIndex(atmost) == BP_TOP ||
             // either D is TOP or C == D...
-            atleast.getConceptIndex() == atmost.getConceptIndex()) &&
+            dlHeap.getConceptIndex(atleast) == dlHeap.getConceptIndex(atmost)) &&
             // and n is greater than m...
-            atleast.getNumberGE() > atmost.getNumberLE() &&
+            dlHeap.getNumber(atleast) + 1 > dlHeap.getNumber(atmost) &&
             // and R [= S
-            atleast.getRole().lesserequal(atmost.getRole());
+            dlHeap.getRole(atleast).lesserequal(dlHeap.getRole(atmost));
     }
 
     /**
      * quick check whether CURNODE has a clash with a given ATMOST restriction
      * 
      * @param atmost
-     *        atmost
+     *        pointer to the atmost vertex
      * @return true if clash
      */
     @PortedFrom(file = "Reasoner.h", name = "isQuickClashLE")
-    private boolean isQuickClashLE(DLVertex atmost) {
+    private boolean isQuickClashLE(int atmost) {
         // need at-least restriction
-        return curNode.complexConcepts().stream().anyMatch(q -> q.getConcept() < 0 && isNRClash(dlHeap.get(q
-            .getConcept()), atmost, q));
+        CWDArray lab = curNode.label().getLabel(true);
+        for (int i = 0; i < lab.size(); i++) {
+            int q = lab.getConcept(i);
+            if (q < 0 && isNRClash(q, atmost, q, lab.getDep(i))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * quick check whether CURNODE has a clash with a given ATLEAST restriction
      * 
      * @param atleast
-     *        atleast
+     *        pointer to the atleast vertex
      * @return true if clashing
      */
     @PortedFrom(file = "Reasoner.h", name = "isQuickClashGE")
-    private boolean isQuickClashGE(DLVertex atleast) {
+    private boolean isQuickClashGE(int atleast) {
         // need at-most restriction
-        return curNode.complexConcepts().stream().anyMatch(q -> q.getConcept() > 0 && isNRClash(atleast, dlHeap.get(q
-            .getConcept()), q));
+        CWDArray lab = curNode.label().getLabel(true);
+        for (int i = 0; i < lab.size(); i++) {
+            int q = lab.getConcept(i);
+            if (q > 0 && isNRClash(atleast, q, q, lab.getDep(i))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -1057,6 +1102,34 @@ public class DlSatTester implements Serializable {
         cGraph.setBlockingMethod(hasInverse, hasQCR);
     }
 
+    /**
+     * set logical features for the following tests, independently of the
+     * TBox ones; sets the blocking method accordingly
+     * 
+     * @param f
+     *        features of the test; null to go back to the TBox features
+     */
+    @Original
+    public void setFeatures(@Nullable LogicFeatures f) {
+        features = f;
+        if (f != null) {
+            setBlockingMethod(f.hasInverseRole(), f.hasFunctionalRestriction() || f.hasNumberRestriction() || f
+                .hasQNumberRestriction());
+        }
+    }
+
+    /** @return true if the current test contains top role */
+    @Original
+    private boolean testHasTopRole() {
+        return features == null ? tBox.testHasTopRole() : features.hasTopRole();
+    }
+
+    /** @return true if the current test contains singletons */
+    @Original
+    private boolean testHasNominals() {
+        return features == null ? tBox.testHasNominals() : features.hasSingletons();
+    }
+
     /**
      * @param sat
      *        sat
@@ -1101,7 +1174,7 @@ public class DlSatTester implements Serializable {
         if (cache != null) {
             return cache;
         }
-        if (!tBox.testHasTopRole()) {
+        if (!testHasTopRole()) {
             prepareCascadedCache(p, f);
         }
         cache = dlHeap.getCache(p);
@@ -1229,6 +1302,39 @@ public class DlSatTester implements Serializable {
      */
     @PortedFrom(file = "Reasoner.h", name = "runSat")
     public boolean runSat(int p, int q) {
+        MetricsListener metrics = options.getMetricsListener();
+        if (metrics == null) {
+            return runSatTest(p, q);
+        }
+        int tactics = stats.getnTacticCalls().get();
+        int saves = stats.getnStateSaves().get();
+        int restores = stats.getnStateRestores().get();
+        int cacheTries = stats.getnCacheTry().get();
+        long start = System.nanoTime();
+        boolean result = runSatTest(p, q);
+        long nanos = System.nanoTime() - start;
+        boolean subsumption = q != BP_TOP;
+        metrics.satTest(new SatTestMetrics(subsumption, result, conceptIRI(p), subsumption ? conceptIRI(q) : null,
+            nanos, maxTryLevel - INITBRANCHINGLEVELVALUE, cGraph.getPeakSize(), stats.getnTacticCalls().get()
+                - tactics, stats.getnStateSaves().get() - saves, stats.getnStateRestores().get() - restores, stats
+                    .getnCacheTry().get() - cacheTries));
+        return result;
+    }
+
+    /**
+     * @param bp
+     *        DAG index
+     * @return IRI of the named concept at BP, null for other vertices
+     */
+    @Original
+    @Nullable
+    private IRI conceptIRI(int bp) {
+        NamedEntry entry = dlHeap.get(bp).getConcept();
+        return entry == null ? null : entry.getIRI();
+    }
+
+    @Original
+    private boolean runSatTest(int p, int q) {
         prepareReasoner();
         // use general method to init node with P and add Q then
         if (initNewNode(cGraph.getRoot(), DepSet.create(), p) || addToDoEntry(cGraph.getRoot(), q, DepSet.create(),
@@ -1342,18 +1448,19 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyAll")
-    private boolean commonTacticBodyAll(DLVertex cur) {
-        assert curConceptConcept > 0 && cur.getType() == FORALL;
-        if (cur.getRole().isTop()) {
+    private boolean commonTacticBodyAll(int bp) {
+        assert curConceptConcept > 0 && dlHeap.getType(bp) == FORALL;
+        Role r = dlHeap.getRole(bp);
+        if (r.isTop()) {
             stats.getnAllCalls().inc();
-            return addSessionGCI(cur.getConceptIndex(), curConceptDepSet);
+            return addSessionGCI(dlHeap.getConceptIndex(bp), curConceptDepSet);
         }
         // can't skip singleton models for complex roles due to empty
         // transitions
-        if (cur.getRole().isSimple()) {
-            return commonTacticBodyAllSimple(cur);
+        if (r.isSimple()) {
+            return commonTacticBodyAllSimple(bp);
         } else {
-            return commonTacticBodyAllComplex(cur);
+            return commonTacticBodyAllComplex(bp);
         }
     }
 
@@ -1388,6 +1495,7 @@ public class DlSatTester implements Serializable {
         curNode = null;
         bContext = null;
         tryLevel = INITBRANCHINGLEVELVALUE;
+        maxTryLevel = INITBRANCHINGLEVELVALUE;
         // clear last session information
         resetSessionFlags();
     }
@@ -1486,16 +1594,15 @@ public class DlSatTester implements Serializable {
         }
         if (bp == BP_BOTTOM) {
             this.setClashSet(dep);
-            logNCEntry(n, bp, dep, "x", dlHeap.get(bp).getType().getName());
+            logNCEntry(n, bp, dep, "x", dlHeap.getType(bp).getName());
             return true;
         }
-        DLVertex v = dlHeap.get(bp);
-        DagTag tag = v.getType();
+        DagTag tag = dlHeap.getType(bp);
         // try to add a concept to a node label
         switch (tryAddConcept(n.label().getLabel(tag.isComplexConcept()), bp, dep)) {
             case CLASH:
                 // clash -- return
-                logNCEntry(n, bp, dep, "x", dlHeap.get(bp).getType().getName());
+                logNCEntry(n, bp, dep, "x", dlHeap.getType(bp).getName());
                 return true;
             case EXIST:
                 // already exists -- nothing new
@@ -1511,16 +1618,16 @@ public class DlSatTester implements Serializable {
 
     @PortedFrom(file = "Reasoner.h", name = "insertToDoEntry")
     private boolean insertToDoEntry(DlCompletionTree n, int bp, DepSet dep, DagTag tag, @Nullable String reason) {
-        ConceptWDep p = new ConceptWDep(bp, dep);
+        DepSet labelDep = DepSet.create(dep);
         // we will change current Node => save it if necessary
         updateLevel(n, dep);
-        cGraph.addConceptToNode(n, p, tag.isComplexConcept());
+        cGraph.addConceptToNode(n, bp, labelDep, tag.isComplexConcept());
         used.add(bp);
         if (n.isCached()) {
             return correctCachedEntry(n);
         }
         // add new info in TODO list
-        todo.addEntry(n, tag, p);
+        todo.addEntry(n, tag, bp, labelDep);
         // data concept -- run data center for it
         if (n.isDataNode()) {
             return checkDataNode ? hasDataClash(n) : false;
@@ -1541,16 +1648,22 @@ public class DlSatTester implements Serializable {
         }
         stats.getnCacheTry().inc();
         // check applicability of the caching
-        AtomicBoolean shallow = new AtomicBoolean(true);
-        AtomicInteger size = new AtomicInteger(0);
-        if (node.simpleConcepts().stream().anyMatch(p -> canBeCachedCheck(shallow, size, p))) {
-            return false;
-        }
-        if (node.complexConcepts().stream().anyMatch(p -> canBeCachedCheck(shallow, size, p))) {
-            return false;
+        boolean shallow = true;
+        int size = 0;
+        for (CWDArray lab : node.label().getLabels()) {
+            for (int i = 0; i < lab.size(); i++) {
+                ModelCacheInterface cache = dlHeap.getCache(lab.getConcept(i));
+                if (cache == null) {
+                    stats.getnCacheFailedNoCache().inc();
+                    options.getLog().printTemplateInt(Templates.CAN_BE_CACHED, lab.getConcept(i));
+                    return false;
+                }
+                shallow &= cache.shallowCache();
+                size++;
+            }
         }
         // it's useless to cache shallow nodes
-        if (shallow.get() && size.get() > 0) {
+        if (shallow && size > 0) {
             stats.getnCacheFailedShallow().inc();
             options.getLog().print(" cf(s)");
             return false;
@@ -1558,20 +1671,10 @@ public class DlSatTester implements Serializable {
         return true;
     }
 
-    protected boolean canBeCachedCheck(AtomicBoolean shallow, AtomicInteger size, ConceptWDep p) {
-        if (dlHeap.getCache(p.getConcept()) == null) {
-            stats.getnCacheFailedNoCache().inc();
-            options.getLog().printTemplateInt(Templates.CAN_BE_CACHED, p.getConcept());
-            return true;
-        }
-        shallow.compareAndSet(true, dlHeap.getCache(p.getConcept()).shallowCache());
-        size.incrementAndGet();
-        return false;
-    }
-
     /**
      * build cache of the node (it is known that caching is possible) in
-     * newNodeCache
+     * newNodeCache; the caches of all the label concepts are merged, stopping
+     * at the first one that does not merge into a valid cache
      * 
      * @param node
      *        node
@@ -1580,25 +1683,28 @@ public class DlSatTester implements Serializable {
     private void doCacheNode(DlCompletionTree node) {
         List<DepSet> deps = new ArrayList<>();
         newNodeCache.clear();
-        if (Stream.concat(node.simpleConcepts().stream(), node.complexConcepts().stream()).anyMatch(
-            p -> doCacheNodeCheck(deps, p))) {
-            // all concepts in label are mergable; now try to add input arc
-            newNodeEdges.clear();
-            newNodeEdges.initRolesFromArcs(node);
-            newNodeCache.merge(newNodeEdges);
-        }
-    }
-
-    protected boolean doCacheNodeCheck(List<DepSet> deps, ConceptWDep p) {
-        deps.add(p.getDep());
-        ModelCacheState merge = newNodeCache.merge(dlHeap.getCache(p.getConcept()));
-        if (merge != ModelCacheState.VALID) {
-            if (merge == ModelCacheState.INVALID) {
-                this.setClashSet(deps);
+        for (CWDArray lab : node.label().getLabels()) {
+            for (int i = 0; i < lab.size(); i++) {
+                deps.add(lab.getDep(i));
+                ModelCacheInterface cache = dlHeap.getCache(lab.getConcept(i));
+                if (cache == null) {
+                    // dropped by the cache manager since the node was checked
+                    newNodeCache.setFailed();
+                    return;
+                }
+                ModelCacheState merge = newNodeCache.merge(cache);
+                if (merge != ModelCacheState.VALID) {
+                    if (merge == ModelCacheState.INVALID) {
+                        this.setClashSet(deps);
+                    }
+                    return;
+                }
             }
-            return false;
         }
-        return true;
+        // all concepts in label are mergable; now try to add input arc
+        newNodeEdges.clear();
+        newNodeEdges.initRolesFromArcs(node);
+        newNodeCache.merge(newNodeEdges);
     }
 
     @PortedFrom(file = "Reasoner.h", name = "reportNodeCached")
@@ -1622,6 +1728,10 @@ public class DlSatTester implements Serializable {
             default:
                 throw new UnreachableSituationException();
         }
+        MetricsListener metrics = options.getMetricsListener();
+        if (metrics != null) {
+            metrics.nodeCacheTest(status);
+        }
         return status;
     }
 
@@ -1640,7 +1750,7 @@ public class DlSatTester implements Serializable {
         DagTag d;
         NamedEntry dataEntry;
         boolean positive;
-        ConceptWDep r;
+        DepSet dep;
 
         @Override
         public int hashCode() {
@@ -1672,8 +1782,8 @@ public class DlSatTester implements Serializable {
             } else {
                 o = dataEntry;
             }
-            return positive + ", " + d + ", \"" + o.toString().replace("\"", "\\\"") + "\", " + r.getDep().toString()
-                .replace("{", "").replace("}", "");
+            return positive + ", " + d + ", \"" + o.toString().replace("\"", "\\\"") + "\", " + dep.toString().replace("{",
+                "").replace("}", "");
         }
     }
 
@@ -1682,21 +1792,22 @@ public class DlSatTester implements Serializable {
         assert node != null && node.isDataNode();
         DataTypeReasoner datatypeReasoner = new DataTypeReasoner(options);
         Set<DataCall> calls = new LinkedHashSet<>();
-        node.simpleConcepts().forEach(r -> {
-            DagTag d = dlHeap.get(r.getConcept()).getType();
-            NamedEntry dataEntry = dlHeap.get(r.getConcept()).getConcept();
-            boolean positive = r.getConcept() > 0;
+        CWDArray lab = node.label().getLabel(false);
+        for (int i = 0; i < lab.size(); i++) {
+            int r = lab.getConcept(i);
+            DLVertex v = dlHeap.get(r);
+            NamedEntry dataEntry = v.getConcept();
             if (dataEntry != null) {
                 DataCall dc = new DataCall();
-                dc.d = d;
-                dc.positive = positive;
+                dc.d = v.getType();
+                dc.positive = r > 0;
                 dc.dataEntry = dataEntry;
-                dc.r = r;
+                dc.dep = lab.getDep(i);
                 calls.add(dc);
             }
-        });
+        }
         for (DataCall dc : calls) {
-            if (datatypeReasoner.addDataEntry(dc.positive, dc.d, dc.dataEntry, dc.r.getDep())) {
+            if (datatypeReasoner.addDataEntry(dc.positive, dc.d, dc.dataEntry, dc.dep)) {
                 this.setClashSet(datatypeReasoner.getClashSet());
                 return true;
             }
@@ -1758,7 +1869,7 @@ public class DlSatTester implements Serializable {
                 assert curTDE != null;
                 curNode = curTDE.getNode();
                 curConceptConcept = curTDE.getOffsetConcept();
-                curConceptDepSet = DepSet.create(curTDE.getOffsetDepSet());
+                curConceptDepSet = curTDE.getOffsetDepSet();
             }
             if (++loop == 50) {
                 loop = 0;
@@ -1855,6 +1966,9 @@ public class DlSatTester implements Serializable {
         todo.save();
         // increase tryLevel
         ++tryLevel;
+        if (tryLevel > maxTryLevel) {
+            maxTryLevel = tryLevel;
+        }
         // init BC
         bContext = null;
         stats.getnStateSaves().inc();
@@ -1958,88 +2072,69 @@ public class DlSatTester implements Serializable {
         boolean ret = false;
         // apply tactic only if Node is not an i-blocked
         if (!isIBlocked()) {
-            ret = commonTacticBody(dlHeap.get(curConceptConcept));
+            ret = commonTacticBody(curConceptConcept);
         }
         logFinishEntry(ret);
         return ret;
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBody")
-    @SuppressWarnings("incomplete-switch")
-    private boolean commonTacticBody(DLVertex cur) {
+    private boolean commonTacticBody(int bp) {
         stats.getnTacticCalls().inc();
-        switch (cur.getType()) {
-            case TOP:
-                // can't appear here; addToDoEntry deals with constants
-                throw new UnreachableSituationException();
-            case DATATYPE:
-            case DATAVALUE:
+        switch (dlHeap.getOpcode(bp)) {
+            case Opcode.USELESS:
                 // data things are checked by data inferer
                 stats.getnUseless().inc();
                 return false;
-            case PSINGLETON:
-            case NSINGLETON:
-                if (curConceptConcept > 0) {
-                    // real singleton
-                    return commonTacticBodySingleton(cur);
-                }
-                // negated singleton -- nothing to do with.
-                return commonTacticBodyId(cur);
-            case NCONCEPT:
-            case PCONCEPT:
-                return commonTacticBodyId(cur);
-            case AND:
-                if (curConceptConcept > 0) {
-                    // this is AND vertex
-                    return commonTacticBodyAnd(cur);
-                }
-                // this is OR vertex
-                return commonTacticBodyOr(cur);
-            case FORALL:
-                if (curConceptConcept < 0) {
-                    // SOME vertex
-                    return commonTacticBodySome(cur);
-                }
-                // ALL vertex
-                return commonTacticBodyAll(cur);
-            case IRR:
-                if (curConceptConcept < 0) {
-                    // SOME R.Self vertex
-                    return commonTacticBodySomeSelf(cur.getRole());
-                }
+            case Opcode.SINGLETON:
+                // real singleton
+                return commonTacticBodySingleton(bp);
+            case Opcode.ID:
+                // concept name or negated singleton
+                return commonTacticBodyId(bp);
+            case Opcode.AND:
+                return commonTacticBodyAnd(bp);
+            case Opcode.OR:
+                return commonTacticBodyOr(bp);
+            case Opcode.SOME:
+                return commonTacticBodySome(bp);
+            case Opcode.ALL:
+                return commonTacticBodyAll(bp);
+            case Opcode.SELF:
+                return commonTacticBodySomeSelf(dlHeap.getRole(bp));
+            case Opcode.IRR:
                 // don't need invalidate cache, as IRREFL can only lead to CLASH
-                return commonTacticBodyIrrefl(cur.getRole());
-            case LE:
-                if (curConceptConcept < 0) {
-                    // >= vertex
-                    return commonTacticBodyGE(cur);
-                }
-                // <= vertex
-                if (isFunctionalVertex(cur)) {
-                    return commonTacticBodyFunc(cur);
-                }
-                return commonTacticBodyLE(cur);
-            case PROJ:
+                return commonTacticBodyIrrefl(dlHeap.getRole(bp));
+            case Opcode.GE:
+                return commonTacticBodyGE(bp);
+            case Opcode.FUNC:
+                return commonTacticBodyFunc(bp);
+            case Opcode.LE:
+                return commonTacticBodyLE(bp);
+            case Opcode.PROJ:
                 assert curConceptConcept > 0;
-                return commonTacticBodyProj(cur.getRole(), cur.getConceptIndex(), cur.getProjRole());
-            case CHOOSE:
+                return commonTacticBodyProj(dlHeap.getRole(bp), dlHeap.getConceptIndex(bp), dlHeap.get(bp)
+                    .getProjRole());
+            case Opcode.CHOOSE:
                 assert curConceptConcept > 0;
-                return applyChooseRule(curNode, cur.getConceptIndex());
+                return applyChooseRule(curNode, dlHeap.getConceptIndex(bp));
             default:
+                // TOP can't appear here; addToDoEntry deals with constants
                 throw new UnreachableSituationException();
         }
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyId")
-    private boolean commonTacticBodyId(DLVertex cur) {
-        assert cur.getType().isCNameTag(); // safety check
+    private boolean commonTacticBodyId(int bp) {
+        assert dlHeap.getType(bp).isCNameTag(); // safety check
         stats.getnIdCalls().inc();
         // check if we have some simple rules
-        if (options.isUseSimpleRules() && curConceptConcept > 0 && applyExtraRulesIf((Concept) cur.getConcept())) {
+        if (options.isUseSimpleRules() && curConceptConcept > 0 && applyExtraRulesIf((Concept) dlHeap.get(bp)
+            .getConcept())) {
             return true;
         }
         // get either body(p) or inverse(body(p)), depends on sign of current ID
-        int c = curConceptConcept > 0 ? cur.getConceptIndex() : -cur.getConceptIndex();
+        int c = curConceptConcept > 0 ? dlHeap.getConceptIndex(bp) : -dlHeap.getConceptIndex(bp);
         return addToDoEntry(curNode, c, curConceptDepSet, null);
     }
 
@@ -2113,15 +2208,15 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodySingleton")
-    private boolean commonTacticBodySingleton(DLVertex cur) {
+    private boolean commonTacticBodySingleton(int bp) {
         // safety check
-        assert cur.getType() == PSINGLETON || cur.getType() == NSINGLETON;
+        assert dlHeap.getType(bp) == PSINGLETON || dlHeap.getType(bp) == NSINGLETON;
         stats.getnSingletonCalls().inc();
         // can use this rule only in the Nominal reasoner
         assert hasNominals();
         // if the test REALLY uses nominals, remember this
         encounterNominal = true;
-        Individual c = (Individual) cur.getConcept();
+        Individual c = (Individual) dlHeap.get(bp).getConcept();
         assert c != null && c.getNode() != null;
         // if node for C was purged due to merge -- find proper one
         DepSet dep = DepSet.create(curConceptDepSet);
@@ -2138,15 +2233,16 @@ public class DlSatTester implements Serializable {
             return merge(curNode, realNode, dep);
         }
         // singleton behaves as a general named concepts besides nominal cloud
-        return commonTacticBodyId(cur);
+        return commonTacticBodyId(bp);
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyAnd")
-    private boolean commonTacticBodyAnd(DLVertex cur) {
-        assert curConceptConcept > 0 && cur.getType() == AND; // safety check
+    private boolean commonTacticBodyAnd(int bp) {
+        assert curConceptConcept > 0 && dlHeap.getType(bp) == AND; // safety check
         stats.getnAndCalls().inc();
-        for (int q : cur.begin()) {
-            if (addToDoEntry(curNode, q, curConceptDepSet, null)) {
+        int[] children = dlHeap.getChildren(bp);
+        for (int k = dlHeap.getChildBegin(bp), end = dlHeap.getChildEnd(bp); k < end; k++) {
+            if (addToDoEntry(curNode, children[k], curConceptDepSet, null)) {
                 return true;
             }
         }
@@ -2156,20 +2252,20 @@ public class DlSatTester implements Serializable {
     /**
      * for C \or D concepts
      * 
-     * @param cur
-     *        current vertex true if clash happens
+     * @param bp
+     *        pointer to the current vertex
      * @return true if clash occurs
      */
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyOr")
-    private boolean commonTacticBodyOr(DLVertex cur) {
+    private boolean commonTacticBodyOr(int bp) {
         // safety check
-        assert curConceptConcept < 0 && cur.getType() == AND;
+        assert curConceptConcept < 0 && dlHeap.getType(bp) == AND;
         stats.getnOrCalls().inc();
         if (isFirstBranchCall()) {
             // check the structure of OR operation (number of applicable
             // concepts)
             Reference<DepSet> dep = new Reference<>(DepSet.create());
-            if (planOrProcessing(cur, dep)) {
+            if (planOrProcessing(bp, dep)) {
                 // found existing component
                 options.getLog().printTemplate(Templates.COMMON_TACTIC_BODY_OR, orConceptsToTest.get(orConceptsToTest
                     .size() - 1));
@@ -2184,8 +2280,8 @@ public class DlSatTester implements Serializable {
             // not a branching: just add a single concept
             if (orConceptsToTest.size() == 1) {
                 ConceptWDep c = orConceptsToTest.get(0);
-                return insertToDoEntry(curNode, c.getConcept(), dep.getReference(), dlHeap.get(c.getConcept())
-                    .getType(), "bcp");
+                return insertToDoEntry(curNode, c.getConcept(), dep.getReference(), dlHeap.getType(c
+                    .getConcept()), "bcp");
             }
             // more than one alternative: use branching context
             createBCOr();
@@ -2197,14 +2293,16 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Reasoner.h", name = "planOrProcessing")
-    private boolean planOrProcessing(DLVertex cur, Reference<DepSet> dep) {
+    private boolean planOrProcessing(int bp, Reference<DepSet> dep) {
         orConceptsToTest.clear();
         dep.setReference(DepSet.create(curConceptDepSet));
         // check all OR components for the clash
         CGLabel lab = curNode.label();
-        for (int q : cur.begin()) {
+        int[] children = dlHeap.getChildren(bp);
+        for (int k = dlHeap.getChildBegin(bp), end = dlHeap.getChildEnd(bp); k < end; k++) {
+            int q = children[k];
             int inverse = -q;
-            switch (tryAddConcept(lab.getLabel(dlHeap.get(inverse).getType().isComplexConcept()), inverse, null)) {
+            switch (tryAddConcept(lab.getLabel(dlHeap.getType(inverse).isComplexConcept()), inverse, null)) {
                 case CLASH:
                     // clash found -- OK
                     dep.getReference().add(clashSet);
@@ -2258,24 +2356,24 @@ public class DlSatTester implements Serializable {
         if (options.isUseDynamicBackjumping()) {
             return addToDoEntry(curNode, bcOr.orCur().getConcept(), dep, reason);
         } else {
-            return insertToDoEntry(curNode, bcOr.orCur().getConcept(), dep, dlHeap.get(bcOr.orCur().getConcept())
-                .getType(), reason);
+            return insertToDoEntry(curNode, bcOr.orCur().getConcept(), dep, dlHeap.getType(bcOr.orCur()
+                .getConcept()), reason);
         }
     }
 
     /**
      * expansion rule for universal restriction with non-simple role using RA
      * 
-     * @param cur
-     *        vertex
+     * @param bp
+     *        pointer to the vertex
      * @return true if clash occurs
      */
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyAllComplex")
-    private boolean commonTacticBodyAllComplex(DLVertex cur) {
-        int state = cur.getState();
+    private boolean commonTacticBodyAllComplex(int bp) {
+        int state = dlHeap.getNumber(bp);
         // corresponds to AR{0}.X
         int c = curConceptConcept - state;
-        RAStateTransitions rst = cur.getRole().getAutomaton().get(state);
+        RAStateTransitions rst = dlHeap.getRole(bp).getAutomaton().get(state);
         // apply all empty transitions
         if (rst.hasEmptyTransition() && rst.stream().anyMatch(q -> applyEmptyTransition(c, q))) {
             return true;
@@ -2286,7 +2384,7 @@ public class DlSatTester implements Serializable {
             return true;
         }
         // apply final-state rule
-        if (state == 1 && addToDoEntry(curNode, cur.getConceptIndex(), curConceptDepSet, null)) {
+        if (state == 1 && addToDoEntry(curNode, dlHeap.getConceptIndex(bp), curConceptDepSet, null)) {
             return true;
         }
         // check whether automaton applicable to any edges
@@ -2303,9 +2401,9 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Tactic.cpp", name = "commonTacticBodyAllSimple")
-    private boolean commonTacticBodyAllSimple(DLVertex cur) {
-        RAStateTransitions rst = cur.getRole().getAutomaton().get(0);
-        int c = cur.getConceptIndex();
+    private boolean commonTacticBodyAllSimple(int bp) {
+        RAStateTransitions rst = dlHeap.getRole(bp).getAutomaton().get(0);
+        int c = dlHeap.getConceptIndex(bp);
         // check whether automaton applicable to any edges
         stats.getnAllCalls().inc();
         // check all neighbours; as the role is simple then recognise() ==
@@ -2355,15 +2453,20 @@ public class DlSatTester implements Serializable {
         }
         DepSet dep = DepSet.plus(depIn, arcSample.getDep());
         // need only AR.C concepts where ARC is labelled with R
-        return node.complexConcepts().stream().anyMatch(p -> p.getConcept() > 0 && universalNR(node, p, arcSample, dep,
-            flags));
+        CWDArray lab = node.label().getLabel(true);
+        for (int i = 0; i < lab.size(); i++) {
+            int p = lab.getConcept(i);
+            if (p > 0 && universalNR(node, p, lab.getDep(i), arcSample, dep, flags)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private boolean universalNR(DlCompletionTree node, ConceptWDep p, DlCompletionTreeArc arcSample, DepSet dep,
+    private boolean universalNR(DlCompletionTree node, int p, DepSet pDep, DlCompletionTreeArc arcSample, DepSet dep,
         int flags) {
-        DLVertex v = dlHeap.get(p.getConcept());
-        Role vR = v.getRole();
-        switch (v.getType()) {
+        Role vR = dlHeap.getRole(p);
+        switch (dlHeap.getType(p)) {
             case IRR:
                 return REDOIRR.match(flags) && this.checkIrreflexivity(arcSample, vR, dep);
             case FORALL:
@@ -2371,29 +2474,28 @@ public class DlSatTester implements Serializable {
                     return false;
                 }
                 /** check whether transition is possible */
-                RAStateTransitions rst = vR.getAutomaton().get(v.getState());
+                RAStateTransitions rst = vR.getAutomaton().get(dlHeap.getNumber(p));
                 if (!rst.recognise(arcSample.getRole())) {
                     break;
                 }
                 if (vR.isSimple()) {
                     // R is recognised so just add the state!
-                    if (addToDoEntry(arcSample.getArcEnd(), v.getConceptIndex(), DepSet.plus(dep, p.getDep()), "ae")) {
+                    if (addToDoEntry(arcSample.getArcEnd(), dlHeap.getConceptIndex(p), DepSet.plus(dep, pDep), "ae")) {
                         return true;
                     }
                 } else {
-                    if (applyTransitions(arcSample, rst, p.getConcept() - v.getState(), DepSet.plus(dep, p.getDep()),
-                        "ae")) {
+                    if (applyTransitions(arcSample, rst, p - dlHeap.getNumber(p), DepSet.plus(dep, pDep), "ae")) {
                         return true;
                     }
                 }
                 break;
             case LE:
-                if (isFunctionalVertex(v)) {
+                if (isFunctionalVertex(p)) {
                     if (REDOFUNC.match(flags) && arcSample.getRole().lesserequal(vR)) {
-                        addExistingToDoEntry(node, p, "f");
+                        addExistingToDoEntry(node, p, pDep, "f");
                     }
                 } else if (REDOATMOST.match(flags) && arcSample.getRole().lesserequal(vR)) {
-                    addExistingToDoEntry(node, p, "le");
+                    addExistingToDoEntry(node, p, pDep, "le");
                 }
                 break;
             case AND:
@@ -2417,30 +2519,31 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodySome")
-    private boolean commonTacticBodySome(DLVertex cur) {
-        Role r = cur.getRole();
+    private boolean commonTacticBodySome(int bp) {
+        Role r = dlHeap.getRole(bp);
         if (r.isTop()) {
-            return commonTacticBodySomeUniv(cur);
+            return commonTacticBodySomeUniv(bp);
         }
-        int c = -cur.getConceptIndex();
+        int c = -dlHeap.getConceptIndex(bp);
         // check if we already have R-neighbour labelled with C
         if (isSomeExists(r, c)) {
             return false;
         }
         // try to check the case (some R (or C D)), where C is in the label of
         // an R-neighbour
-        if (c < 0 && dlHeap.get(c).getType() == AND) {
-            for (int q : dlHeap.get(c).begin()) {
-                if (isSomeExists(r, -q)) {
+        if (c < 0 && dlHeap.getType(c) == AND) {
+            int[] children = dlHeap.getChildren(c);
+            for (int k = dlHeap.getChildBegin(c), end = dlHeap.getChildEnd(c); k < end; k++) {
+                if (isSomeExists(r, -children[k])) {
                     return false;
                 }
             }
         }
         // check for the case \ER.{o}
-        if (c > 0 && tBox.testHasNominals()) {
-            DLVertex nom = dlHeap.get(c);
-            if (nom.getType() == PSINGLETON || nom.getType() == NSINGLETON) {
-                return commonTacticBodyValue(r, (Individual) nom.getConcept());
+        if (c > 0 && testHasNominals()) {
+            DagTag tag = dlHeap.getType(c);
+            if (tag == PSINGLETON || tag == NSINGLETON) {
+                return commonTacticBodyValue(r, (Individual) dlHeap.get(c).getConcept());
             }
         }
         stats.getnSomeCalls().inc();
@@ -2459,12 +2562,12 @@ public class DlSatTester implements Serializable {
                     // should be add to a label
                     // we are changing current Node => save it
                     updateLevel(curNode, curConceptDepSet);
-                    ConceptWDep rFuncRestriction1 = new ConceptWDep(functional, curConceptDepSet);
                     // NOTE! not added into todo (because will be checked
                     // right now)
-                    cGraph.addConceptToNode(curNode, rFuncRestriction1, true);
-                    used.add(rFuncRestriction1.getConcept());
-                    options.getLog().printTemplate(Templates.COMMON_TACTIC_BODY_SOME, rFuncRestriction1);
+                    cGraph.addConceptToNode(curNode, functional, DepSet.create(curConceptDepSet), true);
+                    used.add(functional);
+                    options.getLog().printTemplate(Templates.COMMON_TACTIC_BODY_SOME, functional
+                        + curConceptDepSet.toString());
                 }
                 // only other possibility is acrExist. As the node already
                 // exists, nothing to do
@@ -2478,9 +2581,12 @@ public class DlSatTester implements Serializable {
         Reference<ConceptWDep> rFuncRestriction = new Reference<>(null);
         // set up rFunc; rfRole contains more generic functional superrole of
         // rName
-        curNode.complexConcepts().stream().forEach(lc -> findRC(r, rFunc, rf, rFuncRestriction, lc));
+        CWDArray lab = curNode.label().getLabel(true);
+        for (int i = 0; i < lab.size(); i++) {
+            findRC(r, rFunc, rf, rFuncRestriction, lab.getConcept(i), lab.getDep(i));
+        }
         if (!rFunc.get()) {
-            return createNewEdge(cur.getRole(), c, redoForallAtmost());
+            return createNewEdge(r, c, redoForallAtmost());
         }
         // functional role found => add new concept to existing node
         DlCompletionTreeArc functionalArc = null;
@@ -2493,7 +2599,7 @@ public class DlSatTester implements Serializable {
             }
         }
         if (functionalArc == null || newDep == null) {
-            return createNewEdge(cur.getRole(), c, redoForallAtmost());
+            return createNewEdge(r, c, redoForallAtmost());
         }
         options.getLog().printTemplate(Templates.COMMON_TACTIC_BODY_SOME2, rFuncRestriction.getReference());
         DlCompletionTree succ = functionalArc.getArcEnd();
@@ -2535,14 +2641,13 @@ public class DlSatTester implements Serializable {
     }
 
     protected void findRC(Role r, AtomicBoolean rFunc, Reference<Role> rf, Reference<ConceptWDep> rFuncRestriction,
-        ConceptWDep lc) {
+        int lc, DepSet lcDep) {
         // found such vertex (<=1 R)
-        DLVertex ver = dlHeap.get(lc.getConcept());
-        if (lc.getConcept() > 0 && isFunctionalVertex(ver) && r.lesserequal(ver.getRole()) && (!rFunc.get() || rf
-            .getReference().lesserequal(ver.getRole()))) {
+        if (lc > 0 && isFunctionalVertex(lc) && r.lesserequal(dlHeap.getRole(lc)) && (!rFunc.get() || rf
+            .getReference().lesserequal(dlHeap.getRole(lc)))) {
             if (rFunc.compareAndSet(false, true)) {
-                rf.setReference(ver.getRole());
-                rFuncRestriction.setReference(lc);
+                rf.setReference(dlHeap.getRole(lc));
+                rFuncRestriction.setReference(new ConceptWDep(lc, lcDep));
             }
         }
     }
@@ -2573,18 +2678,18 @@ public class DlSatTester implements Serializable {
     /**
      * expansion rule for the existential quantifier with universal role
      * 
-     * @param cur
-     *        cur
+     * @param bp
+     *        pointer to the vertex
      * @return true if clashing
      */
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodySomeUniv")
-    private boolean commonTacticBodySomeUniv(DLVertex cur) {
+    private boolean commonTacticBodySomeUniv(int bp) {
         // check blocking conditions
         if (isCurNodeBlocked()) {
             return false;
         }
         stats.getnSomeCalls().inc();
-        int c = -cur.getConceptIndex();
+        int c = -dlHeap.getConceptIndex(bp);
         // check whether C is already in CGraph
         int i = 0;
         DlCompletionTree node;
@@ -2650,13 +2755,15 @@ public class DlSatTester implements Serializable {
     @PortedFrom(file = "Reasoner.h", name = "applyAllGeneratingRules")
     private void applyAllGeneratingRules(DlCompletionTree node) {
         // need only ER.C or >=nR.C concepts
-        node.label().getComplexConcepts().stream().filter(p -> p.getConcept() <= 0).forEach(p -> addLEForAll(node, p));
-    }
-
-    private void addLEForAll(DlCompletionTree node, ConceptWDep p) {
-        DLVertex v = dlHeap.get(p.getConcept());
-        if (v.getType() == LE || v.getType() == FORALL) {
-            addExistingToDoEntry(node, p, "ubd");
+        CWDArray lab = node.label().getLabel(true);
+        for (int i = 0; i < lab.size(); i++) {
+            int p = lab.getConcept(i);
+            if (p <= 0) {
+                DagTag type = dlHeap.getType(p);
+                if (type == LE || type == FORALL) {
+                    addExistingToDoEntry(node, p, lab.getDep(i), "ubd");
+                }
+            }
         }
     }
 
@@ -2742,21 +2849,21 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyFunc")
-    private boolean commonTacticBodyFunc(DLVertex cur) {
-        assert curConceptConcept > 0 && isFunctionalVertex(cur);
-        if (cur.getRole().isTop()) {
-            return processTopRoleFunc(cur);
+    private boolean commonTacticBodyFunc(int bp) {
+        assert curConceptConcept > 0 && isFunctionalVertex(bp);
+        if (dlHeap.getRole(bp).isTop()) {
+            return processTopRoleFunc(bp);
         }
         // check whether we need to apply NN rule first
-        if (isNNApplicable(cur.getRole(), BP_TOP, curConceptConcept + 1)) {
-            return commonTacticBodyNN(cur);
+        if (isNNApplicable(dlHeap.getRole(bp), BP_TOP, curConceptConcept + 1)) {
+            return commonTacticBodyNN(bp);
         }
         stats.getnFuncCalls().inc();
-        if (isQuickClashLE(cur)) {
+        if (isQuickClashLE(bp)) {
             return true;
         }
         // locate all R-neighbours of curNode
-        findNeighbours(cur.getRole(), BP_TOP, null);
+        findNeighbours(dlHeap.getRole(bp), BP_TOP, null);
         // check if we have nodes to merge
         if (edgesToMerge.size() < 2) {
             return false;
@@ -2782,19 +2889,19 @@ public class DlSatTester implements Serializable {
 
     @SuppressWarnings("unchecked")
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyLE")
-    private boolean commonTacticBodyLE(DLVertex cur) // for <=nR.C concepts
+    private boolean commonTacticBodyLE(int bp) // for <=nR.C concepts
     {
-        assert curConceptConcept > 0 && cur.getType() == LE;
+        assert curConceptConcept > 0 && dlHeap.getType(bp) == LE;
         stats.getnLeCalls().inc();
-        Role r = cur.getRole();
+        Role r = dlHeap.getRole(bp);
         if (r.isTop()) {
-            return processTopRoleLE(cur);
+            return processTopRoleLE(bp);
         }
-        int c = cur.getConceptIndex();
+        int c = dlHeap.getConceptIndex(bp);
         boolean needInit = true;
         if (!isFirstBranchCall()) {
             if (bContext instanceof BCNN) {
-                return commonTacticBodyNN(cur);
+                return commonTacticBodyNN(bp);
                 // after application <=-rule would be checked again
             }
             if (bContext instanceof BCLE) {
@@ -2805,7 +2912,7 @@ public class DlSatTester implements Serializable {
             }
         } else {
             // if we are here that it IS first LE call
-            if (isQuickClashLE(cur)) {
+            if (isQuickClashLE(bp)) {
                 return true;
             }
         }
@@ -2816,14 +2923,14 @@ public class DlSatTester implements Serializable {
                 return true;
             }
             // check whether we need to apply NN rule first
-            if (isNNApplicable(r, c, curConceptConcept + cur.getNumberLE())) {
-                return commonTacticBodyNN(cur);
+            if (isNNApplicable(r, c, curConceptConcept + dlHeap.getNumber(bp))) {
+                return commonTacticBodyNN(bp);
                 // after application <=-rule would be checked again
             }
         }
         // we need to repeat merge until there will be necessary amount of edges
         while (true) {
-            if (isFirstBranchCall() && initLEProcessing(cur)) {
+            if (isFirstBranchCall() && initLEProcessing(bp)) {
                 return false;
             }
             BCLE<DlCompletionTreeArc> bcLE = (BCLE<DlCompletionTreeArc>) bContext;
@@ -2852,7 +2959,7 @@ public class DlSatTester implements Serializable {
                     // QCR: update dep-set wrt C
                     // here we know that C is in both labels; set a proper
                     // clash-set
-                    DagTag tag = dlHeap.get(c).getType();
+                    DagTag tag = dlHeap.getType(c);
                     boolean test;
                     // here dep contains the clash-set
                     test = findConceptClash(from.label().getLabel(tag.isComplexConcept()), c, dep.getReference());
@@ -2887,12 +2994,12 @@ public class DlSatTester implements Serializable {
 
     @SuppressWarnings("unchecked")
     @PortedFrom(file = "Reasoner.h", name = "initLEProcessing")
-    private boolean initLEProcessing(DLVertex cur) {
+    private boolean initLEProcessing(int bp) {
         DepSet dep = DepSet.create();
         // check the amount of neighbours we have
-        findNeighbours(cur.getRole(), cur.getConceptIndex(), dep);
+        findNeighbours(dlHeap.getRole(bp), dlHeap.getConceptIndex(bp), dep);
         // if the number of R-neighbours satisfies condition -- nothing to do
-        if (edgesToMerge.size() <= cur.getNumberLE()) {
+        if (edgesToMerge.size() <= dlHeap.getNumber(bp)) {
             return true;
         }
         // init context
@@ -2906,33 +3013,33 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyGE")
-    private boolean commonTacticBodyGE(DLVertex cur) {
+    private boolean commonTacticBodyGE(int bp) {
         // for >=nR.C concepts
-        assert curConceptConcept < 0 && cur.getType() == LE;
+        assert curConceptConcept < 0 && dlHeap.getType(bp) == LE;
         // check blocking conditions
         if (isCurNodeBlocked()) {
             return false;
         }
-        Role r = cur.getRole();
+        Role r = dlHeap.getRole(bp);
         if (r.isTop()) {
-            return processTopRoleGE(cur);
+            return processTopRoleGE(bp);
         }
         stats.getnGeCalls().inc();
-        if (isQuickClashGE(cur)) {
+        if (isQuickClashGE(bp)) {
             return true;
         }
         // create N new different edges
-        return createDifferentNeighbours(cur.getRole(), cur.getConceptIndex(), curConceptDepSet, cur.getNumberGE(),
+        return createDifferentNeighbours(r, dlHeap.getConceptIndex(bp), curConceptDepSet, dlHeap.getNumber(bp) + 1,
             DlCompletionTree.BLOCKABLE_LEVEL);
     }
 
     // Func/LE/GE with top role processing
     @PortedFrom(file = "Reasoner.h", name = "processTopRoleFunc")
-    private boolean processTopRoleFunc(DLVertex cur) {
+    private boolean processTopRoleFunc(int bp) {
         // for <=1 R concepts
-        assert curConceptConcept > 0 && isFunctionalVertex(cur);
+        assert curConceptConcept > 0 && isFunctionalVertex(bp);
         stats.getnFuncCalls().inc();
-        if (isQuickClashLE(cur)) {
+        if (isQuickClashLE(bp)) {
             return true;
         }
         // locate all R-neighbours of curNode
@@ -2954,10 +3061,10 @@ public class DlSatTester implements Serializable {
 
     @SuppressWarnings("unchecked")
     @PortedFrom(file = "Reasoner.h", name = "processTopRoleLE")
-    private boolean processTopRoleLE(DLVertex cur) {
+    private boolean processTopRoleLE(int bp) {
         // for <=nR.C concepts
-        assert curConceptConcept > 0 && cur.getType() == LE;
-        int c = cur.getConceptIndex();
+        assert curConceptConcept > 0 && dlHeap.getType(bp) == LE;
+        int c = dlHeap.getConceptIndex(bp);
         boolean needInit = true;
         if (!isFirstBranchCall()) {
             if (bContext instanceof BCLE) {
@@ -2970,7 +3077,7 @@ public class DlSatTester implements Serializable {
             }
         } else {
             // if we are here that it IS first LE call
-            if (isQuickClashLE(cur)) {
+            if (isQuickClashLE(bp)) {
                 return true;
             }
         }
@@ -2981,7 +3088,7 @@ public class DlSatTester implements Serializable {
         }
         // we need to repeat merge until there will be necessary amount of edges
         while (true) {
-            if (isFirstBranchCall() && initTopLEProcessing(cur)) {
+            if (isFirstBranchCall() && initTopLEProcessing(bp)) {
                 return false;
             }
             BCLE<DlCompletionTree> bcLE = (BCLE<DlCompletionTree>) bContext;
@@ -3004,7 +3111,7 @@ public class DlSatTester implements Serializable {
                     // QCR: update dep-set wrt C
                     // here we know that C is in both labels; set a proper
                     // clash-set
-                    DagTag tag = dlHeap.get(c).getType();
+                    DagTag tag = dlHeap.getType(c);
                     boolean test;
                     // here dep contains the clash-set
                     test = findConceptClash(from.label().getLabel(tag.isComplexConcept()), c, dep.getReference());
@@ -3030,27 +3137,28 @@ public class DlSatTester implements Serializable {
 
     // for >=nR.C concepts
     @PortedFrom(file = "Reasoner.h", name = "processTopRoleGE")
-    private boolean processTopRoleGE(DLVertex cur) {
-        assert curConceptConcept < 0 && cur.getType() == LE;
+    private boolean processTopRoleGE(int bp) {
+        assert curConceptConcept < 0 && dlHeap.getType(bp) == LE;
         assert !isCurNodeBlocked();
         stats.getnGeCalls().inc();
-        if (isQuickClashGE(cur)) {
+        if (isQuickClashGE(bp)) {
             return true;
         }
         // create N new different edges
         // FIXME!! for now
-        return createDifferentNeighbours(cur.getRole(), cur.getConceptIndex(), curConceptDepSet, cur.getNumberGE(),
+        return createDifferentNeighbours(dlHeap.getRole(bp), dlHeap.getConceptIndex(bp), curConceptDepSet, dlHeap
+            .getNumber(bp) + 1,
             DlCompletionTree.BLOCKABLE_LEVEL);
     }
 
     @SuppressWarnings("unchecked")
     @PortedFrom(file = "Reasoner.h", name = "initTopLEProcessing")
-    private boolean initTopLEProcessing(DLVertex cur) {
+    private boolean initTopLEProcessing(int bp) {
         DepSet dep = DepSet.create();
         // check the amount of neighbours we have
-        findCLabelledNodes(cur.getConceptIndex(), dep);
+        findCLabelledNodes(dlHeap.getConceptIndex(bp), dep);
         // if the number of R-neighbours satisfies condition -- nothing to do
-        if (nodesToMerge.size() <= cur.getNumberLE()) {
+        if (nodesToMerge.size() <= dlHeap.getNumber(bp)) {
             return true;
         }
         // init context
@@ -3086,41 +3194,44 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Reasoner.h", name = "isNRClash")
-    private boolean isNRClash(DLVertex atleast, DLVertex atmost, ConceptWDep reason) {
-        if (atmost.getType() != DagTag.LE || atleast.getType() != DagTag.LE) {
+    private boolean isNRClash(int atleast, int atmost, int reason, DepSet reasonDep) {
+        if (dlHeap.getType(atmost) != DagTag.LE || dlHeap.getType(atleast) != DagTag.LE) {
             return false;
         }
         if (!checkNRclash(atleast, atmost)) {
             return false;
         }
-        this.setClashSet(DepSet.plus(curConceptDepSet, reason.getDep()));
-        logNCEntry(curNode, reason.getConcept(), reason.getDep(), "x", dlHeap.get(reason.getConcept()).getType()
-            .getName());
+        this.setClashSet(DepSet.plus(curConceptDepSet, reasonDep));
+        logNCEntry(curNode, reason, reasonDep, "x", dlHeap.getType(reason).getName());
         return true;
     }
 
-    private boolean usedInverseAndClash(DagTag dt, ConceptWDep p, CGLabel to) {
-        return used.contains(-p.getConcept()) && findConceptClash(to.getLabel(false), -p.getConcept(), p.getDep());
+    /**
+     * @return position of the first concept in FROM whose inverse clashes with
+     *         the simple concepts of TO, or -1
+     */
+    private int usedInverseAndClash(CWDArray from, CGLabel to) {
+        for (int i = 0; i < from.size(); i++) {
+            int p = from.getConcept(i);
+            if (used.contains(-p) && findConceptClash(to.getLabel(false), -p, from.getDep(i))) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     @PortedFrom(file = "Reasoner.h", name = "checkMergeClash")
     private boolean checkMergeClash(CGLabel from, CGLabel to, DepSet dep, int nodeId) {
         DepSet clashDep = DepSet.create(dep);
-        Optional<ConceptWDep> clashConcept = from.getSimpleConcepts().stream().filter(p -> usedInverseAndClash(PCONCEPT,
-            p, to)).findAny();
         boolean clash = false;
-        if (clashConcept.isPresent()) {
-            clashDep.add(clashSet);
-            options.getLog().printTemplateMixInt(Templates.CHECK_MERGE_CLASH, clashDep, nodeId, clashConcept.get()
-                .getConcept());
-            clash = true;
-        }
-        clashConcept = from.getComplexConcepts().stream().filter(p -> usedInverseAndClash(FORALL, p, to)).findAny();
-        if (clashConcept.isPresent()) {
-            clashDep.add(clashSet);
-            options.getLog().printTemplateMixInt(Templates.CHECK_MERGE_CLASH, clashDep, nodeId, clashConcept.get()
-                .getConcept());
-            clash = true;
+        for (CWDArray lab : from.getLabels()) {
+            int clashConcept = usedInverseAndClash(lab, to);
+            if (clashConcept > -1) {
+                clashDep.add(clashSet);
+                options.getLog().printTemplateMixInt(Templates.CHECK_MERGE_CLASH, clashDep, nodeId, lab.getConcept(
+                    clashConcept));
+                clash = true;
+            }
         }
         if (clash) {
             this.setClashSet(clashDep);
@@ -3140,20 +3251,27 @@ public class DlSatTester implements Serializable {
         // if the concept is already exists in the node label --
         // we still need to update it with a new dep-set (due to merging)
         // note that DEP is already there
-        return from.getSimpleConcepts().stream().anyMatch(p -> checkIndexAndSaveOrAddEntry(p, false, to, dep))
-            || from.getComplexConcepts().stream().anyMatch(p -> checkIndexAndSaveOrAddEntry(p, true, to, dep));
+        return mergeLabel(from.getLabel(false), false, to, dep) || mergeLabel(from.getLabel(true), true, to, dep);
+    }
+
+    private boolean mergeLabel(CWDArray from, boolean dt, DlCompletionTree to, DepSet dep) {
+        for (int i = 0; i < from.size(); i++) {
+            if (checkIndexAndSaveOrAddEntry(from.getConcept(i), from.getDep(i), dt, to, dep)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private boolean checkIndexAndSaveOrAddEntry(ConceptWDep p, boolean dt, DlCompletionTree to, DepSet dep) {
-        int bp = p.getConcept();
+    private boolean checkIndexAndSaveOrAddEntry(int bp, DepSet pDep, boolean dt, DlCompletionTree to, DepSet dep) {
         stats.getnLookups().inc();
         int index = to.label().getLabel(dt).index(bp);
         if (index > -1) {
-            if (!p.getDep().isEmpty()) {
-                cGraph.saveRareCond(to.label().getLabel(dt).updateDepSet(index, p.getDep()));
+            if (!pDep.isEmpty()) {
+                cGraph.saveRareCond(to.label().getLabel(dt).updateDepSet(index, pDep));
             }
         } else {
-            if (insertToDoEntry(to, bp, DepSet.plus(dep, p.getDep()), dlHeap.get(bp).getType(), "M")) {
+            if (insertToDoEntry(to, bp, DepSet.plus(dep, pDep), dlHeap.getType(bp), "M")) {
                 return true;
             }
         }
@@ -3228,7 +3346,7 @@ public class DlSatTester implements Serializable {
     @PortedFrom(file = "Reasoner.h", name = "findNeighbours")
     private void findNeighbours(Role role, int c, @Nullable DepSet dep) {
         edgesToMerge.clear();
-        DagTag tag = dlHeap.get(c).getType();
+        DagTag tag = dlHeap.getType(c);
         curNode.getNeighbour().stream().filter(p -> p.isNeighbour(role) && isNewEdge(p.getArcEnd(), edgesToMerge)
             && findChooseRuleConcept(p.getArcEnd().label().getLabel(tag.isComplexConcept()), c, dep)).forEach(edgesToMerge::add);
         // sort EdgesToMerge: From named nominals to generated nominals to
@@ -3259,7 +3377,7 @@ public class DlSatTester implements Serializable {
     }
 
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyNN")
-    private boolean commonTacticBodyNN(DLVertex cur) {
+    private boolean commonTacticBodyNN(int bp) {
         // here we KNOW that NN-rule is applicable, so skip some tests
         stats.getnNNCalls().inc();
         if (isFirstBranchCall()) {
@@ -3267,7 +3385,7 @@ public class DlSatTester implements Serializable {
         }
         BCNN bcNN = (BCNN) bContext;
         // check whether we did all possible tries
-        if (bcNN.noMoreNNOptions(cur.getNumberLE())) {
+        if (bcNN.noMoreNNOptions(dlHeap.getNumber(bp))) {
             // set global clashset to cummulative one from previous branch
             // failures
             useBranchDep();
@@ -3280,17 +3398,17 @@ public class DlSatTester implements Serializable {
         // new (just branched) dep-set
         DepSet curDep = getCurDepSet();
         // make a stopper to mark that NN-rule is applied
-        if (addToDoEntry(curNode, curConceptConcept + cur.getNumberLE(), DepSet.create(), "NNs")) {
+        if (addToDoEntry(curNode, curConceptConcept + dlHeap.getNumber(bp), DepSet.create(), "NNs")) {
             return true;
         }
         // create curNN new different edges
-        if (createDifferentNeighbours(cur.getRole(), cur.getConceptIndex(), curDep, nn, curNode.getNominalLevel()
-            + 1)) {
+        if (createDifferentNeighbours(dlHeap.getRole(bp), dlHeap.getConceptIndex(bp), curDep, nn, curNode
+            .getNominalLevel() + 1)) {
             return true;
         }
         // now remember NR we just created: it is (<= curNN R), so have to find
         // it
-        return addToDoEntry(curNode, curConceptConcept + cur.getNumberLE() - nn, curDep, "NN");
+        return addToDoEntry(curNode, curConceptConcept + dlHeap.getNumber(bp) - nn, curDep, "NN");
     }
 
     /**
@@ -3408,7 +3526,7 @@ public class DlSatTester implements Serializable {
     @PortedFrom(file = "Reasoner.h", name = "findCLabelledNodes")
     private void findCLabelledNodes(int c, @Nullable DepSet dep) {
         nodesToMerge.clear();
-        DagTag tag = dlHeap.get(c).getType();
+        DagTag tag = dlHeap.getType(c);
         // FIXME!! do we need this for d-blocked nodes?
         int i = 0;
         DlCompletionTree arc = cGraph.getNode(i++);
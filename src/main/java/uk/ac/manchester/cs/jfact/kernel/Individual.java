@@ -141,6 +141,12 @@ public class Individual extends Concept {
         pRelatedMap.put(r, v);
     }
 
+    /** @return roles with a cache of related individuals */
+    @Original
+    Set<Role> getRelatedCacheRoles() {
+        return Collections.unmodifiableSet(pRelatedMap.keySet());
+    }
+
     // TIndividual RELATED-dependent method' implementation
     @PortedFrom(file = "tIndividual.h", name = "updateToldFromRelated")
     private void updateToldFromRelated() {
@@ -10,6 +10,7 @@ import static uk.ac.manchester.cs.jfact.helpers.Helper.BP_TOP;
 import java.io.Serializable;
 import java.util.BitSet;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.helpers.DLVertex;
 import uk.ac.manchester.cs.jfact.helpers.LogAdapter;
@@ -147,6 +148,16 @@ public class LogicFeatures implements Serializable {
         return getX(TOPROLE);
     }
 
+    /**
+     * @return true if there are no number restrictions, functional roles, self
+     *         references or top role. Inverse roles are not checked: absorbing
+     *         some R.C [= D introduces them even for EL ontologies
+     */
+    @Original
+    public boolean isELFragment() {
+        return !hasFunctionalRestriction() && !hasNumberRestriction() && !hasSelfRef() && !hasTopRole();
+    }
+
     // overall state
     /** @return whether no flags are set */
     @PortedFrom(file = "LogicFeature.h", name = "empty")
@@ -0,0 +1,55 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import conformance.Original;
+
+/**
+ * known subsumers of a concept taken from the model of its satisfiability
+ * test: the concepts deterministically in the root label are sure subsumers,
+ * the other concepts in the label are possible ones. A primitive concept
+ * that is not in the label is not a subsumer.
+ */
+@Original
+public class ModelSubsumers implements KnownSubsumers {
+
+    private final List<ClassifiableEntry> sure;
+    private final List<ClassifiableEntry> possible;
+    /** all the sure and possible subsumers */
+    private final Set<ClassifiableEntry> known = new HashSet<>();
+
+    /**
+     * @param sure
+     *        told subsumers and concepts deterministically in the model
+     * @param possible
+     *        concepts non-deterministically in the model
+     */
+    public ModelSubsumers(List<ClassifiableEntry> sure, List<ClassifiableEntry> possible) {
+        this.sure = sure;
+        this.possible = possible;
+        known.addAll(sure);
+        known.addAll(possible);
+    }
+
+    @Override
+    public List<ClassifiableEntry> sure() {
+        return sure;
+    }
+
+    @Override
+    public List<ClassifiableEntry> possible() {
+        return possible;
+    }
+
+    @Override
+    public boolean isPossibleSub(ClassifiableEntry ce) {
+        return known.contains(ce);
+    }
+}
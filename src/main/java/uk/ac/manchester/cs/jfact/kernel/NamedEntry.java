@@ -1,5 +1,8 @@
 package uk.ac.manchester.cs.jfact.kernel;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import javax.annotation.Nullable;
@@ -24,7 +27,8 @@ public abstract class NamedEntry implements HasIRI, Serializable {
     @PortedFrom(file = "tNamedEntry.h", name = "extName") protected final IRI extName;
     /** entry identifier */
     @PortedFrom(file = "tNamedEntry.h", name = "extId") protected int extId;
-    @PortedFrom(file = "tNamedEntry.h", name = "entity") protected NamedEntity entity = null;
+    /** written after the name, so that hash based collections reached from it can be rebuilt */
+    @PortedFrom(file = "tNamedEntry.h", name = "entity") protected transient NamedEntity entity = null;
     @Original private boolean system;
     @Original private boolean top = false;
     @Original private boolean bottom;
@@ -156,4 +160,14 @@ public abstract class NamedEntry implements HasIRI, Serializable {
     /** @return index */
     @PortedFrom(file = "taxNamEntry.h", name = "getIndex")
     public abstract int getIndex();
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(entity);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        entity = (NamedEntity) in.readObject();
+    }
 }
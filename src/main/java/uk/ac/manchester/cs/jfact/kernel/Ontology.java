@@ -31,6 +31,8 @@ public class Ontology implements Serializable {
     @PortedFrom(file = "tOntology.h", name = "Retracted") private final List<AxiomWrapper> retracted = new ArrayList<>();
     /** expression manager that builds all the expressions for the axioms */
     @PortedFrom(file = "tOntology.h", name = "EManager") private final ExpressionCache expressionCache = new ExpressionCache();
+    /** number of axioms that were processed by the last load */
+    @PortedFrom(file = "tOntology.h", name = "Processed") private int processed;
     /** id to be given to the next axiom */
     @PortedFrom(file = "tOntology.h", name = "axiomId") private int axiomId;
     /** true iff ontology was changed */
@@ -61,6 +63,7 @@ public class Ontology implements Serializable {
     /** set the processed marker to the end of the ontology */
     @PortedFrom(file = "tOntology.h", name = "setProcessed")
     public void setProcessed() {
+        processed = axioms.size();
         retracted.clear();
         changed = false;
     }
@@ -106,6 +109,7 @@ public class Ontology implements Serializable {
     @PortedFrom(file = "tOntology.h", name = "safeClear")
     public void safeClear() {
         axioms.clear();
+        processed = 0;
     }
 
     // access to axioms
@@ -121,6 +125,12 @@ public class Ontology implements Serializable {
         return axioms;
     }
 
+    /** @return axioms added after the last load */
+    @PortedFrom(file = "tOntology.h", name = "beginUnprocessed")
+    public List<AxiomWrapper> getUnprocessed() {
+        return axioms.subList(processed, axioms.size());
+    }
+
     /** @return size of the ontology */
     @PortedFrom(file = "tOntology.h", name = "size")
     public int size() {
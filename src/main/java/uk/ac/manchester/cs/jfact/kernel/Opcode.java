@@ -0,0 +1,91 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.helpers.Helper.BP_TOP;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.helpers.DLVertex;
+
+/**
+ * Tactic codes for bipolar pointers: the tactic that applies to a DAG entry
+ * depends on the type of the vertex and on the sign of the pointer only, so it
+ * is computed once per entry and kept by the DAG.
+ */
+@Original
+final class Opcode {
+
+    /** entry that can't appear in a to-do list */
+    static final byte UNREACHABLE = 0;
+    /** data entry, checked by the data reasoner */
+    static final byte USELESS = 1;
+    /** concept name or negated singleton */
+    static final byte ID = 2;
+    /** singleton */
+    static final byte SINGLETON = 3;
+    /** conjunction */
+    static final byte AND = 4;
+    /** disjunction */
+    static final byte OR = 5;
+    /** value restriction */
+    static final byte ALL = 6;
+    /** existential restriction */
+    static final byte SOME = 7;
+    /** irreflexivity */
+    static final byte IRR = 8;
+    /** local reflexivity */
+    static final byte SELF = 9;
+    /** at-least restriction */
+    static final byte GE = 10;
+    /** at-most restriction */
+    static final byte LE = 11;
+    /** at-most 1 restriction with filler TOP */
+    static final byte FUNC = 12;
+    /** role projection */
+    static final byte PROJ = 13;
+    /** choose rule */
+    static final byte CHOOSE = 14;
+
+    private Opcode() {}
+
+    /**
+     * @param v
+     *        vertex
+     * @param pos
+     *        true for the positive occurrence of the vertex
+     * @return tactic code of the occurrence
+     */
+    static byte of(DLVertex v, boolean pos) {
+        switch (v.getType()) {
+            case DATATYPE:
+            case DATAVALUE:
+                return USELESS;
+            case PSINGLETON:
+            case NSINGLETON:
+                return pos ? SINGLETON : ID;
+            case PCONCEPT:
+            case NCONCEPT:
+                return ID;
+            case AND:
+                return pos ? AND : OR;
+            case FORALL:
+                return pos ? ALL : SOME;
+            case IRR:
+                return pos ? IRR : SELF;
+            case LE:
+                if (!pos) {
+                    return GE;
+                }
+                return v.getNumberLE() == 1 && v.getConceptIndex() == BP_TOP ? FUNC : LE;
+            case PROJ:
+                return PROJ;
+            case CHOOSE:
+                return CHOOSE;
+            default:
+                return UNREACHABLE;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsListener;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Bounded cache of the results of queries, e.g., of the satisfiability and
+ * subsumption tests or of the taxonomy positions of query concepts. It
+ * belongs to a TBox, so it is dropped whenever the KB changes. Subsumptions
+ * between named concepts are keyed by the DAG entries of the concepts, other
+ * queries by their description; the least recently used results are evicted
+ * first.
+ * 
+ * @param <V>
+ *        type of the results
+ */
+@Original
+final class QueryResultCache<V> {
+
+    private final JFactReasonerConfiguration options;
+    private final int capacity;
+    private final Map<Object, V> results;
+
+    /**
+     * @param options
+     *        options, for the capacity and the metrics listener
+     */
+    QueryResultCache(JFactReasonerConfiguration options) {
+        this.options = options;
+        capacity = options.getQueryResultCacheSize();
+        results = new LinkedHashMap<Object, V>(16, 0.75F, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param p
+     *        DAG entry of the subsumee
+     * @param q
+     *        DAG entry of the subsumer
+     * @return key for the subsumption test p [= q
+     */
+    static Object subKey(int p, int q) {
+        return Long.valueOf((long) p << 32 | q & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param key
+     *        key of the query
+     * @return result of the query; null if unknown
+     */
+    @Nullable
+    synchronized V get(Object key) {
+        if (capacity == 0) {
+            return null;
+        }
+        V known = results.get(key);
+        MetricsListener metrics = options.getMetricsListener();
+        if (metrics != null) {
+            metrics.queryCacheTest(known != null);
+        }
+        return known;
+    }
+
+    /**
+     * @param key
+     *        key of the query; must not change afterwards
+     * @param result
+     *        result of the query
+     */
+    synchronized void put(Object key, V result) {
+        if (capacity > 0) {
+            results.put(key, result);
+        }
+    }
+
+    /** drop all the results */
+    synchronized void clear() {
+        results.clear();
+    }
+}
@@ -23,7 +23,7 @@ public class RATransition implements Serializable {
 
     /** set of roles that may affect the transition */
     @PortedFrom(file = "RAutomaton.h", name = "label") private final Set<Role> label;
-    @Original private BitSet cache = null;
+    @Original private volatile BitSet cache = null;
     /** state of the transition */
     @PortedFrom(file = "RAutomaton.h", name = "state") private final int state;
 
@@ -94,11 +94,15 @@ public class RATransition implements Serializable {
      */
     @PortedFrom(file = "RAutomaton.h", name = "applicable")
     public boolean applicable(Role r) {
-        if (cache == null) {
-            cache = new BitSet();
-            label.forEach(t -> cache.set(t.getAbsoluteIndex()));
+        BitSet applicable = cache;
+        if (applicable == null) {
+            // fill before publishing: transitions are shared by reasoners
+            // running in parallel
+            BitSet set = new BitSet();
+            label.forEach(t -> set.set(t.getAbsoluteIndex()));
+            cache = applicable = set;
         }
-        return cache.get(r.getAbsoluteIndex());
+        return applicable.get(r.getAbsoluteIndex());
     }
 
     /** @return whether transition is empty */
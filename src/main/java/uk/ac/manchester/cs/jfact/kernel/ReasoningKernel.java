@@ -16,6 +16,8 @@ import static uk.ac.manchester.cs.jfact.kernel.KBStatus.*;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -29,8 +31,6 @@ import org.semanticweb.owlapi.reasoner.InconsistentOntologyException;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
 import org.semanticweb.owlapitools.decomposition.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import conformance.Original;
 import conformance.PortedFrom;
@@ -41,6 +41,7 @@ import uk.ac.manchester.cs.jfact.datatypes.DatatypeFactory;
 import uk.ac.manchester.cs.jfact.datatypes.LiteralEntry;
 import uk.ac.manchester.cs.jfact.helpers.DLTree;
 import uk.ac.manchester.cs.jfact.helpers.DLTreeFactory;
+import uk.ac.manchester.cs.jfact.helpers.Helper;
 import uk.ac.manchester.cs.jfact.helpers.Timer;
 import uk.ac.manchester.cs.jfact.kernel.actors.Actor;
 import uk.ac.manchester.cs.jfact.kernel.actors.RIActor;
@@ -50,7 +51,9 @@ import uk.ac.manchester.cs.jfact.kernel.dl.ConceptBottom;
 import uk.ac.manchester.cs.jfact.kernel.dl.ConceptName;
 import uk.ac.manchester.cs.jfact.kernel.dl.ConceptTop;
 import uk.ac.manchester.cs.jfact.kernel.dl.IndividualName;
+import uk.ac.manchester.cs.jfact.kernel.dl.axioms.AxiomImpl;
 import uk.ac.manchester.cs.jfact.kernel.dl.interfaces.*;
+import uk.ac.manchester.cs.jfact.kernel.el.ELNormaliser;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
 
@@ -58,7 +61,6 @@ import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
 @PortedFrom(file = "Kernel.h", name = "ReasoningKernel")
 public class ReasoningKernel implements Serializable {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(ReasoningKernel.class);
     private static final String ROLE_EXPRESSION_EXPECTED = "Role expression expected in isDisjointRoles()";
     private static final String ROLE_EXPECTED = "Role expression expected in getNeighbours() method";
     /** options for the kernel and all related substructures */
@@ -78,11 +80,13 @@ public class ReasoningKernel implements Serializable {
     /** cache level */
     @PortedFrom(file = "Kernel.h", name = "cacheLevel") private CacheStatus cacheLevel;
     /** cached query concept description */
-    @PortedFrom(file = "Kernel.h", name = "cachedQueryTree") private DLTree cachedQueryTree;
+    @PortedFrom(file = "Kernel.h", name = "cachedQueryTree") private transient DLTree cachedQueryTree;
     /** cached concept (either defConcept or existing one) */
-    @PortedFrom(file = "Kernel.h", name = "cachedConcept") private Concept cachedConcept;
+    @PortedFrom(file = "Kernel.h", name = "cachedConcept") private transient Concept cachedConcept;
     /** cached query result (taxonomy position) */
-    @PortedFrom(file = "Kernel.h", name = "cachedVertex") private TaxonomyVertex cachedVertex;
+    @PortedFrom(file = "Kernel.h", name = "cachedVertex") private transient TaxonomyVertex cachedVertex;
+    /** serialises DAG construction for shared queries, see isSatisfiableShared() */
+    @Original private final ReentrantLock queryLock = new ReentrantLock();
     // internal flags
     /** set if TBox throws an exception during preprocessing/classification */
     @PortedFrom(file = "Kernel.h", name = "reasoningFailed") private boolean reasoningFailed = false;
@@ -91,19 +95,19 @@ public class ReasoningKernel implements Serializable {
     /** flag to gather trace information for the next reasoner's call */
     @PortedFrom(file = "Kernel.h", name = "NeedTracing") private boolean needTracing = false;
     @Original private final DatatypeFactory datatypeFactory;
-    // types for knowledge exploration
+    // types for knowledge exploration; created on demand, so not serialised
     /** knowledge exploration support */
-    @PortedFrom(file = "Kernel.h", name = "KE") private KnowledgeExplorer ke;
+    @PortedFrom(file = "Kernel.h", name = "KE") private transient KnowledgeExplorer ke;
     /** atomic decomposer */
-    @PortedFrom(file = "Kernel.h", name = "AD") private AtomicDecomposition ad;
+    @PortedFrom(file = "Kernel.h", name = "AD") private transient AtomicDecomposition ad;
     /** syntactic locality based module extractor */
-    @PortedFrom(file = "Kernel.h", name = "ModSyn") private Decomposer modSyn = null;
+    @PortedFrom(file = "Kernel.h", name = "ModSyn") private transient Decomposer modSyn = null;
     /** semantic locality based module extractor */
-    @PortedFrom(file = "Kernel.h", name = "ModSem") private Decomposer modSem = null;
+    @PortedFrom(file = "Kernel.h", name = "ModSem") private transient Decomposer modSem = null;
     /** set to return by the locality checking procedure */
     @PortedFrom(file = "Kernel.h", name = "Result") private final Set<AxiomWrapper> result = new HashSet<>();
     /** cached query input description */
-    @PortedFrom(file = "Kernel.h", name = "cachedQuery") private ConceptExpression cachedQuery;
+    @PortedFrom(file = "Kernel.h", name = "cachedQuery") private transient ConceptExpression cachedQuery;
     /** ignore cache for the TExpr* (useful for semantic AD) */
     @PortedFrom(file = "Kernel.h", name = "ignoreExprCache") private boolean ignoreExprCache = false;
     private final Timer moduleTimer = new Timer();
@@ -331,8 +335,15 @@ public class ReasoningKernel implements Serializable {
         if (c.isBOTTOM()) {
             return false;
         }
+        QueryResultCache<Boolean> results = getTBox().getQueryResults();
+        Boolean known = results.get(c);
+        if (known != null) {
+            return known.booleanValue();
+        }
         this.setUpCache(c, SAT);
-        return getTBox().isSatisfiable(cachedConcept);
+        boolean sat = getTBox().isSatisfiable(cachedConcept);
+        results.put(c.copy(), sat);
+        return sat;
     }
 
     /**
@@ -481,8 +492,14 @@ public class ReasoningKernel implements Serializable {
             return true;
         }
         if (getStatus().ordinal() < KBCLASSIFIED.ordinal()) {
-            // unclassified => do via SAT test
-            return getTBox().isSubHolds(c, d);
+            // unclassified => do via SAT test, unless it was done already
+            Boolean known = getTBox().getCachedSubHolds(c, d);
+            if (known != null) {
+                return known.booleanValue();
+            }
+            boolean result = getTBox().isSubHolds(c, d);
+            getTBox().setCachedSubHolds(c, d, result);
+            return result;
         }
         // classified => do the taxonomy traversal
         SupConceptActor actor = new SupConceptActor(d);
@@ -1144,6 +1161,89 @@ public class ReasoningKernel implements Serializable {
         return !checkSatTree(DLTreeFactory.createSNFAnd(e(c), nD));
     }
 
+    /**
+     * satisfiability check for a complex expression that can run concurrently
+     * with other shared queries and with read-only taxonomy access, as long as
+     * the KB does not change
+     * 
+     * @param c
+     *        C
+     * @return true iff C is satisfiable; null if the query needs
+     *         isSatisfiable()
+     */
+    @Original
+    @Nullable
+    public Boolean isSatisfiableShared(ConceptExpression c) {
+        return checkSatShared(() -> e(c));
+    }
+
+    /**
+     * subsumption check for complex expressions that can run concurrently
+     * with other shared queries and with read-only taxonomy access, as long as
+     * the KB does not change
+     * 
+     * @param c
+     *        C
+     * @param d
+     *        D
+     * @return true iff C [= D holds; null if the query needs isSubsumedBy()
+     */
+    @Original
+    @Nullable
+    public Boolean isSubsumedByShared(ConceptExpression c, ConceptExpression d) {
+        Boolean sat = checkSatShared(() -> DLTreeFactory.createSNFAnd(e(c), DLTreeFactory.createSNFNot(e(d))));
+        return sat == null ? null : Boolean.valueOf(!sat.booleanValue());
+    }
+
+    /**
+     * put the query into the DAG under the query lock, then run the tableau on
+     * a pooled reasoner, without the query cache; the result is kept in the
+     * query result cache
+     * 
+     * @param query
+     *        query description
+     * @return satisfiability of the query; null if it needs fresh names or
+     *         nominals, or the DAG has no room for it
+     */
+    @Original
+    @Nullable
+    private Boolean checkSatShared(Supplier<DLTree> query) {
+        if (!isKBPreprocessed() || !getTBox().isConsistent()) {
+            return null;
+        }
+        int p;
+        DLTree desc;
+        LogicFeatures features;
+        QueryResultCache<Boolean> results = getTBox().getQueryResults();
+        queryLock.lock();
+        try {
+            desc = query.get();
+            if (desc.isTOP()) {
+                return Boolean.TRUE;
+            }
+            if (desc.isBOTTOM()) {
+                return Boolean.FALSE;
+            }
+            Boolean known = results.get(desc);
+            if (known != null) {
+                return known;
+            }
+            p = getTBox().addSharedQuery(desc);
+            if (p == Helper.BP_INVALID) {
+                return null;
+            }
+            features = getTBox().buildQueryFeatures(p);
+        } finally {
+            queryLock.unlock();
+        }
+        if (features.hasSingletons()) {
+            return null;
+        }
+        boolean sat = getTBox().isSatisfiable(p, features);
+        results.put(desc, sat);
+        return Boolean.valueOf(sat);
+    }
+
     /**
      * @param c
      *        C
@@ -1153,7 +1253,8 @@ public class ReasoningKernel implements Serializable {
      */
     @PortedFrom(file = "Kernel.h", name = "isDisjoint")
     public boolean isDisjoint(ConceptExpression c, ConceptExpression d) {
-        return !isSatisfiable(and(c, d));
+        preprocessKB();
+        return !checkSatTree(DLTreeFactory.createSNFAnd(e(c), e(d)));
     }
 
     /**
@@ -1257,6 +1358,93 @@ public class ReasoningKernel implements Serializable {
         return actor;
     }
 
+    // read-only taxonomy access
+    /**
+     * @param c
+     *        C
+     * @return taxonomy vertex of a named concept or constant C if the KB is
+     *         classified and consistent, and C already has a place in the
+     *         taxonomy; null if the query needs the query cache or reasoning.
+     *         Does not modify the kernel.
+     */
+    @Original
+    @Nullable
+    public TaxonomyVertex getClassifiedVertex(ConceptExpression c) {
+        if (!isKBClassified() || !getTBox().isConsistent()) {
+            return null;
+        }
+        Concept p = null;
+        if (c instanceof ConceptTop || c instanceof ConceptBottom) {
+            p = getTBox().getCI(e(c));
+        } else if (c instanceof ConceptName && ((ConceptName) c).getEntry() instanceof Concept) {
+            p = (Concept) ((ConceptName) c).getEntry();
+        }
+        return p == null || p.getpName() == 0 ? null : p.getTaxVertex();
+    }
+
+    /**
+     * @param i
+     *        individual
+     * @return taxonomy vertex of I if the KB is realised and consistent; null
+     *         otherwise. Does not modify the kernel.
+     */
+    @Original
+    @Nullable
+    public TaxonomyVertex getRealisedVertex(IndividualName i) {
+        if (!isKBRealised() || !getTBox().isConsistent() || !(i.getEntry() instanceof Individual)) {
+            return null;
+        }
+        return ((Individual) i.getEntry()).getTaxVertex();
+    }
+
+    /**
+     * apply actor to the relatives of a vertex obtained from
+     * getClassifiedVertex() or getRealisedVertex(); does not modify the kernel
+     *
+     * @param v
+     *        vertex
+     * @param actor
+     *        actor
+     * @param needCurrent
+     *        true if the vertex itself should be included
+     * @param direct
+     *        direct
+     * @param supDirection
+     *        true for super direction
+     * @param <T>
+     *        type
+     * @return actor
+     */
+    @Original
+    public <T extends Expression> TaxonomyActor<T> getRelatives(TaxonomyVertex v, TaxonomyActor<T> actor,
+        boolean needCurrent, boolean direct, boolean supDirection) {
+        actor.clear();
+        getCTaxonomy().getRelativesInfoReadOnly(v, actor, needCurrent, direct, supDirection);
+        return actor;
+    }
+
+    /**
+     * apply actor to the direct instances of a vertex obtained from
+     * getClassifiedVertex() on a realised KB; does not modify the kernel
+     *
+     * @param v
+     *        vertex
+     * @param actor
+     *        actor
+     * @param <T>
+     *        type
+     * @return actor
+     */
+    @Original
+    public <T extends Expression> TaxonomyActor<T> getDirectInstances(TaxonomyVertex v, TaxonomyActor<T> actor) {
+        actor.clear();
+        // same 1-level check as getDirectInstances(ConceptExpression, Actor)
+        if (!actor.apply(v)) {
+            v.neigh(false).forEach(actor::apply);
+        }
+        return actor;
+    }
+
     /**
      * apply actor::apply() to all named concepts disjoint with [complex] C
      * 
@@ -1683,8 +1871,12 @@ public class ReasoningKernel implements Serializable {
         for (NamedEntity e : removedEntities) {
             if (e.getEntry() instanceof Concept) {
                 Concept c = (Concept) e.getEntry();
-                // remove all links
-                c.getTaxVertex().remove();
+                // remove all links, unless the vertex holds other names;
+                // the entry is dropped when the taxonomy is carried over
+                TaxonomyVertex v = c.getTaxVertex();
+                if (v != null && v.getPrimer() == c && v.synonyms().count() == 0) {
+                    v.remove();
+                }
                 // update Name2Sig
                 name2Sig.remove(c.getEntity());
             }
@@ -1714,7 +1906,7 @@ public class ReasoningKernel implements Serializable {
         LocalityChecker lc = getModExtractor(false, null).getModularizer().getLocalityChecker();
         for (Map.Entry<OWLEntity, Signature> p : name2Sig.entrySet()) {
             lc.setSignatureValue(p.getValue());
-            for (AxiomWrapper notProcessed : ontology.getAxioms()) {
+            for (AxiomWrapper notProcessed : ontology.getUnprocessed()) {
                 if (!lc.local(notProcessed.getAxiom())) {
                     mPlus.add(p.getKey());
                     break;
@@ -1724,8 +1916,8 @@ public class ReasoningKernel implements Serializable {
                 if (!lc.local(retracted.getAxiom())) {
                     mMinus.add(p.getKey());
                     // FIXME!! only concepts for now
-                    TaxonomyVertex v = ((ClassifiableEntry) p.getKey()).getTaxVertex();
-                    if (v.noNeighbours(true)) {
+                    TaxonomyVertex v = getTBox().getConcept(p.getKey().getIRI()).getTaxVertex();
+                    if (v != null && v.noNeighbours(true)) {
                         v.addNeighbour(true, tax.getTopVertex());
                         tax.getTopVertex().addNeighbour(false, v);
                     }
@@ -1742,45 +1934,17 @@ public class ReasoningKernel implements Serializable {
             buildSignature(toProcess.iterator().next(), ontology.getAxioms(), toProcess);
         }
         tax.finalise();
-        // save the taxonomy
-        byte[] saved = save(pTBox);
         // do actual change
         kernelOptions.setUseIncrementalReasoning(false);
         forceReload();
         pTBox.setNameSigMap(name2Sig);
         pTBox.isConsistent();
         kernelOptions.setUseIncrementalReasoning(true);
-        // load the taxonomy
-        pTBox = load(saved);
-        pTBox.reclassify(mPlus, mMinus);
+        // carry the old taxonomy over to the new TBox
+        pTBox.reclassify(tax, mPlus, mMinus);
         getOntology().setProcessed();
     }
 
-    @Nullable
-    private static byte[] save(TBox tbox) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ObjectOutputStream oout;
-        try {
-            oout = new ObjectOutputStream(out);
-            // save taxonomy
-            oout.writeObject(tbox);
-        } catch (IOException e) {
-            LOGGER.error("Serialization problem", e);
-            return null;
-        }
-        return out.toByteArray();
-    }
-
-    @Nullable
-    private static TBox load(@Nullable byte[] tbox) {
-        try {
-            return (TBox) new ObjectInputStream(new ByteArrayInputStream(tbox)).readObject();
-        } catch (ClassNotFoundException | IOException e) {
-            LOGGER.error("Deserialization problem", e);
-        }
-        return null;
-    }
-
     /** force the re-classification of the changed ontology */
     @PortedFrom(file = "Kernel.h", name = "forceReload")
     private void forceReload() {
@@ -1790,6 +1954,11 @@ public class ReasoningKernel implements Serializable {
         // (re)load ontology
         OntologyLoader ontologyLoader = new OntologyLoader(getTBox());
         ontologyLoader.visitOntology(ontology);
+        if (kernelOptions.isUseELReasoner()) {
+            ELNormaliser normaliser = new ELNormaliser();
+            ontology.getAxioms().stream().filter(p -> p.isUsed()).forEach(p -> ((AxiomImpl) p).accept(normaliser));
+            getTBox().setELSaturation(normaliser.getSaturation());
+        }
         if (kernelOptions.isUseIncrementalReasoning()) {
             initIncremental();
         }
@@ -2031,6 +2200,7 @@ public class ReasoningKernel implements Serializable {
         // clean cached info
         cachedVertex = null;
         cacheLevel = level;
+        DLTree desc = null;
         // check if concept-to-cache is defined in ontology
         if (ReasoningKernel.isNameOrConst(cachedQuery)) {
             cachedConcept = getTBox().getCI(e(cachedQuery));
@@ -2038,7 +2208,19 @@ public class ReasoningKernel implements Serializable {
             // case of complex query
             // need to clear the query before transform it into DLTree
             // ... as if fresh names appears there, they would be cleaned up
-            cachedConcept = getTBox().createQueryConcept(e(cachedQuery));
+            desc = e(cachedQuery);
+            if (level == CLASSIFIED) {
+                TaxonomyVertex known = getTBox().getQueryVertices().get(desc);
+                if (known != null) {
+                    // the position is known, but the query concept is not
+                    // built: do not let other queries reuse it
+                    cachedVertex = known;
+                    cachedConcept = null;
+                    clearQueryCache();
+                    return;
+                }
+            }
+            cachedConcept = getTBox().createQueryConcept(desc);
         }
         assert cachedConcept != null;
         // preprocess concept is necessary (fresh concept in query or complex
@@ -2048,6 +2230,11 @@ public class ReasoningKernel implements Serializable {
         }
         if (level == CLASSIFIED) {
             classifyQuery(ReasoningKernel.isNameOrConst(cachedQuery));
+            if (desc != null) {
+                // the current vertex is reused by the next classification
+                getTBox().getQueryVertices().put(desc, cachedVertex == getCTaxonomy().getCurrent() ? cachedVertex
+                    .copy() : cachedVertex);
+            }
         }
     }
 
@@ -8,19 +8,33 @@ package uk.ac.manchester.cs.jfact.kernel;
 import static uk.ac.manchester.cs.jfact.helpers.Helper.INITBRANCHINGLEVELVALUE;
 
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.Arrays;
 
+import javax.annotation.Nullable;
+
+import conformance.Original;
 import conformance.PortedFrom;
 
 /**
- * Rare stack
+ * Undo trail of the completion graph and of the todo list. Changes are
+ * recorded as they are made and undone in LIFO order on restore: rare changes
+ * as restorers, and changes to a node as the state the node had before its
+ * first change on a level (level, number of neighbours, label sizes), so
+ * nodes that do not change are not saved.
  */
 @PortedFrom(file = "tRareSaveStack.h", name = "TRareSaveStack")
 public class SaveStackRare implements Serializable {
 
-
-    /** heap of saved objects */
-    private final LinkedList<Restorer> base = new LinkedList<>();
+    /** number of ints saved for a node */
+    private static final int NODE_STATE = 4;
+    /** recorded changes: restorers, or nodes whose state is saved */
+    @Original private Object[] base = new Object[64];
+    /** level of each entry */
+    @Original private int[] levels = new int[64];
+    /** saved node states: level, neighbours, simple and complex label size */
+    @Original private int[] nodeStates = new int[64 * NODE_STATE];
+    /** number of entries */
+    @Original private int size = 0;
     /** current level */
     private int curLevel;
 
@@ -34,6 +48,12 @@ public class SaveStackRare implements Serializable {
         ++curLevel;
     }
 
+    /** @return number of entries; to be passed to restore */
+    @Original
+    public int size() {
+        return size;
+    }
+
     /**
      * add a new object to the stack
      * 
@@ -42,31 +62,104 @@ public class SaveStackRare implements Serializable {
      */
     public void push(Restorer p) {
         p.setRaresavestackLevel(curLevel);
-        base.addLast(p);
+        add(p, curLevel);
+    }
+
+    /**
+     * save the state of a node before it is changed on a level
+     * 
+     * @param node
+     *        node
+     * @param level
+     *        level the node is saved for
+     * @param nodeLevel
+     *        current level of the node
+     * @param neighbours
+     *        number of neighbours
+     * @param sc
+     *        size of the simple label
+     * @param cc
+     *        size of the complex label
+     */
+    @Original
+    void push(DlCompletionTree node, int level, int nodeLevel, int neighbours, int sc, int cc) {
+        int i = add(node, level) * NODE_STATE;
+        nodeStates[i] = nodeLevel;
+        nodeStates[i + 1] = neighbours;
+        nodeStates[i + 2] = sc;
+        nodeStates[i + 3] = cc;
+    }
+
+    private int add(Object o, int level) {
+        if (size == base.length) {
+            base = Arrays.copyOf(base, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+            nodeStates = Arrays.copyOf(nodeStates, size * 2 * NODE_STATE);
+        }
+        base[size] = o;
+        levels[size] = level;
+        return size++;
     }
 
     /**
-     * get all object from the top of the stack with levels greater or equal
-     * LEVEL
+     * undo, in reverse order, all changes recorded since the stack had the
+     * given size and the level was increased past LEVEL. Nodes saved for a
+     * level not above LEVEL keep their saved state for a later restore;
+     * nodes from NODES on are dead and are not restored.
      * 
      * @param level
      *        level
+     * @param mark
+     *        size of the stack when the level was saved
+     * @param nodes
+     *        number of nodes in use
+     * @param blockers
+     *        index to mark the restored nodes in, if any
+     * @return number of restored nodes
      */
     @PortedFrom(file = "dlCompletionGraph.h", name = "restore")
-    public void restore(int level) {
+    int restore(int level, int mark, int nodes, @Nullable BlockerIndex blockers) {
         curLevel = level;
-        while (!base.isEmpty()
-                && base.getLast().getRaresavestackLevel() > level) {
-            // need to restore: restore last element, remove it from stack
-            base.getLast().restore();
-            base.removeLast();
+        int restored = 0;
+        for (int i = size - 1; i >= mark; i--) {
+            if (base[i] instanceof Restorer) {
+                ((Restorer) base[i]).restore();
+                base[i] = null;
+            } else {
+                DlCompletionTree node = (DlCompletionTree) base[i];
+                if (node.getId() >= nodes) {
+                    base[i] = null;
+                } else if (levels[i] > level) {
+                    int j = i * NODE_STATE;
+                    node.restore(nodeStates[j], nodeStates[j + 1], nodeStates[j + 2], nodeStates[j + 3]);
+                    if (blockers != null) {
+                        blockers.mark(node.getId());
+                    }
+                    base[i] = null;
+                    restored++;
+                }
+            }
+        }
+        // move down the node states that are kept
+        int last = mark;
+        for (int i = mark; i < size; i++) {
+            if (base[i] != null) {
+                base[last] = base[i];
+                levels[last] = levels[i];
+                System.arraycopy(nodeStates, i * NODE_STATE, nodeStates, last * NODE_STATE, NODE_STATE);
+                last++;
+            }
         }
+        Arrays.fill(base, last, size, null);
+        size = last;
+        return restored;
     }
 
     /** clear stack */
     @PortedFrom(file = "dlCompletionGraph.h", name = "clear")
     public void clear() {
-        base.clear();
+        Arrays.fill(base, 0, size, null);
+        size = 0;
         curLevel = INITBRANCHINGLEVELVALUE;
     }
 }
@@ -16,6 +16,8 @@ import static uk.ac.manchester.cs.jfact.kernel.Role.resolveRole;
 import static uk.ac.manchester.cs.jfact.kernel.RoleMaster.addRoleSynonym;
 import static uk.ac.manchester.cs.jfact.kernel.Token.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -25,7 +27,9 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
@@ -61,6 +65,9 @@ import uk.ac.manchester.cs.jfact.helpers.Timer;
 import uk.ac.manchester.cs.jfact.helpers.UnreachableSituationException;
 import uk.ac.manchester.cs.jfact.kernel.dl.DataRoleName;
 import uk.ac.manchester.cs.jfact.kernel.dl.ObjectRoleName;
+import uk.ac.manchester.cs.jfact.kernel.el.ELSaturation;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsListener;
+import uk.ac.manchester.cs.jfact.kernel.metrics.ReasoningPhase;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheConst;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
 import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheSingleton;
@@ -75,11 +82,19 @@ public class TBox implements Serializable {
     private static final String SECONDS = " seconds\n\n";
     @PortedFrom(file = "dlTBox.h", name = "relevance") private long relevance = 1;
     @PortedFrom(file = "dlTBox.h", name = "DLHeap") private final DLDag dlHeap;
-    /** reasoner for TBox-related queries w/o nominals */
-    @PortedFrom(file = "dlTBox.h", name = "stdReasoner") private DlSatTester stdReasoner = null;
+    /**
+     * reasoner for TBox-related queries w/o nominals; it keeps no state between
+     * queries, so it is not serialised but created again on reading
+     */
+    @PortedFrom(file = "dlTBox.h", name = "stdReasoner") private transient DlSatTester stdReasoner = null;
     /** use this macro to do the same action with all available reasoners */
-    /** reasoner for TBox-related queries with nominals */
+    /**
+     * reasoner for TBox-related queries with nominals; serialised, as it keeps
+     * the completion graph of the nominal cloud
+     */
     @PortedFrom(file = "dlTBox.h", name = "nomReasoner") private NominalReasoner nomReasoner;
+    /** idle reasoners for concurrent queries, see isSatisfiable(int, LogicFeatures) */
+    @Original private transient Queue<DlSatTester> queryReasoners = new ConcurrentLinkedQueue<>();
     /** taxonomy structure of a TBox */
     @PortedFrom(file = "dlTBox.h", name = "pTax") private Taxonomy pTax;
     /** classifier */
@@ -175,6 +190,16 @@ public class TBox implements Serializable {
     @Original private int nItems = 0;
     @Original private final AtomicBoolean interrupted;
     @Original private final DatatypeFactory datatypeFactory;
+    /** worker threads for the current classification, if parallel */
+    @Original @Nullable private transient ClassificationWorkers classificationWorkers;
+    /** EL saturation of the ontology axioms, if the EL reasoner is used */
+    @Original @Nullable private transient ELSaturation elSaturation;
+    /** results of the tests run for queries */
+    @Original @Nullable private transient QueryResultCache<Boolean> queryResults;
+    /** taxonomy positions of classified query concepts */
+    @Original @Nullable private transient QueryResultCache<TaxonomyVertex> queryVertices;
+    /** true iff the EL saturation decides all subsumptions of the KB */
+    @Original private transient boolean elComplete = false;
     @PortedFrom(file = "dlTBox.h", name = "top") private Concept top;
     @PortedFrom(file = "dlTBox.h", name = "bottom") private Concept bottom;
     @PortedFrom(file = "dlTBox.h", name = "nRelevantCCalls") private long nRelevantCCalls;
@@ -475,6 +500,16 @@ public class TBox implements Serializable {
         ++nC;
     }
 
+    /**
+     * @param index
+     *        concept index, as set by setConceptIndex()
+     * @return concept with the given index
+     */
+    @Original
+    public Concept getConceptByIndex(int index) {
+        return conceptMap.get(index);
+    }
+
     /**
      * @return true iff reasoners were initialised
      */
@@ -683,16 +718,18 @@ public class TBox implements Serializable {
     }
 
     /**
-     * update AUX features with the given one; update roles if necessary
+     * update features F with the given one; update roles if necessary
      * 
+     * @param f
+     *        features to update
      * @param lf
      *        lf
      */
     @PortedFrom(file = "dlTBox.h", name = "updateAuxFeatures")
-    private void updateAuxFeatures(LogicFeatures lf) {
+    private static void updateFeatures(LogicFeatures f, LogicFeatures lf) {
         if (!lf.isEmpty()) {
-            auxFeatures.or(lf);
-            auxFeatures.mergeRoles();
+            f.or(lf);
+            f.mergeRoles();
         }
     }
 
@@ -1013,6 +1050,23 @@ public class TBox implements Serializable {
         createTaxonomy(true);
     }
 
+    /**
+     * use the taxonomy read from a snapshot as the result of classification;
+     * the taxonomy is complete, so it is finalised as after createTaxonomy()
+     * 
+     * @param status
+     *        status the KB had when the taxonomy was saved
+     */
+    @Original
+    void restoreTaxonomy(KBStatus status) {
+        clearQueryConcept();
+        getQueryVertices().clear();
+        dlHeap.setSubOrder();
+        pTaxCreator.setBottomUp(gcis);
+        pTax.finalise();
+        kbStatus = status;
+    }
+
     /**
      * @return internal Taxonomy of concepts
      */
@@ -1470,6 +1524,8 @@ public class TBox implements Serializable {
         // if there were SAT queries before -- the query concept is in there.
         // Delete it
         clearQueryConcept();
+        // positions of query concepts are about to change
+        getQueryVertices().clear();
         // here we sure that ontology is consistent
         // FIXME!! distinguish later between the 1st run and the following runs
         dlHeap.setSubOrder();
@@ -1488,9 +1544,30 @@ public class TBox implements Serializable {
         nItems += fillArrays(individuals.getConcepts());
         config.getProgressMonitor().reasonerTaskStarted(ReasonerProgressMonitor.CLASSIFYING);
         duringClassification = true;
-        classifyConcepts(arrayCD, true, "completely defined");
-        classifyConcepts(arrayNoCD, false, "regular");
-        classifyConcepts(arrayNP, false, "non-primitive");
+        if (elSaturation != null && !elSaturation.isSaturated()) {
+            saturateEL(elSaturation);
+        }
+        // logging is not thread safe: keep everything on this thread then
+        if (config.getClassificationThreads() > 1 && !config.isLoggingActive()) {
+            classificationWorkers = new ClassificationWorkers(this, config.getClassificationThreads());
+        }
+        try {
+            // no model caches needed if the EL saturation answers everything
+            if (classificationWorkers != null && !elComplete) {
+                List<Concept> toPrepare = new ArrayList<>();
+                Stream.concat(arrayNoCD.stream(), arrayNP.stream()).filter(c -> !c.isClassified()).forEach(
+                    toPrepare::add);
+                classificationWorkers.buildCaches(toPrepare);
+            }
+            classifyConcepts(arrayCD, true, "completely defined");
+            classifyConcepts(arrayNoCD, false, "regular");
+            classifyConcepts(arrayNP, false, "non-primitive");
+        } finally {
+            if (classificationWorkers != null) {
+                classificationWorkers.close();
+                classificationWorkers = null;
+            }
+        }
         duringClassification = false;
         config.getProgressMonitor().reasonerTaskStopped();
         pTax.finalise();
@@ -1498,6 +1575,8 @@ public class TBox implements Serializable {
         if (config.getverboseOutput()) {
             config.getLog().print(DONE_IN).print(locTimer.calcDelta()).print(SECONDS);
         }
+        reportPhase(needIndividual ? ReasoningPhase.REALISATION : ReasoningPhase.CLASSIFICATION, locTimer
+            .getResultTime());
         if (needConcept && kbStatus.ordinal() < KBCLASSIFIED.ordinal()) {
             kbStatus = KBCLASSIFIED;
         }
@@ -1522,6 +1601,11 @@ public class TBox implements Serializable {
         // set CD for taxonomy
         pTaxCreator.setCompletelyDefined(curCompletelyDefined);
         config.getLog().printTemplate(Templates.CLASSIFY_CONCEPTS, type);
+        // tests on the workers cannot use the nominal reasoner; speculation
+        // keeps the workers for the tests of the sequential searches
+        if (classificationWorkers != null && nomReasoner == null && !config.isUseSpeculativeSubsumption()) {
+            classificationWorkers.classify(collection, pTaxCreator);
+        }
         // check if concept is already classified
         // classify and count otherwise
         int n = (int) collection.stream().filter(q -> !interrupted.get() && !q.isClassified()).map(this::classifyEntry)
@@ -1604,19 +1688,33 @@ public class TBox implements Serializable {
      */
     @PortedFrom(file = "dlTBox.h", name = "prepareFeatures")
     public void prepareFeatures(@Nullable Concept pConcept, @Nullable Concept qConcept) {
-        auxFeatures = new LogicFeatures(gciFeatures);
+        auxFeatures = buildFeatures(pConcept, qConcept);
+        curFeature = auxFeatures;
+        // set blocking method for the current reasoning session
+        getReasoner().setBlockingMethod(isIRinQuery(), isNRinQuery());
+    }
+
+    /**
+     * @param pConcept
+     *        pConcept
+     * @param qConcept
+     *        qConcept
+     * @return logical features of a test for pConcept and not qConcept; the
+     *         TBox current features are not changed
+     */
+    @Original
+    public LogicFeatures buildFeatures(@Nullable Concept pConcept, @Nullable Concept qConcept) {
+        LogicFeatures f = new LogicFeatures(gciFeatures);
         if (pConcept != null) {
-            updateAuxFeatures(pConcept.getPosFeatures());
+            updateFeatures(f, pConcept.getPosFeatures());
         }
         if (qConcept != null) {
-            updateAuxFeatures(qConcept.getNegFeatures());
+            updateFeatures(f, qConcept.getNegFeatures());
         }
-        if (auxFeatures.hasSingletons()) {
-            updateAuxFeatures(nominalCloudFeatures);
+        if (f.hasSingletons()) {
+            updateFeatures(f, nominalCloudFeatures);
         }
-        curFeature = auxFeatures;
-        // set blocking method for the current reasoning session
-        getReasoner().setBlockingMethod(isIRinQuery(), isNRinQuery());
+        return f;
     }
 
     /** build simple cache */
@@ -1668,12 +1766,27 @@ public class TBox implements Serializable {
         }
         pt.stop();
         consistTime = pt.calcDelta();
+        reportPhase(ReasoningPhase.CONSISTENCY, consistTime);
         if (config.getverboseOutput()) {
             config.getLog().print(DONE_IN).print(consistTime).print(SECONDS);
         }
         return ret;
     }
 
+    /**
+     * @param phase
+     *        finished reasoning phase
+     * @param millis
+     *        time spent in the phase
+     */
+    @Original
+    private void reportPhase(ReasoningPhase phase, long millis) {
+        MetricsListener metrics = config.getMetricsListener();
+        if (metrics != null) {
+            metrics.phase(phase, millis);
+        }
+    }
+
     /**
      * @param pConcept
      *        pConcept
@@ -1726,6 +1839,116 @@ public class TBox implements Serializable {
         return result;
     }
 
+    /**
+     * @param pConcept
+     *        pConcept
+     * @param qConcept
+     *        qConcept
+     * @return result of an earlier query for pConcept [= qConcept; null if
+     *         unknown
+     */
+    @Original
+    @Nullable
+    public Boolean getCachedSubHolds(Concept pConcept, Concept qConcept) {
+        Object key = subKey(pConcept, qConcept);
+        return key == null ? null : getQueryResults().get(key);
+    }
+
+    /**
+     * remember the result of a subsumption test run for a query; tests run
+     * by classification are not kept, so that they do not evict query results
+     * 
+     * @param pConcept
+     *        pConcept
+     * @param qConcept
+     *        qConcept
+     * @param result
+     *        result of isSubHolds(pConcept, qConcept)
+     */
+    @Original
+    public void setCachedSubHolds(Concept pConcept, Concept qConcept, boolean result) {
+        Object key = subKey(pConcept, qConcept);
+        if (key != null) {
+            getQueryResults().put(key, Boolean.valueOf(result));
+        }
+    }
+
+    /**
+     * @param p
+     *        p
+     * @param q
+     *        q
+     * @return result cache key for p [= q; null if p or q live in the query
+     *         part of the DAG, as their entries are reused by later queries
+     */
+    @Original
+    @Nullable
+    private Object subKey(Concept p, Concept q) {
+        int ip = p.resolveId();
+        int iq = q.resolveId();
+        if (ip == BP_INVALID || iq == BP_INVALID || dlHeap.isQueryEntry(ip) || dlHeap.isQueryEntry(iq)) {
+            return null;
+        }
+        return QueryResultCache.subKey(ip, iq);
+    }
+
+    /** @return results of the tests run for queries */
+    @Original
+    QueryResultCache<Boolean> getQueryResults() {
+        if (queryResults == null) {
+            queryResults = new QueryResultCache<>(config);
+        }
+        return queryResults;
+    }
+
+    /**
+     * @return taxonomy positions of classified query concepts, by query
+     *         description; dropped when the taxonomy is (re)built
+     */
+    @Original
+    QueryResultCache<TaxonomyVertex> getQueryVertices() {
+        if (queryVertices == null) {
+            queryVertices = new QueryResultCache<>(config);
+        }
+        return queryVertices;
+    }
+
+    /**
+     * check subsumption on the reasoner of a classification worker; the TBox
+     * features are left untouched
+     * 
+     * @param pConcept
+     *        pConcept
+     * @param qConcept
+     *        qConcept
+     * @param features
+     *        logical features of the test, see buildFeatures(); must not
+     *        need the nominal reasoner
+     * @param reasoner
+     *        reasoner to use
+     * @return true if subsumption holds
+     */
+    @Original
+    public boolean isSubHolds(Concept pConcept, Concept qConcept, LogicFeatures features, DlSatTester reasoner) {
+        assert !features.hasSingletons();
+        reasoner.setFeatures(features);
+        try {
+            return !reasoner.runSat(pConcept.resolveId(), -qConcept.resolveId());
+        } finally {
+            reasoner.setFeatures(null);
+            reportWorkerTest();
+        }
+    }
+
+    /** pass a test run by a classification worker to the metrics listener */
+    @Original
+    private void reportWorkerTest() {
+        MetricsListener metrics = config.getMetricsListener();
+        if (metrics != null) {
+            metrics.workerTest();
+        }
+    }
+
     /**
      * @param a
      *        _a
@@ -1815,6 +2038,133 @@ public class TBox implements Serializable {
         initCache(query, false);
     }
 
+    /**
+     * put a query description into the DAG without using the query concept,
+     * so that queries built this way can be answered concurrently; calls must
+     * be serialised by the caller, and the DAG entries stay until the next
+     * clearQueryConcept()
+     * 
+     * @param desc
+     *        query description
+     * @return DAG entry for desc, or BP_INVALID if desc refers to fresh names,
+     *         data entries not in the DAG or nominals, or does not fit in the
+     *         space reserved for queries
+     */
+    @Original
+    public int addSharedQuery(DLTree desc) {
+        int bound = sharedQueryBound(desc);
+        if (bound < 0 || !dlHeap.hasQuerySpace(bound)) {
+            return BP_INVALID;
+        }
+        return tree2dag(desc);
+    }
+
+    /**
+     * @param t
+     *        description
+     * @return upper bound on the number of DAG entries tree2dag() adds for t,
+     *         or -1 if t can not be translated without changing named entries
+     */
+    @Original
+    private int sharedQueryBound(DLTree t) {
+        Lexeme cur = t.elem();
+        switch (cur.getToken()) {
+            case BOTTOM:
+            case TOP:
+                return 0;
+            case DATAEXPR:
+                // new data entries change the datatype index of the DAG: leave
+                // them to the exclusive path
+                return isValid(((NamedEntry) cur.getNE()).getIndex()) ? 0 : -1;
+            case CNAME:
+                return isValid(((Concept) cur.getNE()).getpName()) ? 0 : -1;
+            case NOT:
+                return sharedQueryBound(t.getChild());
+            case AND:
+                int n = 1;
+                for (DLTree c : t.getChildren()) {
+                    int k = sharedQueryBound(c);
+                    if (k < 0) {
+                        return -1;
+                    }
+                    n += k;
+                }
+                return n;
+            case FORALL:
+                int c = sharedQueryBound(t.getRight());
+                return c < 0 ? -1 : c + Math.max(1, resolveRole(t.getLeft()).getAutomaton().size());
+            case SELF:
+                return 1;
+            case LE:
+                // all the smaller numbers and the NN blocker
+                int d = sharedQueryBound(t.getRight());
+                return d < 0 ? -1 : d + cur.getData() + 1;
+            default:
+                // nominals and projections
+                return -1;
+        }
+    }
+
+    /**
+     * @param p
+     *        DAG entry of a query, see addSharedQuery()
+     * @return logical features of a satisfiability test for p; the TBox
+     *         current features are not changed. Calls must be serialised by
+     *         the caller
+     */
+    @Original
+    public LogicFeatures buildQueryFeatures(int p) {
+        LogicFeatures f = new LogicFeatures();
+        LogicFeatures saved = curFeature;
+        curFeature = f;
+        setRelevant(p);
+        clearRelevanceInfo();
+        curFeature = saved;
+        LogicFeatures ret = new LogicFeatures(gciFeatures);
+        updateFeatures(ret, f);
+        if (ret.hasSingletons()) {
+            updateFeatures(ret, nominalCloudFeatures);
+        }
+        return ret;
+    }
+
+    /**
+     * check satisfiability of a query on a pooled reasoner; may run
+     * concurrently with other such checks as long as the TBox does not change
+     * 
+     * @param p
+     *        DAG entry of a query, see addSharedQuery()
+     * @param features
+     *        logical features of the test, see buildQueryFeatures(); must not
+     *        need the nominal reasoner
+     * @return true if satisfiable
+     */
+    @Original
+    public boolean isSatisfiable(int p, LogicFeatures features) {
+        assert !features.hasSingletons();
+        // check whether the test was already done, e.g., for a named concept
+        ModelCacheInterface cache = dlHeap.getCache(p);
+        if (cache != null && (cache.getState() == ModelCacheState.VALID || cache
+            .getState() == ModelCacheState.INVALID)) {
+            return cache.getState() == ModelCacheState.VALID;
+        }
+        MetricsListener metrics = config.getMetricsListener();
+        if (metrics != null) {
+            metrics.sharedQuery();
+        }
+        DlSatTester reasoner = queryReasoners.poll();
+        if (reasoner == null) {
+            reasoner = createWorkerReasoner();
+        }
+        reasoner.setFeatures(features);
+        try {
+            return reasoner.runSat(p, BP_TOP);
+        } finally {
+            reasoner.setFeatures(null);
+            queryReasoners.add(reasoner);
+        }
+    }
+
     /** delete all query-related stuff */
     @PortedFrom(file = "dlTBox.h", name = "clearQueryConcept")
     public void clearQueryConcept() {
@@ -2591,6 +2941,7 @@ public class TBox implements Serializable {
         removeExtraDescriptions();
         pt.stop();
         preprocTime = pt.calcDelta();
+        reportPhase(ReasoningPhase.PREPROCESSING, preprocTime);
         if (config.getverboseOutput()) {
             config.getLog().print(DONE_IN).print(pt.calcDelta()).print(SECONDS);
         }
@@ -3072,6 +3423,37 @@ public class TBox implements Serializable {
         return cache;
     }
 
+    /**
+     * init cache for a concept on the reasoner of a classification worker; the
+     * TBox features are left untouched
+     * 
+     * @param pConcept
+     *        pConcept
+     * @param sub
+     *        sub
+     * @param reasoner
+     *        reasoner to use
+     * @return initialized cache, or null if the test needs the nominal
+     *         reasoner
+     */
+    @Original
+    @Nullable
+    public ModelCacheInterface initCache(Concept pConcept, boolean sub, DlSatTester reasoner) {
+        int bp = sub ? -pConcept.getpName() : pConcept.getpName();
+        ModelCacheInterface cache = dlHeap.getCache(bp);
+        if (cache == null) {
+            LogicFeatures f = sub ? buildFeatures(null, pConcept) : buildFeatures(pConcept, null);
+            if (f.hasSingletons()) {
+                return null;
+            }
+            reasoner.setFeatures(f);
+            cache = reasoner.createCache(bp, FastSetFactory.create());
+            reasoner.setFeatures(null);
+            reportWorkerTest();
+        }
+        return cache;
+    }
+
     /**
      * test if 2 concept non-subsumption can be determined by cache merging
      * 
@@ -3099,6 +3481,17 @@ public class TBox implements Serializable {
         setToDoPriorities();
     }
 
+    /**
+     * @return a new standard reasoner for this TBox, to be used by a single
+     *         worker thread
+     */
+    @Original
+    public DlSatTester createWorkerReasoner() {
+        DlSatTester reasoner = new DlSatTester(this, config);
+        reasoner.initToDoPriorities();
+        return reasoner;
+    }
+
     /** init taxonomy and classifier */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "initTaxonomy")
     public void initTaxonomy() {
@@ -3457,8 +3850,67 @@ public class TBox implements Serializable {
      */
     public void reclassify(Set<OWLEntity> mPlus, Set<OWLEntity> mMinus) {
         pTaxCreator.reclassify(mPlus, mMinus);
-        status = KBREALISED;
-        // FIXME!! check whether it is classified/realised
+        // the KB stays checked: new entries and individuals are classified
+        // by the next createTaxonomy()
+    }
+
+    /**
+     * reclassify the changed entries in a taxonomy built for a previous
+     * version of the KB; the taxonomy is carried over to this TBox. If a
+     * change makes an entry unsatisfiable or equivalent to another one, the
+     * taxonomy is dropped and the KB is left to be classified from scratch.
+     * Either way the KB stays checked, so that the next classification or
+     * realisation places the entries that are not in the taxonomy yet
+     * 
+     * @param tax
+     *        taxonomy of the previous TBox
+     * @param mPlus
+     *        MPlus
+     * @param mMinus
+     *        MMinus
+     */
+    @Original
+    public void reclassify(Taxonomy tax, Set<OWLEntity> mPlus, Set<OWLEntity> mMinus) {
+        tax.rehost(this::currentEntry);
+        pTax = tax;
+        pTaxCreator = new DLConceptTaxonomy(pTax, this);
+        clearQueryConcept();
+        dlHeap.setSubOrder();
+        pTaxCreator.setBottomUp(gcis);
+        Timer locTimer = new Timer();
+        locTimer.start();
+        if (pTaxCreator.reclassify(mPlus, mMinus)) {
+            locTimer.stop();
+            reportPhase(ReasoningPhase.RECLASSIFICATION, locTimer.getResultTime());
+            return;
+        }
+        Stream.concat(concepts.getConcepts(), individuals.getConcepts()).forEach(c -> c.setTaxVertex(null));
+        top.setTaxVertex(null);
+        bottom.setTaxVertex(null);
+        initTaxonomy();
+    }
+
+    /**
+     * @param old
+     *        entry of a previous TBox
+     * @return entry of this TBox for the same name, or null if there is none
+     */
+    @Original
+    @Nullable
+    private ClassifiableEntry currentEntry(ClassifiableEntry old) {
+        if (old.isTop()) {
+            return top;
+        }
+        if (old.isBottom()) {
+            return bottom;
+        }
+        if (concepts.isRegistered(old.getIRI())) {
+            return getConcept(old.getIRI());
+        }
+        if (individuals.isRegistered(old.getIRI())) {
+            return getIndividual(old.getIRI());
+        }
+        return null;
     }
 
     /**
@@ -3468,6 +3920,64 @@ public class TBox implements Serializable {
         return conceptsForQueryAnswering;
     }
 
+    /**
+     * @param saturation
+     *        normalised EL axioms of the ontology, to be saturated at
+     *        classification
+     */
+    @Original
+    public void setELSaturation(ELSaturation saturation) {
+        elSaturation = saturation;
+        elComplete = false;
+    }
+
+    /**
+     * @return saturated EL axioms of the ontology; null if the EL reasoner is
+     *         not used or classification did not start yet
+     */
+    @Original
+    @Nullable
+    public ELSaturation getELSaturation() {
+        ELSaturation s = elSaturation;
+        return s != null && s.isSaturated() ? s : null;
+    }
+
+    /**
+     * @return true if the EL saturation covers the whole KB, so that its
+     *         non-subsumptions hold as well
+     */
+    @Original
+    public boolean isELComplete() {
+        return elComplete;
+    }
+
+    /**
+     * @param saturation
+     *        EL axioms to saturate
+     */
+    @Original
+    private void saturateEL(ELSaturation saturation) {
+        Timer t = new Timer();
+        t.start();
+        saturation.saturate();
+        elComplete = saturation.isComplete() && kbFeatures.isELFragment();
+        t.stop();
+        if (config.getverboseOutput()) {
+            config.getLog().print("EL saturation", elComplete ? " (complete)" : " (partial)", DONE_IN).print(t
+                .calcDelta()).print(SECONDS);
+        }
+    }
+
+    /**
+     * @return worker threads of the running classification; null if
+     *         classification is sequential or not running
+     */
+    @Original
+    @Nullable
+    public ClassificationWorkers getClassificationWorkers() {
+        return classificationWorkers;
+    }
+
     /**
      * @return true if in classification
      */
@@ -3488,4 +3998,13 @@ public class TBox implements Serializable {
     public int getnSkipBeforeBlock() {
         return config.getnSkipBeforeBlock();
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        queryReasoners = new ConcurrentLinkedQueue<>();
+        if (kbStatus.ordinal() >= KBCHECKED.ordinal()) {
+            // reasoners were initialised before writing
+            stdReasoner = createWorkerReasoner();
+        }
+    }
 }
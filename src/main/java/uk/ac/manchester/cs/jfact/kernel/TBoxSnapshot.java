@@ -0,0 +1,510 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static uk.ac.manchester.cs.jfact.kernel.KBStatus.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import conformance.Original;
+
+/**
+ * Binary form of the reasoning results of a kernel. The DAG and the role
+ * hierarchies are built again by preprocessing the axioms, so their sections
+ * are compared with those of the loading kernel; the taxonomy, the entries
+ * placed in it by realisation and the caches of related individuals are read
+ * back.
+ * <p>
+ * The layout is the status and consistency of the KB, then, if the KB was
+ * checked, the ROLES and DAG sections, and, if it was classified, the NAMES,
+ * TAXONOMY and REALISATION sections. A section is its tag, its length in bytes
+ * and its content. Integers are big endian; names are UTF-8 bytes after their
+ * length.
+ */
+@Original
+public final class TBoxSnapshot {
+
+    private static final int ROLES = 1;
+    private static final int DAG = 2;
+    private static final int NAMES = 3;
+    private static final int TAXONOMY = 4;
+    private static final int REALISATION = 5;
+    // kinds of taxonomy entries
+    private static final byte TOP = 0;
+    private static final byte BOTTOM = 1;
+    private static final byte CONCEPT = 2;
+    private static final byte INDIVIDUAL = 3;
+
+    /** content of a section */
+    private interface Content {
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private final TBox tbox;
+    /** object roles, then data roles, each starting with the top and bottom role */
+    private final List<Role> roles = new ArrayList<>();
+    private final Map<Role, Integer> roleIndex = new IdentityHashMap<>();
+    /** vertices of the taxonomy in use, bottom and top first */
+    private final List<TaxonomyVertex> vertices = new ArrayList<>();
+    private final Map<TaxonomyVertex, Integer> vertexIndex = new IdentityHashMap<>();
+    /** names of the entries, in the order of their first use */
+    private final Map<String, Integer> names = new LinkedHashMap<>();
+    /** concepts and individuals of the loading kernel by name, built on first use */
+    @Nullable private Map<String, Concept> concepts;
+    @Nullable private Map<String, Individual> individuals;
+
+    private TBoxSnapshot(TBox tbox) {
+        this.tbox = tbox;
+        for (RoleMaster rm : Arrays.asList(tbox.getORM(), tbox.getDRM())) {
+            addRole(rm.getTopRole());
+            addRole(rm.getBotRole());
+            rm.roles().forEach(this::addRole);
+        }
+        tbox.getTaxonomy().vertices().stream().filter(TaxonomyVertex::isInUse).forEach(this::addVertex);
+    }
+
+    private void addRole(Role r) {
+        roleIndex.put(r, Integer.valueOf(roles.size()));
+        roles.add(r);
+    }
+
+    private void addVertex(TaxonomyVertex v) {
+        vertexIndex.put(v, Integer.valueOf(vertices.size()));
+        vertices.add(v);
+    }
+
+    /**
+     * @param kernel
+     *        kernel to save
+     * @param out
+     *        output
+     * @throws IOException
+     *         if writing fails
+     */
+    public static void save(ReasoningKernel kernel, DataOutput out) throws IOException {
+        KBStatus status = kernel.isKBRealised() ? KBREALISED : kernel.isKBClassified() ? KBCLASSIFIED : kernel
+            .isKBPreprocessed() ? KBCHECKED : KBLOADING;
+        out.writeInt(status.ordinal());
+        if (status.ordinal() < KBCHECKED.ordinal()) {
+            return;
+        }
+        TBoxSnapshot s = new TBoxSnapshot(kernel.getTBox());
+        out.writeBoolean(s.tbox.isConsistent());
+        writeSection(out, ROLES, s.section(s::writeRoles));
+        writeSection(out, DAG, s.section(s::writeDag));
+        if (status.ordinal() >= KBCLASSIFIED.ordinal()) {
+            // names are collected while writing the sections that use them
+            byte[] taxonomy = s.section(s::writeTaxonomy);
+            byte[] realisation = s.section(s::writeRealisation);
+            writeSection(out, NAMES, s.section(s::writeNames));
+            writeSection(out, TAXONOMY, taxonomy);
+            writeSection(out, REALISATION, realisation);
+        }
+    }
+
+    /**
+     * bring a kernel loaded with the axioms of the snapshot to the saved
+     * state; the KB is preprocessed and checked for consistency first
+     * 
+     * @param kernel
+     *        kernel to restore
+     * @param in
+     *        buffer positioned at the saved state
+     * @throws IOException
+     *         if the state is corrupted, or does not match the kernel
+     */
+    public static void restore(ReasoningKernel kernel, ByteBuffer in) throws IOException {
+        try {
+            int ordinal = in.getInt();
+            if (ordinal < 0 || ordinal >= KBStatus.values().length) {
+                throw new IOException("unknown KB status " + ordinal);
+            }
+            KBStatus status = KBStatus.values()[ordinal];
+            if (status.ordinal() < KBCHECKED.ordinal()) {
+                return;
+            }
+            boolean consistent = in.get() != 0;
+            if (kernel.isKBConsistent() != consistent) {
+                throw new IOException("the axioms are " + (consistent ? "inconsistent" : "consistent")
+                    + ", unlike those of the snapshot");
+            }
+            TBoxSnapshot s = new TBoxSnapshot(kernel.getTBox());
+            s.verify(section(in, ROLES), s::writeRoles, "ROLES");
+            s.verify(section(in, DAG), s::writeDag, "DAG");
+            if (status.ordinal() >= KBCLASSIFIED.ordinal()) {
+                if (s.vertices.size() != 2) {
+                    throw new IOException("the taxonomy of the loading kernel is not empty");
+                }
+                List<String> entryNames = readNames(section(in, NAMES));
+                s.readTaxonomy(section(in, TAXONOMY), entryNames);
+                s.readRealisation(section(in, REALISATION), entryNames);
+                s.tbox.restoreTaxonomy(status);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("the saved state is truncated", e);
+        }
+    }
+
+    // writing
+
+    private static void writeSection(DataOutput out, int tag, byte[] content) throws IOException {
+        out.writeInt(tag);
+        out.writeInt(content.length);
+        out.write(content);
+    }
+
+    private byte[] section(Content content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        content.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int i : values) {
+            out.writeInt(i);
+        }
+    }
+
+    /**
+     * @param r
+     *        role, or null
+     * @return position of the role in the ROLES section, or -1
+     */
+    private int ref(Role r) {
+        return roleIndex.getOrDefault(r, Integer.valueOf(-1)).intValue();
+    }
+
+    private void writeRoles(DataOutputStream out) throws IOException {
+        out.writeInt(roles.size());
+        for (Role r : roles) {
+            writeString(out, r.getIRI().toString());
+            out.writeBoolean(r.isDataRole());
+            out.writeInt(r.getId());
+            out.writeInt(r.isSynonym() ? ref(ClassifiableEntry.resolveSynonym(r)) : -1);
+            if (r.isSynonym()) {
+                continue;
+            }
+            boolean[] flags = { r.isFunctional(), r.isTransitive(), r.isSymmetric(), r.isAsymmetric(), r
+                .isReflexive(), r.isIrreflexive(), r.isSimple(), r.isDisjoint() };
+            int bits = 0;
+            for (int i = 0; i < flags.length; i++) {
+                if (flags[i]) {
+                    bits |= 1 << i;
+                }
+            }
+            out.writeInt(bits);
+            writeInts(out, r.getAncestor().stream().mapToInt(this::ref).sorted().toArray());
+            out.writeInt(r.getBPDomain());
+            out.writeInt(r.getBPRange());
+        }
+    }
+
+    private void writeDag(DataOutputStream out) throws IOException {
+        DLDag dag = tbox.getDag();
+        int n = dag.finalSize();
+        out.writeInt(n);
+        for (int i = 0; i < n; i++) {
+            out.writeByte(dag.getType(i).ordinal());
+            out.writeInt(dag.getConceptIndex(i));
+            out.writeInt(ref(dag.getRole(i)));
+            out.writeInt(dag.getNumber(i));
+            // the order of the children changes with the statistics
+            int[] children = Arrays.copyOfRange(dag.getChildren(i), dag.getChildBegin(i), dag.getChildEnd(i));
+            Arrays.sort(children);
+            writeInts(out, children);
+        }
+    }
+
+    private void writeNames(DataOutputStream out) throws IOException {
+        out.writeInt(names.size());
+        for (String s : names.keySet()) {
+            writeString(out, s);
+        }
+    }
+
+    private void writeEntry(DataOutputStream out, ClassifiableEntry e) throws IOException {
+        Taxonomy tax = tbox.getTaxonomy();
+        if (e == tax.getTopVertex().getPrimer()) {
+            out.writeByte(TOP);
+        } else if (e == tax.getBottomVertex().getPrimer()) {
+            out.writeByte(BOTTOM);
+        } else {
+            out.writeByte(e instanceof Individual ? INDIVIDUAL : CONCEPT);
+            out.writeInt(names.computeIfAbsent(e.getIRI().toString(), k -> Integer.valueOf(names.size()))
+                .intValue());
+        }
+    }
+
+    private void writeNeighbours(DataOutputStream out, Stream<TaxonomyVertex> neighbours) throws IOException {
+        writeInts(out, neighbours.map(vertexIndex::get).filter(i -> i != null).mapToInt(Integer::intValue)
+            .toArray());
+    }
+
+    private void writeTaxonomy(DataOutputStream out) throws IOException {
+        out.writeInt(vertices.size());
+        for (TaxonomyVertex v : vertices) {
+            List<ClassifiableEntry> entries = new ArrayList<>();
+            entries.add(v.getPrimer());
+            v.synonyms().forEach(entries::add);
+            out.writeInt(entries.size());
+            for (ClassifiableEntry e : entries) {
+                writeEntry(out, e);
+            }
+        }
+        for (TaxonomyVertex v : vertices) {
+            writeNeighbours(out, v.neigh(true));
+            writeNeighbours(out, v.neigh(false));
+        }
+    }
+
+    /**
+     * @param e
+     *        entry
+     * @return true if the entry is placed in a vertex without being one of its
+     *         entries, as realisation does after classification
+     */
+    private boolean isHosted(Concept e) {
+        TaxonomyVertex v = e.getTaxVertex();
+        return v != null && vertexIndex.containsKey(v) && v.getPrimer() != e && v.synonyms().noneMatch(
+            s -> s == e);
+    }
+
+    private void writeRealisation(DataOutputStream out) throws IOException {
+        List<Concept> hosted = Stream.concat(tbox.getConcepts(), tbox.individuals()).filter(this::isHosted)
+            .collect(toList());
+        out.writeInt(hosted.size());
+        for (Concept e : hosted) {
+            writeEntry(out, e);
+            out.writeInt(vertexIndex.get(e.getTaxVertex()).intValue());
+        }
+        List<Individual> related = tbox.individuals().filter(i -> !i.getRelatedCacheRoles().isEmpty()).collect(
+            toList());
+        out.writeInt(related.size());
+        for (Individual i : related) {
+            writeEntry(out, i);
+            out.writeInt(i.getRelatedCacheRoles().size());
+            for (Role r : i.getRelatedCacheRoles()) {
+                out.writeInt(ref(r));
+                List<Individual> cache = i.getRelatedCache(r);
+                out.writeInt(cache.size());
+                for (Individual j : cache) {
+                    writeEntry(out, j);
+                }
+            }
+        }
+    }
+
+    // reading
+
+    private static ByteBuffer section(ByteBuffer in, int tag) throws IOException {
+        int found = in.getInt();
+        if (found != tag) {
+            throw new IOException("expected section " + tag + ", found " + found);
+        }
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("section " + tag + " is truncated");
+        }
+        ByteBuffer section = in.slice();
+        section.limit(length);
+        in.position(in.position() + length);
+        return section;
+    }
+
+    /**
+     * @param in
+     *        section
+     * @param size
+     *        smallest size of an element
+     * @return number of elements that follows, checked against the section
+     *         size
+     * @throws IOException
+     *         if the section cannot hold that many elements
+     */
+    private static int count(ByteBuffer in, int size) throws IOException {
+        int n = in.getInt();
+        if (n < 0 || n > in.remaining() / size) {
+            throw new IOException("count " + n + " exceeds its section");
+        }
+        return n;
+    }
+
+    private static void end(ByteBuffer in) throws IOException {
+        if (in.hasRemaining()) {
+            throw new IOException(in.remaining() + " bytes left at the end of a section");
+        }
+    }
+
+    private void verify(ByteBuffer in, Content content, String what) throws IOException {
+        if (!ByteBuffer.wrap(section(content)).equals(in)) {
+            throw new IOException("the " + what + " section does not match the preprocessed axioms");
+        }
+    }
+
+    private static List<String> readNames(ByteBuffer in) throws IOException {
+        int n = count(in, 4);
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            byte[] bytes = new byte[count(in, 1)];
+            in.get(bytes);
+            list.add(new String(bytes, UTF_8));
+        }
+        end(in);
+        return list;
+    }
+
+    private static String name(ByteBuffer in, List<String> entryNames) throws IOException {
+        int i = in.getInt();
+        if (i < 0 || i >= entryNames.size()) {
+            throw new IOException("unknown name " + i);
+        }
+        return entryNames.get(i);
+    }
+
+    private static <T extends NamedEntry> Map<String, T> byName(Stream<T> entries) {
+        Map<String, T> map = new HashMap<>();
+        entries.forEach(e -> map.put(e.getIRI().toString(), e));
+        return map;
+    }
+
+    private ClassifiableEntry readEntry(ByteBuffer in, List<String> entryNames) throws IOException {
+        byte kind = in.get();
+        switch (kind) {
+            case TOP:
+                return tbox.getTaxonomy().getTopVertex().getPrimer();
+            case BOTTOM:
+                return tbox.getTaxonomy().getBottomVertex().getPrimer();
+            case CONCEPT:
+                if (concepts == null) {
+                    concepts = byName(tbox.getConcepts());
+                }
+                return lookup(concepts, name(in, entryNames), "concept");
+            case INDIVIDUAL:
+                return readIndividual(in, entryNames);
+            default:
+                throw new IOException("unknown kind of entry " + kind);
+        }
+    }
+
+    private Individual readIndividual(ByteBuffer in, List<String> entryNames) throws IOException {
+        if (individuals == null) {
+            individuals = byName(tbox.individuals());
+        }
+        return lookup(individuals, name(in, entryNames), "individual");
+    }
+
+    private static <T> T lookup(Map<String, T> map, String name, String what) throws IOException {
+        T t = map.get(name);
+        if (t == null) {
+            throw new IOException("no " + what + " " + name + " in the loading kernel");
+        }
+        return t;
+    }
+
+    private TaxonomyVertex vertex(int i) throws IOException {
+        if (i < 0 || i >= vertices.size()) {
+            throw new IOException("unknown taxonomy vertex " + i);
+        }
+        return vertices.get(i);
+    }
+
+    private Role role(int i) throws IOException {
+        if (i < 0 || i >= roles.size()) {
+            throw new IOException("unknown role " + i);
+        }
+        return roles.get(i);
+    }
+
+    private void readTaxonomy(ByteBuffer in, List<String> entryNames) throws IOException {
+        int n = count(in, 5);
+        if (n < 2) {
+            throw new IOException("the taxonomy has no top and bottom");
+        }
+        for (int i = 0; i < n; i++) {
+            int entries = count(in, 1);
+            if (entries == 0) {
+                throw new IOException("taxonomy vertex " + i + " has no entries");
+            }
+            ClassifiableEntry primer = readEntry(in, entryNames);
+            TaxonomyVertex v;
+            if (i < 2) {
+                v = vertices.get(i);
+                if (v.getPrimer() != primer) {
+                    throw new IOException("the taxonomy does not start with bottom and top");
+                }
+            } else {
+                v = tbox.getTaxonomy().addVertex(primer);
+                addVertex(v);
+            }
+            for (int j = 1; j < entries; j++) {
+                v.addSynonym(readEntry(in, entryNames));
+            }
+        }
+        for (TaxonomyVertex v : vertices) {
+            for (boolean up : new boolean[] { true, false }) {
+                for (int j = count(in, 4); j > 0; j--) {
+                    v.add(up, vertex(in.getInt()));
+                }
+            }
+        }
+        end(in);
+    }
+
+    private void readRealisation(ByteBuffer in, List<String> entryNames) throws IOException {
+        for (int i = count(in, 5); i > 0; i--) {
+            ClassifiableEntry e = readEntry(in, entryNames);
+            vertex(in.getInt()).setVertexAsHost(e);
+        }
+        for (int i = count(in, 9); i > 0; i--) {
+            if (in.get() != INDIVIDUAL) {
+                throw new IOException("related individuals saved for a concept");
+            }
+            Individual individual = readIndividual(in, entryNames);
+            for (int j = count(in, 8); j > 0; j--) {
+                Role r = role(in.getInt());
+                int n = count(in, 5);
+                List<Individual> cache = new ArrayList<>(n);
+                for (int k = 0; k < n; k++) {
+                    if (in.get() != INDIVIDUAL) {
+                        throw new IOException("a concept saved as a related individual");
+                    }
+                    cache.add(readIndividual(in, entryNames));
+                }
+                if (!individual.hasRelatedCache(r)) {
+                    individual.setRelatedCache(r, cache);
+                }
+            }
+        }
+        end(in);
+    }
+}
@@ -4,6 +4,7 @@ import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import conformance.Original;
@@ -179,6 +180,58 @@ public class Taxonomy implements Serializable {
         clearVisited();
     }
 
+    /**
+     * apply ACTOR to subgraph starting from NODE as defined by flags; same as
+     * getRelativesInfo(), but keeps the visited vertices in a local set rather
+     * than labelling them, so that several readers can walk a complete
+     * taxonomy at the same time.
+     *
+     * @param node
+     *        node
+     * @param actor
+     *        actor
+     * @param needCurrent
+     *        needCurrent
+     * @param onlyDirect
+     *        onlyDirect
+     * @param upDirection
+     *        upDirection
+     */
+    @Original
+    public void getRelativesInfoReadOnly(TaxonomyVertex node, Actor actor, boolean needCurrent, boolean onlyDirect,
+        boolean upDirection) {
+        if (needCurrent && actor.apply(node) && onlyDirect) {
+            return;
+        }
+        List<TaxonomyVertex> queue = new LinkedList<>();
+        node.neigh(upDirection).forEach(queue::add);
+        Set<TaxonomyVertex> visited = new HashSet<>();
+        Set<TaxonomyVertex> pastBoundary = new HashSet<>();
+        while (!queue.isEmpty()) {
+            TaxonomyVertex nextNode = queue.remove(0);
+            if (visited.add(nextNode)) {
+                boolean applied = actor.apply(nextNode);
+                if (applied && onlyDirect) {
+                    nextNode.neigh(upDirection).forEach(boundary -> setAllVisited(boundary, upDirection, pastBoundary,
+                        visited));
+                    continue;
+                }
+                nextNode.neigh(upDirection).filter(v -> actor.applicable(v) || !onlyDirect).forEach(queue::add);
+            }
+        }
+        actor.removePastBoundaries(pastBoundary);
+    }
+
+    private static void setAllVisited(TaxonomyVertex node, boolean direction, Set<TaxonomyVertex> pastBoundary,
+        Set<TaxonomyVertex> visited) {
+        pastBoundary.add(node);
+        visited.add(node);
+        node.neigh(direction).forEach(v -> {
+            visited.add(v);
+            setAllVisited(v, direction, pastBoundary, visited);
+        });
+    }
+
     /**
      * set node NODE as checked within taxonomy
      * 
@@ -261,6 +314,26 @@ public class Taxonomy implements Serializable {
         return o.toString();
     }
 
+    /** @return vertices of the taxonomy, bottom and top first */
+    @Original
+    List<TaxonomyVertex> vertices() {
+        return Collections.unmodifiableList(graph);
+    }
+
+    /**
+     * add a vertex for an entry; the caller links it to its neighbours
+     * 
+     * @param primer
+     *        primer of the new vertex
+     * @return the new vertex
+     */
+    @Original
+    TaxonomyVertex addVertex(ClassifiableEntry primer) {
+        TaxonomyVertex v = new TaxonomyVertex(primer);
+        graph.add(v);
+        return v;
+    }
+
     /**
      * remove node from the taxonomy; assume no references to the node
      * 
@@ -272,6 +345,26 @@ public class Taxonomy implements Serializable {
         node.setInUse(false);
     }
 
+    /**
+     * move the taxonomy to the entries of a new TBox; vertices without entries
+     * there are removed
+     * 
+     * @param map
+     *        map from the entries of the old TBox to the new ones
+     */
+    @Original
+    public void rehost(UnaryOperator<ClassifiableEntry> map) {
+        Set<TaxonomyVertex> unused = new HashSet<>();
+        graph.forEach(v -> {
+            if (!v.isInUse() || !v.rehost(map)) {
+                unused.add(v);
+            }
+        });
+        unused.forEach(TaxonomyVertex::remove);
+        graph.removeIf(unused::contains);
+        current = new TaxonomyVertex();
+    }
+
     /**
      * @return true if taxonomy works in a query mode (no need to insert query
      *         vertex)
@@ -287,7 +380,7 @@ public class Taxonomy implements Serializable {
     public void finalise() {
         // create links from leaf concepts to bottom
         graph.stream().skip(1).forEach(p -> {
-            if (p.noNeighbours(false)) {
+            if (p.isInUse() && p.noNeighbours(false)) {
                 p.addNeighbour(false, getBottomVertex());
                 getBottomVertex().addNeighbour(true, p);
             }
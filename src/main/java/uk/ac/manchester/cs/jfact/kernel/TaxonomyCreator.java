@@ -15,6 +15,7 @@ import javax.annotation.Nullable;
 
 import org.semanticweb.owlapitools.decomposition.Signature;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.helpers.LogAdapter;
 import uk.ac.manchester.cs.jfact.helpers.Templates;
@@ -69,6 +70,29 @@ public class TaxonomyCreator implements Serializable {
         curEntry = p;
     }
 
+    /** @return vertex being built for the current entry */
+    @Original
+    protected TaxonomyVertex current() {
+        return pTax.getCurrent();
+    }
+
+    /**
+     * make the current entry a synonym of SYN
+     * 
+     * @param syn
+     *        syn
+     */
+    @Original
+    protected void addCurrentToSynonym(TaxonomyVertex syn) {
+        pTax.addCurrentToSynonym(syn);
+    }
+
+    /** insert the current vertex into the taxonomy, or merge it to a synonym */
+    @Original
+    protected void finishCurrentNode() {
+        pTax.finishCurrentNode();
+    }
+
     @PortedFrom(file = "TaxonomyCreator.h", name = "classifySynonym")
     protected boolean classifySynonym() {
         return pTax.processSynonym();
@@ -178,7 +202,7 @@ public class TaxonomyCreator implements Serializable {
         // perform main classification
         generalTwoPhaseClassification();
         // create new vertex
-        pTax.finishCurrentNode();
+        finishCurrentNode();
         // clear all labels
         clearLabels();
     }
@@ -315,7 +339,7 @@ public class TaxonomyCreator implements Serializable {
     @PortedFrom(file = "TaxonomyCreator.h", name = "addPossibleParent")
     public void addPossibleParent(@Nullable TaxonomyVertex parent) {
         if (parent != null && isDirectParent(parent)) {
-            pTax.getCurrent().addNeighbour(true, parent);
+            current().addNeighbour(true, parent);
         }
     }
 
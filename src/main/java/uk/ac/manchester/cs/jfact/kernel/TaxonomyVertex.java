@@ -15,7 +15,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -68,6 +70,20 @@ public class TaxonomyVertex implements Serializable {
         setSample(p, true);
     }
 
+    /**
+     * @return detached copy of this vertex: same sample, synonyms and
+     *         neighbours, but the neighbours do not link back to the copy
+     */
+    @Original
+    public TaxonomyVertex copy() {
+        TaxonomyVertex copy = new TaxonomyVertex();
+        copy.sample = sample;
+        copy.synonyms.addAll(synonyms);
+        copy.linksParent.addAll(linksParent);
+        copy.linksChild.addAll(linksChild);
+        return copy;
+    }
+
     /**
      * mark vertex as the one corresponding to a given ENTRY
      * 
@@ -367,6 +383,30 @@ public class TaxonomyVertex implements Serializable {
         setInUse(false);
     }
 
+    /**
+     * replace sample and synonyms with the entries they map to; entries that
+     * map to null are dropped. Flags are reset, as their labels belong to the
+     * previous classifier
+     * 
+     * @param map
+     *        map from the entries of a previous TBox to the current ones
+     * @return false if no entry is left for this vertex
+     */
+    @Original
+    public boolean rehost(UnaryOperator<ClassifiableEntry> map) {
+        initFlags();
+        List<ClassifiableEntry> entries = asList(Stream.concat(Stream.of(sample), synonyms.stream()).map(map)
+            .filter(Objects::nonNull).distinct());
+        synonyms.clear();
+        if (entries.isEmpty()) {
+            sample = null;
+            return false;
+        }
+        setSample(entries.get(0), true);
+        entries.stream().skip(1).forEach(this::addSynonym);
+        return true;
+    }
+
     /** @return true iff the node is in use */
     @PortedFrom(file = "taxVertex.h", name = "isInUse")
     public boolean isInUse() {
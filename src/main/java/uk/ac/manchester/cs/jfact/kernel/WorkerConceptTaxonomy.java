@@ -0,0 +1,210 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
+
+/**
+ * Concept taxonomy search run by a classification worker. The search reads the
+ * taxonomy but does not change it: labels, visited marks and common counts
+ * are kept in the search, the vertex of the classified concept is not linked
+ * to the concept, and the tests run on the worker's own tester. The result is
+ * inserted into the taxonomy by the classifying thread.
+ */
+@Original
+class WorkerConceptTaxonomy extends DLConceptTaxonomy {
+
+    private final DlSatTester reasoner;
+    /** vertex of the classified concept, with its parents and children */
+    private final TaxonomyVertex found = new TaxonomyVertex();
+    /** vertex the classified concept is a synonym of, if any */
+    @Nullable private TaxonomyVertex synonym;
+    private final Map<TaxonomyVertex, Boolean> values = new HashMap<>();
+    private final Set<TaxonomyVertex> visited = new HashSet<>();
+    private final Map<TaxonomyVertex, Integer> commons = new HashMap<>();
+
+    /**
+     * @param creator
+     *        classifying thread's taxonomy creator
+     * @param reasoner
+     *        tester of the worker
+     */
+    WorkerConceptTaxonomy(DLConceptTaxonomy creator, DlSatTester reasoner) {
+        super(creator);
+        this.reasoner = reasoner;
+    }
+
+    /**
+     * find the position of P in the taxonomy; all the told subsumers of P
+     * must be classified
+     *
+     * @param p
+     *        p
+     */
+    void search(Concept p) {
+        classifyEntry(p);
+    }
+
+    /** @return vertex with the parents and children found by the search */
+    TaxonomyVertex getFound() {
+        return found;
+    }
+
+    /** @return vertex the concept is a synonym of, or null */
+    @Nullable
+    TaxonomyVertex getSynonym() {
+        return synonym;
+    }
+
+    @Override
+    protected void setCurrentEntry(ClassifiableEntry p) {
+        found.clear();
+        found.setSample(p, false);
+        found.add(true, pTax.getTopVertex());
+        curEntry = p;
+        synonym = null;
+    }
+
+    @Override
+    protected TaxonomyVertex current() {
+        return found;
+    }
+
+    @Override
+    protected void addCurrentToSynonym(TaxonomyVertex syn) {
+        synonym = syn;
+    }
+
+    @Override
+    protected void finishCurrentNode() {
+        // left to the classifying thread
+    }
+
+    @Override
+    protected boolean classifySynonym() {
+        ClassifiableEntry syn = ClassifiableEntry.resolveSynonym(curEntry);
+        if (!syn.equals(curEntry) && syn.isClassified()) {
+            addCurrentToSynonym(syn.getTaxVertex());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void preClassificationActions() {
+        // progress is reported when the result is inserted
+    }
+
+    @Override
+    protected void clearLabels() {
+        values.clear();
+        visited.clear();
+    }
+
+    @Override
+    public boolean isValued(TaxonomyVertex node) {
+        return values.containsKey(node);
+    }
+
+    @Override
+    public boolean getValue(TaxonomyVertex node) {
+        return values.get(node).booleanValue();
+    }
+
+    @Override
+    public boolean setValue(TaxonomyVertex node, boolean value) {
+        values.put(node, Boolean.valueOf(value));
+        return value;
+    }
+
+    @Override
+    protected void setVisited(TaxonomyVertex v) {
+        visited.add(v);
+    }
+
+    @Override
+    protected boolean isVisited(TaxonomyVertex v) {
+        return visited.contains(v);
+    }
+
+    @Override
+    protected void clearVisited() {
+        visited.clear();
+    }
+
+    @Override
+    protected boolean isCommon(TaxonomyVertex v) {
+        return commons.containsKey(v);
+    }
+
+    @Override
+    protected void setCommon(TaxonomyVertex v) {
+        commons.merge(v, Integer.valueOf(1), Integer::sum);
+    }
+
+    @Override
+    protected void clearCommon(TaxonomyVertex v) {
+        commons.remove(v);
+    }
+
+    @Override
+    protected boolean correctCommon(TaxonomyVertex v, int n) {
+        Integer c = commons.get(v);
+        if (c != null && c.intValue() == n) {
+            return true;
+        }
+        commons.remove(v);
+        return false;
+    }
+
+    @Override
+    protected boolean canSpeculate() {
+        return false;
+    }
+
+    @Override
+    protected boolean isSatisfiable(Concept p) {
+        return initCache(p, false).getState() != ModelCacheState.INVALID;
+    }
+
+    @Override
+    protected ModelCacheInterface initCache(Concept p, boolean sub) {
+        ModelCacheInterface cache = tBox.initCache(p, sub, reasoner);
+        if (cache == null) {
+            throw new ReasonerInternalException("Worker classification of " + p.getIRI()
+                + " needs the nominal reasoner");
+        }
+        return cache;
+    }
+
+    @Override
+    protected ModelCacheState testCachedNonSubsumption(Concept p, Concept q) {
+        return initCache(p, false).canMerge(initCache(q, true));
+    }
+
+    @Nullable
+    @Override
+    protected Boolean getCachedSubHolds(Concept p, Concept q) {
+        // the query result cache is not shared with the workers
+        return null;
+    }
+
+    @Override
+    protected boolean isSubHolds(Concept p, Concept q) {
+        return tBox.isSubHolds(p, q, tBox.buildFeatures(p, q), reasoner);
+    }
+}
@@ -0,0 +1,327 @@
+package uk.ac.manchester.cs.jfact.kernel.el;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.kernel.el.ELSaturation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.owlapitools.decomposition.AxiomWrapper;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.dl.ConceptAnd;
+import uk.ac.manchester.cs.jfact.kernel.dl.ConceptBottom;
+import uk.ac.manchester.cs.jfact.kernel.dl.ConceptName;
+import uk.ac.manchester.cs.jfact.kernel.dl.ConceptObjectExists;
+import uk.ac.manchester.cs.jfact.kernel.dl.ConceptTop;
+import uk.ac.manchester.cs.jfact.kernel.dl.IndividualName;
+import uk.ac.manchester.cs.jfact.kernel.dl.ObjectRoleChain;
+import uk.ac.manchester.cs.jfact.kernel.dl.ObjectRoleName;
+import uk.ac.manchester.cs.jfact.kernel.dl.axioms.*;
+import uk.ac.manchester.cs.jfact.kernel.dl.interfaces.ConceptExpression;
+import uk.ac.manchester.cs.jfact.kernel.dl.interfaces.Expression;
+import uk.ac.manchester.cs.jfact.kernel.dl.interfaces.ObjectRoleExpression;
+import uk.ac.manchester.cs.jfact.visitors.DLAxiomVisitor;
+import uk.ac.manchester.cs.jfact.visitors.DLExpressionVisitorExAdapter;
+
+/**
+ * Translates the axioms of an ontology into the normal form used by
+ * ELSaturation. Axioms outside EL are skipped and make the saturation
+ * incomplete: it then still derives sound subsumptions, but not all of them.
+ */
+@Original
+public class ELNormaliser implements DLAxiomVisitor {
+
+    private final ELSaturation el = new ELSaturation();
+    private final ELChecker checker = new ELChecker();
+    /** names X with C [= X, by C */
+    private final Map<ConceptExpression, Integer> lhsNames = new HashMap<>();
+    /** names X with X [= C, by C */
+    private final Map<ConceptExpression, Integer> rhsNames = new HashMap<>();
+
+    /** checks that an expression is in EL: names, conjunctions, some */
+    private static class ELChecker extends DLExpressionVisitorExAdapter<Boolean> {
+
+        ELChecker() {
+            super(Boolean.FALSE);
+        }
+
+        @Override
+        public Boolean visit(ConceptTop expr) {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public Boolean visit(ConceptBottom expr) {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public Boolean visit(ConceptName expr) {
+            return Boolean.TRUE;
+        }
+
+        @Override
+        public Boolean visit(ConceptAnd expr) {
+            return Boolean.valueOf(expr.getArguments().stream().allMatch(this::isEL));
+        }
+
+        @Override
+        public Boolean visit(ConceptObjectExists expr) {
+            return Boolean.valueOf(isEL(expr.getOR()) && isEL(expr.getConcept()));
+        }
+
+        @Override
+        public Boolean visit(ObjectRoleName expr) {
+            return Boolean.TRUE;
+        }
+
+        boolean isEL(Expression e) {
+            return e.accept(this).booleanValue();
+        }
+    }
+
+    /** @return the normalised axioms; saturation is left to the caller */
+    public ELSaturation getSaturation() {
+        return el;
+    }
+
+    private boolean isEL(Expression e) {
+        return checker.isEL(e);
+    }
+
+    private int role(ObjectRoleExpression r) {
+        return el.roleName(((ObjectRoleName) r).getIRI());
+    }
+
+    /**
+     * @param c
+     *        EL concept
+     * @return name X such that C [= X (and no other subsumptions are implied)
+     */
+    private int lhs(ConceptExpression c) {
+        if (c instanceof ConceptTop) {
+            return TOP;
+        }
+        if (c instanceof ConceptBottom) {
+            return BOTTOM;
+        }
+        if (c instanceof ConceptName) {
+            return el.conceptName(((ConceptName) c).getIRI());
+        }
+        Integer known = lhsNames.get(c);
+        if (known != null) {
+            return known.intValue();
+        }
+        int x;
+        if (c instanceof ConceptAnd) {
+            x = TOP;
+            for (ConceptExpression arg : ((ConceptAnd) c).getArguments()) {
+                int y = lhs(arg);
+                if (x == TOP || y == TOP || x == y) {
+                    x = x == TOP ? y : x;
+                } else {
+                    int z = el.freshConcept();
+                    el.addConjunction(x, y, z);
+                    x = z;
+                }
+            }
+        } else {
+            ConceptObjectExists exists = (ConceptObjectExists) c;
+            x = el.freshConcept();
+            el.addFiller(role(exists.getOR()), lhs(exists.getConcept()), x);
+        }
+        lhsNames.put(c, Integer.valueOf(x));
+        return x;
+    }
+
+    /**
+     * @param c
+     *        EL concept
+     * @return name X such that X [= C
+     */
+    private int rhs(ConceptExpression c) {
+        if (c instanceof ConceptTop) {
+            return TOP;
+        }
+        if (c instanceof ConceptBottom) {
+            return BOTTOM;
+        }
+        if (c instanceof ConceptName) {
+            return el.conceptName(((ConceptName) c).getIRI());
+        }
+        Integer known = rhsNames.get(c);
+        if (known != null) {
+            return known.intValue();
+        }
+        int x = el.freshConcept();
+        rhsNames.put(c, Integer.valueOf(x));
+        sub(x, c);
+        return x;
+    }
+
+    /**
+     * add axioms for A [= C
+     *
+     * @param a
+     *        a
+     * @param c
+     *        EL concept
+     */
+    private void sub(int a, ConceptExpression c) {
+        if (c instanceof ConceptAnd) {
+            ((ConceptAnd) c).getArguments().forEach(arg -> sub(a, arg));
+        } else if (c instanceof ConceptObjectExists) {
+            ConceptObjectExists exists = (ConceptObjectExists) c;
+            el.addExistential(a, role(exists.getOR()), rhs(exists.getConcept()));
+        } else {
+            el.addTold(a, rhs(c));
+        }
+    }
+
+    private List<ConceptExpression> elArguments(List<ConceptExpression> args) {
+        List<ConceptExpression> l = new ArrayList<>(args.size());
+        args.stream().filter(this::isEL).forEach(l::add);
+        if (l.size() < args.size()) {
+            el.setIncomplete();
+        }
+        return l;
+    }
+
+    @Override
+    public void doDefault(AxiomWrapper a) {
+        el.setIncomplete();
+    }
+
+    @Override
+    public void visit(AxiomDeclaration axiom) {
+        Expression e = axiom.getDeclaration();
+        if (e instanceof ConceptName) {
+            el.conceptName(((ConceptName) e).getIRI());
+        } else if (e instanceof IndividualName) {
+            el.individualName(((IndividualName) e).getIRI());
+        } else if (e instanceof ObjectRoleName) {
+            el.roleName(((ObjectRoleName) e).getIRI());
+        }
+    }
+
+    @Override
+    public void visit(AxiomConceptInclusion axiom) {
+        if (isEL(axiom.getSubConcept()) && isEL(axiom.getSupConcept())) {
+            sub(lhs(axiom.getSubConcept()), axiom.getSupConcept());
+        } else {
+            el.setIncomplete();
+        }
+    }
+
+    @Override
+    public void visit(AxiomEquivalentConcepts axiom) {
+        // the EL arguments are still equivalent to each other
+        List<ConceptExpression> args = elArguments(axiom.getArguments());
+        if (args.size() > 1) {
+            for (int i = 0; i < args.size(); i++) {
+                sub(lhs(args.get(i)), args.get((i + 1) % args.size()));
+            }
+        }
+    }
+
+    @Override
+    public void visit(AxiomDisjointConcepts axiom) {
+        List<ConceptExpression> args = elArguments(axiom.getArguments());
+        for (int i = 0; i < args.size(); i++) {
+            for (int j = i + 1; j < args.size(); j++) {
+                el.addConjunction(lhs(args.get(i)), lhs(args.get(j)), BOTTOM);
+            }
+        }
+    }
+
+    @Override
+    public void visit(AxiomDifferentIndividuals axiom) {
+        // without nominals and functional roles individuals can not be
+        // merged, so this has no EL consequences for a consistent ontology
+    }
+
+    @Override
+    public void visit(AxiomEquivalentORoles axiom) {
+        List<ObjectRoleExpression> args = axiom.getArguments();
+        if (!args.stream().allMatch(this::isEL)) {
+            el.setIncomplete();
+            return;
+        }
+        for (int i = 0; i < args.size(); i++) {
+            el.addRoleParent(role(args.get(i)), role(args.get((i + 1) % args.size())));
+        }
+    }
+
+    @Override
+    public void visit(AxiomORoleSubsumption axiom) {
+        if (!isEL(axiom.getRole())) {
+            el.setIncomplete();
+            return;
+        }
+        int sup = role(axiom.getRole());
+        if (axiom.getSubRole() instanceof ObjectRoleName) {
+            el.addRoleParent(role((ObjectRoleName) axiom.getSubRole()), sup);
+        } else if (axiom.getSubRole() instanceof ObjectRoleChain && ((ObjectRoleChain) axiom.getSubRole())
+            .getArguments().stream().allMatch(this::isEL)) {
+            // R1 o ... o Rn [= S as binary chains over fresh roles
+            List<ObjectRoleExpression> args = ((ObjectRoleChain) axiom.getSubRole()).getArguments();
+            int r = role(args.get(0));
+            if (args.size() == 1) {
+                el.addRoleParent(r, sup);
+            }
+            for (int i = 1; i < args.size(); i++) {
+                int t = i == args.size() - 1 ? sup : el.freshRole();
+                el.addChain(r, role(args.get(i)), t);
+                r = t;
+            }
+        } else {
+            el.setIncomplete();
+        }
+    }
+
+    @Override
+    public void visit(AxiomORoleDomain axiom) {
+        if (isEL(axiom.getRole()) && isEL(axiom.getDomain())) {
+            el.addFiller(role(axiom.getRole()), TOP, rhs(axiom.getDomain()));
+        } else {
+            el.setIncomplete();
+        }
+    }
+
+    @Override
+    public void visit(AxiomRoleTransitive axiom) {
+        if (isEL(axiom.getRole())) {
+            int r = role(axiom.getRole());
+            el.addChain(r, r, r);
+        } else {
+            el.setIncomplete();
+        }
+    }
+
+    @Override
+    public void visit(AxiomInstanceOf axiom) {
+        if (axiom.getIndividual() instanceof IndividualName && isEL(axiom.getC())) {
+            sub(el.individualName(((IndividualName) axiom.getIndividual()).getIRI()), axiom.getC());
+        } else {
+            el.setIncomplete();
+        }
+    }
+
+    @Override
+    public void visit(AxiomRelatedTo axiom) {
+        if (axiom.getIndividual() instanceof IndividualName && axiom.getRelatedIndividual() instanceof IndividualName
+            && isEL(axiom.getRelation())) {
+            el.addExistential(el.individualName(((IndividualName) axiom.getIndividual()).getIRI()), role(axiom
+                .getRelation()), el.individualName(((IndividualName) axiom.getRelatedIndividual()).getIRI()));
+        } else {
+            el.setIncomplete();
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package uk.ac.manchester.cs.jfact.kernel.el;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+import org.semanticweb.owlapi.model.IRI;
+
+import conformance.Original;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+import uk.ac.manchester.cs.jfact.kernel.ClassifiableEntry;
+import uk.ac.manchester.cs.jfact.kernel.Individual;
+
+/**
+ * Consequence-based saturation for EL with role hierarchies, role chains and
+ * transitive roles. Axioms are given in normal form (A [= B, A and B [= C, A
+ * [= some R B, some R A [= B, R [= S, R o S [= T) over integer names; the
+ * saturation derives, for every name A, the set S(A) of all names subsuming A
+ * and the existential links between names. Individuals are handled as fresh
+ * names, which is complete for the atomic types of consistent EL ontologies
+ * without nominals.
+ */
+@Original
+public class ELSaturation {
+
+    /** name of TOP */
+    public static final int TOP = 0;
+    /** name of BOTTOM */
+    public static final int BOTTOM = 1;
+    private final Map<IRI, Integer> conceptNames = new HashMap<>();
+    private final Map<IRI, Integer> individualNames = new HashMap<>();
+    private final Map<IRI, Integer> roleNames = new HashMap<>();
+    private int nConcepts = 2;
+    private int nRoles = 0;
+    /** true iff every axiom of the ontology was translated */
+    private boolean complete = true;
+    // normalised axioms
+    /** A -> B for A [= B */
+    private final TIntObjectHashMap<TIntArrayList> told = new TIntObjectHashMap<>();
+    /** A -> B -> C for A and B [= C, stored for both conjuncts */
+    private final TIntObjectHashMap<TIntObjectHashMap<TIntArrayList>> conjunctions = new TIntObjectHashMap<>();
+    /** A -> (R, B) pairs for A [= some R B */
+    private final TIntObjectHashMap<TIntArrayList> existentials = new TIntObjectHashMap<>();
+    /** R -> A -> B for some R A [= B */
+    private final TIntObjectHashMap<TIntObjectHashMap<TIntArrayList>> fillers = new TIntObjectHashMap<>();
+    /** R -> S for R [= S */
+    private final TIntObjectHashMap<TIntArrayList> roleParents = new TIntObjectHashMap<>();
+    /** R -> (S, T) pairs for R o S [= T */
+    private final TIntObjectHashMap<TIntArrayList> chainsByFirst = new TIntObjectHashMap<>();
+    /** S -> (R, T) pairs for R o S [= T */
+    private final TIntObjectHashMap<TIntArrayList> chainsBySecond = new TIntObjectHashMap<>();
+    // saturation state
+    @Nullable private Context[] contexts;
+    /** reflexive transitive closure of the role parents */
+    @Nullable private int[][] superRoles;
+    /** pairs (A, B): B to be added to S(A) */
+    private final TIntArrayList conceptQueue = new TIntArrayList();
+    /** triples (A, R, B): link A -R-> B to be added */
+    private final TIntArrayList linkQueue = new TIntArrayList();
+
+    /** subsumers and links of a single name */
+    private static class Context {
+
+        final RoaringBitmap subsumers = new RoaringBitmap();
+        /** R -> successors */
+        final TIntObjectHashMap<RoaringBitmap> succ = new TIntObjectHashMap<>();
+        /** R -> predecessors */
+        final TIntObjectHashMap<RoaringBitmap> pred = new TIntObjectHashMap<>();
+
+        Context() {}
+    }
+
+    // -- building the axiom set
+    /**
+     * @param iri
+     *        concept name
+     * @return integer name of the concept
+     */
+    public int conceptName(IRI iri) {
+        return conceptNames.computeIfAbsent(iri, x -> Integer.valueOf(nConcepts++)).intValue();
+    }
+
+    /**
+     * @param iri
+     *        individual name
+     * @return integer name standing for the individual
+     */
+    public int individualName(IRI iri) {
+        return individualNames.computeIfAbsent(iri, x -> Integer.valueOf(nConcepts++)).intValue();
+    }
+
+    /**
+     * @param iri
+     *        object role name
+     * @return integer name of the role
+     */
+    public int roleName(IRI iri) {
+        return roleNames.computeIfAbsent(iri, x -> Integer.valueOf(nRoles++)).intValue();
+    }
+
+    /** @return new concept name */
+    public int freshConcept() {
+        return nConcepts++;
+    }
+
+    /** @return new role name */
+    public int freshRole() {
+        return nRoles++;
+    }
+
+    /** record that some axiom could not be translated */
+    public void setIncomplete() {
+        complete = false;
+    }
+
+    /**
+     * @return true iff the axioms represent the whole ontology, so that
+     *         non-subsumptions are entailed as well
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private static void add(TIntObjectHashMap<TIntArrayList> map, int key, int value) {
+        TIntArrayList l = map.get(key);
+        if (l == null) {
+            l = new TIntArrayList(2);
+            map.put(key, l);
+        }
+        l.add(value);
+    }
+
+    private static void add(TIntObjectHashMap<TIntObjectHashMap<TIntArrayList>> map, int key1, int key2,
+        int value) {
+        TIntObjectHashMap<TIntArrayList> m = map.get(key1);
+        if (m == null) {
+            m = new TIntObjectHashMap<>(4);
+            map.put(key1, m);
+        }
+        add(m, key2, value);
+    }
+
+    /**
+     * A [= B
+     *
+     * @param a
+     *        a
+     * @param b
+     *        b
+     */
+    public void addTold(int a, int b) {
+        if (a != b && b != TOP) {
+            add(told, a, b);
+        }
+    }
+
+    /**
+     * A and B [= C
+     *
+     * @param a
+     *        a
+     * @param b
+     *        b
+     * @param c
+     *        c
+     */
+    public void addConjunction(int a, int b, int c) {
+        if (a == b || b == TOP) {
+            addTold(a, c);
+        } else if (a == TOP) {
+            addTold(b, c);
+        } else if (c != TOP) {
+            add(conjunctions, a, b, c);
+            add(conjunctions, b, a, c);
+        }
+    }
+
+    /**
+     * A [= some R B
+     *
+     * @param a
+     *        a
+     * @param r
+     *        r
+     * @param b
+     *        b
+     */
+    public void addExistential(int a, int r, int b) {
+        add(existentials, a, r);
+        add(existentials, a, b);
+    }
+
+    /**
+     * some R A [= B
+     *
+     * @param r
+     *        r
+     * @param a
+     *        a
+     * @param b
+     *        b
+     */
+    public void addFiller(int r, int a, int b) {
+        if (a != BOTTOM && b != TOP) {
+            add(fillers, r, a, b);
+        }
+    }
+
+    /**
+     * R [= S
+     *
+     * @param r
+     *        r
+     * @param s
+     *        s
+     */
+    public void addRoleParent(int r, int s) {
+        if (r != s) {
+            add(roleParents, r, s);
+        }
+    }
+
+    /**
+     * R o S [= T
+     *
+     * @param r
+     *        r
+     * @param s
+     *        s
+     * @param t
+     *        t
+     */
+    public void addChain(int r, int s, int t) {
+        add(chainsByFirst, r, s);
+        add(chainsByFirst, r, t);
+        add(chainsBySecond, s, r);
+        add(chainsBySecond, s, t);
+    }
+
+    // -- saturation
+    /** @return true iff saturate() was called */
+    public boolean isSaturated() {
+        return contexts != null;
+    }
+
+    /** derive all subsumers of all the names in the ontology */
+    public void saturate() {
+        contexts = new Context[nConcepts];
+        int[][] sup = new int[nRoles][];
+        for (int r = 0; r < nRoles; r++) {
+            TIntHashSet closure = new TIntHashSet();
+            collectSuperRoles(r, closure);
+            sup[r] = closure.toArray();
+        }
+        superRoles = sup;
+        activate(TOP);
+        activate(BOTTOM);
+        conceptNames.values().forEach(c -> activate(c.intValue()));
+        individualNames.values().forEach(c -> activate(c.intValue()));
+        while (!conceptQueue.isEmpty() || !linkQueue.isEmpty()) {
+            if (!linkQueue.isEmpty()) {
+                int n = linkQueue.size() - 3;
+                int a = linkQueue.get(n);
+                int r = linkQueue.get(n + 1);
+                int b = linkQueue.get(n + 2);
+                linkQueue.remove(n, 3);
+                processLink(a, r, b);
+            } else {
+                int n = conceptQueue.size() - 2;
+                int a = conceptQueue.get(n);
+                int b = conceptQueue.get(n + 1);
+                conceptQueue.remove(n, 2);
+                processSubsumer(a, b);
+            }
+        }
+    }
+
+    private void collectSuperRoles(int r, TIntHashSet closure) {
+        if (closure.add(r)) {
+            TIntArrayList parents = roleParents.get(r);
+            if (parents != null) {
+                parents.forEach(s -> {
+                    collectSuperRoles(s, closure);
+                    return true;
+                });
+            }
+        }
+    }
+
+    private Context context(int a) {
+        assert contexts != null;
+        return contexts[a];
+    }
+
+    private void activate(int a) {
+        assert contexts != null;
+        if (contexts[a] == null) {
+            contexts[a] = new Context();
+            derive(a, a);
+            derive(a, TOP);
+        }
+    }
+
+    private void derive(int a, int b) {
+        if (!context(a).subsumers.contains(b)) {
+            conceptQueue.add(a);
+            conceptQueue.add(b);
+        }
+    }
+
+    private void deriveAll(int a, @Nullable TIntArrayList bs) {
+        if (bs != null) {
+            bs.forEach(b -> {
+                derive(a, b);
+                return true;
+            });
+        }
+    }
+
+    private void link(int a, int r, int b) {
+        assert superRoles != null;
+        activate(b);
+        for (int s : superRoles[r]) {
+            linkQueue.add(a);
+            linkQueue.add(s);
+            linkQueue.add(b);
+        }
+    }
+
+    private static RoaringBitmap links(TIntObjectHashMap<RoaringBitmap> map, int r) {
+        RoaringBitmap l = map.get(r);
+        if (l == null) {
+            l = new RoaringBitmap();
+            map.put(r, l);
+        }
+        return l;
+    }
+
+    /**
+     * add B to S(A) and apply the rules triggered by it
+     *
+     * @param a
+     *        a
+     * @param b
+     *        b
+     */
+    private void processSubsumer(int a, int b) {
+        Context ctx = context(a);
+        if (!ctx.subsumers.checkedAdd(b)) {
+            return;
+        }
+        if (b == BOTTOM) {
+            // some R BOTTOM [= BOTTOM
+            ctx.pred.forEachValue(l -> {
+                l.forEach((IntConsumer) p -> derive(p, BOTTOM));
+                return true;
+            });
+            return;
+        }
+        deriveAll(a, told.get(b));
+        TIntObjectHashMap<TIntArrayList> conj = conjunctions.get(b);
+        if (conj != null) {
+            conj.forEachEntry((c, l) -> {
+                if (ctx.subsumers.contains(c)) {
+                    deriveAll(a, l);
+                }
+                return true;
+            });
+        }
+        TIntArrayList exists = existentials.get(b);
+        if (exists != null) {
+            for (int i = 0; i < exists.size(); i += 2) {
+                link(a, exists.get(i), exists.get(i + 1));
+            }
+        }
+        ctx.pred.forEachEntry((r, l) -> {
+            TIntObjectHashMap<TIntArrayList> f = fillers.get(r);
+            TIntArrayList sups = f == null ? null : f.get(b);
+            if (sups != null) {
+                l.forEach((IntConsumer) p -> deriveAll(p, sups));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * add the link A -R-> B and apply the rules triggered by it
+     *
+     * @param a
+     *        a
+     * @param r
+     *        r
+     * @param b
+     *        b
+     */
+    private void processLink(int a, int r, int b) {
+        if (!links(context(a).succ, r).checkedAdd(b)) {
+            return;
+        }
+        Context target = context(b);
+        links(target.pred, r).add(a);
+        if (target.subsumers.contains(BOTTOM)) {
+            derive(a, BOTTOM);
+            return;
+        }
+        TIntObjectHashMap<TIntArrayList> f = fillers.get(r);
+        if (f != null) {
+            if (f.size() < target.subsumers.getCardinality()) {
+                f.forEachEntry((c, l) -> {
+                    if (target.subsumers.contains(c)) {
+                        deriveAll(a, l);
+                    }
+                    return true;
+                });
+            } else {
+                target.subsumers.forEach((IntConsumer) c -> deriveAll(a, f.get(c)));
+            }
+        }
+        // R o S [= T: A -T-> C for all B -S-> C
+        TIntArrayList chains = chainsByFirst.get(r);
+        if (chains != null) {
+            for (int i = 0; i < chains.size(); i += 2) {
+                int t = chains.get(i + 1);
+                RoaringBitmap next = target.succ.get(chains.get(i));
+                if (next != null) {
+                    next.forEach((IntConsumer) c -> link(a, t, c));
+                }
+            }
+        }
+        // S o R [= T: C -T-> B for all C -S-> A
+        chains = chainsBySecond.get(r);
+        if (chains != null) {
+            for (int i = 0; i < chains.size(); i += 2) {
+                int t = chains.get(i + 1);
+                RoaringBitmap prev = context(a).pred.get(chains.get(i));
+                if (prev != null) {
+                    prev.forEach((IntConsumer) c -> link(c, t, b));
+                }
+            }
+        }
+    }
+
+    // -- queries
+    /**
+     * @param p
+     *        entry
+     * @return integer name of the entry, or -1 if the entry is not known
+     */
+    private int name(ClassifiableEntry p) {
+        if (p.isTop()) {
+            return TOP;
+        }
+        if (p.isBottom()) {
+            return BOTTOM;
+        }
+        Integer n = (p instanceof Individual ? individualNames : conceptNames).get(p.getIRI());
+        return n == null ? -1 : n.intValue();
+    }
+
+    /**
+     * @param p
+     *        entry
+     * @return true iff the saturation has derived the subsumers of P
+     */
+    public boolean isKnown(ClassifiableEntry p) {
+        return contexts != null && name(p) >= 0;
+    }
+
+    /**
+     * @param p
+     *        known entry
+     * @param q
+     *        known entry
+     * @return true iff P [= Q was derived
+     */
+    public boolean isSubsumedBy(ClassifiableEntry p, ClassifiableEntry q) {
+        RoaringBitmap s = context(name(p)).subsumers;
+        return s.contains(BOTTOM) || s.contains(name(q));
+    }
+
+    /**
+     * @param p
+     *        known entry
+     * @return true iff P [= BOTTOM was derived
+     */
+    public boolean isUnsatisfiable(ClassifiableEntry p) {
+        return context(name(p)).subsumers.contains(BOTTOM);
+    }
+
+    /**
+     * @param p
+     *        known entry
+     * @return true iff TOP [= P was derived
+     */
+    public boolean isEquivalentToTop(ClassifiableEntry p) {
+        return context(TOP).subsumers.contains(name(p));
+    }
+}
@@ -0,0 +1,302 @@
+package uk.ac.manchester.cs.jfact.kernel.metrics;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
+
+/**
+ * Cumulative, thread safe metrics listener. Counters and log2 histograms are
+ * kept since creation or the last {@link #reset()}, and can be read as maps
+ * with stable keys or as a JSON document, for export to monitoring systems.
+ */
+public class MetricsCollector implements MetricsListener {
+
+    private final TestMetrics sat = new TestMetrics("sat");
+    private final TestMetrics sub = new TestMetrics("sub");
+    private final LongAdder[] subsumptions = adders(SubsumptionOutcome.values().length);
+    private final LongAdder[] nodeCache = adders(ModelCacheState.values().length);
+    private final LongAdder[] queryCache = adders(2);
+    private final LongAdder sharedQueries = new LongAdder();
+    private final LongAdder workerTests = new LongAdder();
+    private final LongAdder[] workerSearches = adders(2);
+    private final LongAdder[] successorMerges = adders(2);
+    private final LongAdder[] modelCacheEvictions = adders(2);
+    private final LongAdder[] phaseCount = adders(ReasoningPhase.values().length);
+    private final LongAdder[] phaseMillis = adders(ReasoningPhase.values().length);
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] toReturn = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            toReturn[i] = new LongAdder();
+        }
+        return toReturn;
+    }
+
+    @Override
+    public void satTest(SatTestMetrics metrics) {
+        (metrics.isSubsumption() ? sub : sat).add(metrics);
+    }
+
+    @Override
+    public void subsumptionTest(SubsumptionOutcome outcome) {
+        subsumptions[outcome.ordinal()].increment();
+    }
+
+    @Override
+    public void nodeCacheTest(ModelCacheState state) {
+        nodeCache[state.ordinal()].increment();
+    }
+
+    @Override
+    public void queryCacheTest(boolean hit) {
+        queryCache[hit ? 0 : 1].increment();
+    }
+
+    @Override
+    public void sharedQuery() {
+        sharedQueries.increment();
+    }
+
+    @Override
+    public void workerTest() {
+        workerTests.increment();
+    }
+
+    @Override
+    public void workerSearch(boolean inserted) {
+        workerSearches[inserted ? 0 : 1].increment();
+    }
+
+    @Override
+    public void successorMerge(boolean merged) {
+        successorMerges[merged ? 0 : 1].increment();
+    }
+
+    @Override
+    public void modelCacheEviction(long bytes) {
+        modelCacheEvictions[0].increment();
+        modelCacheEvictions[1].add(bytes);
+    }
+
+    @Override
+    public void phase(ReasoningPhase phase, long millis) {
+        phaseCount[phase.ordinal()].increment();
+        phaseMillis[phase.ordinal()].add(millis);
+    }
+
+    /** clear all counters and histograms */
+    public void reset() {
+        sat.reset();
+        sub.reset();
+        sharedQueries.reset();
+        workerTests.reset();
+        for (LongAdder[] a : new LongAdder[][] { subsumptions, nodeCache, queryCache, workerSearches, successorMerges,
+            modelCacheEvictions, phaseCount, phaseMillis }) {
+            for (LongAdder l : a) {
+                l.reset();
+            }
+        }
+    }
+
+    /**
+     * @return current counter values, keyed by metric name; e.g.,
+     *         {@code sat.tests}, {@code sub.state.restores},
+     *         {@code subsumption.cached_negative}, {@code cache.valid},
+     *         {@code querycache.hits}, {@code phase.classification.millis}
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> toReturn = new LinkedHashMap<>();
+        sat.counters(toReturn);
+        sub.counters(toReturn);
+        long tested = 0;
+        long avoided = 0;
+        for (SubsumptionOutcome o : SubsumptionOutcome.values()) {
+            long n = subsumptions[o.ordinal()].sum();
+            toReturn.put("subsumption." + o.key(), Long.valueOf(n));
+            if (o.isTested()) {
+                tested += n;
+            } else {
+                avoided += n;
+            }
+        }
+        toReturn.put("subsumption.tested", Long.valueOf(tested));
+        toReturn.put("subsumption.avoided", Long.valueOf(avoided));
+        for (ModelCacheState s : ModelCacheState.values()) {
+            toReturn.put("cache." + s.name().toLowerCase(), Long.valueOf(nodeCache[s.ordinal()].sum()));
+        }
+        toReturn.put("querycache.hits", Long.valueOf(queryCache[0].sum()));
+        toReturn.put("querycache.misses", Long.valueOf(queryCache[1].sum()));
+        toReturn.put("query.shared", Long.valueOf(sharedQueries.sum()));
+        toReturn.put("workers.tests", Long.valueOf(workerTests.sum()));
+        toReturn.put("workers.inserted", Long.valueOf(workerSearches[0].sum()));
+        toReturn.put("workers.deferred", Long.valueOf(workerSearches[1].sum()));
+        toReturn.put("modelcache.successors.merged", Long.valueOf(successorMerges[0].sum()));
+        toReturn.put("modelcache.successors.failed", Long.valueOf(successorMerges[1].sum()));
+        toReturn.put("modelcache.evictions", Long.valueOf(modelCacheEvictions[0].sum()));
+        toReturn.put("modelcache.evicted.bytes", Long.valueOf(modelCacheEvictions[1].sum()));
+        for (ReasoningPhase p : ReasoningPhase.values()) {
+            toReturn.put("phase." + p.key() + ".count", Long.valueOf(phaseCount[p.ordinal()].sum()));
+            toReturn.put("phase." + p.key() + ".millis", Long.valueOf(phaseMillis[p.ordinal()].sum()));
+        }
+        return toReturn;
+    }
+
+    /**
+     * @return current histograms, keyed by metric name ({@code sat.micros},
+     *         {@code sat.depth}, {@code sat.nodes} and the same for
+     *         {@code sub}); each histogram maps the inclusive upper bound of
+     *         every non empty power of two bucket to its count
+     */
+    public Map<String, Map<Long, Long>> getHistograms() {
+        Map<String, Map<Long, Long>> toReturn = new LinkedHashMap<>();
+        sat.histograms(toReturn);
+        sub.histograms(toReturn);
+        return toReturn;
+    }
+
+    /** @return counters and histograms as a JSON object */
+    public String toJson() {
+        StringBuilder b = new StringBuilder("{\"counters\":{");
+        String sep = "";
+        for (Map.Entry<String, Long> e : getCounters().entrySet()) {
+            b.append(sep).append('"').append(e.getKey()).append("\":").append(e.getValue());
+            sep = ",";
+        }
+        b.append("},\"histograms\":{");
+        sep = "";
+        for (Map.Entry<String, Map<Long, Long>> e : getHistograms().entrySet()) {
+            b.append(sep).append('"').append(e.getKey()).append("\":{");
+            String inner = "";
+            for (Map.Entry<Long, Long> h : e.getValue().entrySet()) {
+                b.append(inner).append('"').append(h.getKey()).append("\":").append(h.getValue());
+                inner = ",";
+            }
+            b.append('}');
+            sep = ",";
+        }
+        return b.append("}}").toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    /** counters and histograms for one kind of tableau test */
+    private static class TestMetrics implements Serializable {
+
+        private final String prefix;
+        private final LongAdder tests = new LongAdder();
+        private final LongAdder satisfiable = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder tacticCalls = new LongAdder();
+        private final LongAdder stateSaves = new LongAdder();
+        private final LongAdder stateRestores = new LongAdder();
+        private final LongAdder cacheTries = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong maxDepth = new AtomicLong();
+        private final AtomicLong maxNodes = new AtomicLong();
+        private final Histogram micros = new Histogram();
+        private final Histogram depth = new Histogram();
+        private final Histogram nodes = new Histogram();
+
+        TestMetrics(String prefix) {
+            this.prefix = prefix;
+        }
+
+        void add(SatTestMetrics m) {
+            tests.increment();
+            if (m.isSatisfiable()) {
+                satisfiable.increment();
+            }
+            nanos.add(m.getNanos());
+            tacticCalls.add(m.getTacticCalls());
+            stateSaves.add(m.getStateSaves());
+            stateRestores.add(m.getStateRestores());
+            cacheTries.add(m.getCacheTries());
+            max(maxNanos, m.getNanos());
+            max(maxDepth, m.getMaxBranchingLevel());
+            max(maxNodes, m.getPeakGraphSize());
+            micros.add(m.getNanos() / 1000);
+            depth.add(m.getMaxBranchingLevel());
+            nodes.add(m.getPeakGraphSize());
+        }
+
+        private static void max(AtomicLong max, long value) {
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+
+        void reset() {
+            for (LongAdder l : new LongAdder[] { tests, satisfiable, nanos, tacticCalls, stateSaves, stateRestores,
+                cacheTries }) {
+                l.reset();
+            }
+            maxNanos.set(0);
+            maxDepth.set(0);
+            maxNodes.set(0);
+            micros.reset();
+            depth.reset();
+            nodes.reset();
+        }
+
+        void counters(Map<String, Long> map) {
+            map.put(prefix + ".tests", Long.valueOf(tests.sum()));
+            map.put(prefix + ".satisfiable", Long.valueOf(satisfiable.sum()));
+            map.put(prefix + ".nanos", Long.valueOf(nanos.sum()));
+            map.put(prefix + ".nanos.max", Long.valueOf(maxNanos.get()));
+            map.put(prefix + ".depth.max", Long.valueOf(maxDepth.get()));
+            map.put(prefix + ".nodes.max", Long.valueOf(maxNodes.get()));
+            map.put(prefix + ".tactic.calls", Long.valueOf(tacticCalls.sum()));
+            map.put(prefix + ".state.saves", Long.valueOf(stateSaves.sum()));
+            map.put(prefix + ".state.restores", Long.valueOf(stateRestores.sum()));
+            map.put(prefix + ".cache.tries", Long.valueOf(cacheTries.sum()));
+        }
+
+        void histograms(Map<String, Map<Long, Long>> map) {
+            map.put(prefix + ".micros", micros.buckets());
+            map.put(prefix + ".depth", depth.buckets());
+            map.put(prefix + ".nodes", nodes.buckets());
+        }
+    }
+
+    /** histogram with power of two buckets: 0, 1, 2-3, 4-7, ... */
+    private static class Histogram implements Serializable {
+
+        private final AtomicLongArray counts = new AtomicLongArray(Long.SIZE);
+
+        void add(long value) {
+            counts.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, value)));
+        }
+
+        void reset() {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+        }
+
+        Map<Long, Long> buckets() {
+            Map<Long, Long> toReturn = new TreeMap<>();
+            for (int i = 0; i < counts.length(); i++) {
+                long n = counts.get(i);
+                if (n > 0) {
+                    toReturn.put(Long.valueOf((1L << i) - 1), Long.valueOf(n));
+                }
+            }
+            return toReturn;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package uk.ac.manchester.cs.jfact.kernel.metrics;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
+
+/**
+ * Receives reasoning metrics as they are produced. Set an instance with
+ * {@link uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration#setMetricsListener(MetricsListener)};
+ * when no listener is set, no metrics are computed. Calls are made on the
+ * reasoning thread, so implementations should be quick and, if the
+ * configuration is shared between reasoners, thread safe.
+ * {@link MetricsCollector} is a cumulative implementation.
+ */
+public interface MetricsListener extends Serializable {
+
+    /**
+     * called after each satisfiability or subsumption tableau test
+     * 
+     * @param metrics
+     *        metrics for the test
+     */
+    default void satTest(SatTestMetrics metrics) {}
+
+    /**
+     * called for each subsumption test during classification, tested or
+     * avoided
+     * 
+     * @param outcome
+     *        how the test was answered
+     */
+    default void subsumptionTest(SubsumptionOutcome outcome) {}
+
+    /**
+     * called each time the model caches of a completion graph node label
+     * are merged, to decide whether the node can be cached
+     * 
+     * @param state
+     *        VALID (cached as satisfiable), INVALID (cached clash) or FAILED
+     *        (node could not be cached)
+     */
+    default void nodeCacheTest(ModelCacheState state) {}
+
+    /**
+     * called each time the query result cache is looked up
+     * 
+     * @param hit
+     *        true if the result was in the cache
+     */
+    default void queryCacheTest(boolean hit) {}
+
+    /**
+     * called each time a satisfiability query is run on a pooled reasoner,
+     * i.e., without locking the TBox against other such queries
+     */
+    default void sharedQuery() {}
+
+    /**
+     * called each time a classification worker runs a tableau test, see
+     * JFactReasonerConfiguration.setClassificationThreads()
+     */
+    default void workerTest() {}
+
+    /**
+     * called each time the position of a concept found by a classification
+     * worker is inserted into the taxonomy, or the concept is left to a later
+     * search because it might be related to a concept inserted meanwhile
+     * 
+     * @param inserted
+     *        true if the position was inserted
+     */
+    default void workerSearch(boolean inserted) {}
+
+    /**
+     * called each time the kept successors of two model caches are checked
+     * against the \A restrictions of the other one, see
+     * JFactReasonerConfiguration.setFullModelCacheSize()
+     * 
+     * @param merged
+     *        true if all the successors merged with the restrictions
+     */
+    default void successorMerge(boolean merged) {}
+
+    /**
+     * called each time a model cache is dropped to keep the caches within
+     * their memory budget
+     * 
+     * @param bytes
+     *        estimated size of the dropped cache
+     */
+    default void modelCacheEviction(long bytes) {}
+
+    /**
+     * called at the end of a reasoning phase
+     * 
+     * @param phase
+     *        phase
+     * @param millis
+     *        time spent in the phase
+     */
+    default void phase(ReasoningPhase phase, long millis) {}
+}
@@ -0,0 +1,136 @@
+package uk.ac.manchester.cs.jfact.kernel.metrics;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/** metrics of a single satisfiability or subsumption tableau test. */
+public class SatTestMetrics implements Serializable {
+
+    private final boolean subsumption;
+    private final boolean satisfiable;
+    @Nullable private final IRI concept;
+    @Nullable private final IRI superConcept;
+    private final long nanos;
+    private final int maxBranchingLevel;
+    private final int peakGraphSize;
+    private final int tacticCalls;
+    private final int stateSaves;
+    private final int stateRestores;
+    private final int cacheTries;
+
+    /**
+     * @param subsumption
+     *        true for subsumption tests
+     * @param satisfiable
+     *        tableau result
+     * @param concept
+     *        tested concept, null if not a named concept
+     * @param superConcept
+     *        candidate subsumer for subsumption tests, null otherwise
+     * @param nanos
+     *        time spent in the test
+     * @param maxBranchingLevel
+     *        deepest branching level reached
+     * @param peakGraphSize
+     *        maximal number of completion graph nodes
+     * @param tacticCalls
+     *        number of tactic applications
+     * @param stateSaves
+     *        number of branching state saves
+     * @param stateRestores
+     *        number of branching state restores (backtracks)
+     * @param cacheTries
+     *        number of node caching attempts
+     */
+    public SatTestMetrics(boolean subsumption, boolean satisfiable, @Nullable IRI concept, @Nullable IRI superConcept,
+        long nanos, int maxBranchingLevel, int peakGraphSize, int tacticCalls, int stateSaves, int stateRestores,
+        int cacheTries) {
+        this.subsumption = subsumption;
+        this.satisfiable = satisfiable;
+        this.concept = concept;
+        this.superConcept = superConcept;
+        this.nanos = nanos;
+        this.maxBranchingLevel = maxBranchingLevel;
+        this.peakGraphSize = peakGraphSize;
+        this.tacticCalls = tacticCalls;
+        this.stateSaves = stateSaves;
+        this.stateRestores = stateRestores;
+        this.cacheTries = cacheTries;
+    }
+
+    /** @return true for subsumption tests, false for satisfiability tests */
+    public boolean isSubsumption() {
+        return subsumption;
+    }
+
+    /**
+     * @return tableau result; for subsumption tests, false means the
+     *         subsumption holds
+     */
+    public boolean isSatisfiable() {
+        return satisfiable;
+    }
+
+    /** @return tested concept, null if not a named concept */
+    @Nullable
+    public IRI getConcept() {
+        return concept;
+    }
+
+    /** @return candidate subsumer, null for satisfiability tests */
+    @Nullable
+    public IRI getSuperConcept() {
+        return superConcept;
+    }
+
+    /** @return time spent in the test */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /** @return deepest branching level reached (backtracking depth) */
+    public int getMaxBranchingLevel() {
+        return maxBranchingLevel;
+    }
+
+    /** @return maximal number of completion graph nodes */
+    public int getPeakGraphSize() {
+        return peakGraphSize;
+    }
+
+    /** @return number of tactic applications */
+    public int getTacticCalls() {
+        return tacticCalls;
+    }
+
+    /** @return number of branching state saves */
+    public int getStateSaves() {
+        return stateSaves;
+    }
+
+    /** @return number of branching state restores */
+    public int getStateRestores() {
+        return stateRestores;
+    }
+
+    /** @return number of node caching attempts */
+    public int getCacheTries() {
+        return cacheTries;
+    }
+
+    @Override
+    public String toString() {
+        return (subsumption ? "sub(" + concept + ", " + superConcept + ")" : "sat(" + concept + ")") + '='
+            + satisfiable + " in " + nanos + "ns, depth " + maxBranchingLevel + ", nodes " + peakGraphSize
+            + ", tactics " + tacticCalls + ", saves " + stateSaves + ", restores " + stateRestores
+            + ", cache tries " + cacheTries;
+    }
+}
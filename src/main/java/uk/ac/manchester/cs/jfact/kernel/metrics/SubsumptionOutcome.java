@@ -0,0 +1,51 @@
+package uk.ac.manchester.cs.jfact.kernel.metrics;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+
+/** the ways a subsumption test during classification can be answered. */
+public enum SubsumptionOutcome {
+    /** tableau test run, subsumption holds */
+    TESTED_POSITIVE(true),
+    /** tableau test run, subsumption does not hold */
+    TESTED_NEGATIVE(true),
+    /** tableau test run speculatively by a classification worker, holds */
+    SPECULATED_POSITIVE(true),
+    /** tableau test run speculatively by a classification worker, fails */
+    SPECULATED_NEGATIVE(true),
+    /** avoided: model caches prove subsumption */
+    CACHED_POSITIVE(false),
+    /** avoided: model caches merge, so no subsumption */
+    CACHED_NEGATIVE(false),
+    /** avoided: sorted reasoning proves non-subsumption */
+    SORTED_NEGATIVE(false),
+    /** avoided: candidate not in the module */
+    MODULE_NEGATIVE(false),
+    /** avoided: EL saturation proves subsumption */
+    SATURATION_POSITIVE(false),
+    /** avoided: EL saturation of the whole ontology proves non-subsumption */
+    SATURATION_NEGATIVE(false),
+    /** avoided: primitive candidate not in the model of the concept */
+    MODEL_NEGATIVE(false),
+    /** avoided: result of an earlier test kept by the query result cache */
+    QUERY_CACHED(false);
+
+    private final boolean tested;
+
+    SubsumptionOutcome(boolean tested) {
+        this.tested = tested;
+    }
+
+    /** @return true if a tableau test was needed */
+    public boolean isTested() {
+        return tested;
+    }
+
+    /** @return name used in metric keys */
+    public String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,2 @@
+@javax.annotation.ParametersAreNonnullByDefault
+package uk.ac.manchester.cs.jfact.kernel.metrics;
@@ -8,10 +8,20 @@ package uk.ac.manchester.cs.jfact.kernel.modelcaches;
 import static uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState.*;
 import static uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheType.IAN;
 
-import java.util.stream.Stream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
 
 import org.roaringbitmap.RoaringBitmap;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.chainsaw.FastSet;
 import uk.ac.manchester.cs.chainsaw.FastSetFactory;
@@ -19,6 +29,7 @@ import uk.ac.manchester.cs.jfact.helpers.DLVertex;
 import uk.ac.manchester.cs.jfact.helpers.LogAdapter;
 import uk.ac.manchester.cs.jfact.helpers.UnreachableSituationException;
 import uk.ac.manchester.cs.jfact.kernel.*;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsListener;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 
 /** model cache Ian (Horrocks) */
@@ -43,21 +54,34 @@ public class ModelCacheIan extends ModelCacheInterface {
      */
     @PortedFrom(file = "modelCacheIan.h", name = "negNConcepts") private final RoaringBitmap negNConcepts = new RoaringBitmap();
     /** extra det-lly concepts that are (partial) Simple Rule applications */
-    @PortedFrom(file = "modelCacheIan.h", name = "extraDConcepts") private final FastSet extraDConcepts = FastSetFactory
+    @PortedFrom(file = "modelCacheIan.h", name = "extraDConcepts") private transient FastSet extraDConcepts = FastSetFactory
         .create();
     /** extra non-det concepts that are (partial) Simple Rule applications */
-    @PortedFrom(file = "modelCacheIan.h", name = "extraNConcepts") private final FastSet extraNConcepts = FastSetFactory
+    @PortedFrom(file = "modelCacheIan.h", name = "extraNConcepts") private transient FastSet extraNConcepts = FastSetFactory
         .create();
     /** role names that are labels of the outgoing edges from the root node */
-    @PortedFrom(file = "modelCacheIan.h", name = "existsRoles") private final FastSet existsRoles = FastSetFactory
+    @PortedFrom(file = "modelCacheIan.h", name = "existsRoles") private transient FastSet existsRoles = FastSetFactory
         .create();
     /** role names that appears in the \A restrictions in the root node */
-    @PortedFrom(file = "modelCacheIan.h", name = "forallRoles") private final FastSet forallRoles = FastSetFactory
+    @PortedFrom(file = "modelCacheIan.h", name = "forallRoles") private transient FastSet forallRoles = FastSetFactory
         .create();
     /** role names that appears in the atmost restrictions in the root node */
-    @PortedFrom(file = "modelCacheIan.h", name = "funcRoles") private final FastSet funcRoles = FastSetFactory.create();
+    @PortedFrom(file = "modelCacheIan.h", name = "funcRoles") private transient FastSet funcRoles = FastSetFactory
+        .create();
     /** current state of cache model; recalculates on every change */
     @PortedFrom(file = "modelCacheIan.h", name = "curState") private ModelCacheState curState;
+    // full model part: successors of the root and fillers of its \A
+    // restrictions, to check the edges whose roles meet in a merge
+    /** true iff every edge and every \A restriction of the root is known */
+    @Original private boolean full = true;
+    /** cached deterministic successors of the root node */
+    @Original private final List<Edge> successors = new ArrayList<>();
+    /** \A restrictions of the root node with the caches of their fillers */
+    @Original private final List<Edge> restrictions = new ArrayList<>();
+    /** exists roles of the edges that are not among the successors */
+    @Original private transient FastSet opaqueExistsRoles = FastSetFactory.create();
+    /** forall roles of the restrictions that are not among the restrictions */
+    @Original private transient FastSet opaqueForallRoles = FastSetFactory.create();
     // XXX these two fields should be used somehow
     private final int nC;
     private final int nR;
@@ -84,6 +108,46 @@ public class ModelCacheIan extends ModelCacheInterface {
         this(flagNominals, nC, nR, simpleRules);
         initCacheByLabel(heap, p);
         initRolesFromArcs(p);
+        full = false;
+    }
+
+    /**
+     * Create cache model of given CompletionTree using given HEAP, keeping
+     * the deterministic subtrees of the node up to a given number of nodes
+     * 
+     * @param heap
+     *        heap
+     * @param p
+     *        p
+     * @param flagNominals
+     *        flagNominals
+     * @param nC
+     *        nC
+     * @param nR
+     *        nR
+     * @param simpleRules
+     *        simpleRules
+     * @param nodes
+     *        number of nodes that can still be kept in the cache
+     */
+    @Original
+    public ModelCacheIan(DLDag heap, DlCompletionTree p, boolean flagNominals, int nC, int nR,
+        JFactReasonerConfiguration simpleRules, AtomicInteger nodes) {
+        this(flagNominals, nC, nR, simpleRules);
+        initCacheByLabel(heap, p);
+        initRestrictions(heap, p.label().getLabel(false));
+        initRestrictions(heap, p.label().getLabel(true));
+        for (DlCompletionTreeArc arc : p.getNeighbour()) {
+            if (!arc.isIBlocked()) {
+                addExistsRole(arc.getRole());
+                if (isCacheableSuccessor(p, arc) && nodes.decrementAndGet() >= 0) {
+                    successors.add(new Edge(arc.getRole(), new ModelCacheIan(heap, arc.getArcEnd(), flagNominals, nC,
+                        nR, simpleRules, nodes)));
+                } else {
+                    addOpaqueExistsRole(arc.getRole());
+                }
+            }
+        }
     }
 
     /**
@@ -113,8 +177,11 @@ public class ModelCacheIan extends ModelCacheInterface {
      *        start
      */
     @PortedFrom(file = "modelCacheIan.h", name = "processLabelInterval")
-    private void processLabelInterval(DLDag dlHeap, Stream<ConceptWDep> start) {
-        start.forEach(p -> processConcept(dlHeap.get(p.getConcept()), p.getConcept() > 0, p.getDep().isEmpty()));
+    private void processLabelInterval(DLDag dlHeap, CWDArray start) {
+        for (int i = 0; i < start.size(); i++) {
+            int p = start.getConcept(i);
+            processConcept(dlHeap.get(p), p > 0, start.getDep(i).isEmpty());
+        }
     }
 
     /**
@@ -127,8 +194,8 @@ public class ModelCacheIan extends ModelCacheInterface {
      */
     @PortedFrom(file = "modelCacheIan.h", name = "initCacheByLabel")
     private void initCacheByLabel(DLDag dlHeap, DlCompletionTree pCT) {
-        processLabelInterval(dlHeap, pCT.simpleConcepts().stream());
-        processLabelInterval(dlHeap, pCT.complexConcepts().stream());
+        processLabelInterval(dlHeap, pCT.label().getLabel(false));
+        processLabelInterval(dlHeap, pCT.label().getLabel(true));
     }
 
     @Override
@@ -137,18 +204,23 @@ public class ModelCacheIan extends ModelCacheInterface {
         return curState;
     }
 
+    /**
+     * @param pos
+     *        pos
+     * @return D-concepts wrt polarity, by concept index
+     */
     @PortedFrom(file = "modelCacheIan.h", name = "getDConcepts")
-    private RoaringBitmap getDConcepts(boolean pos) {
+    public RoaringBitmap getDConcepts(boolean pos) {
         return pos ? posDConcepts : negDConcepts;
     }
 
     /**
      * @param pos
      *        pos
-     * @return N-concepts wrt polarity
+     * @return N-concepts wrt polarity, by concept index
      */
     @PortedFrom(file = "modelCacheIan.h", name = "getNConcepts")
-    private RoaringBitmap getNConcepts(boolean pos) {
+    public RoaringBitmap getNConcepts(boolean pos) {
         return pos ? posNConcepts : negNConcepts;
     }
 
@@ -171,10 +243,68 @@ public class ModelCacheIan extends ModelCacheInterface {
      */
     @PortedFrom(file = "modelCacheIan.h", name = "initRolesFromArcs")
     public void initRolesFromArcs(DlCompletionTree pCT) {
-        pCT.getNeighbour().stream().filter(p -> !p.isIBlocked()).forEach(p -> addExistsRole(p.getRole()));
+        pCT.getNeighbour().stream().filter(p -> !p.isIBlocked()).forEach(p -> {
+            addExistsRole(p.getRole());
+            addOpaqueExistsRole(p.getRole());
+        });
         curState = VALID;
     }
 
+    /**
+     * @param p
+     *        node
+     * @param arc
+     *        edge from the node
+     * @return true iff the end of the edge is a tree successor that can be
+     *         kept in a cache
+     */
+    @Original
+    private static boolean isCacheableSuccessor(DlCompletionTree p, DlCompletionTreeArc arc) {
+        if (!arc.isSuccEdge() || arc.isReflexiveEdge() || !arc.getDep().isEmpty()) {
+            return false;
+        }
+        DlCompletionTree child = arc.getArcEnd();
+        return child != p && !child.isBlockedPBlockedNominalNodeCached() && !child.isDataNode();
+    }
+
+    /**
+     * gather \A restrictions of a label whose fillers have caches; other
+     * restrictions are opaque
+     * 
+     * @param dlHeap
+     *        DLHeap
+     * @param start
+     *        label
+     */
+    @Original
+    private void initRestrictions(DLDag dlHeap, CWDArray start) {
+        for (int i = 0; i < start.size(); i++) {
+            int p = start.getConcept(i);
+            DLVertex cur = dlHeap.get(p);
+            DagTag type = cur.getType();
+            if (p < 0 || type != DagTag.FORALL && type != DagTag.LE && type != DagTag.IRR) {
+                continue;
+            }
+            Role r = cur.getRole();
+            if (r.isTop()) {
+                // every edge is affected
+                full = false;
+                continue;
+            }
+            ModelCacheInterface filler = type == DagTag.FORALL && r.isSimple() && !r.isDataRole() ? dlHeap.getCache(
+                cur.getConceptIndex()) : null;
+            if (filler == null) {
+                if (r.isSimple()) {
+                    opaqueForallRoles.add(r.getIndex());
+                } else {
+                    addAutomatonRoles(cur, opaqueForallRoles);
+                }
+            } else {
+                restrictions.add(new Edge(r, filler));
+            }
+        }
+    }
+
     /** Get the tag identifying the cache type */
     @Override
     @PortedFrom(file = "modelCacheIan.h", name = "getCacheType")
@@ -189,6 +319,37 @@ public class ModelCacheIan extends ModelCacheInterface {
         return existsRoles.isEmpty();
     }
 
+    /**
+     * @return estimated memory taken by the cache, in bytes. The successors
+     *         are counted, the fillers of the \A restrictions are not, as
+     *         they are caches of other DAG entries. Both are shared with the
+     *         caches they came from, so dropping this cache frees them only
+     *         when no other cache refers to them.
+     */
+    @Override
+    @Original
+    public long estimatedSize() {
+        long size = 128L + posDConcepts.getSizeInBytes() + posNConcepts.getSizeInBytes() + negDConcepts
+            .getSizeInBytes() + negNConcepts.getSizeInBytes();
+        size += 4L * (extraDConcepts.size() + extraNConcepts.size() + existsRoles.size() + forallRoles.size()
+            + funcRoles.size() + opaqueExistsRoles.size() + opaqueForallRoles.size());
+        // fillers of the restrictions are caches of other entries
+        size += 32L * restrictions.size();
+        for (Edge e : successors) {
+            size += 32L + e.cache.estimatedSize();
+        }
+        return size;
+    }
+
+    /**
+     * give up the merges into this cache, e.g., if a cache to merge is no
+     * longer available
+     */
+    @Original
+    public void setFailed() {
+        curState = FAILED;
+    }
+
     /** clear the cache */
     @PortedFrom(file = "modelCacheIan.h", name = "clear")
     public void clear() {
@@ -203,6 +364,11 @@ public class ModelCacheIan extends ModelCacheInterface {
         existsRoles.clear();
         forallRoles.clear();
         funcRoles.clear();
+        full = true;
+        successors.clear();
+        restrictions.clear();
+        opaqueExistsRoles.clear();
+        opaqueForallRoles.clear();
         curState = VALID;
     }
 
@@ -260,10 +426,21 @@ public class ModelCacheIan extends ModelCacheInterface {
      */
     @PortedFrom(file = "modelCacheIan.h", name = "processAutomaton")
     public void processAutomaton(DLVertex cur) {
+        addAutomatonRoles(cur, forallRoles);
+    }
+
+    /**
+     * @param cur
+     *        cur
+     * @param roles
+     *        set to add the roles accepted by the automaton transitions to
+     */
+    @Original
+    private static void addAutomatonRoles(DLVertex cur, FastSet roles) {
         RAStateTransitions rst = cur.getRole().getAutomaton().get(cur.getState());
         // for every transition starting from a given state,
         // add the role that is accepted by a transition
-        rst.begin().stream().flatMap(p -> p.begin().stream()).forEach(r -> forallRoles.add(r.getIndex()));
+        rst.begin().stream().flatMap(p -> p.begin().stream()).forEach(r -> roles.add(r.getIndex()));
     }
 
     /**
@@ -293,6 +470,18 @@ public class ModelCacheIan extends ModelCacheInterface {
         r.getAncestor().forEach(this::addRoleToCache);
     }
 
+    /**
+     * adds role (and all its super-roles) to opaque exists roles
+     * 
+     * @param r
+     *        R
+     */
+    @Original
+    private void addOpaqueExistsRole(Role r) {
+        opaqueExistsRoles.add(r.getIndex());
+        r.getAncestor().forEach(a -> opaqueExistsRoles.add(a.getIndex()));
+    }
+
     @Override
     @PortedFrom(file = "modelCacheIan.h", name = "canMerge")
     public ModelCacheState canMerge(ModelCacheInterface p) {
@@ -351,7 +540,7 @@ public class ModelCacheIan extends ModelCacheInterface {
     public ModelCacheState isMergableIan(ModelCacheIan q) {
         if (intersection(posDConcepts, q.negDConcepts) || intersection(q.posDConcepts, negDConcepts)) {
             return INVALID;
-        } else if (existsRoles.intersect(q.forallRoles) || q.existsRoles.intersect(forallRoles) || funcRoles.intersect(
+        } else if (!isMergableEdges(q) || funcRoles.intersect(
             q.funcRoles) || intersection(posDConcepts, q.negNConcepts) || intersection(posNConcepts, q.negDConcepts)
             || intersection(posNConcepts, q.negNConcepts) || intersection(q.posDConcepts, negNConcepts) || intersection(
                 q.posNConcepts, negDConcepts) || intersection(q.posNConcepts, negNConcepts)) {
@@ -368,6 +557,59 @@ public class ModelCacheIan extends ModelCacheInterface {
         }
     }
 
+    /**
+     * @param q
+     *        q
+     * @return true iff no edge of a model meets a restriction of the other,
+     *         or all such edges are known and merge with the restrictions
+     */
+    @Original
+    private boolean isMergableEdges(ModelCacheIan q) {
+        if (!existsRoles.intersect(q.forallRoles) && !q.existsRoles.intersect(forallRoles)) {
+            return true;
+        }
+        if (!full || !q.full || opaqueExistsRoles.intersect(q.forallRoles) || q.opaqueExistsRoles.intersect(
+            forallRoles) || existsRoles.intersect(q.opaqueForallRoles) || q.existsRoles.intersect(opaqueForallRoles)) {
+            return false;
+        }
+        boolean ret = mergeSuccessors(q.restrictions) != null && q.mergeSuccessors(restrictions) != null;
+        MetricsListener metrics = simpleRules.getMetricsListener();
+        if (metrics != null) {
+            metrics.successorMerge(ret);
+        }
+        return ret;
+    }
+
+    /**
+     * @param rs
+     *        restrictions to apply to the successors
+     * @return successors with the applicable restrictions merged in; null if
+     *         some merge fails
+     */
+    @Original
+    @Nullable
+    private List<Edge> mergeSuccessors(List<Edge> rs) {
+        List<Edge> ret = new ArrayList<>(successors.size());
+        for (Edge s : successors) {
+            ModelCacheIan cache = null;
+            for (Edge r : rs) {
+                if (s.role.lesserequal(r.role)) {
+                    if (cache == null) {
+                        // a copy of the successor, in a model with the
+                        // nominals of this one
+                        cache = new ModelCacheIan(isHasNominalNode(), nC, nR, simpleRules);
+                        cache.mergeIan((ModelCacheIan) s.cache);
+                    }
+                    if (cache.merge(r.cache) != VALID) {
+                        return null;
+                    }
+                }
+            }
+            ret.add(cache == null ? s : new Edge(s.role, cache));
+        }
+        return ret;
+    }
+
     boolean intersection(RoaringBitmap a, RoaringBitmap b) {
         return !RoaringBitmap.and(a, b).isEmpty();
     }
@@ -434,6 +676,19 @@ public class ModelCacheIan extends ModelCacheInterface {
     private void mergeIan(ModelCacheIan p) {
         // setup curState
         curState = isMergableIan(p);
+        if (full && p.full && curState == VALID) {
+            // successors of both models get the restrictions of the other
+            List<Edge> mine = mergeSuccessors(p.restrictions);
+            List<Edge> theirs = p.mergeSuccessors(restrictions);
+            successors.clear();
+            successors.addAll(mine);
+            successors.addAll(theirs);
+            restrictions.addAll(p.restrictions);
+        } else {
+            full = false;
+        }
+        opaqueExistsRoles.addAll(p.opaqueExistsRoles);
+        opaqueForallRoles.addAll(p.opaqueForallRoles);
         // merge all sets:
         posDConcepts.or(p.posDConcepts);
         posNConcepts.or(p.posNConcepts);
@@ -474,4 +729,48 @@ public class ModelCacheIan extends ModelCacheInterface {
             return VALID;
         }
     }
+
+    // the sets of ints are written as plain lists
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        for (FastSet set : Arrays.asList(extraDConcepts, extraNConcepts, existsRoles, forallRoles, funcRoles,
+            opaqueExistsRoles, opaqueForallRoles)) {
+            out.writeInt(set.size());
+            for (int i = 0; i < set.size(); i++) {
+                out.writeInt(set.get(i));
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        extraDConcepts = readSet(in);
+        extraNConcepts = readSet(in);
+        existsRoles = readSet(in);
+        forallRoles = readSet(in);
+        funcRoles = readSet(in);
+        opaqueExistsRoles = readSet(in);
+        opaqueForallRoles = readSet(in);
+    }
+
+    private static FastSet readSet(ObjectInputStream in) throws IOException {
+        FastSet set = FastSetFactory.create();
+        for (int i = in.readInt(); i > 0; i--) {
+            set.add(in.readInt());
+        }
+        return set;
+    }
+
+    /** role of an edge or restriction and the cache of its end or filler */
+    @Original
+    private static final class Edge implements Serializable {
+
+        final Role role;
+        final ModelCacheInterface cache;
+
+        Edge(Role role, ModelCacheInterface cache) {
+            this.role = role;
+            this.cache = cache;
+        }
+    }
 }
@@ -79,6 +79,12 @@ public abstract class ModelCacheInterface implements Serializable {
         return true;
     }
 
+    /** @return estimated memory taken by the cache, in bytes */
+    @Original
+    public long estimatedSize() {
+        return 16;
+    }
+
     /**
      * log this cache entry (with given level)
      * 
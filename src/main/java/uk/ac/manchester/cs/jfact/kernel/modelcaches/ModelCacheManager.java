@@ -0,0 +1,131 @@
+package uk.ac.manchester.cs.jfact.kernel.modelcaches;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsListener;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Keeps the evictable model caches of the DAG entries within a memory budget.
+ * The owner decides which caches are evictable (e.g., not the ones of named
+ * concepts); when their estimated size exceeds the budget, the least recently
+ * used ones are dropped first. The budget bounds the estimated sizes rather
+ * than the heap: caches kept with full models refer to successor and
+ * restriction caches of other entries, which stay reachable from them after
+ * those entries are dropped.
+ */
+@Original
+public class ModelCacheManager implements Serializable {
+
+    private final JFactReasonerConfiguration options;
+    /** budget in bytes; 0 for none */
+    private final long budget;
+    /** estimated sizes of the evictable caches, by bipointer, in access order */
+    private final Map<Integer, Long> sizes = new LinkedHashMap<>(16, 0.75F, true);
+    /** estimated size of the evictable caches */
+    private long usedBytes;
+    /** maximal estimated size of the evictable caches */
+    private long peakBytes;
+    /** number of caches dropped */
+    private long evictions;
+
+    /**
+     * @param options
+     *        options, for the budget and the metrics listener
+     */
+    public ModelCacheManager(JFactReasonerConfiguration options) {
+        this.options = options;
+        budget = options.getModelCacheMemory();
+    }
+
+    /** @return true iff the caches are kept within a budget */
+    public boolean isBounded() {
+        return budget > 0;
+    }
+
+    /**
+     * register a new evictable cache, dropping the least recently used ones
+     * if the budget is exceeded
+     * 
+     * @param p
+     *        bipointer of the cache
+     * @param cache
+     *        cache
+     * @param drop
+     *        drops the cache of a given bipointer
+     */
+    public synchronized void add(int p, ModelCacheInterface cache, IntConsumer drop) {
+        long added = cache.estimatedSize();
+        Long old = sizes.put(Integer.valueOf(p), Long.valueOf(added));
+        usedBytes += added - (old == null ? 0 : old.longValue());
+        peakBytes = Math.max(peakBytes, usedBytes);
+        MetricsListener metrics = options.getMetricsListener();
+        Iterator<Map.Entry<Integer, Long>> it = sizes.entrySet().iterator();
+        // the newest cache is kept even if it is larger than the budget
+        while (usedBytes > budget && sizes.size() > 1) {
+            Map.Entry<Integer, Long> eldest = it.next();
+            long size = eldest.getValue().longValue();
+            drop.accept(eldest.getKey().intValue());
+            it.remove();
+            usedBytes -= size;
+            evictions++;
+            if (metrics != null) {
+                metrics.modelCacheEviction(size);
+            }
+        }
+    }
+
+    /**
+     * mark the cache of a given bipointer as used
+     * 
+     * @param p
+     *        bipointer
+     */
+    public synchronized void touch(int p) {
+        sizes.get(Integer.valueOf(p));
+    }
+
+    /**
+     * forget the cache of a given bipointer, e.g., if it is replaced by a
+     * pinned one
+     * 
+     * @param p
+     *        bipointer
+     */
+    public synchronized void remove(int p) {
+        Long old = sizes.remove(Integer.valueOf(p));
+        if (old != null) {
+            usedBytes -= old.longValue();
+        }
+    }
+
+    /** @return number of evictable caches */
+    public synchronized int size() {
+        return sizes.size();
+    }
+
+    /** @return estimated size of the evictable caches */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /** @return maximal estimated size of the evictable caches */
+    public synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+
+    /** @return number of caches dropped */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
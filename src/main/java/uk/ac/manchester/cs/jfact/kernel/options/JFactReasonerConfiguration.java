@@ -27,6 +27,7 @@ import org.semanticweb.owlapi.reasoner.ReasonerProgressMonitor;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.helpers.LogAdapter;
 import uk.ac.manchester.cs.jfact.helpers.Templates;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsListener;
 
 /** configuration. */
 public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Serializable {
@@ -136,6 +137,8 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
     private final Map<String, StringOption> base = new HashMap<>();
     /** The progress monitor. */
     private ReasonerProgressMonitor progressMonitor = new NullReasonerProgressMonitor();
+    /** listener for reasoning metrics; null if metrics are not collected. */
+    @Nullable private MetricsListener metricsListener = null;
     /** The fresh entity policy. */
     @Nonnull private FreshEntityPolicy freshEntityPolicy = FreshEntityPolicy.ALLOW;
     /** The individual node set policy. */
@@ -180,6 +183,18 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
     private boolean useUndefinedNames = true;
     /** how many nodes skip before block; work only with FAIRNESS */
     private int nSkipBeforeBlock=0;
+    /** number of threads used for classification; 1 means sequential. */
+    private int classificationThreads = 1;
+    /** whether classification workers run subsumption tests speculatively. */
+    private boolean useSpeculativeSubsumption = false;
+    /** whether known subsumers are read off the models of concepts. */
+    private boolean useModelSubsumers = false;
+    /** number of query results kept by the TBox; 0 for none. */
+    private int queryResultCacheSize = 10000;
+    /** number of completion tree nodes kept in a model cache; 0 for root only. */
+    private int fullModelCacheSize = 0;
+    /** estimated memory for the model caches of complex DAG entries; 0 for no limit. */
+    private long modelCacheMemory = 0;
 
     /** Instantiates a new j fact reasoner configuration. */
     public JFactReasonerConfiguration() {
@@ -224,6 +239,12 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
         useDynamicBackjumping = source.useDynamicBackjumping;
         useFairness = source.useFairness;
         nSkipBeforeBlock=source.nSkipBeforeBlock;
+        classificationThreads = source.classificationThreads;
+        useSpeculativeSubsumption = source.useSpeculativeSubsumption;
+        useModelSubsumers = source.useModelSubsumers;
+        queryResultCacheSize = source.queryResultCacheSize;
+        fullModelCacheSize = source.fullModelCacheSize;
+        modelCacheMemory = source.modelCacheMemory;
         useSimpleRules = source.useSimpleRules;
         splits = source.splits;
         timeOut = source.timeOut;
@@ -243,6 +264,7 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
         useSpecialDomains = source.useSpecialDomains;
         useUndefinedNames = source.useUndefinedNames;
         verboseOutput = source.verboseOutput;
+        metricsListener = source.metricsListener;
     }
 
     /**
@@ -617,6 +639,23 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
         return progressMonitor;
     }
 
+    /** @return metrics listener, null if metrics are not collected */
+    @Nullable
+    public MetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * @param listener
+     *        listener to receive reasoning metrics; null to stop collecting
+     *        metrics
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setMetricsListener(@Nullable MetricsListener listener) {
+        metricsListener = listener;
+        return this;
+    }
+
     @Override
     public long getTimeOut() {
         return timeOut;
@@ -942,6 +981,153 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
         this.nSkipBeforeBlock = nSkipBeforeBlock;
     }
 
+    /** @return number of threads used for classification */
+    public int getClassificationThreads() {
+        return classificationThreads;
+    }
+
+    /**
+     * Sets the number of threads used for classification. With more than one
+     * thread, worker threads build the model caches of the concepts to
+     * classify and search the taxonomy for the position of independent
+     * concepts concurrently, each with its own completion graph; the calling
+     * thread inserts the results into the taxonomy under a lock. The
+     * resulting taxonomy is the same as the sequential one. Ontologies with
+     * nominals are classified on the calling thread only. Ignored when logging
+     * is active.
+     * 
+     * @param n
+     *        number of threads; 1 for sequential classification
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setClassificationThreads(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Number of classification threads must be positive: " + n);
+        }
+        classificationThreads = n;
+        return this;
+    }
+
+    /**
+     * @return true if the subsumption tests for the neighbours of a taxonomy
+     *         vertex are run speculatively by the classification workers
+     */
+    public boolean isUseSpeculativeSubsumption() {
+        return useSpeculativeSubsumption;
+    }
+
+    /**
+     * Sets whether, while searching the taxonomy for a concept, the
+     * subsumption tests for all the neighbours of a vertex are run in parallel
+     * by the classification workers before the search looks at them; results
+     * not needed by the search are discarded. Only used when more than one
+     * classification thread is set; the searches then run one at a time on
+     * the calling thread instead of concurrently on the workers.
+     * 
+     * @param b
+     *        true to run subsumption tests speculatively
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setUseSpeculativeSubsumption(boolean b) {
+        useSpeculativeSubsumption = b;
+        return this;
+    }
+
+    /**
+     * @return true if the known subsumers of a concept are read off the model
+     *         built by its satisfiability test
+     */
+    public boolean isUseModelSubsumers() {
+        return useModelSubsumers;
+    }
+
+    /**
+     * Sets whether, during classification, the model built by the
+     * satisfiability test of a concept is used to skip subsumption tests: the
+     * concepts deterministically in the root label are known subsumers, and
+     * primitive concepts not in the label are known non-subsumers.
+     * 
+     * @param b
+     *        true to use the model subsumers
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setUseModelSubsumers(boolean b) {
+        useModelSubsumers = b;
+        return this;
+    }
+
+    /** @return number of query results kept by the reasoner */
+    public int getQueryResultCacheSize() {
+        return queryResultCacheSize;
+    }
+
+    /**
+     * Sets the number of results of subsumption, disjointness and
+     * satisfiability queries kept by the reasoner, so that repeated queries
+     * are answered without a tableau test; the same number of taxonomy
+     * positions of class expressions is kept for hierarchy queries. The least
+     * recently used results are dropped first; all of them are dropped when
+     * the ontology changes.
+     * 
+     * @param n
+     *        number of results; 0 to keep none
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setQueryResultCacheSize(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Query result cache size must not be negative: " + n);
+        }
+        queryResultCacheSize = n;
+        return this;
+    }
+
+    /** @return number of completion tree nodes kept in a model cache */
+    public int getFullModelCacheSize() {
+        return fullModelCacheSize;
+    }
+
+    /**
+     * Sets the number of non-root completion tree nodes kept in the model
+     * cache of a DAG entry. The deterministic subtrees of the model are then
+     * kept along with its root, so that caches whose edges meet universal
+     * restrictions of other caches can still be merged, instead of expanding
+     * the node again.
+     * 
+     * @param n
+     *        number of nodes; 0 to keep the root only
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setFullModelCacheSize(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Full model cache size must not be negative: " + n);
+        }
+        fullModelCacheSize = n;
+        return this;
+    }
+
+    /** @return estimated memory for the model caches of complex DAG entries */
+    public long getModelCacheMemory() {
+        return modelCacheMemory;
+    }
+
+    /**
+     * Sets the memory budget for the model caches of complex DAG entries, in
+     * estimated bytes. When it is exceeded, the least recently used caches
+     * are dropped; they are rebuilt if needed, or the nodes using them are
+     * expanded. Caches of named concepts are always kept.
+     * 
+     * @param bytes
+     *        budget; 0 for no limit
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setModelCacheMemory(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Model cache memory must not be negative: " + bytes);
+        }
+        modelCacheMemory = bytes;
+        return this;
+    }
+
     /**
      * Checks if is fpp debug split modules.
      * 
@@ -1140,19 +1326,19 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
 
         @Override
         public LogAdapter print(byte i) {
-            this.print(i);
+            out.print(i);
             return this;
         }
 
         @Override
         public LogAdapter print(char i) {
-            this.print(i);
+            out.print(i);
             return this;
         }
 
         @Override
         public LogAdapter print(short i) {
-            this.print(i);
+            out.print(i);
             return this;
         }
 
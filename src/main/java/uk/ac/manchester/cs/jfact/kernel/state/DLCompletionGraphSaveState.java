@@ -16,7 +16,7 @@ public class DLCompletionGraphSaveState implements Serializable {
 
     /** number of valid nodes */
     private int nNodes = 0;
-    /** end pointer of saved nodes */
+    /** end pointer of the undo trail */
     private int sNodes = 0;
     /** number of used edges */
     private int nEdges = 0;
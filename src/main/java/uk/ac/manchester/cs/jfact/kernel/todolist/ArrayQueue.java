@@ -5,32 +5,36 @@ package uk.ac.manchester.cs.jfact.kernel.todolist;
  This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
-import static java.util.stream.Collectors.joining;
-
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
 
+import conformance.Original;
 import conformance.PortedFrom;
-import uk.ac.manchester.cs.jfact.helpers.Helper;
-import uk.ac.manchester.cs.jfact.kernel.ConceptWDep;
+import uk.ac.manchester.cs.jfact.dep.DepSet;
+import uk.ac.manchester.cs.jfact.dep.DepSetElement;
 import uk.ac.manchester.cs.jfact.kernel.DlCompletionTree;
 import uk.ac.manchester.cs.jfact.kernel.Restorer;
 
-/** class to represent single queue */
+/**
+ * class to represent single queue; entries are kept in parallel arrays, so
+ * that adding and getting entries does not allocate
+ */
 public class ArrayQueue implements Serializable {
+
     // type for restore the whole queue
     class QueueRestorer extends Restorer {
 
         // copy of a queue
-        List<ToDoEntry> restorerWait = new ArrayList<>();
+        private final ArrayQueue restorerWait = new ArrayQueue();
         // pointer to a queue to restore
-        QueueQueue queue;
+        private final QueueQueue queue;
         // start pointer
-        int sp;
+        private final int sp;
 
         QueueRestorer(QueueQueue q) {
-            restorerWait = q.wait;
+            restorerWait.copy(q);
             queue = q;
             sp = q.sPointer;
         }
@@ -38,13 +42,21 @@ public class ArrayQueue implements Serializable {
         // restore: copy the queue back, adjust pointers
         @Override
         public void restore() {
-            queue.wait = restorerWait;
+            queue.copy(restorerWait);
             queue.sPointer = sp;
         }
     }
 
-    /** waiting ops queue */
-    protected List<ToDoEntry> wait = new ArrayList<>(50);
+    /** nodes of the waiting ops */
+    @Original protected DlCompletionTree[] nodes = new DlCompletionTree[50];
+    /** concepts of the waiting ops */
+    @Original protected int[] concepts = new int[50];
+    /** dep-sets of the waiting ops: bits */
+    @Original protected long[] bits = new long[50];
+    /** dep-sets of the waiting ops: elements */
+    @Original protected DepSetElement[] deps = new DepSetElement[50];
+    /** number of waiting ops */
+    @Original protected int size = 0;
     /** start pointer; points to the 1st element in the queue */
     protected int sPointer = 0;
 
@@ -53,29 +65,90 @@ public class ArrayQueue implements Serializable {
      * 
      * @param node
      *        node
-     * @param offset
-     *        offset
+     * @param concept
+     *        concept
+     * @param dep
+     *        dep-set of the concept
+     */
+    public void add(DlCompletionTree node, int concept, DepSet dep) {
+        insert(size, node, concept, dep);
+    }
+
+    /**
+     * insert entry at the given position, moving the following ones
+     * 
+     * @param n
+     *        position
+     * @param node
+     *        node
+     * @param concept
+     *        concept
+     * @param dep
+     *        dep-set of the concept
+     */
+    @Original
+    protected void insert(int n, DlCompletionTree node, int concept, DepSet dep) {
+        if (size == nodes.length) {
+            grow(size * 2);
+        }
+        if (n < size) {
+            System.arraycopy(nodes, n, nodes, n + 1, size - n);
+            System.arraycopy(concepts, n, concepts, n + 1, size - n);
+            System.arraycopy(bits, n, bits, n + 1, size - n);
+            System.arraycopy(deps, n, deps, n + 1, size - n);
+        }
+        nodes[n] = node;
+        concepts[n] = concept;
+        bits[n] = dep.getBits();
+        deps[n] = dep.getDelegate();
+        size++;
+    }
+
+    private void grow(int capacity) {
+        nodes = Arrays.copyOf(nodes, capacity);
+        concepts = Arrays.copyOf(concepts, capacity);
+        bits = Arrays.copyOf(bits, capacity);
+        deps = Arrays.copyOf(deps, capacity);
+    }
+
+    /**
+     * @param q
+     *        queue whose entries replace the ones of this queue
      */
-    public void add(DlCompletionTree node, ConceptWDep offset) {
-        wait.add(new ToDoEntry(node, offset));
+    @Original
+    protected void copy(ArrayQueue q) {
+        if (nodes.length < q.size) {
+            grow(q.size);
+        }
+        System.arraycopy(q.nodes, 0, nodes, 0, q.size);
+        System.arraycopy(q.concepts, 0, concepts, 0, q.size);
+        System.arraycopy(q.bits, 0, bits, 0, q.size);
+        System.arraycopy(q.deps, 0, deps, 0, q.size);
+        size = q.size;
     }
 
     /** clear queue */
     @PortedFrom(file = "ToDoList.h", name = "clear")
     public void clear() {
         setsPointer(0);
-        wait.clear();
+        resize(0);
     }
 
     /** @return check if queue empty */
     @PortedFrom(file = "ToDoList.h", name = "empty")
     public boolean isEmpty() {
-        return sPointer == wait.size();
+        return sPointer == size;
     }
 
-    /** @return next entry from the queue; works for non-empty queues */
-    public ToDoEntry get() {
-        return wait.get(sPointer++);
+    /**
+     * @param entry
+     *        entry to fill with the next entry from the queue; works for
+     *        non-empty queues
+     * @return entry
+     */
+    public ToDoEntry get(ToDoEntry entry) {
+        int i = sPointer++;
+        return entry.set(nodes[i], concepts[i], bits[i], deps[i]);
     }
 
     /**
@@ -89,7 +162,7 @@ public class ArrayQueue implements Serializable {
     @PortedFrom(file = "ToDoList.h", name = "save")
     public void save(int[][] tss, int pos) {
         tss[pos][0] = sPointer;
-        tss[pos][1] = wait.size();
+        tss[pos][1] = size;
     }
 
     /**
@@ -102,8 +175,7 @@ public class ArrayQueue implements Serializable {
      */
     @PortedFrom(file = "ToDoList.h", name = "restore")
     public void restore(int[][] tss, int pos) {
-        setsPointer(tss[pos][0]);
-        Helper.resize(wait, tss[pos][1], null);
+        restore(tss[pos][0], tss[pos][1]);
     }
 
     /**
@@ -115,12 +187,39 @@ public class ArrayQueue implements Serializable {
     @PortedFrom(file = "ToDoList.h", name = "restore")
     public void restore(int sp, int ep) {
         setsPointer(sp);
-        Helper.resize(wait, ep, null);
+        resize(ep);
+    }
+
+    /**
+     * @param ep
+     *        new size; entries from ep on are dropped
+     */
+    protected void resize(int ep) {
+        if (ep < size) {
+            // do not keep dropped nodes and dep-sets reachable
+            Arrays.fill(nodes, ep, size, null);
+            Arrays.fill(deps, ep, size, null);
+        }
+        size = ep;
+    }
+
+    /**
+     * @param i
+     *        index
+     * @return entry at index i, for printing
+     */
+    @Nullable
+    protected ToDoEntry entry(int i) {
+        return i < size ? new ToDoEntry().set(nodes[i], concepts[i], bits[i], deps[i]) : null;
     }
 
     @Override
     public String toString() {
-        return "ArrayQueue{" + sPointer + "," + wait.stream().map(Object::toString).collect(joining(" ")) + "}";
+        StringBuilder b = new StringBuilder("ArrayQueue{").append(sPointer).append(',');
+        for (int i = 0; i < size; i++) {
+            b.append(i == 0 ? "" : " ").append(entry(i));
+        }
+        return b.append('}').toString();
     }
 
     /** @return s pointer */
@@ -138,6 +237,6 @@ public class ArrayQueue implements Serializable {
 
     /** @return wait size */
     public int getWaitSize() {
-        return wait.size();
+        return size;
     }
 }
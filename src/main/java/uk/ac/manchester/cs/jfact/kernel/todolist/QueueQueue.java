@@ -1,18 +1,15 @@
 package uk.ac.manchester.cs.jfact.kernel.todolist;
 
 import conformance.PortedFrom;
-import uk.ac.manchester.cs.jfact.helpers.Helper;
-import uk.ac.manchester.cs.jfact.kernel.ConceptWDep;
+import uk.ac.manchester.cs.jfact.dep.DepSet;
 import uk.ac.manchester.cs.jfact.kernel.DlCompletionTree;
 import uk.ac.manchester.cs.jfact.kernel.SaveStackRare;
 
-/** class to represent single priority queue */
+/** queue for nominal nodes, ordered by nominal level */
 public class QueueQueue extends ArrayQueue {
 
     // stack to save states for the overwritten queue
     SaveStackRare stack;
-    /** start pointer; points to the 1st element in the queue */
-    private int size = 0;
 
     /**
      * @param rare
@@ -23,35 +20,20 @@ public class QueueQueue extends ArrayQueue {
     }
 
     @Override
-    public void add(DlCompletionTree node, ConceptWDep offset) {
-        ToDoEntry e = new ToDoEntry(node, offset);
+    public void add(DlCompletionTree node, int concept, DepSet dep) {
         // no problems with empty queue and if no priority
         // clashes
-        if (isEmpty() || wait.get(size - 1).getNode().getNominalLevel() <= node.getNominalLevel()) {
-            wait.add(e);
-            size++;
+        if (isEmpty() || nodes[size - 1].getNominalLevel() <= node.getNominalLevel()) {
+            insert(size, node, concept, dep);
             return;
         }
         // here we need to put e on the proper place
         stack.push(new QueueRestorer(this));
         int n = size;
-        while (n > sPointer && wait.get(n - 1).getNode().getNominalLevel() > node.getNominalLevel()) {
+        while (n > sPointer && nodes[n - 1].getNominalLevel() > node.getNominalLevel()) {
             --n;
         }
-        wait.add(n, e);
-        size++;
-    }
-
-    @Override
-    @PortedFrom(file = "ToDoList.h", name = "clear")
-    public void clear() {
-        super.clear();
-        size = 0;
-    }
-
-    @Override
-    public boolean isEmpty() {
-        return sPointer == size;
+        insert(n, node, concept, dep);
     }
 
     /**
@@ -74,14 +56,16 @@ public class QueueQueue extends ArrayQueue {
      */
     @PortedFrom(file = "ToDoList.h", name = "restore")
     protected void restore(TODOListSaveState tss) {
-        sPointer = tss.sp;
-        Helper.resize(wait, tss.ep, null);
-        size = tss.ep;
+        restore(tss.sp, tss.ep);
     }
 
     @Override
     public String toString() {
-        return "{" + (!isEmpty() ? wait.get(sPointer) : "empty") + " sPointer: " + sPointer + " size: " + size
-            + " Wait: " + wait + '}';
+        StringBuilder b = new StringBuilder("{").append(!isEmpty() ? entry(sPointer) : "empty").append(" sPointer: ")
+            .append(sPointer).append(" size: ").append(size).append(" Wait: [");
+        for (int i = 0; i < size; i++) {
+            b.append(i == 0 ? "" : ", ").append(entry(i));
+        }
+        return b.append("]}").toString();
     }
 }
@@ -7,25 +7,41 @@ package uk.ac.manchester.cs.jfact.kernel.todolist;
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
 import java.io.Serializable;
 
-import org.roaringbitmap.RoaringBitmap;
+import javax.annotation.Nullable;
 
 import uk.ac.manchester.cs.jfact.dep.DepSet;
+import uk.ac.manchester.cs.jfact.dep.DepSetElement;
 import uk.ac.manchester.cs.jfact.kernel.ConceptWDep;
 import uk.ac.manchester.cs.jfact.kernel.DlCompletionTree;
 
 /** the entry of Todo table */
 public class ToDoEntry implements Serializable {
 
-
     /** node to include concept */
-    private final DlCompletionTree node;
-    private final int concept;
-    private final RoaringBitmap delegate;
+    private DlCompletionTree node;
+    private int concept;
+    private long bits;
+    @Nullable private DepSetElement delegate;
 
-    protected ToDoEntry(DlCompletionTree n, ConceptWDep off) {
+    /**
+     * Reset the entry; entries are reused by the queues that fill them.
+     * 
+     * @param n
+     *        node
+     * @param c
+     *        concept
+     * @param b
+     *        dep-set bits
+     * @param d
+     *        dep-set element
+     * @return this entry
+     */
+    ToDoEntry set(DlCompletionTree n, int c, long b, @Nullable DepSetElement d) {
         node = n;
-        concept = off.getConcept();
-        delegate = off.getDep().getDelegate();
+        concept = c;
+        bits = b;
+        delegate = d;
+        return this;
     }
 
     /** @return node */
@@ -39,13 +55,13 @@ public class ToDoEntry implements Serializable {
     }
 
     /** @return offset dep set */
-    public RoaringBitmap getOffsetDepSet() {
-        return delegate;
+    public DepSet getOffsetDepSet() {
+        return DepSet.create(bits, delegate);
     }
 
     @Override
     public String toString() {
         return "Node(" + node.getId() + "), offset("
-            + new ConceptWDep(concept, DepSet.create(delegate)) + ')';
+            + new ConceptWDep(concept, getOffsetDepSet()) + ')';
     }
 }
@@ -8,15 +8,13 @@ package uk.ac.manchester.cs.jfact.kernel.todolist;
 import static uk.ac.manchester.cs.jfact.kernel.todolist.ToDoPriorMatrix.*;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.annotation.Nullable;
 
 import conformance.Original;
 import conformance.PortedFrom;
+import uk.ac.manchester.cs.jfact.dep.DepSet;
 import uk.ac.manchester.cs.jfact.helpers.SaveStack;
-import uk.ac.manchester.cs.jfact.kernel.ConceptWDep;
 import uk.ac.manchester.cs.jfact.kernel.DagTag;
 import uk.ac.manchester.cs.jfact.kernel.DlCompletionTree;
 import uk.ac.manchester.cs.jfact.kernel.SaveStackRare;
@@ -30,12 +28,13 @@ public class ToDoList implements Serializable {
     /** waiting ops queue for lesser than or equal ops in nominal nodes */
     @PortedFrom(file = "ToDoList.h", name = "queueNN") private final QueueQueue queueNN;
     /** waiting ops queues */
-    @PortedFrom(file = "ToDoList.h", name = "Wait") private final List<ArrayQueue> waitQueue = new ArrayList<>(
-        NREGULAROPTIONS);
+    @PortedFrom(file = "ToDoList.h", name = "Wait") private final ArrayQueue[] waitQueue = new ArrayQueue[NREGULAROPTIONS];
     /** stack of saved states */
     @PortedFrom(file = "ToDoList.h", name = "SaveStack") private final SaveStack<TODOListSaveState> saveStack = new SaveStack<>();
     /** priority matrix */
     @PortedFrom(file = "ToDoList.h", name = "Matrix") private final ToDoPriorMatrix matrix = new ToDoPriorMatrix();
+    /** entry returned by getNextEntry(), refilled on every call */
+    @Original private final ToDoEntry next = new ToDoEntry();
     /** number of un-processed entries */
     @PortedFrom(file = "ToDoList.h", name = "noe") private int noe;
 
@@ -49,7 +48,7 @@ public class ToDoList implements Serializable {
         queueNN = new QueueQueue(r);
         noe = 0;
         for (int i = 0; i < NREGULAROPTIONS; i++) {
-            waitQueue.add(new ArrayQueue());
+            waitQueue[i] = new ArrayQueue();
         }
     }
 
@@ -64,20 +63,10 @@ public class ToDoList implements Serializable {
         tss.backupIDsp = queueID.getsPointer();
         tss.backupIDep = queueID.getWaitSize();
         queueNN.save(tss);
-        tss.backup6key = waitQueue.get(6).getsPointer();
-        tss.backup6value = waitQueue.get(6).getWaitSize();
-        tss.backup5key = waitQueue.get(5).getsPointer();
-        tss.backup5value = waitQueue.get(5).getWaitSize();
-        tss.backup4key = waitQueue.get(4).getsPointer();
-        tss.backup4value = waitQueue.get(4).getWaitSize();
-        tss.backup3key = waitQueue.get(3).getsPointer();
-        tss.backup3value = waitQueue.get(3).getWaitSize();
-        tss.backup2key = waitQueue.get(2).getsPointer();
-        tss.backup2value = waitQueue.get(2).getWaitSize();
-        tss.backup1key = waitQueue.get(1).getsPointer();
-        tss.backup1value = waitQueue.get(1).getWaitSize();
-        tss.backup0key = waitQueue.get(0).getsPointer();
-        tss.backup0value = waitQueue.get(0).getWaitSize();
+        for (int i = 0; i < NREGULAROPTIONS; i++) {
+            tss.backupSp[i] = waitQueue[i].getsPointer();
+            tss.backupEp[i] = waitQueue[i].getWaitSize();
+        }
         tss.noe = noe;
     }
 
@@ -91,13 +80,9 @@ public class ToDoList implements Serializable {
     public void restoreState(TODOListSaveState tss) {
         queueID.restore(tss.backupIDsp, tss.backupIDep);
         queueNN.restore(tss);
-        waitQueue.get(0).restore(tss.backup0key, tss.backup0value);
-        waitQueue.get(1).restore(tss.backup1key, tss.backup1value);
-        waitQueue.get(2).restore(tss.backup2key, tss.backup2value);
-        waitQueue.get(3).restore(tss.backup3key, tss.backup3value);
-        waitQueue.get(4).restore(tss.backup4key, tss.backup4value);
-        waitQueue.get(5).restore(tss.backup5key, tss.backup5value);
-        waitQueue.get(6).restore(tss.backup6key, tss.backup6value);
+        for (int i = 0; i < NREGULAROPTIONS; i++) {
+            waitQueue[i].restore(tss.backupSp[i], tss.backupEp[i]);
+        }
         noe = tss.noe;
     }
 
@@ -118,7 +103,7 @@ public class ToDoList implements Serializable {
         queueID.clear();
         queueNN.clear();
         for (int i = NREGULAROPTIONS - 1; i >= 0; --i) {
-            waitQueue.get(i).clear();
+            waitQueue[i].clear();
         }
         saveStack.clear();
         noe = 0;
@@ -139,21 +124,23 @@ public class ToDoList implements Serializable {
      *        type
      * @param c
      *        C
+     * @param dep
+     *        dep-set of C
      */
     @PortedFrom(file = "ToDoList.h", name = "addEntry")
-    public void addEntry(DlCompletionTree node, DagTag type, ConceptWDep c) {
-        int index = matrix.getIndex(type, c.getConcept() > 0, node.isNominalNode());
+    public void addEntry(DlCompletionTree node, DagTag type, int c, DepSet dep) {
+        int index = matrix.getIndex(type, c > 0, node.isNominalNode());
         switch (index) {
             case NREGULAROPTIONS: // unused entry
                 return;
             case PRIORITYINDEXID: // ID
-                queueID.add(node, c);
+                queueID.add(node, c, dep);
                 break;
             case PRIORITYINDEXNOMINALNODE: // NN
-                queueNN.add(node, c);
+                queueNN.add(node, c, dep);
                 break;
             default: // regular queue
-                waitQueue.get(index).add(node, c);
+                waitQueue[index].add(node, c, dep);
                 break;
         }
         ++noe;
@@ -162,7 +149,10 @@ public class ToDoList implements Serializable {
     /** save current state using internal stack */
     @PortedFrom(file = "ToDoList.h", name = "save")
     public void save() {
-        TODOListSaveState state = new TODOListSaveState();
+        TODOListSaveState state = saveStack.recycle();
+        if (state == null) {
+            state = new TODOListSaveState();
+        }
         saveState(state);
         saveStack.push(state);
     }
@@ -178,7 +168,7 @@ public class ToDoList implements Serializable {
         restoreState(saveStack.pop(level));
     }
 
-    /** @return next entry */
+    /** @return next entry; the entry is reused by the following call */
     @Nullable
     @PortedFrom(file = "ToDoList.h", name = "getNextEntry")
     public ToDoEntry getNextEntry() {
@@ -187,17 +177,17 @@ public class ToDoList implements Serializable {
         --noe;
         // check ID queue
         if (!queueID.isEmpty()) {
-            return queueID.get();
+            return queueID.get(next);
         }
         // check NN queue
         if (!queueNN.isEmpty()) {
-            return queueNN.get();
+            return queueNN.get(next);
         }
         // check regular queues
         for (int i = 0; i < NREGULAROPTIONS; ++i) {
-            ArrayQueue arrayQueue = waitQueue.get(i);
+            ArrayQueue arrayQueue = waitQueue[i];
             if (!arrayQueue.isEmpty()) {
-                return arrayQueue.get();
+                return arrayQueue.get(next);
             }
         }
         // that's impossible, but still...
@@ -211,7 +201,7 @@ public class ToDoList implements Serializable {
         l.append(queueID);
         l.append('\n');
         for (int i = 0; i < NREGULAROPTIONS; ++i) {
-            l.append(waitQueue.get(i));
+            l.append(waitQueue[i]);
             l.append('\n');
         }
         l.append('\n');
@@ -10,6 +10,7 @@ import java.io.Serializable;
 import javax.annotation.Nonnull;
 
 import uk.ac.manchester.cs.jfact.datatypes.Datatype;
+import uk.ac.manchester.cs.jfact.datatypes.DatatypeExpression;
 import uk.ac.manchester.cs.jfact.datatypes.Literal;
 import uk.ac.manchester.cs.jfact.kernel.dl.ConceptAnd;
 import uk.ac.manchester.cs.jfact.kernel.dl.ConceptBottom;
@@ -245,6 +246,11 @@ public abstract class DLExpressionVisitorExAdapter<A> implements
         return doDefault(expr);
     }
 
+    @Override
+    public A visit(DatatypeExpression<?> expr) {
+        return doDefault(expr);
+    }
+
     @Override
     public A visit(Literal<?> expr) {
         return doDefault(expr);
@@ -0,0 +1,51 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+
+@SuppressWarnings("javadoc")
+public class ConcurrentQueriesTestCase extends VerifyComplianceBase {
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    private String answers(OWLClass c) {
+        return set(reasoner.getEquivalentClasses(c).entities()) + " " + set(reasoner.getSuperClasses(c, true)
+            .entities()) + " " + set(reasoner.getSubClasses(c, false).entities()) + " " + reasoner.isSatisfiable(
+                df.getOWLObjectIntersectionOf(c, df.getOWLClass("urn:test#fresh")));
+    }
+
+    @Test
+    public void shouldAnswerConcurrentQueriesAsSequentially() throws Exception {
+        OWLOntology o = reasoner.getRootOntology();
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        List<OWLClass> classes = o.classesInSignature().collect(Collectors.toList());
+        List<String> expected = classes.stream().map(this::answers).collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> classes.stream().map(this::answers).collect(Collectors
+                    .toList())));
+            }
+            for (Future<List<String>> f : results) {
+                assertEquals(expected, f.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+
+@SuppressWarnings("javadoc")
+public class ConcurrentSatisfiabilityTestCase extends VerifyComplianceBase {
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        config.setMetricsListener(metrics);
+    }
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    private String answers(OWLClass c, List<OWLClass> classes, List<OWLObjectProperty> properties) {
+        StringBuilder b = new StringBuilder();
+        for (OWLClass d : classes) {
+            b.append(reasoner.isSatisfiable(df.getOWLObjectIntersectionOf(c, d))).append(reasoner.isEntailed(df
+                .getOWLSubClassOfAxiom(df.getOWLObjectIntersectionOf(c, df.getOWLObjectComplementOf(d)), c)));
+        }
+        for (OWLObjectProperty p : properties) {
+            b.append(reasoner.isSatisfiable(df.getOWLObjectIntersectionOf(df.getOWLObjectSomeValuesFrom(p, c), df
+                .getOWLObjectAllValuesFrom(p, df.getOWLObjectComplementOf(c))))).append(reasoner.isEntailed(df
+                    .getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(p, c), df.getOWLObjectSomeValuesFrom(p,
+                        owlThing))));
+        }
+        return b.toString();
+    }
+
+    @Test
+    public void shouldAnswerConcurrentSatisfiabilityAsSequentially() throws Exception {
+        OWLOntology o = reasoner.getRootOntology();
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        List<OWLClass> classes = o.classesInSignature().sorted().limit(30).collect(Collectors.toList());
+        List<OWLObjectProperty> properties = o.objectPropertiesInSignature().sorted().limit(5).collect(
+            Collectors.toList());
+        List<String> expected = classes.stream().map(c -> answers(c, classes, properties)).collect(Collectors
+            .toList());
+        // unsatisfiable and entailed queries are both expected among the answers
+        assertTrue(expected.stream().anyMatch(s -> s.contains("false")));
+        assertTrue(metrics.getCounters().get("query.shared").longValue() > 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> classes.stream().map(c -> answers(c, classes, properties))
+                    .collect(Collectors.toList())));
+            }
+            for (Future<List<String>> f : results) {
+                assertEquals(expected, f.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldShareFirstQuery() throws Exception {
+        OWLOntology o = reasoner.getRootOntology();
+        List<OWLClass> classes = o.classesInSignature().sorted().limit(2).collect(Collectors.toList());
+        OWLReasoner fresh = factory().createReasoner(o, config);
+        assertTrue(fresh.isConsistent());
+        metrics.reset();
+        fresh.isSatisfiable(df.getOWLObjectIntersectionOf(classes.get(0), df.getOWLObjectComplementOf(classes.get(
+            1))));
+        assertEquals(1L, metrics.getCounters().get("query.shared").longValue());
+        fresh.dispose();
+    }
+
+    @Test
+    public void shouldAnswerNewDataRangesExclusively() throws Exception {
+        OWLOntology o = loadFromString("Prefix(:=<urn:test#>) Prefix(xsd:=<http://www.w3.org/2001/XMLSchema#>) "
+            + "Ontology(<urn:test> SubClassOf(:A DataSomeValuesFrom(:d xsd:integer)))");
+        OWLClass a = df.getOWLClass("urn:test#", "A");
+        OWLDataProperty d = df.getOWLDataProperty("urn:test#", "d");
+        OWLReasoner fresh = factory().createReasoner(o, config);
+        assertTrue(fresh.isConsistent());
+        metrics.reset();
+        // the restriction is new to the DAG, so the query is answered exclusively
+        assertTrue(fresh.isSatisfiable(df.getOWLObjectIntersectionOf(a, df.getOWLDataSomeValuesFrom(d, df
+            .getOWLDatatypeMinInclusiveRestriction(5)))));
+        assertFalse(fresh.isSatisfiable(df.getOWLObjectIntersectionOf(a, df.getOWLDataAllValuesFrom(d, df
+            .getOWLDatatypeMaxExclusiveRestriction(0)), df.getOWLDataAllValuesFrom(d, df
+                .getOWLDatatypeMinInclusiveRestriction(0)))));
+        assertEquals(0L, metrics.getCounters().get("query.shared").longValue());
+        fresh.dispose();
+    }
+}
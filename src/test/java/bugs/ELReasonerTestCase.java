@@ -0,0 +1,97 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+@SuppressWarnings("javadoc")
+public class ELReasonerTestCase extends VerifyComplianceBase {
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        config.setUseELReasoner(true).setMetricsListener(metrics);
+    }
+
+    @Nonnull
+    protected String input = "Prefix(:=<urn:el#>)\n"
+        + "Ontology(\n"
+        + "Declaration(Class(:Organ))\n"
+        + "Declaration(Class(:Tissue))\n"
+        + "TransitiveObjectProperty(:part_of)\n"
+        + "SubObjectPropertyOf(ObjectPropertyChain(:has_location :part_of) :has_location)\n"
+        + "SubObjectPropertyOf(:component_of :part_of)\n"
+        + "ObjectPropertyDomain(:has_location :Disease)\n"
+        + "SubClassOf(:Heart :Organ)\n"
+        + "SubClassOf(:HeartValve :Valve)\n"
+        + "SubClassOf(:HeartValve ObjectSomeValuesFrom(:part_of :Heart))\n"
+        + "SubClassOf(:MitralValve ObjectIntersectionOf(:HeartValve ObjectSomeValuesFrom(:component_of :Tissue)))\n"
+        + "EquivalentClasses(:HeartDisease ObjectIntersectionOf(:Disease ObjectSomeValuesFrom(:has_location :Heart)))\n"
+        + "SubClassOf(ObjectSomeValuesFrom(:has_location :Valve) :ValveDisease)\n"
+        + "SubClassOf(:Inflammation :Disease)\n"
+        + "SubClassOf(:Endocarditis ObjectIntersectionOf(:Inflammation ObjectSomeValuesFrom(:has_location :MitralValve)))\n"
+        + "DisjointClasses(:Bone :Organ)\n"
+        + "SubClassOf(:Absurd ObjectIntersectionOf(:Bone :Heart))\n"
+        + "ClassAssertion(:HeartValve :v1)\n"
+        + "ObjectPropertyAssertion(:has_location :d1 :v1)\n"
+        + ")";
+
+    @Override
+    protected OWLOntology load(String in) throws OWLOntologyCreationException {
+        return loadFromString(input);
+    }
+
+    @Override
+    protected String input() {
+        return "";
+    }
+
+    @Nonnull
+    protected OWLClass Endocarditis = C("urn:el#Endocarditis");
+    @Nonnull
+    protected OWLClass HeartDisease = C("urn:el#HeartDisease");
+    @Nonnull
+    protected OWLClass ValveDisease = C("urn:el#ValveDisease");
+    @Nonnull
+    protected OWLClass Inflammation = C("urn:el#Inflammation");
+    @Nonnull
+    protected OWLClass Absurd = C("urn:el#Absurd");
+    @Nonnull
+    protected OWLNamedIndividual d1 = I("urn:el#d1");
+
+    @Test
+    public void shouldInferSubsumptionsThroughChains() {
+        equal(reasoner.getSuperClasses(Endocarditis, true), HeartDisease, ValveDisease, Inflammation);
+        equal(reasoner.getEquivalentClasses(Absurd), Absurd, owlNothing);
+        equal(reasoner.getTypes(d1, true), HeartDisease, ValveDisease);
+    }
+
+    @Test
+    public void shouldClassifyWithoutTableauSubsumptionTests() {
+        Map<String, Long> counters = metrics.getCounters();
+        assertEquals(0L, counters.get("subsumption.tested").longValue());
+        assertTrue(counters.get("subsumption.saturation_negative").longValue() > 0);
+    }
+
+    @Test
+    public void shouldClassifyAsTableauReasoner() {
+        OWLOntology o = reasoner.getRootOntology();
+        assertHierarchyAsDefault(reasoner, classes(o));
+        OWLReasoner tableau = factory().createReasoner(o, new JFactReasonerConfiguration());
+        o.individualsInSignature().forEach(i -> assertEquals(i.toString(), set(tableau.getTypes(i, true)
+            .entities()), set(reasoner.getTypes(i, true).entities())));
+        tableau.dispose();
+    }
+}
@@ -0,0 +1,59 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+
+@SuppressWarnings("javadoc")
+public class FullModelCacheTestCase extends VerifyComplianceBase {
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        config.setFullModelCacheSize(64).setMetricsListener(metrics);
+    }
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    @Test
+    public void shouldRunFewerTestsThanWithRootOnlyCaches() {
+        MetricsCollector rootOnly = new MetricsCollector();
+        assertHierarchyAsDefault(reasoner, classes(reasoner.getRootOntology()), rootOnly);
+        // shared existential fillers meeting universal restrictions no longer
+        // make the merge fail
+        assertTrue(counter(metrics, "subsumption.tested") < counter(rootOnly, "subsumption.tested"));
+    }
+
+    @Test
+    public void shouldMergeKeptSuccessorsWithRestrictions() throws Exception {
+        // the r-successor of A has an s-successor: only a cache that keeps
+        // both can be merged with universal restrictions over r and s
+        OWLOntology o = loadFromString("Prefix(:=<urn:test#>) Ontology(<urn:test> "
+            + "SubClassOf(:A ObjectSomeValuesFrom(:r :E)) SubClassOf(:E ObjectSomeValuesFrom(:s :G)) "
+            + "EquivalentClasses(:D ObjectSomeValuesFrom(:r ObjectSomeValuesFrom(:s :G))) "
+            + "EquivalentClasses(:F ObjectSomeValuesFrom(:r ObjectSomeValuesFrom(:s :H))))");
+        metrics.reset();
+        OWLReasoner r = factory().createReasoner(o, config);
+        try {
+            r.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            OWLClass a = C("urn:test#A");
+            assertTrue(r.getSuperClasses(a, true).containsEntity(C("urn:test#D")));
+            assertFalse(r.getSuperClasses(a, false).containsEntity(C("urn:test#F")));
+            MetricsCollector rootOnly = new MetricsCollector();
+            assertHierarchyAsDefault(r, classes(o), rootOnly);
+            assertTrue(counter(metrics, "modelcache.successors.merged") > 0);
+            assertTrue(counter(metrics, "cache.failed") < counter(rootOnly, "cache.failed"));
+        } finally {
+            r.dispose();
+        }
+    }
+}
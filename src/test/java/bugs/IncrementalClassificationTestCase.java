@@ -0,0 +1,72 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+@SuppressWarnings("javadoc")
+public class IncrementalClassificationTestCase extends VerifyComplianceBase {
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    private static long reclassifications(MetricsCollector metrics) {
+        return metrics.getCounters().get("phase.reclassification.count").longValue();
+    }
+
+    @Test
+    public void shouldClassifyChangesAsFromScratch() throws Exception {
+        OWLOntology o = reasoner.getRootOntology();
+        MetricsCollector metrics = new MetricsCollector();
+        OWLReasoner incremental = factory().createReasoner(o, new JFactReasonerConfiguration()
+            .setUseIncrementalReasoning(true).setMetricsListener(metrics));
+        incremental.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        List<OWLClass> classes = classes(o);
+        OWLClass fresh = df.getOWLClass("urn:test#Fresh");
+        OWLAxiom sub = df.getOWLSubClassOfAxiom(classes.get(3), classes.get(10));
+        OWLAxiom added = df.getOWLSubClassOfAxiom(fresh, classes.get(5));
+        o.getOWLOntologyManager().addAxiom(o, sub);
+        incremental.flush();
+        assertHierarchyAsDefault(incremental, classes);
+        assertEquals(1, reclassifications(metrics));
+        o.getOWLOntologyManager().addAxiom(o, added);
+        classes.add(fresh);
+        incremental.flush();
+        assertHierarchyAsDefault(incremental, classes);
+        assertEquals(2, reclassifications(metrics));
+        o.getOWLOntologyManager().removeAxiom(o, sub);
+        incremental.flush();
+        assertHierarchyAsDefault(incremental, classes);
+        assertEquals(3, reclassifications(metrics));
+        incremental.dispose();
+    }
+
+    @Test
+    public void shouldRealiseAfterIncrementalChange() throws Exception {
+        OWLOntology o = loadFromString("Prefix(:=<urn:test#>) Ontology(<urn:test> SubClassOf(:A :B) "
+            + "SubClassOf(:C :B) ClassAssertion(:A :a) ClassAssertion(:C :c))");
+        MetricsCollector metrics = new MetricsCollector();
+        OWLReasoner incremental = factory().createReasoner(o, new JFactReasonerConfiguration()
+            .setUseIncrementalReasoning(true).setMetricsListener(metrics));
+        incremental.precomputeInferences(InferenceType.CLASS_HIERARCHY, InferenceType.CLASS_ASSERTIONS);
+        OWLClass a = df.getOWLClass("urn:test#A");
+        OWLClass d = df.getOWLClass("urn:test#D");
+        o.getOWLOntologyManager().addAxiom(o, df.getOWLSubClassOfAxiom(a, d));
+        incremental.flush();
+        assertEquals("a", set(incremental.getInstances(d, false).entities()));
+        assertEquals(1, reclassifications(metrics));
+        incremental.dispose();
+    }
+}
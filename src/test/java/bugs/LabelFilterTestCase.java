@@ -0,0 +1,75 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import uk.ac.manchester.cs.jfact.dep.DepSet;
+import uk.ac.manchester.cs.jfact.kernel.CWDArray;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+@SuppressWarnings("javadoc")
+public class LabelFilterTestCase {
+
+    private static class Label extends CWDArray {
+
+        private static final long serialVersionUID = 1L;
+
+        Label() {
+            super(new JFactReasonerConfiguration(), 4);
+        }
+
+        void add(int from, int to) {
+            for (int i = from; i < to; i++) {
+                privateAdd(2 * i, DepSet.create());
+            }
+        }
+    }
+
+    /** @return how many of the concepts absent from the label are rejected */
+    private static int rejected(Label label, int n) {
+        int rejected = 0;
+        for (int i = 1; i <= n; i++) {
+            assertFalse(label.contains(2 * i + 1));
+            assertFalse(label.contains(-i));
+            if (!label.mayContain(2 * i + 1)) {
+                rejected++;
+            }
+            if (!label.mayContain(-i)) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    @Test
+    public void shouldRejectAbsentConceptsOfALargeLabel() {
+        Label label = new Label();
+        label.add(1, 1001);
+        for (int i = 1; i < 1001; i++) {
+            assertTrue(label.contains(2 * i));
+        }
+        // a single 64 bit word is saturated by 1000 concepts and rejects
+        // nothing; a filter sized to the label rejects most lookups
+        assertTrue(rejected(label, 5000) > 9000);
+    }
+
+    @Test
+    public void shouldRejectConceptsRemovedByRestore() {
+        Label label = new Label();
+        label.add(1, 101);
+        int saved = label.save();
+        for (int round = 0; round < 50; round++) {
+            label.add(101, 1001);
+            label.restore(saved, 0);
+        }
+        assertEquals(100, label.size());
+        for (int i = 1; i < 101; i++) {
+            assertTrue(label.contains(2 * i));
+        }
+        for (int i = 101; i < 1001; i++) {
+            assertFalse(label.contains(2 * i));
+        }
+        assertTrue(rejected(label, 5000) > 9000);
+    }
+}
@@ -0,0 +1,40 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+
+@SuppressWarnings("javadoc")
+public class MetricsListenerTestCase extends VerifyComplianceBase {
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        config.setMetricsListener(metrics);
+    }
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    @Test
+    public void shouldCollectMetricsDuringClassification() {
+        Map<String, Long> counters = metrics.getCounters();
+        assertEquals(1L, counters.get("phase.preprocessing.count").longValue());
+        assertEquals(1L, counters.get("phase.consistency.count").longValue());
+        // the class hierarchy is computed by realising the KB
+        assertEquals(1L, counters.get("phase.classification.count").longValue() + counters.get(
+            "phase.realisation.count").longValue());
+        assertTrue(counters.get("sat.tests").longValue() > 0);
+        assertTrue(counters.get("sub.tests").longValue() > 0);
+        assertEquals(counters.get("sub.tests"), counters.get("subsumption.tested"));
+        assertTrue(counters.get("subsumption.avoided").longValue() > 0);
+        assertFalse(metrics.getHistograms().get("sub.micros").isEmpty());
+        assertTrue(metrics.toJson().startsWith("{\"counters\":{\"sat.tests\":"));
+    }
+}
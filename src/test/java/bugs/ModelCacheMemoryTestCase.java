@@ -0,0 +1,62 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+@SuppressWarnings("javadoc")
+public class ModelCacheMemoryTestCase extends VerifyComplianceBase {
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        // a budget of one byte evicts every cache that can be evicted
+        config.setModelCacheMemory(1).setMetricsListener(metrics);
+    }
+
+    @Override
+    protected String input() {
+        return "/WebOnt_I5_2_005.owl";
+    }
+
+    @Test
+    public void shouldRebuildEvictedCaches() {
+        MetricsCollector unbounded = new MetricsCollector();
+        assertHierarchyAsDefault(reasoner, classes(reasoner.getRootOntology()), unbounded);
+        assertTrue(counter(metrics, "modelcache.evictions") > 0);
+        assertTrue(counter(metrics, "modelcache.evicted.bytes") > 0);
+        assertEquals(0L, counter(unbounded, "modelcache.evictions"));
+        // an evicted cache is built again by a satisfiability test
+        assertTrue(counter(metrics, "sat.tests") > counter(unbounded, "sat.tests"));
+    }
+
+    @Test
+    public void shouldAnswerQueriesAfterEvictions() {
+        OWLOntology o = reasoner.getRootOntology();
+        OWLReasoner plain = factory().createReasoner(o, new JFactReasonerConfiguration());
+        try {
+            plain.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            assertTrue(counter(metrics, "modelcache.evictions") > 0);
+            List<OWLClass> classes = classes(o);
+            for (OWLClass c : classes) {
+                for (OWLClass d : classes) {
+                    OWLClassExpression query = df.getOWLObjectIntersectionOf(c, df.getOWLObjectComplementOf(d));
+                    assertEquals(query.toString(), Boolean.valueOf(plain.isSatisfiable(query)), Boolean.valueOf(
+                        reasoner.isSatisfiable(query)));
+                }
+            }
+        } finally {
+            plain.dispose();
+        }
+    }
+}
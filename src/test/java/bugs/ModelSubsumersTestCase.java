@@ -0,0 +1,59 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+
+@SuppressWarnings("javadoc")
+public class ModelSubsumersTestCase extends VerifyComplianceBase {
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        config.setUseModelSubsumers(true).setMetricsListener(metrics);
+    }
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    @Test
+    public void shouldReadNonSubsumersOffTheModels() {
+        MetricsCollector plainMetrics = new MetricsCollector();
+        assertHierarchyAsDefault(reasoner, classes(reasoner.getRootOntology()), plainMetrics);
+        // candidates missing from the model of a concept are rejected before
+        // any cache is merged
+        assertTrue(counter(metrics, "subsumption.model_negative") > 0);
+        assertTrue(counter(metrics, "subsumption.cached_negative") < counter(plainMetrics,
+            "subsumption.cached_negative"));
+        assertTrue(counter(metrics, "subsumption.tested") <= counter(plainMetrics, "subsumption.tested"));
+    }
+
+    @Test
+    public void shouldReadSureSubsumersOffTheModels() throws Exception {
+        // D and E are not told subsumers of A and B, but they are in the
+        // deterministic part of their models
+        OWLOntology o = loadFromString("Prefix(:=<urn:test#>) Ontology(<urn:test> "
+            + "SubClassOf(:A ObjectSomeValuesFrom(:r :X)) SubClassOf(ObjectSomeValuesFrom(:r :X) :D) "
+            + "SubClassOf(:B ObjectSomeValuesFrom(:r :Y)) SubClassOf(ObjectSomeValuesFrom(:r :Y) :E) "
+            + "Declaration(Class(:F)))");
+        metrics.reset();
+        OWLReasoner r = factory().createReasoner(o, config);
+        try {
+            r.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            assertTrue(r.getSuperClasses(C("urn:test#A"), true).containsEntity(C("urn:test#D")));
+            assertTrue(r.getSuperClasses(C("urn:test#B"), true).containsEntity(C("urn:test#E")));
+            assertEquals(0L, counter(metrics, "subsumption.cached_positive"));
+            assertEquals(0L, counter(metrics, "subsumption.tested"));
+            assertHierarchyAsDefault(r, classes(o));
+        } finally {
+            r.dispose();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package bugs;
+
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import testbase.TestBase;
+
+@SuppressWarnings("javadoc")
+public class NodeCachingTestCase extends TestBase {
+
+    @Test
+    public void shouldMergeAllLabelCachesBeforeCachingANode() throws Exception {
+        OWLOntology o = m.createOntology();
+        OWLClass a = df.getOWLClass("urn:test#A");
+        OWLClass c = df.getOWLClass("urn:test#C");
+        OWLClass e = df.getOWLClass("urn:test#E");
+        OWLObjectProperty r = df.getOWLObjectProperty("urn:test#r");
+        OWLObjectProperty s = df.getOWLObjectProperty("urn:test#s");
+        o.add(df.getOWLSubClassOfAxiom(a, df.getOWLObjectSomeValuesFrom(r, e)));
+        o.add(df.getOWLSubClassOfAxiom(c, df.getOWLObjectAllValuesFrom(r, df.getOWLObjectComplementOf(e))));
+        o.add(df.getOWLDeclarationAxiom(s));
+        OWLReasoner reasoner = factory().createReasoner(o);
+        // classification builds the model caches of A and C: the s-successor
+        // is then cached with the label {A}, and checked again once C is
+        // added. The cache of A merges on its own, the two together do not.
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertFalse(reasoner.isSatisfiable(df.getOWLObjectIntersectionOf(df.getOWLObjectSomeValuesFrom(s, a), df
+            .getOWLObjectAllValuesFrom(s, c))));
+        assertFalse(reasoner.isSatisfiable(df.getOWLObjectIntersectionOf(df.getOWLObjectSomeValuesFrom(s, c), df
+            .getOWLObjectAllValuesFrom(s, a))));
+        reasoner.dispose();
+    }
+}
@@ -0,0 +1,37 @@
+package bugs;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+
+@SuppressWarnings("javadoc")
+public class ParallelClassificationTestCase extends VerifyComplianceBase {
+
+    protected final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        config.setClassificationThreads(4).setMetricsListener(metrics);
+    }
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    protected long counter(String key) {
+        return metrics.getCounters().get(key).longValue();
+    }
+
+    @Test
+    public void shouldClassifyAsSequentialReasoner() {
+        assertTrue(counter("workers.tests") > 0);
+        assertHierarchyAsDefault(reasoner, classes(reasoner.getRootOntology()));
+    }
+
+    @Test
+    public void shouldInsertWorkerSearches() {
+        assertTrue(counter("workers.inserted") > 0);
+    }
+}
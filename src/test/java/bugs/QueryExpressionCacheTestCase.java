@@ -0,0 +1,48 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+
+@SuppressWarnings("javadoc")
+public class QueryExpressionCacheTestCase extends VerifyComplianceBase {
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        config.setMetricsListener(metrics);
+    }
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    private String answers(List<OWLClassExpression> queries) {
+        return queries.stream().map(c -> set(reasoner.getSuperClasses(c, true).entities()) + " " + set(reasoner
+            .getSubClasses(c, false).entities()) + " " + set(reasoner.getEquivalentClasses(c).entities())).collect(
+                Collectors.joining("\n"));
+    }
+
+    @Test
+    public void shouldAnswerRepeatedHierarchyQueriesFromCache() {
+        List<OWLClass> classes = reasoner.getRootOntology().classesInSignature().sorted().collect(Collectors
+            .toList());
+        OWLObjectProperty p = reasoner.getRootOntology().objectPropertiesInSignature().sorted().findFirst().get();
+        List<OWLClassExpression> queries = classes.stream().limit(5).map(c -> df.getOWLObjectSomeValuesFrom(p, c))
+            .collect(Collectors.toList());
+        queries.add(df.getOWLObjectIntersectionOf(classes.get(0), classes.get(1)));
+        String first = answers(queries);
+        long hits = metrics.getCounters().get("querycache.hits").longValue();
+        assertEquals(first, answers(queries));
+        assertTrue(metrics.getCounters().get("querycache.hits").longValue() >= hits + queries.size());
+    }
+}
@@ -0,0 +1,90 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
+
+@SuppressWarnings("javadoc")
+public class QueryResultCacheTestCase extends VerifyComplianceBase {
+
+    private final MetricsCollector metrics = new MetricsCollector();
+
+    {
+        // small enough for classification to evict every query result, if it
+        // wrote its tests into the cache
+        config.setMetricsListener(metrics).setQueryResultCacheSize(8);
+    }
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    private long hits() {
+        return metrics.getCounters().get("querycache.hits").longValue();
+    }
+
+    @Test
+    public void shouldAnswerRepeatedQueriesFromCache() {
+        List<OWLClass> classes = reasoner.getRootOntology().classesInSignature().sorted().collect(Collectors
+            .toList());
+        OWLClassExpression and = df.getOWLObjectIntersectionOf(classes.get(0), classes.get(1));
+        OWLAxiom sub = df.getOWLSubClassOfAxiom(and, classes.get(0));
+        OWLAxiom notSub = df.getOWLSubClassOfAxiom(classes.get(2), and);
+        OWLAxiom disjoint = df.getOWLDisjointClassesAxiom(and, df.getOWLObjectComplementOf(classes.get(0)));
+        boolean[] first = { reasoner.isEntailed(sub), reasoner.isEntailed(notSub), reasoner.isEntailed(disjoint) };
+        assertTrue(first[0]);
+        assertFalse(first[1]);
+        assertTrue(first[2]);
+        long hits = hits();
+        boolean[] second = { reasoner.isEntailed(sub), reasoner.isEntailed(notSub), reasoner.isEntailed(disjoint) };
+        assertArrayEquals(first, second);
+        assertTrue(hits() >= hits + 3);
+    }
+
+    @Test
+    public void shouldKeepQueryResultsThroughClassification() {
+        List<OWLClass> classes = reasoner.getRootOntology().classesInSignature().sorted().collect(Collectors
+            .toList());
+        OWLClassExpression and = df.getOWLObjectIntersectionOf(classes.get(0), classes.get(1));
+        OWLAxiom notSub = df.getOWLSubClassOfAxiom(classes.get(2), and);
+        // the reasoner of the fixture is classified already
+        OWLReasoner fresh = factory().createReasoner(reasoner.getRootOntology(), config);
+        try {
+            assertFalse(fresh.isEntailed(notSub));
+            fresh.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            long hits = hits();
+            assertFalse(fresh.isEntailed(notSub));
+            assertTrue(hits() > hits);
+        } finally {
+            fresh.dispose();
+        }
+    }
+
+    @Test
+    public void shouldDropQueryResultsWhenTheOntologyChanges() {
+        List<OWLClass> classes = reasoner.getRootOntology().classesInSignature().sorted().collect(Collectors
+            .toList());
+        OWLClassExpression and = df.getOWLObjectIntersectionOf(classes.get(0), classes.get(1));
+        OWLAxiom notSub = df.getOWLSubClassOfAxiom(classes.get(2), and);
+        assertFalse(reasoner.isEntailed(notSub));
+        assertFalse(reasoner.isEntailed(notSub));
+        // entailed now, but not asserted
+        reasoner.getRootOntology().add(df.getOWLSubClassOfAxiom(classes.get(2), classes.get(0)), df
+            .getOWLSubClassOfAxiom(classes.get(2), classes.get(1)));
+        reasoner.flush();
+        long hits = hits();
+        assertTrue(reasoner.isEntailed(notSub));
+        assertEquals(hits, hits());
+    }
+}
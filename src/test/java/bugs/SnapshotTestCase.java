@@ -0,0 +1,141 @@
+package bugs;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import uk.ac.manchester.cs.jfact.JFactFactory;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+
+@SuppressWarnings("javadoc")
+public class SnapshotTestCase extends VerifyComplianceBase {
+
+    @Override
+    protected String input() {
+        return "/AF_miniTambis.owl.xml";
+    }
+
+    private static String answers(OWLReasoner r, List<OWLClass> classes) {
+        return classes.stream().map(c -> set(r.getEquivalentClasses(c).entities()) + " " + set(r.getSuperClasses(c,
+            true).entities()) + " " + set(r.getSubClasses(c, false).entities())).collect(Collectors.joining("\n"));
+    }
+
+    @Test
+    public void shouldAnswerFromSnapshotAsFromClassification() throws Exception {
+        OWLOntology o = reasoner.getRootOntology();
+        List<OWLClass> classes = classes(o);
+        Path snapshot = Files.createTempFile("jfact", ".snapshot");
+        try {
+            reasoner.saveSnapshot(snapshot);
+            OWLReasoner loaded = ((JFactFactory) factory()).createReasoner(o, config, snapshot);
+            assertTrue(loaded.isConsistent());
+            assertEquals(answers(reasoner, classes), answers(loaded, classes));
+            OWLClass c = classes.get(0);
+            assertEquals(reasoner.isSatisfiable(df.getOWLObjectIntersectionOf(c, classes.get(1))), loaded
+                .isSatisfiable(df.getOWLObjectIntersectionOf(c, classes.get(1))));
+            loaded.dispose();
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    @Test
+    public void shouldKeepNominalReasoningInSnapshot() throws Exception {
+        OWLOntology o = loadFromString("Prefix(:=<urn:test#>) Ontology(<urn:test> "
+            + "EquivalentClasses(:C ObjectOneOf(:a :b)) ObjectPropertyAssertion(:r :a :b) "
+            + "SubClassOf(ObjectSomeValuesFrom(:r :C) :D) ClassAssertion(:C :c))");
+        OWLReasoner r = factory().createReasoner(o, config);
+        r.precomputeInferences();
+        Path snapshot = Files.createTempFile("jfact", ".snapshot");
+        try {
+            ((JFactReasoner) r).saveSnapshot(snapshot);
+            OWLReasoner loaded = ((JFactFactory) factory()).createReasoner(o, config, snapshot);
+            for (OWLClass c : classes(o)) {
+                assertEquals(set(r.getInstances(c, false).entities()), set(loaded.getInstances(c, false).entities()));
+            }
+            loaded.dispose();
+        } finally {
+            Files.deleteIfExists(snapshot);
+            r.dispose();
+        }
+    }
+
+    @Test
+    public void shouldRejectSnapshotOfDifferentOntology() throws Exception {
+        Path snapshot = Files.createTempFile("jfact", ".snapshot");
+        try {
+            reasoner.saveSnapshot(snapshot);
+            OWLOntology other = loadFromString(
+                "Prefix(:=<urn:test#>) Ontology(<urn:test> SubClassOf(:A :B))");
+            try {
+                ((JFactFactory) factory()).createReasoner(other, config, snapshot);
+                fail("snapshot of a different ontology should be rejected");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("different set of axioms"));
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private void assertRejected(Path snapshot, String message) throws Exception {
+        try {
+            ((JFactFactory) factory()).createReasoner(reasoner.getRootOntology(), config, snapshot);
+            fail("damaged snapshot should be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    @Test
+    public void shouldRejectCorruptedSnapshot() throws Exception {
+        Path snapshot = Files.createTempFile("jfact", ".snapshot");
+        try {
+            reasoner.saveSnapshot(snapshot);
+            byte[] bytes = Files.readAllBytes(snapshot);
+            bytes[bytes.length / 2] ^= 0x10;
+            Files.write(snapshot, bytes);
+            assertRejected(snapshot, "corrupted");
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    @Test
+    public void shouldRejectTruncatedSnapshot() throws Exception {
+        Path snapshot = Files.createTempFile("jfact", ".snapshot");
+        try {
+            reasoner.saveSnapshot(snapshot);
+            byte[] bytes = Files.readAllBytes(snapshot);
+            Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 100));
+            assertRejected(snapshot, "truncated");
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    @Test
+    public void shouldRejectSnapshotOfOtherVersion() throws Exception {
+        Path snapshot = Files.createTempFile("jfact", ".snapshot");
+        try {
+            reasoner.saveSnapshot(snapshot);
+            byte[] bytes = Files.readAllBytes(snapshot);
+            // the version follows the magic number
+            bytes[7]++;
+            Files.write(snapshot, bytes);
+            assertRejected(snapshot, "snapshot version");
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+}
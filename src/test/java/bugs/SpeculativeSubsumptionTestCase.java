@@ -0,0 +1,25 @@
+package bugs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class SpeculativeSubsumptionTestCase extends ParallelClassificationTestCase {
+
+    {
+        config.setUseSpeculativeSubsumption(true);
+    }
+
+    @Test
+    public void shouldUseSpeculativeResults() {
+        assertTrue(counter("subsumption.speculated_positive") + counter("subsumption.speculated_negative") > 0);
+    }
+
+    @Override
+    @Test
+    public void shouldInsertWorkerSearches() {
+        assertEquals(0, counter("workers.inserted"));
+    }
+}
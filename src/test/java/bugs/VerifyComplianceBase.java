@@ -3,10 +3,14 @@ package bugs;
 import static java.util.stream.Collectors.joining;
 import static org.junit.Assert.*;
 
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 
+import javax.annotation.Nullable;
+
 import org.junit.Before;
 import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
 import org.semanticweb.owlapi.io.StringDocumentSource;
@@ -27,9 +31,11 @@ import org.semanticweb.owlapi.profiles.Profiles;
 import org.semanticweb.owlapi.reasoner.InferenceType;
 import org.semanticweb.owlapi.reasoner.Node;
 import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import testbase.TestBase;
 import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.metrics.MetricsCollector;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 
 @SuppressWarnings("javadoc")
@@ -56,6 +62,35 @@ public abstract class VerifyComplianceBase extends TestBase {
         return i.sorted().map(e -> ((HasIRI) e).getIRI().getShortForm()).collect(joining("\n"));
     }
 
+    protected static String hierarchy(OWLReasoner r, List<OWLClass> classes) {
+        return classes.stream().map(c -> set(r.getEquivalentClasses(c).entities()) + " " + set(r.getSuperClasses(c,
+            true).entities())).collect(joining("\n"));
+    }
+
+    protected static List<OWLClass> classes(OWLOntology o) {
+        return o.classesInSignature().sorted().collect(Collectors.toList());
+    }
+
+    protected static void assertHierarchyAsDefault(OWLReasoner r, List<OWLClass> classes) {
+        assertHierarchyAsDefault(r, classes, null);
+    }
+
+    protected static void assertHierarchyAsDefault(OWLReasoner r, List<OWLClass> classes,
+        @Nullable MetricsCollector plainMetrics) {
+        OWLReasoner plain = factory().createReasoner(r.getRootOntology(), new JFactReasonerConfiguration()
+            .setMetricsListener(plainMetrics));
+        try {
+            plain.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+            assertEquals(hierarchy(plain, classes), hierarchy(r, classes));
+        } finally {
+            plain.dispose();
+        }
+    }
+
+    protected static long counter(MetricsCollector m, String key) {
+        return m.getCounters().get(key).longValue();
+    }
+
     protected static void equal(NodeSet<? extends OWLObject> node, OWLEntity... objects) {
         assertEquals(set(Stream.of(objects)), set(node.entities()));
     }